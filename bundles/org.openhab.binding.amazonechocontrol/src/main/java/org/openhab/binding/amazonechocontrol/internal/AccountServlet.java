@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import javax.net.ssl.HttpsURLConnection;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -66,6 +65,7 @@ import com.google.gson.JsonSyntaxException;
  * Simple possibility for a user to get the ids needed for writing rules
  *
  * @author Michael Geramb - Initial Contribution
+ * @author Contributors to the openHAB project - Read proxied pages while the request is open
  */
 @NonNullByDefault
 public class AccountServlet extends HttpServlet {
@@ -620,7 +620,7 @@ public class AccountServlet extends HttpServlet {
 
     void handleProxyRequest(Connection connection, HttpServletResponse resp, String verb, String url,
             @Nullable String referer, @Nullable String postData, boolean json, String site) throws IOException {
-        HttpsURLConnection urlConnection;
+        ProxyResponse proxyResponse;
         try {
             Map<String, String> headers = null;
             if (referer != null) {
@@ -628,10 +628,14 @@ public class AccountServlet extends HttpServlet {
                 headers.put("Referer", referer);
             }
 
-            urlConnection = connection.makeRequest(verb, url, postData, json, false, headers, 0);
-            if (urlConnection.getResponseCode() == 302) {
+            // the html is read while the request is open, the redirects are handled after it was closed
+            proxyResponse = connection.makeRequest(verb, url, postData, json, false, headers, 0,
+                    urlConnection -> urlConnection.getResponseCode() == 302
+                            ? new ProxyResponse(urlConnection.getHeaderField("location"), null)
+                            : new ProxyResponse(null, connection.convertStream(urlConnection)));
+            String location = proxyResponse.location;
+            if (location != null) {
                 {
-                    String location = urlConnection.getHeaderField("location");
                     if (location.contains("/ap/maplanding")) {
 
                         try {
@@ -675,8 +679,21 @@ public class AccountServlet extends HttpServlet {
             returnError(resp, e.getLocalizedMessage());
             return;
         }
-        String response = connection.convertStream(urlConnection);
-        returnHtml(connection, resp, response, site);
+        String response = proxyResponse.html;
+        returnHtml(connection, resp, response == null ? "" : response, site);
+    }
+
+    /**
+     * The redirect location or the html of a proxied request
+     */
+    private static class ProxyResponse {
+        final @Nullable String location;
+        final @Nullable String html;
+
+        ProxyResponse(@Nullable String location, @Nullable String html) {
+            this.location = location;
+            this.html = html;
+        }
     }
 
     private void returnHtml(Connection connection, HttpServletResponse resp, String html) {
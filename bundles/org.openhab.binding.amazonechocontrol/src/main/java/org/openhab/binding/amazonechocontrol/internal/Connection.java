@@ -14,16 +14,21 @@ package org.openhab.binding.amazonechocontrol.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.CookieManager;
 import java.net.CookieStore;
 import java.net.HttpCookie;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -36,14 +41,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -109,8 +116,13 @@ import com.google.gson.JsonSyntaxException;
 /**
  * The {@link Connection} is responsible for the connection to the amazon server and
  * handling of the commands
+ * <p>
+ * The responses are always read completely and closed, so that the connections are kept alive and reused for the
+ * next requests. The number of parallel requests is limited, identical GET requests which are executed in parallel
+ * share one request and its result.
  *
  * @author Michael Geramb - Initial contribution
+ * @author Contributors to the openHAB project - Limit and share parallel requests, decode json from the response stream
  */
 @NonNullByDefault
 public class Connection {
@@ -120,11 +132,14 @@ public class Connection {
     protected final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THING_THREADPOOL_NAME);
 
     private static final long expiresIn = 432000; // five days
+    private static final int MAX_PARALLEL_REQUESTS = 4;
     private static final Pattern charsetPattern = Pattern.compile("(?i)\\bcharset=\\s*\"?([^\\s;\"]*)");
 
     private final Logger logger = LoggerFactory.getLogger(Connection.class);
 
     private final CookieManager cookieManager = new CookieManager();
+    private final Semaphore requestPermits = new Semaphore(MAX_PARALLEL_REQUESTS);
+    private final Map<String, CompletableFuture<?>> pendingGetRequests = new ConcurrentHashMap<>();
     private String amazonSite = "amazon.com";
     private String alexaServer = "https://alexa.amazon.com";
     private final String userAgent;
@@ -435,11 +450,14 @@ public class Connection {
     }
 
     private @Nullable Authentication tryGetBootstrap() throws IOException, URISyntaxException {
-        HttpsURLConnection connection = makeRequest("GET", alexaServer + "/api/bootstrap", null, false, false, null, 0);
-        String contentType = connection.getContentType();
-        if (connection.getResponseCode() == 200 && StringUtils.startsWithIgnoreCase(contentType, "application/json")) {
+        @Nullable
+        String bootstrapResultJson = makeRequest("GET", alexaServer + "/api/bootstrap", null, false, false, null, 0,
+                connection -> connection.getResponseCode() == 200
+                        && StringUtils.startsWithIgnoreCase(connection.getContentType(), "application/json")
+                                ? convertStream(connection)
+                                : null);
+        if (bootstrapResultJson != null) {
             try {
-                String bootstrapResultJson = convertStream(connection);
                 JsonBootstrapResult result = parseJson(bootstrapResultJson, JsonBootstrapResult.class);
                 Authentication authentication = result.authentication;
                 if (authentication != null && authentication.authenticated) {
@@ -457,17 +475,26 @@ public class Connection {
         return null;
     }
 
-    public String convertStream(HttpsURLConnection connection) throws IOException {
-        InputStream input = connection.getInputStream();
-        if (input == null) {
-            return "";
-        }
+    /**
+     * Interface for reading the response of a request
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(HttpURLConnection connection) throws IOException;
+    }
+
+    /**
+     * Interface for a request, which can be shared by parallel callers
+     */
+    @FunctionalInterface
+    private interface SharedRequest<T> {
+        T execute() throws IOException, URISyntaxException;
+    }
 
-        InputStream readerStream;
+    private Reader openReader(HttpURLConnection connection) throws IOException {
+        InputStream input = connection.getInputStream();
         if (StringUtils.equalsIgnoreCase(connection.getContentEncoding(), "gzip")) {
-            readerStream = new GZIPInputStream(connection.getInputStream());
-        } else {
-            readerStream = input;
+            input = new GZIPInputStream(input);
         }
         String contentType = connection.getContentType();
         String charSet = null;
@@ -477,18 +504,114 @@ public class Connection {
                 charSet = m.group(1).trim().toUpperCase();
             }
         }
+        return new InputStreamReader(input,
+                StringUtils.isEmpty(charSet) ? StandardCharsets.UTF_8 : Charset.forName(charSet));
+    }
 
-        Scanner inputScanner = StringUtils.isEmpty(charSet) ? new Scanner(readerStream, StandardCharsets.UTF_8.name())
-                : new Scanner(readerStream, charSet);
-        Scanner scannerWithoutDelimiter = inputScanner.useDelimiter("\\A");
-        String result = scannerWithoutDelimiter.hasNext() ? scannerWithoutDelimiter.next() : null;
-        inputScanner.close();
-        scannerWithoutDelimiter.close();
-        input.close();
-        if (result == null) {
-            result = "";
+    public String convertStream(HttpURLConnection connection) throws IOException {
+        StringBuilder result = new StringBuilder();
+        try (Reader reader = openReader(connection)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                result.append(buffer, 0, read);
+            }
         }
-        return result;
+        return result.toString();
+    }
+
+    /**
+     * Close the response, the JDK reads the rest of the body in the background if the connection can be reused
+     */
+    private void closeResponse(HttpURLConnection connection) {
+        try {
+            InputStream input = connection.getResponseCode() >= 400 ? connection.getErrorStream()
+                    : connection.getInputStream();
+            if (input != null) {
+                input.close();
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Read the rest of the response and close it, so that the connection can be reused
+     */
+    private void discardResponse(HttpURLConnection connection) {
+        try {
+            InputStream input = connection.getResponseCode() >= 400 ? connection.getErrorStream()
+                    : connection.getInputStream();
+            if (input != null) {
+                try (InputStream stream = input) {
+                    byte[] buffer = new byte[1024];
+                    while (stream.read(buffer) >= 0) {
+                        // discard
+                    }
+                }
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Executes a GET request or waits for the result of the identical request, which is already executed by another
+     * thread
+     *
+     * @param key identifies the request and the type of the result
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T executeSharedGet(String key, SharedRequest<T> request) throws IOException, URISyntaxException {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> pending = (CompletableFuture<T>) pendingGetRequests.putIfAbsent(key, future);
+        if (pending != null) {
+            logger.debug("Wait for pending request {}", key);
+            try {
+                return pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + key);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof URISyntaxException) {
+                    throw (URISyntaxException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        try {
+            T result = request.execute();
+            future.complete(result);
+            return result;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingGetRequests.remove(key, future);
+        }
+    }
+
+    /**
+     * Makes a GET request and decodes the json directly from the response stream. The result may be shared with other
+     * callers requesting the same url at the same time, so it must not be modified.
+     */
+    private <T> T makeRequestAndParseJson(String url, Class<T> type) throws IOException, URISyntaxException {
+        return executeSharedGet(type.getName() + " " + url,
+                () -> makeRequest("GET", url, null, false, true, null, 0, connection -> {
+                    try (Reader reader = openReader(connection)) {
+                        return gson.fromJson(reader, type);
+                    } catch (JsonParseException | IllegalStateException e) {
+                        logger.warn("Parsing json of {} failed", url, e);
+                        throw e;
+                    }
+                }));
     }
 
     public String makeRequestAndReturnString(String url) throws IOException, URISyntaxException {
@@ -497,13 +620,61 @@ public class Connection {
 
     public String makeRequestAndReturnString(String verb, String url, @Nullable String postData, boolean json,
             @Nullable Map<String, String> customHeaders) throws IOException, URISyntaxException {
-        HttpsURLConnection connection = makeRequest(verb, url, postData, json, true, customHeaders, 0);
-        String result = convertStream(connection);
+        if ("GET".equals(verb) && postData == null && customHeaders == null) {
+            return executeSharedGet(url, () -> requestString(verb, url, null, json, null));
+        }
+        return requestString(verb, url, postData, json, customHeaders);
+    }
+
+    private String requestString(String verb, String url, @Nullable String postData, boolean json,
+            @Nullable Map<String, String> customHeaders) throws IOException, URISyntaxException {
+        String result = makeRequest(verb, url, postData, json, true, customHeaders, 0, this::convertStream);
         this.logger.debug("Result of {} {}:{}", verb, url, result);
         return result;
     }
 
-    public HttpsURLConnection makeRequest(String verb, String url, @Nullable String postData, boolean json,
+    /**
+     * Makes a request without reading the response. The body of the response is discarded, the status and the headers
+     * can still be read from the returned connection.
+     */
+    public HttpURLConnection makeRequest(String verb, String url, @Nullable String postData, boolean json,
+            boolean autoredirect, @Nullable Map<String, String> customHeaders, int badRequestRepeats)
+            throws IOException, URISyntaxException {
+        return makeRequest(verb, url, postData, json, autoredirect, customHeaders, badRequestRepeats,
+                connection -> connection);
+    }
+
+    /**
+     * Makes a request and passes the response to the handler. The request counts as one of the parallel requests
+     * until the handler returned and the response is closed.
+     */
+    public <T> T makeRequest(String verb, String url, @Nullable String postData, boolean json, boolean autoredirect,
+            @Nullable Map<String, String> customHeaders, int badRequestRepeats, ResponseHandler<T> handler)
+            throws IOException, URISyntaxException {
+        try {
+            requestPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request to " + url);
+        }
+        try {
+            HttpURLConnection connection = makeRequestWithPermit(verb, url, postData, json, autoredirect,
+                    customHeaders, badRequestRepeats);
+            T result;
+            try {
+                result = handler.handle(connection);
+            } catch (IOException | RuntimeException e) {
+                connection.disconnect();
+                throw e;
+            }
+            closeResponse(connection);
+            return result;
+        } finally {
+            requestPermits.release();
+        }
+    }
+
+    private HttpURLConnection makeRequestWithPermit(String verb, String url, @Nullable String postData, boolean json,
             boolean autoredirect, @Nullable Map<String, String> customHeaders, int badRequestRepeats)
             throws IOException, URISyntaxException {
         String currentUrl = url;
@@ -513,10 +684,10 @@ public class Connection {
         // all response headers must be catched
         {
             int code;
-            HttpsURLConnection connection = null;
+            HttpURLConnection connection = null;
             try {
                 logger.debug("Make request to {}", url);
-                connection = (HttpsURLConnection) new URL(currentUrl).openConnection();
+                connection = (HttpURLConnection) new URL(currentUrl).openConnection();
                 connection.setRequestMethod(verb);
                 connection.setRequestProperty("Accept-Language", "en-US");
                 if (customHeaders == null || !customHeaders.containsKey("User-Agent")) {
@@ -641,12 +812,18 @@ public class Connection {
                     }
                     currentUrl = location;
                     if (autoredirect) {
+                        discardResponse(connection);
                         continue; // repeat with new location
                     }
                     return connection;
                 }
-                throw new HttpException(code, verb + " url '" + url + "' failed: " + connection.getResponseMessage());
+                String message = connection.getResponseMessage();
+                discardResponse(connection);
+                throw new HttpException(code, verb + " url '" + url + "' failed: " + message);
 
+            } catch (HttpException e) {
+                // the response was discarded, the connection can be reused
+                throw e;
             } catch (IOException e) {
 
                 if (connection != null) {
@@ -896,10 +1073,9 @@ public class Connection {
     // commands and states
 
     public WakeWord[] getWakeWords() {
-        String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/wake-word?cached=true");
-            JsonWakeWords wakeWords = parseJson(json, JsonWakeWords.class);
+            JsonWakeWords wakeWords = makeRequestAndParseJson(alexaServer + "/api/wake-word?cached=true",
+                    JsonWakeWords.class);
             WakeWord[] result = wakeWords.wakeWords;
             if (result != null) {
                 return result;
@@ -911,8 +1087,8 @@ public class Connection {
     }
 
     public List<Device> getDeviceList() throws IOException, URISyntaxException {
-        String json = getDeviceListJson();
-        JsonDevices devices = parseJson(json, JsonDevices.class);
+        JsonDevices devices = makeRequestAndParseJson(alexaServer + "/api/devices-v2/device?cached=false",
+                JsonDevices.class);
         Device[] result = devices.devices;
         if (result == null) {
             return new ArrayList<>();
@@ -926,25 +1102,22 @@ public class Connection {
     }
 
     public JsonPlayerState getPlayer(Device device) throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(alexaServer + "/api/np/player?deviceSerialNumber="
-                + device.serialNumber + "&deviceType=" + device.deviceType + "&screenWidth=1440");
-        JsonPlayerState playerState = parseJson(json, JsonPlayerState.class);
+        JsonPlayerState playerState = makeRequestAndParseJson(alexaServer + "/api/np/player?deviceSerialNumber="
+                + device.serialNumber + "&deviceType=" + device.deviceType + "&screenWidth=1440",
+                JsonPlayerState.class);
         return playerState;
     }
 
     public JsonMediaState getMediaState(Device device) throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(alexaServer + "/api/media/state?deviceSerialNumber="
-                + device.serialNumber + "&deviceType=" + device.deviceType);
-        JsonMediaState mediaState = parseJson(json, JsonMediaState.class);
+        JsonMediaState mediaState = makeRequestAndParseJson(alexaServer + "/api/media/state?deviceSerialNumber="
+                + device.serialNumber + "&deviceType=" + device.deviceType, JsonMediaState.class);
         return mediaState;
     }
 
     public Activity[] getActivities(int number, @Nullable Long startTime) {
-        String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/activities?startTime="
-                    + (startTime != null ? startTime : "") + "&size=" + number + "&offset=1");
-            JsonActivities activities = parseJson(json, JsonActivities.class);
+            JsonActivities activities = makeRequestAndParseJson(alexaServer + "/api/activities?startTime="
+                    + (startTime != null ? startTime : "") + "&size=" + number + "&offset=1", JsonActivities.class);
             Activity[] activiesArray = activities.activities;
             if (activiesArray != null) {
                 return activiesArray;
@@ -956,23 +1129,21 @@ public class Connection {
     }
 
     public JsonBluetoothStates getBluetoothConnectionStates() {
-        String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/bluetooth?cached=true");
+            return makeRequestAndParseJson(alexaServer + "/api/bluetooth?cached=true", JsonBluetoothStates.class);
         } catch (IOException | URISyntaxException e) {
             logger.debug("failed to get bluetooth state: {}", e.getMessage());
             return new JsonBluetoothStates();
         }
-        JsonBluetoothStates bluetoothStates = parseJson(json, JsonBluetoothStates.class);
-        return bluetoothStates;
     }
 
     public JsonPlaylists getPlaylists(Device device) throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(alexaServer + "/api/cloudplayer/playlists?deviceSerialNumber="
-                + device.serialNumber + "&deviceType=" + device.deviceType + "&mediaOwnerCustomerId="
-                + (StringUtils.isEmpty(this.accountCustomerId) ? device.deviceOwnerCustomerId
-                        : this.accountCustomerId));
-        JsonPlaylists playlists = parseJson(json, JsonPlaylists.class);
+        JsonPlaylists playlists = makeRequestAndParseJson(
+                alexaServer + "/api/cloudplayer/playlists?deviceSerialNumber=" + device.serialNumber + "&deviceType="
+                        + device.deviceType + "&mediaOwnerCustomerId="
+                        + (StringUtils.isEmpty(this.accountCustomerId) ? device.deviceOwnerCustomerId
+                                : this.accountCustomerId),
+                JsonPlaylists.class);
         return playlists;
     }
 
@@ -999,10 +1170,9 @@ public class Connection {
     }
 
     public DeviceNotificationState[] getDeviceNotificationStates() {
-        String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/device-notification-state");
-            JsonDeviceNotificationState result = parseJson(json, JsonDeviceNotificationState.class);
+            JsonDeviceNotificationState result = makeRequestAndParseJson(
+                    alexaServer + "/api/device-notification-state", JsonDeviceNotificationState.class);
             DeviceNotificationState[] deviceNotificationStates = result.deviceNotificationStates;
             if (deviceNotificationStates != null) {
                 return deviceNotificationStates;
@@ -1014,10 +1184,9 @@ public class Connection {
     }
 
     public AscendingAlarmModel[] getAscendingAlarm() {
-        String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/ascending-alarm");
-            JsonAscendingAlarm result = parseJson(json, JsonAscendingAlarm.class);
+            JsonAscendingAlarm result = makeRequestAndParseJson(alexaServer + "/api/ascending-alarm",
+                    JsonAscendingAlarm.class);
             AscendingAlarmModel[] ascendingAlarmModelList = result.ascendingAlarmModelList;
             if (ascendingAlarmModelList != null) {
                 return ascendingAlarmModelList;
@@ -1328,10 +1497,10 @@ public class Connection {
     }
 
     public JsonNotificationSound[] getNotificationSounds(Device device) throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(
+        JsonNotificationSounds result = makeRequestAndParseJson(
                 alexaServer + "/api/notification/sounds?deviceSerialNumber=" + device.serialNumber + "&deviceType="
-                        + device.deviceType + "&softwareVersion=" + device.softwareVersion);
-        JsonNotificationSounds result = parseJson(json, JsonNotificationSounds.class);
+                        + device.deviceType + "&softwareVersion=" + device.softwareVersion,
+                JsonNotificationSounds.class);
         JsonNotificationSound[] notificationSounds = result.notificationSounds;
         if (notificationSounds != null) {
             return notificationSounds;
@@ -1340,8 +1509,8 @@ public class Connection {
     }
 
     public JsonNotificationResponse[] notifications() throws IOException, URISyntaxException {
-        String response = makeRequestAndReturnString(alexaServer + "/api/notifications");
-        JsonNotificationsResponse result = parseJson(response, JsonNotificationsResponse.class);
+        JsonNotificationsResponse result = makeRequestAndParseJson(alexaServer + "/api/notifications",
+                JsonNotificationsResponse.class);
         JsonNotificationResponse[] notifications = result.notifications;
         if (notifications == null) {
             return new JsonNotificationResponse[0];
@@ -1458,9 +1627,8 @@ public class Connection {
     }
 
     public JsonEqualizer getEqualizer(Device device) throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(
-                alexaServer + "/api/equalizer/" + device.serialNumber + "/" + device.deviceType);
-        return parseJson(json, JsonEqualizer.class);
+        return makeRequestAndParseJson(alexaServer + "/api/equalizer/" + device.serialNumber + "/" + device.deviceType,
+                JsonEqualizer.class);
     }
 
     public void SetEqualizer(Device device, JsonEqualizer settings) throws IOException, URISyntaxException {
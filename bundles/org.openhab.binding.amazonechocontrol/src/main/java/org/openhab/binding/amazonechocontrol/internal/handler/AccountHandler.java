@@ -23,12 +23,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -80,11 +85,15 @@ import com.google.gson.JsonSyntaxException;
  * Handles the connection to the amazon server.
  *
  * @author Michael Geramb - Initial Contribution
+ * @author Contributors to the openHAB project - Refresh the account and device states in parallel
  */
 @NonNullByDefault
 public class AccountHandler extends BaseBridgeHandler implements IWebSocketCommandHandler, IAmazonThingHandler {
 
+    private static final String REFRESH_THREADPOOL_NAME = "amazonechocontrol";
+
     private final Logger logger = LoggerFactory.getLogger(AccountHandler.class);
+    private final ExecutorService refreshExecutor = ThreadPoolManager.getPool(REFRESH_THREADPOOL_NAME);
     private Storage<String> stateStorage;
     private @Nullable Connection connection;
     private @Nullable WebSocketConnection webSocketConnection;
@@ -446,8 +455,7 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
                 logger.debug("refreshing data {}", getThing().getUID().getAsString());
 
                 // check if logged in
-                Connection currentConnection = null;
-                currentConnection = connection;
+                Connection currentConnection = connection;
                 if (currentConnection != null) {
                     if (!currentConnection.getIsLoggedIn()) {
                         return;
@@ -466,46 +474,41 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
                 JsonBluetoothStates states = null;
                 List<JsonMusicProvider> musicProviders = null;
                 if (currentConnection.getIsLoggedIn()) {
+                    // request the states of the account in parallel
+                    CompletableFuture<DeviceNotificationState[]> deviceNotificationStatesFuture = supplyAsync(
+                            currentConnection::getDeviceNotificationStates);
+                    CompletableFuture<AscendingAlarmModel[]> ascendingAlarmModelsFuture = supplyAsync(
+                            currentConnection::getAscendingAlarm);
+                    CompletableFuture<JsonBluetoothStates> statesFuture = supplyAsync(
+                            currentConnection::getBluetoothConnectionStates);
+                    CompletableFuture<@Nullable List<JsonMusicProvider>> musicProvidersFuture = supplyAsync(() -> {
+                        if (currentConnection.getIsLoggedIn()) {
+                            try {
+                                return currentConnection.getMusicProviders();
+                            } catch (HttpException | JsonSyntaxException | ConnectionException e) {
+                                logger.debug("Update music provider failed", e);
+                            }
+                        }
+                        return null;
+                    });
+
                     // update notification states
-                    deviceNotificationStates = currentConnection.getDeviceNotificationStates();
+                    deviceNotificationStates = join(deviceNotificationStatesFuture);
 
                     // update ascending alarm
-                    ascendingAlarmModels = currentConnection.getAscendingAlarm();
+                    ascendingAlarmModels = join(ascendingAlarmModelsFuture);
 
                     // update bluetooth states
-                    states = currentConnection.getBluetoothConnectionStates();
+                    states = join(statesFuture);
 
                     // update music providers
-                    if (currentConnection.getIsLoggedIn()) {
-                        try {
-                            musicProviders = currentConnection.getMusicProviders();
-                        } catch (HttpException | JsonSyntaxException | ConnectionException e) {
-                            logger.debug("Update music provider failed", e);
-                        }
-                    }
+                    musicProviders = join(musicProvidersFuture);
                 }
-                // forward device information to echo handler
+                // forward device information to echo handlers, the device requests are made in parallel
+                List<CompletableFuture<@Nullable Void>> updates = new ArrayList<>();
                 for (EchoHandler child : echoHandlers) {
                     Device device = findDeviceJson(child);
 
-                    @Nullable
-                    JsonNotificationSound[] notificationSounds = null;
-                    JsonPlaylists playlists = null;
-                    if (device != null && currentConnection.getIsLoggedIn()) {
-                        // update notification sounds
-                        try {
-                            notificationSounds = currentConnection.getNotificationSounds(device);
-                        } catch (IOException | HttpException | JsonSyntaxException | ConnectionException e) {
-                            logger.debug("Update notification sounds failed", e);
-                        }
-                        // update playlists
-                        try {
-                            playlists = currentConnection.getPlaylists(device);
-                        } catch (IOException | HttpException | JsonSyntaxException | ConnectionException e) {
-                            logger.debug("Update playlist failed", e);
-                        }
-                    }
-
                     BluetoothState state = null;
                     if (states != null) {
                         state = states.findStateByDevice(device);
@@ -531,8 +534,18 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
                             }
                         }
                     }
-                    child.updateState(this, device, state, deviceNotificationState, ascendingAlarmModel, playlists,
-                            notificationSounds, musicProviders);
+                    BluetoothState childState = state;
+                    DeviceNotificationState childNotificationState = deviceNotificationState;
+                    AscendingAlarmModel childAscendingAlarmModel = ascendingAlarmModel;
+                    List<JsonMusicProvider> childMusicProviders = musicProviders;
+                    updates.add(supplyAsync(() -> {
+                        updateEchoHandler(currentConnection, child, device, childState, childNotificationState,
+                                childAscendingAlarmModel, childMusicProviders);
+                        return null;
+                    }));
+                }
+                for (CompletableFuture<@Nullable Void> update : updates) {
+                    join(update);
                 }
 
                 // refresh notifications
@@ -550,6 +563,49 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
         }
     }
 
+    private void updateEchoHandler(Connection currentConnection, EchoHandler child, @Nullable Device device,
+            @Nullable BluetoothState state, @Nullable DeviceNotificationState deviceNotificationState,
+            @Nullable AscendingAlarmModel ascendingAlarmModel, @Nullable List<JsonMusicProvider> musicProviders) {
+        @Nullable
+        JsonNotificationSound[] notificationSounds = null;
+        JsonPlaylists playlists = null;
+        if (device != null && currentConnection.getIsLoggedIn()) {
+            // update notification sounds
+            try {
+                notificationSounds = currentConnection.getNotificationSounds(device);
+            } catch (IOException | HttpException | JsonSyntaxException | ConnectionException e) {
+                logger.debug("Update notification sounds failed", e);
+            }
+            // update playlists
+            try {
+                playlists = currentConnection.getPlaylists(device);
+            } catch (IOException | HttpException | JsonSyntaxException | ConnectionException e) {
+                logger.debug("Update playlist failed", e);
+            }
+        }
+        child.updateState(this, device, state, deviceNotificationState, ascendingAlarmModel, playlists,
+                notificationSounds, musicProviders);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, refreshExecutor);
+    }
+
+    /**
+     * Waits for the result of a parallel request, a runtime exception of the request is thrown unwrapped
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
     public @Nullable Device findDeviceJson(EchoHandler echoHandler) {
         String serialNumber = echoHandler.findSerialNumber();
         return findDeviceJson(serialNumber);
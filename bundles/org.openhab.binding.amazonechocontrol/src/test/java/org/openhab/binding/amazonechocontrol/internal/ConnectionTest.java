@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.amazonechocontrol.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the sharing and the limit of parallel requests of {@link Connection} against a local http server.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ConnectionTest {
+
+    private static final int REQUESTS = 10;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService executor;
+    private Connection connection;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getAddress().getPort();
+        executor = Executors.newFixedThreadPool(REQUESTS);
+        connection = new Connection(null, new Gson());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Test
+    public void parallelIdenticalGetRequestsAreShared() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch firstReceived = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/api/devices", exchange -> {
+            received.incrementAndGet();
+            firstReceived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{\"devices\":[]}");
+        });
+        String url = baseUrl + "/api/devices";
+
+        Future<String> first = executor.submit(() -> connection.makeRequestAndReturnString(url));
+        assertTrue(firstReceived.await(5, TimeUnit.SECONDS));
+        Future<String> second = executor.submit(() -> connection.makeRequestAndReturnString(url));
+        // let the second caller find the pending request
+        Thread.sleep(200);
+        release.countDown();
+
+        assertEquals("{\"devices\":[]}", first.get(5, TimeUnit.SECONDS));
+        assertEquals("{\"devices\":[]}", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, received.get());
+
+        // a later request is executed again
+        assertEquals("{\"devices\":[]}", connection.makeRequestAndReturnString(url));
+        assertEquals(2, received.get());
+    }
+
+    @Test
+    public void parallelRequestsAreLimitedUntilTheBodyIsRead() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        server.createContext("/api/np/player", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            byte[] bytes = exchange.getRequestURI().getQuery().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                // the status is received long before the body
+                output.write(bytes, 0, 1);
+                output.flush();
+                Thread.sleep(100);
+                active.decrementAndGet();
+                output.write(bytes, 1, bytes.length - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String url = baseUrl + "/api/np/player?device" + i;
+            results.add(executor.submit(() -> connection.makeRequestAndReturnString(url)));
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals("device" + i, results.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertTrue("at most 4 parallel requests, but were " + maxActive.get(), maxActive.get() <= 4);
+        assertTrue("requests are executed in parallel", maxActive.get() > 1);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openhab.binding.astro.internal.model.Eclipse;
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.MoonDistance;
+import org.openhab.binding.astro.internal.model.MoonPhase;
+import org.openhab.binding.astro.internal.model.Range;
+import org.openhab.binding.astro.internal.model.Season;
+import org.openhab.binding.astro.internal.model.Sun;
+import org.openhab.binding.astro.internal.model.SunEclipse;
+import org.openhab.binding.astro.internal.model.SunZodiac;
+import org.openhab.binding.astro.internal.model.Zodiac;
+
+/**
+ * Caches the daily sun and moon data (rise, set, phases, eclipses, seasons, ...) per location and day, so that it is
+ * calculated once a day for all things with the same location.
+ * <p>
+ * Every call returns a copy of the cached data, the things update the positional data and the sun phase of their own
+ * instance. The data of the previous days is discarded when the day changes.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class EphemerisCache {
+    private final SunCalc sunCalc = new SunCalc();
+    private final MoonCalc moonCalc = new MoonCalc();
+
+    private final Map<String, Sun> sunInfos = new ConcurrentHashMap<>();
+    private final Map<String, Moon> moonInfos = new ConcurrentHashMap<>();
+    private String day = "";
+
+    /**
+     * Returns the sun data of the day of the calendar at the specified coordinates, with the sun phase of the
+     * calendar.
+     */
+    public Sun getSunInfo(Calendar calendar, double latitude, double longitude, Double altitude) {
+        String key = getKey(calendar, latitude, longitude, altitude);
+        Sun sun = sunInfos.computeIfAbsent(key, k -> sunCalc.getSunInfo(calendar, latitude, longitude, altitude));
+        Sun copy = copy(sun);
+        sunCalc.setPhaseInfo(calendar, copy);
+        return copy;
+    }
+
+    /**
+     * Returns the moon data of the day of the calendar at the specified coordinates.
+     */
+    public Moon getMoonInfo(Calendar calendar, double latitude, double longitude) {
+        String key = getKey(calendar, latitude, longitude, null);
+        return copy(moonInfos.computeIfAbsent(key, k -> moonCalc.getMoonInfo(calendar, latitude, longitude)));
+    }
+
+    private synchronized String getKey(Calendar calendar, double latitude, double longitude, Double altitude) {
+        String currentDay = calendar.getTimeZone().getID() + "/" + calendar.get(Calendar.YEAR) + "/"
+                + calendar.get(Calendar.DAY_OF_YEAR);
+        if (!currentDay.equals(day)) {
+            sunInfos.clear();
+            moonInfos.clear();
+            day = currentDay;
+        }
+        return latitude + "," + longitude + "," + altitude;
+    }
+
+    private static Sun copy(Sun sun) {
+        Sun copy = new Sun();
+        copy.setRise(copy(sun.getRise()));
+        copy.setSet(copy(sun.getSet()));
+        copy.setNoon(copy(sun.getNoon()));
+        copy.setNight(copy(sun.getNight()));
+        copy.setMorningNight(copy(sun.getMorningNight()));
+        copy.setAstroDawn(copy(sun.getAstroDawn()));
+        copy.setNauticDawn(copy(sun.getNauticDawn()));
+        copy.setCivilDawn(copy(sun.getCivilDawn()));
+        copy.setAstroDusk(copy(sun.getAstroDusk()));
+        copy.setNauticDusk(copy(sun.getNauticDusk()));
+        copy.setCivilDusk(copy(sun.getCivilDusk()));
+        copy.setEveningNight(copy(sun.getEveningNight()));
+        copy.setDaylight(copy(sun.getDaylight()));
+
+        SunEclipse eclipse = copy.getEclipse();
+        eclipse.setPartial(copy(sun.getEclipse().getPartial()));
+        eclipse.setTotal(copy(sun.getEclipse().getTotal()));
+        eclipse.setRing(copy(sun.getEclipse().getRing()));
+
+        SunZodiac zodiac = sun.getZodiac();
+        copy.setZodiac(new SunZodiac(zodiac.getSign(), new Range(copy(zodiac.getStart()), copy(zodiac.getEnd()))));
+
+        Season season = copy.getSeason();
+        season.setSpring(copy(sun.getSeason().getSpring()));
+        season.setSummer(copy(sun.getSeason().getSummer()));
+        season.setAutumn(copy(sun.getSeason().getAutumn()));
+        season.setWinter(copy(sun.getSeason().getWinter()));
+        season.setName(sun.getSeason().getName());
+        return copy;
+    }
+
+    private static Moon copy(Moon moon) {
+        Moon copy = new Moon();
+        copy.setRise(copy(moon.getRise()));
+        copy.setSet(copy(moon.getSet()));
+
+        MoonPhase phase = copy.getPhase();
+        phase.setNew(copy(moon.getPhase().getNew()));
+        phase.setFirstQuarter(copy(moon.getPhase().getFirstQuarter()));
+        phase.setFull(copy(moon.getPhase().getFull()));
+        phase.setThirdQuarter(copy(moon.getPhase().getThirdQuarter()));
+
+        Eclipse eclipse = copy.getEclipse();
+        eclipse.setPartial(copy(moon.getEclipse().getPartial()));
+        eclipse.setTotal(copy(moon.getEclipse().getTotal()));
+
+        copy.setApogee(copy(moon.getApogee()));
+        copy.setPerigee(copy(moon.getPerigee()));
+        copy.setZodiac(new Zodiac(moon.getZodiac().getSign()));
+        return copy;
+    }
+
+    private static MoonDistance copy(MoonDistance distance) {
+        MoonDistance copy = new MoonDistance();
+        copy.setDate(copy(distance.getDate()));
+        copy.setDistance(distance.getDistance().doubleValue());
+        return copy;
+    }
+
+    private static Range copy(Range range) {
+        return range == null ? null : new Range(copy(range.getStart()), copy(range.getEnd()));
+    }
+
+    private static Calendar copy(Calendar calendar) {
+        return calendar == null ? null : (Calendar) calendar.clone();
+    }
+}
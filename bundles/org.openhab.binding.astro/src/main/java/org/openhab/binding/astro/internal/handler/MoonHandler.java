@@ -22,6 +22,7 @@ import java.util.Set;
 import org.eclipse.smarthome.core.scheduler.CronScheduler;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.openhab.binding.astro.internal.calc.EphemerisCache;
 import org.openhab.binding.astro.internal.calc.MoonCalc;
 import org.openhab.binding.astro.internal.job.DailyJobMoon;
 import org.openhab.binding.astro.internal.job.Job;
@@ -33,6 +34,7 @@ import org.openhab.binding.astro.internal.model.Planet;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Amit Kumar Mondal - Implementation to be compliant with ESH Scheduler
+ * @author Contributors to the openHAB project - Use the shared ephemeris cache for the daily data
  */
 public class MoonHandler extends AstroThingHandler {
 
@@ -41,13 +43,15 @@ public class MoonHandler extends AstroThingHandler {
     private final String[] positionalChannelIds = new String[] { "phase#name", "phase#age", "phase#agePercent",
             "phase#ageDegree", "phase#illumination", "position#azimuth", "position#elevation", "zodiac#sign" };
     private final MoonCalc moonCalc = new MoonCalc();
+    private final EphemerisCache ephemerisCache;
     private Moon moon;
 
     /**
      * Constructor
      */
-    public MoonHandler(Thing thing, CronScheduler scheduler) {
+    public MoonHandler(Thing thing, CronScheduler scheduler, EphemerisCache ephemerisCache) {
         super(thing, scheduler);
+        this.ephemerisCache = ephemerisCache;
     }
 
     @Override
@@ -58,7 +62,10 @@ public class MoonHandler extends AstroThingHandler {
 
     @Override
     public void publishPositionalInfo() {
-        initializeMoon();
+        // the daily data is updated by the daily job
+        if (moon == null) {
+            initializeMoon();
+        }
         moonCalc.setPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude(), moon);
         publishPlanet();
     }
@@ -85,7 +92,8 @@ public class MoonHandler extends AstroThingHandler {
     }
 
     private void initializeMoon() {
-        moon = moonCalc.getMoonInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude());
+        moon = ephemerisCache.getMoonInfo(Calendar.getInstance(), thingConfig.getLatitude(),
+                thingConfig.getLongitude());
     }
 
 }
@@ -22,6 +22,7 @@ import java.util.Set;
 import org.eclipse.smarthome.core.scheduler.CronScheduler;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.openhab.binding.astro.internal.calc.EphemerisCache;
 import org.openhab.binding.astro.internal.calc.SunCalc;
 import org.openhab.binding.astro.internal.job.DailyJobSun;
 import org.openhab.binding.astro.internal.job.Job;
@@ -33,6 +34,7 @@ import org.openhab.binding.astro.internal.model.Sun;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Amit Kumar Mondal - Implementation to be compliant with ESH Scheduler
+ * @author Contributors to the openHAB project - Use the shared ephemeris cache for the daily data
  */
 public class SunHandler extends AstroThingHandler {
 
@@ -41,13 +43,15 @@ public class SunHandler extends AstroThingHandler {
     private final String[] positionalChannelIds = new String[] { "position#azimuth", "position#elevation",
             "radiation#direct", "radiation#diffuse", "radiation#total" };
     private final SunCalc sunCalc = new SunCalc();
+    private final EphemerisCache ephemerisCache;
     private Sun sun;
 
     /**
      * Constructor
      */
-    public SunHandler(Thing thing, CronScheduler scheduler) {
+    public SunHandler(Thing thing, CronScheduler scheduler, EphemerisCache ephemerisCache) {
         super(thing, scheduler);
+        this.ephemerisCache = ephemerisCache;
     }
 
     @Override
@@ -58,7 +62,10 @@ public class SunHandler extends AstroThingHandler {
 
     @Override
     public void publishPositionalInfo() {
-        initializeSun();
+        // the daily data is updated by the daily job
+        if (sun == null) {
+            initializeSun();
+        }
         sunCalc.setPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude(),
                 thingConfig.getAltitude(), sun);
         publishPlanet();
@@ -86,8 +93,8 @@ public class SunHandler extends AstroThingHandler {
     }
 
     private void initializeSun() {
-        sun = sunCalc.getSunInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude(),
-                thingConfig.getAltitude());
+        sun = ephemerisCache.getSunInfo(Calendar.getInstance(), thingConfig.getLatitude(),
+                thingConfig.getLongitude(), thingConfig.getAltitude());
     }
 
 }
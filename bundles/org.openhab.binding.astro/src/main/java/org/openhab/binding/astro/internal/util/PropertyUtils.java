@@ -12,13 +12,18 @@
  */
 package org.openhab.binding.astro.internal.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.ZonedDateTime;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.i18n.TimeZoneProvider;
@@ -36,6 +41,7 @@ import org.openhab.binding.astro.internal.config.AstroChannelConfig;
  * @author Gerhard Riegler - Initial contribution
  * @author Erdoan Hadzhiyusein - Adapted the class to work with the new DateTimeType
  * @author Christoph Weitkamp - Introduced UoM
+ * @author Contributors to the openHAB project - Resolve the getters once per channel
  */
 public class PropertyUtils {
 
@@ -46,6 +52,11 @@ public class PropertyUtils {
 
     private static TimeZoneProvider timeZoneProvider;
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /** The getter chains by planet class and channel id */
+    private static final Map<String, MethodHandle[]> ACCESSORS = new ConcurrentHashMap<>();
+
     /**
      * Returns the state of the channel.
      */
@@ -84,22 +95,38 @@ public class PropertyUtils {
      * example rise.start, the methods getRise().getStart() are called.
      */
     public static Object getPropertyValue(ChannelUID channelUID, Object instance) throws Exception {
-        String[] properties = StringUtils.split(channelUID.getId(), "#");
-        return getPropertyValue(instance, properties, 0);
+        MethodHandle[] getters = getAccessor(instance.getClass(), channelUID.getId());
+        Object result = instance;
+        try {
+            for (MethodHandle getter : getters) {
+                result = (Object) getter.invokeExact(result);
+            }
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        return result;
     }
 
     /**
-     * Iterates through the nested properties and returns the getter value.
+     * Returns the getters of the nested properties of the channel, which are resolved on the first call.
      */
-    @SuppressWarnings("all")
-    private static Object getPropertyValue(Object instance, String[] properties, int nestedIndex) throws Exception {
-        String propertyName = properties[nestedIndex];
-        Method m = instance.getClass().getMethod(toGetterString(propertyName), null);
-        Object result = m.invoke(instance, (Object[]) null);
-        if (nestedIndex + 1 < properties.length) {
-            return getPropertyValue(result, properties, nestedIndex + 1);
+    private static MethodHandle[] getAccessor(Class<?> instanceClass, String channelId) throws Exception {
+        String key = instanceClass.getName() + ":" + channelId;
+        MethodHandle[] getters = ACCESSORS.get(key);
+        if (getters == null) {
+            String[] properties = StringUtils.split(channelId, "#");
+            getters = new MethodHandle[properties.length];
+            Class<?> type = instanceClass;
+            for (int i = 0; i < properties.length; i++) {
+                Method m = type.getMethod(toGetterString(properties[i]));
+                getters[i] = MethodHandles.publicLookup().unreflect(m).asType(GETTER_TYPE);
+                type = m.getReturnType();
+            }
+            ACCESSORS.put(key, getters);
         }
-        return result;
+        return getters;
     }
 
     /**
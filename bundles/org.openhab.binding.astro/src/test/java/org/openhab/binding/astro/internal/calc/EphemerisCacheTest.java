@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import static org.junit.Assert.*;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.Sun;
+import org.openhab.binding.astro.internal.model.SunPhaseName;
+
+/**
+ * Tests for the {@link EphemerisCache}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class EphemerisCacheTest {
+
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("Europe/Amsterdam");
+    private static final double AMSTERDAM_LATITUDE = 52.367607;
+    private static final double AMSTERDAM_LONGITUDE = 4.8978293;
+    private static final double AMSTERDAM_ALTITUDE = 0.0;
+
+    private EphemerisCache cache;
+
+    @Before
+    public void init() {
+        cache = new EphemerisCache();
+    }
+
+    private static Calendar newCalendar(int dayOfMonth, int hourOfDay) {
+        Calendar result = new GregorianCalendar(TIME_ZONE);
+        result.clear();
+        result.set(2019, Calendar.FEBRUARY, dayOfMonth, hourOfDay, 0);
+        return result;
+    }
+
+    @Test
+    public void cachedSunInfoEqualsCalculatedSunInfo() {
+        Sun expected = new SunCalc().getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE,
+                AMSTERDAM_ALTITUDE);
+
+        cache.getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+        Sun sun = cache.getSunInfo(newCalendar(27, 14), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+
+        assertEquals(expected.getRise().getStart(), sun.getRise().getStart());
+        assertEquals(expected.getSet().getEnd(), sun.getSet().getEnd());
+        assertEquals(expected.getNight().getEnd(), sun.getNight().getEnd());
+        assertEquals(expected.getEclipse().getTotal(), sun.getEclipse().getTotal());
+        assertEquals(expected.getSeason().getSpring(), sun.getSeason().getSpring());
+        assertEquals(expected.getZodiac().getSign(), sun.getZodiac().getSign());
+        assertEquals(expected.getZodiac().getEnd(), sun.getZodiac().getEnd());
+    }
+
+    @Test
+    public void sunPhaseIsCalculatedForTheRequestedTime() {
+        Sun night = cache.getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE,
+                AMSTERDAM_ALTITUDE);
+        Sun day = cache.getSunInfo(newCalendar(27, 14), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+
+        assertEquals(SunPhaseName.NIGHT, night.getPhase().getName());
+        assertEquals(SunPhaseName.DAYLIGHT, day.getPhase().getName());
+    }
+
+    @Test
+    public void everyCallReturnsACopy() {
+        Sun sun1 = cache.getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+        Sun sun2 = cache.getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+
+        assertNotSame(sun1, sun2);
+        assertNotSame(sun1.getRise().getStart(), sun2.getRise().getStart());
+        sun1.getPosition().setAzimuth(42);
+        assertNotEquals(sun1.getPosition().getAzimuth(), sun2.getPosition().getAzimuth());
+    }
+
+    @Test
+    public void otherDayAndLocationAreCalculated() {
+        Sun sun = cache.getSunInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE, AMSTERDAM_ALTITUDE);
+        Sun nextDay = cache.getSunInfo(newCalendar(28, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE,
+                AMSTERDAM_ALTITUDE);
+        Sun otherLocation = cache.getSunInfo(newCalendar(28, 1), 48.137154, 11.576124, AMSTERDAM_ALTITUDE);
+
+        assertNotEquals(sun.getRise().getStart(), nextDay.getRise().getStart());
+        assertNotEquals(nextDay.getRise().getStart(), otherLocation.getRise().getStart());
+    }
+
+    @Test
+    public void cachedMoonInfoEqualsCalculatedMoonInfo() {
+        Moon expected = new MoonCalc().getMoonInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE);
+
+        Moon moon = cache.getMoonInfo(newCalendar(27, 1), AMSTERDAM_LATITUDE, AMSTERDAM_LONGITUDE);
+
+        assertEquals(expected.getRise().getStart(), moon.getRise().getStart());
+        assertEquals(expected.getPhase().getFull(), moon.getPhase().getFull());
+        assertEquals(expected.getEclipse().getPartial(), moon.getEclipse().getPartial());
+        assertEquals(expected.getApogee().getDate(), moon.getApogee().getDate());
+        assertEquals(expected.getPerigee().getDistance().doubleValue(),
+                moon.getPerigee().getDistance().doubleValue(), 0.001);
+    }
+}
@@ -77,6 +77,11 @@ public class BindingConstants {
 
     public static final String UNIQUE_ID = "uid";
 
+    // Bridge properties with websocket statistics
+    public static final String PROPERTY_WEBSOCKET_MESSAGE_RATE = "websocketMessagesPerMinute";
+    public static final String PROPERTY_WEBSOCKET_DECODED_RATE = "websocketDecodedMessagesPerMinute";
+    public static final String PROPERTY_WEBSOCKET_PROCESSING_TIME = "websocketProcessingTimeMicros";
+
     public static String url(String host, int port, @Nullable String apikey, @Nullable String endpointType,
             @Nullable String endpointID) {
         StringBuilder url = new StringBuilder();
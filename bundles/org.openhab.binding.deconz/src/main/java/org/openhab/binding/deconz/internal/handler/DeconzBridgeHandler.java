@@ -52,9 +52,11 @@ import com.google.gson.Gson;
  *
  * It performs the authorization process if necessary.
  *
- * A websocket connection is established to the deCONZ software and kept alive.
+ * A websocket connection is established to the deCONZ software and kept alive. After the connection was
+ * re-established the full state is requested once and handed over to the sensors.
  *
  * @author David Graeff - Initial contribution
+ * @author Contributors to the openHAB project - Resync after reconnect, websocket statistics
  */
 @NonNullByDefault
 public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketConnectionListener {
@@ -65,12 +67,20 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     private DeconzBridgeConfig config = new DeconzBridgeConfig();
     private final Gson gson;
     private @Nullable ScheduledFuture<?> scheduledFuture;
+    private @Nullable ScheduledFuture<?> statisticsFuture;
     private int websocketPort = 0;
+    /** Set after the websocket connection was established the first time */
+    private boolean websocketConnected;
+    private long lastReceivedMessages;
+    private long lastDecodedMessages;
+    private long lastProcessingTimeNanos;
     /** Prevent a dispose/init cycle while this flag is set. Use for property updates */
     private boolean ignoreConfigurationUpdate;
 
     /** The poll frequency for the API Key verification */
     private static final int POLL_FREQUENCY_SEC = 10;
+    /** The interval of the websocket statistics properties update */
+    private static final int STATISTICS_INTERVAL_SEC = 300;
 
     public DeconzBridgeHandler(Bridge thing, WebSocketFactory webSocketFactory, AsyncHttpClient http, Gson gson) {
         super(thing);
@@ -211,6 +221,47 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
         });
     }
 
+    /**
+     * Requests the full state once after the websocket connection was re-established and hands over the state of the
+     * sensors to their handlers, instead of every sensor requesting its state separately.
+     */
+    private void resyncFullState() {
+        String url = url(config.getHostWithoutPort(), config.httpPort, config.apikey, null, null);
+        http.get(url, config.timeout).thenApply(this::parseBridgeFullStateResponse).exceptionally(e -> {
+            logger.debug("Get full state for resync failed", e);
+            return null;
+        }).thenAccept(fullState -> {
+            websocket.resyncSensors(fullState != null ? fullState.sensors : null);
+        }).exceptionally(e -> {
+            logger.warn("Resync of the sensors failed", e);
+            return null;
+        });
+    }
+
+    /**
+     * Updates the bridge properties with the websocket message rates and processing time since the last update.
+     */
+    private void updateStatistics() {
+        long receivedMessages = websocket.getReceivedMessages();
+        long decodedMessages = websocket.getDecodedMessages();
+        long processingTimeNanos = websocket.getProcessingTimeNanos();
+        long received = receivedMessages - lastReceivedMessages;
+        long decoded = decodedMessages - lastDecodedMessages;
+        long processingTime = processingTimeNanos - lastProcessingTimeNanos;
+        lastReceivedMessages = receivedMessages;
+        lastDecodedMessages = decodedMessages;
+        lastProcessingTimeNanos = processingTimeNanos;
+
+        Map<String, String> editProperties = editProperties();
+        editProperties.put(PROPERTY_WEBSOCKET_MESSAGE_RATE, String.valueOf(received * 60 / STATISTICS_INTERVAL_SEC));
+        editProperties.put(PROPERTY_WEBSOCKET_DECODED_RATE, String.valueOf(decoded * 60 / STATISTICS_INTERVAL_SEC));
+        editProperties.put(PROPERTY_WEBSOCKET_PROCESSING_TIME,
+                String.valueOf(received > 0 ? TimeUnit.NANOSECONDS.toMicros(processingTime / received) : 0));
+        ignoreConfigurationUpdate = true;
+        updateProperties(editProperties);
+        ignoreConfigurationUpdate = false;
+    }
+
     /**
      * Starts the websocket connection.
      * {@link #requestFullState} need to be called first to obtain the websocket port.
@@ -247,6 +298,9 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     public void initialize() {
         logger.debug("Start initializing!");
         config = getConfigAs(DeconzBridgeConfig.class);
+        websocketConnected = false;
+        statisticsFuture = scheduler.scheduleWithFixedDelay(this::updateStatistics, STATISTICS_INTERVAL_SEC,
+                STATISTICS_INTERVAL_SEC, TimeUnit.SECONDS);
         if (config.apikey == null) {
             requestApiKey();
         } else {
@@ -257,6 +311,11 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     @Override
     public void dispose() {
         stopTimer();
+        ScheduledFuture<?> future = statisticsFuture;
+        if (future != null) {
+            future.cancel(true);
+            statisticsFuture = null;
+        }
         websocket.close();
     }
 
@@ -276,6 +335,10 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     public void connectionEstablished() {
         stopTimer();
         updateStatus(ThingStatus.ONLINE);
+        if (websocketConnected) {
+            resyncFullState();
+        }
+        websocketConnected = true;
     }
 
     @Override
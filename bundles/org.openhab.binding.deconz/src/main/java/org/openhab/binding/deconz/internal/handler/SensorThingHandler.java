@@ -83,6 +83,7 @@ import com.google.gson.Gson;
  * sensor is published to the framework.
  *
  * @author David Graeff - Initial contribution
+ * @author Contributors to the openHAB project - Receive the state from the bridge after a reconnect
  */
 @NonNullByDefault
 public class SensorThingHandler extends BaseThingHandler implements WebSocketValueUpdateListener {
@@ -98,6 +99,8 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
     private SensorState state = new SensorState();
     /** Prevent a dispose/init cycle while this flag is set. Use for property updates */
     private boolean ignoreConfigurationUpdate;
+    /** Set if the state was received, after a reconnect the bridge requests the state of all sensors at once */
+    private boolean stateReceived;
 
     public SensorThingHandler(Thing thing, Gson gson) {
         super(thing);
@@ -150,11 +153,8 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         }
 
         if (bridgeStatusInfo.getStatus() == ThingStatus.OFFLINE) {
+            // The listener stays registered to receive the state requested by the bridge after a reconnect
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
-            WebSocketConnection webSocketConnection = connection;
-            if (webSocketConnection != null) {
-                webSocketConnection.unregisterValueListener(config.id);
-            }
             return;
         }
 
@@ -174,6 +174,10 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         }
 
         final WebSocketConnection webSocketConnection = bridgeHandler.getWebsocketConnection();
+        if (stateReceived && webSocketConnection == this.connection) {
+            // The websocket connection was re-established, the state is updated by websocketResync
+            return;
+        }
         this.connection = webSocketConnection;
         final AsyncHttpClient asyncHttpClient = bridgeHandler.getHttp();
         this.http = asyncHttpClient;
@@ -182,7 +186,7 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_PENDING);
 
         // Real-time data
-        webSocketConnection.registerValueListener(config.id, this);
+        webSocketConnection.registerValueListener(WebSocketConnection.RESOURCE_SENSORS, config.id, this);
 
         requestState();
     }
@@ -209,76 +213,84 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
             scheduledFuture = scheduler.schedule(this::requestState, 10, TimeUnit.SECONDS);
 
             return null;
-        }).thenAccept(newState -> {
-            if (newState == null) {
-                return;
-            }
+        }).thenAccept(this::processStateResponse);
+    }
 
-            // Add some information about the sensor
-            if (!newState.config.reachable) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.GONE, "Not reachable");
-                return;
-            }
+    /**
+     * Update the thing with the full sensor state with all data and configuration.
+     *
+     * @param newState The sensor state, null if the request failed
+     */
+    private void processStateResponse(@Nullable SensorMessage newState) {
+        if (newState == null) {
+            return;
+        }
 
-            if (!newState.config.on) {
-                updateStatus(ThingStatus.OFFLINE);
-                return;
-            }
+        // Add some information about the sensor
+        if (!newState.config.reachable) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.GONE, "Not reachable");
+            return;
+        }
 
-            Map<String, String> editProperties = editProperties();
-            editProperties.put(Thing.PROPERTY_FIRMWARE_VERSION, newState.swversion);
-            editProperties.put(Thing.PROPERTY_MODEL_ID, newState.modelid);
-            editProperties.put(UNIQUE_ID, newState.uniqueid);
-            ignoreConfigurationUpdate = true;
-            updateProperties(editProperties);
-
-            // Some sensors support optional channels
-            // (see https://github.com/dresden-elektronik/deconz-rest-plugin/wiki/Supported-Devices#sensors)
-            // any battery-powered sensor
-            Integer batteryLevel = newState.config.battery;
-            if (batteryLevel != null) {
-                createAndUpdateChannelIfExists(CHANNEL_BATTERY_LEVEL, new DecimalType(batteryLevel.longValue()));
-                createAndUpdateChannelIfExists(CHANNEL_BATTERY_LOW, batteryLevel <= 10 ? OnOffType.ON : OnOffType.OFF);
-            }
+        if (!newState.config.on) {
+            updateStatus(ThingStatus.OFFLINE);
+            return;
+        }
 
-            // some Xiaomi sensors
-            Float temperature = newState.config.temperature;
-            if (temperature != null) {
-                createAndUpdateChannelIfExists(CHANNEL_TEMPERATURE,
-                        new QuantityType<Temperature>(temperature / 100, CELSIUS));
-            }
+        Map<String, String> editProperties = editProperties();
+        editProperties.put(Thing.PROPERTY_FIRMWARE_VERSION, newState.swversion);
+        editProperties.put(Thing.PROPERTY_MODEL_ID, newState.modelid);
+        editProperties.put(UNIQUE_ID, newState.uniqueid);
+        ignoreConfigurationUpdate = true;
+        updateProperties(editProperties);
+
+        // Some sensors support optional channels
+        // (see https://github.com/dresden-elektronik/deconz-rest-plugin/wiki/Supported-Devices#sensors)
+        // any battery-powered sensor
+        Integer batteryLevel = newState.config.battery;
+        if (batteryLevel != null) {
+            createAndUpdateChannelIfExists(CHANNEL_BATTERY_LEVEL, new DecimalType(batteryLevel.longValue()));
+            createAndUpdateChannelIfExists(CHANNEL_BATTERY_LOW, batteryLevel <= 10 ? OnOffType.ON : OnOffType.OFF);
+        }
 
-            // ZHAPresence - e.g. IKEA TRÅDFRI motion sensor
-            if (newState.state.dark != null) {
-                createChannel(CHANNEL_DARK);
-            }
+        // some Xiaomi sensors
+        Float temperature = newState.config.temperature;
+        if (temperature != null) {
+            createAndUpdateChannelIfExists(CHANNEL_TEMPERATURE,
+                    new QuantityType<Temperature>(temperature / 100, CELSIUS));
+        }
 
-            // ZHAConsumption - e.g Bitron 902010/25 or Heiman SmartPlug
-            if (newState.state.power != null) {
-                createChannel(CHANNEL_POWER);
-            }
+        // ZHAPresence - e.g. IKEA TRÅDFRI motion sensor
+        if (newState.state.dark != null) {
+            createChannel(CHANNEL_DARK);
+        }
 
-            // ZHAPower - e.g. Heiman SmartPlug
-            if (newState.state.voltage != null) {
-                createChannel(CHANNEL_VOLTAGE);
-            }
-            if (newState.state.current != null) {
-                createChannel(CHANNEL_CURRENT);
-            }
+        // ZHAConsumption - e.g Bitron 902010/25 or Heiman SmartPlug
+        if (newState.state.power != null) {
+            createChannel(CHANNEL_POWER);
+        }
 
-            // IAS Zone sensor - e.g. Heiman HS1MS motion sensor
-            if (newState.state.tampered != null) {
-                createChannel(CHANNEL_TAMPERED);
-            }
-            ignoreConfigurationUpdate = false;
+        // ZHAPower - e.g. Heiman SmartPlug
+        if (newState.state.voltage != null) {
+            createChannel(CHANNEL_VOLTAGE);
+        }
+        if (newState.state.current != null) {
+            createChannel(CHANNEL_CURRENT);
+        }
 
-            // Initial data
-            for (Channel channel : thing.getChannels()) {
-                valueUpdated(channel.getUID(), newState.state, true);
-            }
+        // IAS Zone sensor - e.g. Heiman HS1MS motion sensor
+        if (newState.state.tampered != null) {
+            createChannel(CHANNEL_TAMPERED);
+        }
+        ignoreConfigurationUpdate = false;
 
-            updateStatus(ThingStatus.ONLINE);
-        });
+        // Initial data
+        for (Channel channel : thing.getChannels()) {
+            valueUpdated(channel.getUID(), newState.state, true);
+        }
+
+        updateStatus(ThingStatus.ONLINE);
+        stateReceived = true;
     }
 
     private void createAndUpdateChannelIfExists(String channelId, State state) {
@@ -319,8 +331,9 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         stopTimer();
         WebSocketConnection webSocketConnection = connection;
         if (webSocketConnection != null) {
-            webSocketConnection.unregisterValueListener(config.id);
+            webSocketConnection.unregisterValueListener(WebSocketConnection.RESOURCE_SENSORS, config.id);
         }
+        stateReceived = false;
         super.dispose();
     }
 
@@ -475,4 +488,13 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
             valueUpdated(channel.getUID(), newState, false);
         }
     }
+
+    @Override
+    public void websocketResync(@Nullable SensorMessage message) {
+        if (message == null) {
+            requestState();
+        } else {
+            processStateResponse(message);
+        }
+    }
 }
@@ -12,11 +12,16 @@
  */
 package org.openhab.binding.deconz.internal.netutils;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
@@ -25,29 +30,43 @@ import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
 import org.openhab.binding.deconz.internal.dto.SensorMessage;
+import org.openhab.binding.deconz.internal.dto.SensorState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Establishes and keeps a websocket connection to the deCONZ software.
  *
  * The connection is closed by deCONZ now and then and needs to be re-established.
  *
+ * The listeners are indexed by resource type and id. Of every message only the resource type, id and event are read
+ * first, the state is only decoded if a listener is registered for the resource.
+ *
  * @author David Graeff - Initial contribution
+ * @author Contributors to the openHAB project - Index listeners by resource, decode only messages with a listener
  */
 @WebSocket
 @NonNullByDefault
 public class WebSocketConnection {
+    public static final String RESOURCE_SENSORS = "sensors";
+
     private final Logger logger = LoggerFactory.getLogger(WebSocketConnection.class);
 
     private final WebSocketClient client;
     private final WebSocketConnectionListener connectionListener;
-    private final Map<String, WebSocketValueUpdateListener> valueListener = new HashMap<>();
+    /** resource type ("sensors", "lights", ...) -> resource id -> listener */
+    private final Map<String, Map<String, WebSocketValueUpdateListener>> valueListener = new ConcurrentHashMap<>();
     private final Gson gson;
     private boolean connected = false;
 
+    private final AtomicLong receivedMessages = new AtomicLong();
+    private final AtomicLong decodedMessages = new AtomicLong();
+    private final AtomicLong processingTimeNanos = new AtomicLong();
+
     public WebSocketConnection(WebSocketConnectionListener listener, WebSocketClient client, Gson gson) {
         this.connectionListener = listener;
         this.client = client;
@@ -81,12 +100,55 @@ public class WebSocketConnection {
         client.destroy();
     }
 
-    public void registerValueListener(String sensorID, WebSocketValueUpdateListener listener) {
-        valueListener.put(sensorID, listener);
+    public void registerValueListener(String resourceType, String id, WebSocketValueUpdateListener listener) {
+        valueListener.computeIfAbsent(resourceType, type -> new ConcurrentHashMap<>()).put(id, listener);
+    }
+
+    public void unregisterValueListener(String resourceType, String id) {
+        Map<String, WebSocketValueUpdateListener> listeners = valueListener.get(resourceType);
+        if (listeners != null) {
+            listeners.remove(id);
+        }
+    }
+
+    private @Nullable WebSocketValueUpdateListener getValueListener(String resourceType, String id) {
+        Map<String, WebSocketValueUpdateListener> listeners = valueListener.get(resourceType);
+        return listeners != null ? listeners.get(id) : null;
+    }
+
+    /**
+     * Hands over the full state of the sensors, which was requested after the connection was re-established, to the
+     * registered sensor listeners.
+     *
+     * @param sensors The sensors by id, or null if the full state could not be requested
+     */
+    public void resyncSensors(@Nullable Map<String, SensorMessage> sensors) {
+        Map<String, WebSocketValueUpdateListener> listeners = valueListener.getOrDefault(RESOURCE_SENSORS,
+                Collections.emptyMap());
+        for (Map.Entry<String, WebSocketValueUpdateListener> entry : listeners.entrySet()) {
+            entry.getValue().websocketResync(sensors != null ? sensors.get(entry.getKey()) : null);
+        }
+    }
+
+    /**
+     * Return the number of messages received since the connection object was created.
+     */
+    public long getReceivedMessages() {
+        return receivedMessages.get();
+    }
+
+    /**
+     * Return the number of messages, which were decoded and handed over to a listener.
+     */
+    public long getDecodedMessages() {
+        return decodedMessages.get();
     }
 
-    public void unregisterValueListener(String sensorID) {
-        valueListener.remove(sensorID);
+    /**
+     * Return the accumulated time to route and decode the received messages.
+     */
+    public long getProcessingTimeNanos() {
+        return processingTimeNanos.get();
     }
 
     @OnWebSocketConnect
@@ -96,14 +158,75 @@ public class WebSocketConnection {
         connectionListener.connectionEstablished();
     }
 
-    @SuppressWarnings("null")
     @OnWebSocketMessage
     public void onMessage(String message) {
-        SensorMessage changedMessage = gson.fromJson(message, SensorMessage.class);
-        WebSocketValueUpdateListener listener = valueListener.get(changedMessage.id);
-        if (listener != null) {
-            listener.websocketUpdate(changedMessage.id, changedMessage.state);
+        long start = System.nanoTime();
+        receivedMessages.incrementAndGet();
+        try {
+            routeMessage(message);
+        } catch (JsonParseException | IOException | IllegalStateException e) {
+            logger.debug("Invalid websocket message {}", message, e);
+        } finally {
+            processingTimeNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reads the event, resource type and id of the message and hands over the changed state to the listener of the
+     * resource. The state is decoded while reading the message, if the resource type and id precede it, otherwise the
+     * message is decoded again.
+     */
+    private void routeMessage(String message) throws IOException {
+        String event = "";
+        String resourceType = "";
+        String id = "";
+        boolean hasState = false;
+        SensorState state = null;
+        WebSocketValueUpdateListener listener = null;
+
+        try (JsonReader reader = new JsonReader(new StringReader(message))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "e":
+                        event = reader.nextString();
+                        break;
+                    case "r":
+                        resourceType = reader.nextString();
+                        break;
+                    case "id":
+                        id = reader.nextString();
+                        break;
+                    case "state":
+                        hasState = true;
+                        listener = getValueListener(resourceType, id);
+                        if (listener != null) {
+                            state = gson.fromJson(reader, SensorState.class);
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        if (!hasState || !"changed".equals(event)) {
+            return;
+        }
+        if (listener == null) {
+            listener = getValueListener(resourceType, id);
+            if (listener == null) {
+                return;
+            }
+        }
+        if (state == null) {
+            state = gson.fromJson(message, SensorMessage.class).state;
         }
+        decodedMessages.incrementAndGet();
+        listener.websocketUpdate(id, state);
     }
 
     @OnWebSocketError
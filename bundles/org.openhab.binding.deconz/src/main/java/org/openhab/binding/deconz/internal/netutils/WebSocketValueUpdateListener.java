@@ -13,12 +13,15 @@
 package org.openhab.binding.deconz.internal.netutils;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.deconz.internal.dto.SensorMessage;
 import org.openhab.binding.deconz.internal.dto.SensorState;
 
 /**
  * Informs about updated sensor states
  *
  * @author David Graeff - Initial contribution
+ * @author Contributors to the openHAB project - Resync after reconnect
  */
 @NonNullByDefault
 public interface WebSocketValueUpdateListener {
@@ -29,4 +32,11 @@ public interface WebSocketValueUpdateListener {
      * @param newState The new state
      */
     void websocketUpdate(String sensorID, SensorState newState);
+
+    /**
+     * The websocket connection was re-established and the full state of all sensors was requested again.
+     *
+     * @param message The full sensor state, or null if it could not be requested and needs to be requested separately
+     */
+    void websocketResync(@Nullable SensorMessage message);
 }
@@ -75,6 +75,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - linked power sensor channels
  */
 public class DeviceHandler extends BaseThingHandler implements DeviceStatusListener {
 
@@ -809,6 +810,9 @@ public class DeviceHandler extends BaseThingHandler implements DeviceStatusListe
         if (device != null) {
             SensorEnum sensorType = getSensorEnum(channelUID.getId());
             if (sensorType != null) {
+                if (SensorEnum.isPowerSensor(sensorType)) {
+                    device.setPowerSensorChannelLinked(sensorType, true);
+                }
                 Float val = device.getFloatSensorValue(sensorType);
                 if (val != null) {
                     updateState(channelUID, new DecimalType(val));
@@ -863,6 +867,16 @@ public class DeviceHandler extends BaseThingHandler implements DeviceStatusListe
         }
     }
 
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        if (device != null) {
+            SensorEnum sensorType = getSensorEnum(channelUID.getId());
+            if (sensorType != null && SensorEnum.isPowerSensor(sensorType) && !isLinked(channelUID.getId())) {
+                device.setPowerSensorChannelLinked(sensorType, false);
+            }
+        }
+    }
+
     private String convertStageValue(short stage, short value) {
         switch (stage) {
             case 2:
@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - backlog and latency statistics
  *
  */
 public abstract class AbstractSensorJobExecutor {
@@ -71,6 +72,9 @@ public abstract class AbstractSensorJobExecutor {
             SensorJob sensorJob = circuit.getNextSensorJob();
             if (sensorJob != null) {
                 sensorJob.execute(dSAPI, connectionManager.getSessionToken());
+                logger.debug("executed sensorJob {} on circuit {}, backlog = {}, latency avg/max = {}/{} ms",
+                        sensorJob.getID(), circuit.getMeterDSID(), circuit.getBacklog(), circuit.getAverageLatency(),
+                        circuit.getMaxLatency());
             }
             if (circuit.noMoreJobs()) {
                 logger.debug("no more jobs... stop circuit schedduler with id = {}", circuit.getMeterDSID());
@@ -13,7 +13,9 @@
 package org.openhab.binding.digitalstrom.internal.lib.sensorjobexecutor;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.PriorityQueue;
 
 import org.openhab.binding.digitalstrom.internal.lib.config.Config;
@@ -25,9 +27,12 @@ import org.slf4j.LoggerFactory;
 /**
  * This {@link CircuitScheduler} represents a circuit in the digitalSTROM-System and manages the priorities and
  * execution times for the {@link SensorJob}s on this circuit.
+ * <p>
+ * It also measures the backlog and the latency of the {@link SensorJob}s between adding and execution.
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - backlog and latency statistics
  */
 public class CircuitScheduler {
 
@@ -44,8 +49,13 @@ public class CircuitScheduler {
     private final DSID meterDSID;
     private long nextExecutionTime = System.currentTimeMillis();
     private final PriorityQueue<SensorJob> sensorJobQueue = new PriorityQueue<SensorJob>(10, new SensorJobComparator());
+    private final Map<SensorJob, Long> addingTimes = new HashMap<SensorJob, Long>();
     private final Config config;
 
+    private long executedJobs = 0;
+    private long totalLatency = 0;
+    private long maxLatency = 0;
+
     /**
      * Creates a new {@link CircuitScheduler}.
      *
@@ -70,6 +80,7 @@ public class CircuitScheduler {
     public CircuitScheduler(SensorJob sensorJob, Config config) {
         this.meterDSID = sensorJob.getMeterDSID();
         this.sensorJobQueue.add(sensorJob);
+        this.addingTimes.put(sensorJob, System.currentTimeMillis());
         this.config = config;
         logger.debug("create circuitScheduler: {} and add sensorJob: {}", this.getMeterDSID(),
                 sensorJob.getDSID().toString());
@@ -93,6 +104,7 @@ public class CircuitScheduler {
         synchronized (sensorJobQueue) {
             if (!this.sensorJobQueue.contains(sensorJob)) {
                 sensorJobQueue.add(sensorJob);
+                addingTimes.put(sensorJob, System.currentTimeMillis());
                 logger.debug("Add sensorJob: {} to circuitScheduler: {}", sensorJob.toString(), this.getMeterDSID());
             } else if (checkSensorJobPrio(sensorJob)) {
                 logger.debug("add sensorJob: {} with higher priority to circuitScheduler: {}", sensorJob.toString(),
@@ -129,7 +141,15 @@ public class CircuitScheduler {
         synchronized (sensorJobQueue) {
             if (sensorJobQueue.peek() != null && this.nextExecutionTime <= System.currentTimeMillis()) {
                 nextExecutionTime = System.currentTimeMillis() + config.getSensorReadingWaitTime();
-                return sensorJobQueue.poll();
+                SensorJob sensorJob = sensorJobQueue.poll();
+                Long addingTime = addingTimes.remove(sensorJob);
+                if (addingTime != null) {
+                    long latency = System.currentTimeMillis() - addingTime;
+                    executedJobs++;
+                    totalLatency += latency;
+                    maxLatency = Math.max(maxLatency, latency);
+                }
+                return sensorJob;
             } else {
                 return null;
             }
@@ -155,6 +175,39 @@ public class CircuitScheduler {
         return delay > 0 ? delay : 0;
     }
 
+    /**
+     * Returns the number of {@link SensorJob}s, which wait for the execution.
+     *
+     * @return number of waiting SensorJobs
+     */
+    public int getBacklog() {
+        synchronized (sensorJobQueue) {
+            return sensorJobQueue.size();
+        }
+    }
+
+    /**
+     * Returns the average time in milliseconds between adding and execution of the {@link SensorJob}s.
+     *
+     * @return average latency
+     */
+    public long getAverageLatency() {
+        synchronized (sensorJobQueue) {
+            return executedJobs > 0 ? totalLatency / executedJobs : 0;
+        }
+    }
+
+    /**
+     * Returns the maximum time in milliseconds between adding and execution of the {@link SensorJob}s.
+     *
+     * @return maximum latency
+     */
+    public long getMaxLatency() {
+        synchronized (sensorJobQueue) {
+            return maxLatency;
+        }
+    }
+
     /**
      * Removes all {@link SensorJob} of a specific {@link Device} with the given {@link DSID}.
      *
@@ -166,6 +219,7 @@ public class CircuitScheduler {
                 SensorJob job = iter.next();
                 if (job.getDSID().equals(dSID)) {
                     iter.remove();
+                    addingTimes.remove(job);
                     logger.debug("Remove SensorJob with ID {}.", job.getID());
                 }
             }
@@ -183,6 +237,7 @@ public class CircuitScheduler {
                 SensorJob job = iter.next();
                 if (job.getID().equals(id)) {
                     iter.remove();
+                    addingTimes.remove(job);
                     logger.debug("Remove SensorJob with ID {}.", id);
                     return;
                 }
@@ -30,9 +30,11 @@ import org.slf4j.LoggerFactory;
  * <li>medium priority: read cycles before execution is set in {@link Config}</li>
  * <li>high priority: read cycles before execution 0</li>
  * </ul>
+ * {@link SensorJob}s for values without a linked item are delayed by the low priority read cycles in addition.
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  *
  */
 public class SensorJobExecutor extends AbstractSensorJobExecutor {
@@ -56,6 +58,7 @@ public class SensorJobExecutor extends AbstractSensorJobExecutor {
         if (sensorJob == null) {
             return;
         }
+        sensorJob.setInitalisationTime(sensorJob.getInitalisationTime() + getUnlinkedFactor(sensorJob));
         addSensorJobToCircuitScheduler(sensorJob);
         logger.debug("Add SensorJob from device with dSID {} and high-priority to SensorJobExecutor",
                 sensorJob.getDSID());
@@ -66,7 +69,8 @@ public class SensorJobExecutor extends AbstractSensorJobExecutor {
         if (sensorJob == null) {
             return;
         }
-        sensorJob.setInitalisationTime(sensorJob.getInitalisationTime() + this.mediumFactor);
+        sensorJob.setInitalisationTime(
+                sensorJob.getInitalisationTime() + this.mediumFactor + getUnlinkedFactor(sensorJob));
         addSensorJobToCircuitScheduler(sensorJob);
         logger.debug("Add SensorJob from device with dSID {} and medium-priority to SensorJobExecutor",
                 sensorJob.getDSID());
@@ -77,9 +81,26 @@ public class SensorJobExecutor extends AbstractSensorJobExecutor {
         if (sensorJob == null) {
             return;
         }
-        sensorJob.setInitalisationTime(sensorJob.getInitalisationTime() + this.lowFactor);
+        sensorJob.setInitalisationTime(
+                sensorJob.getInitalisationTime() + this.lowFactor + getUnlinkedFactor(sensorJob));
         addSensorJobToCircuitScheduler(sensorJob);
         logger.debug("Add SensorJob from device with dSID {} and low-priority to SensorJobExecutor",
                 sensorJob.getDSID());
     }
+
+    @Override
+    public void addPriorityJob(SensorJob sensorJob, long priority) {
+        if (sensorJob == null) {
+            return;
+        }
+        super.addPriorityJob(sensorJob, priority + getUnlinkedFactor(sensorJob));
+    }
+
+    /**
+     * Returns the additional delay of a {@link SensorJob} for a value without a linked item, so that all values with a
+     * linked item are read first.
+     */
+    private long getUnlinkedFactor(SensorJob sensorJob) {
+        return sensorJob.isLinked() ? 0 : this.lowFactor;
+    }
 }
@@ -23,6 +23,7 @@ import org.openhab.binding.digitalstrom.internal.lib.structure.devices.devicepar
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  */
 public interface SensorJob {
 
@@ -68,4 +69,12 @@ public interface SensorJob {
      * @return id
      */
     String getID();
+
+    /**
+     * Returns true, if the value read by this {@link SensorJob} is shown on a channel which is linked to an item or is
+     * needed internally. {@link SensorJob}s for values without a linked item are executed with a lower priority.
+     *
+     * @return value needed? (true | false)
+     */
+    boolean isLinked();
 }
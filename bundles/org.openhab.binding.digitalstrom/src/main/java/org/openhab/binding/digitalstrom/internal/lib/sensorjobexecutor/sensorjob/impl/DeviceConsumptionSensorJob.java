@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  */
 public class DeviceConsumptionSensorJob implements SensorJob {
 
@@ -119,6 +120,11 @@ public class DeviceConsumptionSensorJob implements SensorJob {
                 + meterDSID + ", initalisationTime=" + initalisationTime + "]";
     }
 
+    @Override
+    public boolean isLinked() {
+        return device.isPowerSensorChannelLinked(sensorType);
+    }
+
     @Override
     public String getID() {
         return getID(device, sensorType);
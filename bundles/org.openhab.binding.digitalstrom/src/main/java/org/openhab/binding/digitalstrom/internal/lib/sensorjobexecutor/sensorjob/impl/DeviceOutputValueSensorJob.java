@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  */
 public class DeviceOutputValueSensorJob implements SensorJob {
 
@@ -124,6 +125,12 @@ public class DeviceOutputValueSensorJob implements SensorJob {
                 + ", initalisationTime=" + initalisationTime + "]";
     }
 
+    @Override
+    public boolean isLinked() {
+        // the output value is needed for the device state
+        return true;
+    }
+
     @Override
     public String getID() {
         return getID(device);
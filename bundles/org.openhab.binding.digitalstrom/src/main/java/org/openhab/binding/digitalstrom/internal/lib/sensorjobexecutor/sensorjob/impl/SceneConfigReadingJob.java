@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  */
 public class SceneConfigReadingJob implements SensorJob {
 
@@ -101,6 +102,12 @@ public class SceneConfigReadingJob implements SensorJob {
                 + ", meterDSID=" + meterDSID + ", initalisationTime=" + initalisationTime + "]";
     }
 
+    @Override
+    public boolean isLinked() {
+        // the scene configuration is needed for the device state
+        return true;
+    }
+
     @Override
     public String getID() {
         return getID(device, sceneID);
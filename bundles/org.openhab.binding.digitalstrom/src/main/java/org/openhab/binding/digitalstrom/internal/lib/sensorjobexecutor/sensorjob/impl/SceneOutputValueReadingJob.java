@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - priority of linked values
  */
 public class SceneOutputValueReadingJob implements SensorJob {
 
@@ -104,6 +105,12 @@ public class SceneOutputValueReadingJob implements SensorJob {
                 + ", meterDSID=" + meterDSID + ", initalisationTime=" + initalisationTime + "]";
     }
 
+    @Override
+    public boolean isLinked() {
+        // the scene output value is needed for the device state
+        return true;
+    }
+
     @Override
     public String getID() {
         return getID(device, sceneID);
@@ -73,6 +73,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - keep-alive connections
  */
 public class HttpTransportImpl implements HttpTransport {
 
@@ -248,6 +249,7 @@ public class HttpTransportImpl implements HttpTransport {
         // max 1 second.
         String response = null;
         HttpsURLConnection connection = null;
+        boolean keepAlive = false;
         try {
             String correctedRequest = checkSessionToken(request);
             connection = getConnection(correctedRequest, connectTimeout, readTimeout);
@@ -255,10 +257,14 @@ public class HttpTransportImpl implements HttpTransport {
                 connection.connect();
                 final int responseCode = connection.getResponseCode();
                 if (responseCode != HttpURLConnection.HTTP_FORBIDDEN) {
-                    if (responseCode == HttpURLConnection.HTTP_INTERNAL_ERROR) {
-                        response = IOUtils.toString(connection.getErrorStream());
-                    } else {
-                        response = IOUtils.toString(connection.getInputStream());
+                    // reading and closing the whole response stream returns the connection to the keep-alive cache
+                    try (InputStream stream = responseCode == HttpURLConnection.HTTP_INTERNAL_ERROR
+                            ? connection.getErrorStream()
+                            : connection.getInputStream()) {
+                        if (stream != null) {
+                            response = IOUtils.toString(stream);
+                            keepAlive = true;
+                        }
                     }
                     if (response != null) {
                         if (!response.contains("Authentication failed")) {
@@ -273,7 +279,6 @@ public class HttpTransportImpl implements HttpTransport {
                     }
 
                 }
-                connection.disconnect();
                 if (response == null && connectionManager != null
                         && loginCounter <= MAY_A_NEW_SESSION_TOKEN_IS_NEEDED) {
                     if (responseCode == HttpURLConnection.HTTP_FORBIDDEN) {
@@ -302,7 +307,7 @@ public class HttpTransportImpl implements HttpTransport {
                 informConnectionManager(ConnectionManager.GENERAL_EXCEPTION);
             }
         } finally {
-            if (connection != null) {
+            if (connection != null && !keepAlive) {
                 connection.disconnect();
             }
         }
@@ -34,6 +34,7 @@ import org.openhab.binding.digitalstrom.internal.lib.structure.scene.InternalSce
  * @author Alexander Betker - Initial contribution
  * @author Michael Ochel - add methods for ESH, new functionalities and JavaDoc
  * @author Mathias Siegele - add methods for ESH, new functionalities and JavaDoc
+ * @author Contributors to the openHAB project - linked power sensor channels
  */
 public interface Device extends GeneralDeviceInformation {
 
@@ -554,6 +555,23 @@ public interface Device extends GeneralDeviceInformation {
      */
     String getPowerSensorRefreshPriority(SensorEnum powerSensorType);
 
+    /**
+     * Sets whether the channel of the given power sensor type is linked to an item. The sensor values of sensors
+     * without a linked item are read with a lower priority.
+     *
+     * @param powerSensorType of the sensor
+     * @param linked true, if the channel is linked, otherwise false
+     */
+    void setPowerSensorChannelLinked(SensorEnum powerSensorType, boolean linked);
+
+    /**
+     * Returns true, if the channel of the given power sensor type is linked to an item, otherwise false.
+     *
+     * @param powerSensorType of the sensor
+     * @return channel linked? (true | false)
+     */
+    boolean isPowerSensorChannelLinked(SensorEnum powerSensorType);
+
     /**
      * Returns a {@link List} with all power sensors, which are supported by this {@link Device}.
      *
@@ -59,6 +59,7 @@ import com.google.gson.JsonObject;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author Contributors to the openHAB project - linked power sensor channels
  */
 public class DeviceImpl extends AbstractGeneralDeviceInformations implements Device {
 
@@ -125,6 +126,9 @@ public class DeviceImpl extends AbstractGeneralDeviceInformations implements Dev
             new String[] { Config.REFRESH_PRIORITY_NEVER, "false" },
             new String[] { Config.REFRESH_PRIORITY_NEVER, "false" } };
 
+    // power sensors with a channel, which is linked to an item
+    private final Set<SensorEnum> linkedPowerSensorChannels = Collections.synchronizedSet(new HashSet<>());
+
     public static final int REFRESH_PRIORITY_ARRAY_FIELD = 0;
     public static final int READING_INITIALIZED_ARRAY_FIELD = 1;
 
@@ -1037,6 +1041,20 @@ public class DeviceImpl extends AbstractGeneralDeviceInformations implements Dev
         return null;
     }
 
+    @Override
+    public void setPowerSensorChannelLinked(SensorEnum powerSensorType, boolean linked) {
+        if (linked) {
+            linkedPowerSensorChannels.add(powerSensorType);
+        } else {
+            linkedPowerSensorChannels.remove(powerSensorType);
+        }
+    }
+
+    @Override
+    public boolean isPowerSensorChannelLinked(SensorEnum powerSensorType) {
+        return linkedPowerSensorChannels.contains(powerSensorType);
+    }
+
     @Override
     public boolean checkPowerSensorRefreshPriorityNever(SensorEnum powerSensorType) {
         if (getPowerSensorRefreshPriority(powerSensorType) != null) {
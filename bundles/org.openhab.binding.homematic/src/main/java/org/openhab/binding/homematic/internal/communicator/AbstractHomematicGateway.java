@@ -14,6 +14,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -25,12 +26,17 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -84,12 +90,14 @@ import org.slf4j.LoggerFactory;
  * The {@link AbstractHomematicGateway} is the main class for the communication with a Homematic gateway.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author Contributors to the openHAB project - Persistent device metadata cache
  */
 public abstract class AbstractHomematicGateway implements RpcEventListener, HomematicGateway, VirtualGateway {
     private final Logger logger = LoggerFactory.getLogger(AbstractHomematicGateway.class);
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String METADATA_POOL_NAME = "homematicMetadata";
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -110,6 +118,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
+    private DeviceMetadataCache metadataCache;
     private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
 
     static {
@@ -146,6 +155,9 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         logger.debug("Initializing gateway with id '{}'", id);
 
         HmGatewayInfo gatewayInfo = config.getGatewayInfo();
+        metadataCache = new DeviceMetadataCache(
+                new File(ConfigConstants.getUserDataFolder() + File.separator + "homematic" + File.separator + id),
+                gatewayInfo.getType() + " " + gatewayInfo.getFirmware());
         if (gatewayInfo.isHomegear()) {
             // Homegear
             availableInterfaces.put(HmInterface.RF, TransferMode.BIN_RPC);
@@ -371,8 +383,12 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
 
-        // loading datapoints for all channels
+        // loading datapoints of known device types from the metadata cache
+        Map<String, List<HmChannel>> missingChannelsByAddress = loadCachedDatapoints(deviceDescriptions);
+
+        // loading datapoints for all other channels
         Set<String> loadedDevices = new HashSet<String>();
+        Set<String> storedDeviceTypes = new HashSet<String>();
         Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<String, Collection<HmDatapoint>>();
         for (HmDevice device : deviceDescriptions) {
             if (!cancelLoadAllMetadata) {
@@ -383,7 +399,9 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                         loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
                         loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
                     } else {
-                        for (HmChannel channel : device.getChannels()) {
+                        List<HmChannel> missingChannels = missingChannelsByAddress.get(device.getAddress());
+                        boolean cached = missingChannels != null;
+                        for (HmChannel channel : cached ? missingChannels : device.getChannels()) {
                             logger.trace("  Loading channel {}", channel);
                             // speed up metadata generation a little bit for equal channels in the gateway devices
                             if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
@@ -410,6 +428,10 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                                 }
                             }
                         }
+                        if (!cached && isMetadataCacheable(device)
+                                && storedDeviceTypes.add(device.getType() + ":" + device.getFirmware())) {
+                            metadataCache.storeDatapoints(device);
+                        }
                     }
                     prepareDevice(device);
                     loadedDevices.add(device.getAddress());
@@ -426,6 +448,61 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         initialized = true;
     }
 
+    /**
+     * Loads the datapoints of all devices with a valid metadata cache entry in parallel, one task per device type.
+     *
+     * @return the channels of the cached devices by device address, which still have to be loaded from the gateway
+     */
+    private Map<String, List<HmChannel>> loadCachedDatapoints(List<HmDevice> deviceDescriptions) {
+        Map<String, List<HmDevice>> devicesByType = new HashMap<String, List<HmDevice>>();
+        for (HmDevice device : deviceDescriptions) {
+            if (isMetadataCacheable(device)) {
+                devicesByType.computeIfAbsent(device.getType() + ":" + device.getFirmware(), k -> new ArrayList<>())
+                        .add(device);
+            }
+        }
+
+        Map<String, List<HmChannel>> missingChannelsByAddress = new ConcurrentHashMap<String, List<HmChannel>>();
+        ExecutorService pool = ThreadPoolManager.getPool(METADATA_POOL_NAME);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (List<HmDevice> devicesOfType : devicesByType.values()) {
+            futures.add(pool.submit(() -> {
+                for (HmDevice device : devicesOfType) {
+                    if (cancelLoadAllMetadata) {
+                        return;
+                    }
+                    List<HmChannel> missingChannels = metadataCache.loadDatapoints(device);
+                    if (missingChannels != null) {
+                        missingChannelsByAddress.put(device.getAddress(), missingChannels);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                logger.warn("Can't load cached metadata from gateway '{}': {}", id, ex.getCause().getMessage(),
+                        ex.getCause());
+            }
+        }
+        logger.debug("Loaded metadata of {} of {} devices from the cache of gateway '{}'",
+                missingChannelsByAddress.size(), deviceDescriptions.size(), id);
+        return missingChannelsByAddress;
+    }
+
+    /**
+     * Returns true, if the metadata of the device can be stored in the metadata cache. The gateway devices are created
+     * from the first two channels anyway.
+     */
+    private boolean isMetadataCacheable(HmDevice device) {
+        return !device.isGatewayExtras() && !DEVICE_TYPE_VIRTUAL.equals(device.getType())
+                && !DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType());
+    }
+
     /**
      * Loads all datapoints from the gateway.
      */
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Stores the datapoint descriptions of the channels of a device type on disk, so that the paramset descriptions only
+ * have to be loaded from the gateway for new device types or after a firmware update.
+ * <p>
+ * There is one file per device type and firmware. An entry is only used if it was written for the same gateway
+ * firmware and if its channels match the channels the gateway reports for the device in listDevices. Reconfigurable
+ * channels are never cached, their datapoints depend on the configured channel function.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class DeviceMetadataCache {
+    private final Logger logger = LoggerFactory.getLogger(DeviceMetadataCache.class);
+    private static final int VERSION = 1;
+    private static final String FILE_EXTENSION = ".json";
+
+    private final Gson gson = new Gson();
+    private final File folder;
+    private final String gatewayFirmware;
+    private final Map<String, DeviceTypeEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param folder the folder of the cache files of one gateway
+     * @param gatewayFirmware the type and firmware of the gateway, a gateway update invalidates all entries
+     */
+    public DeviceMetadataCache(File folder, String gatewayFirmware) {
+        this.folder = folder;
+        this.gatewayFirmware = gatewayFirmware;
+    }
+
+    /**
+     * Adds the cached datapoints to all channels of the device, except for reconfigurable channels.
+     *
+     * @return the channels which still have to be loaded from the gateway, or null if there is no valid entry for the
+     *         device and all channels have to be loaded from the gateway
+     */
+    public List<HmChannel> loadDatapoints(HmDevice device) {
+        DeviceTypeEntry entry = getEntry(device);
+        if (entry == null || !isValid(entry, device)) {
+            return null;
+        }
+        // create all datapoints first, a damaged entry must not leave the device partially loaded
+        List<List<HmDatapoint>> datapointsByChannel = new ArrayList<>();
+        try {
+            for (ChannelEntry channelEntry : entry.channels) {
+                List<HmDatapoint> datapoints = new ArrayList<>();
+                for (DatapointEntry dpEntry : channelEntry.datapoints) {
+                    datapoints.add(dpEntry.toDatapoint());
+                }
+                datapointsByChannel.add(datapoints);
+            }
+        } catch (IllegalArgumentException | ClassCastException ex) {
+            logger.debug("Ignoring metadata cache entry of device type '{}': {}", device.getType(), ex.getMessage());
+            return null;
+        }
+
+        List<HmChannel> missingChannels = new ArrayList<>();
+        for (int i = 0; i < entry.channels.size(); i++) {
+            HmChannel channel = device.getChannels().get(i);
+            if (entry.channels.get(i).reconfigurable) {
+                missingChannels.add(channel);
+            } else {
+                for (HmDatapoint dp : datapointsByChannel.get(i)) {
+                    channel.addDatapoint(dp);
+                }
+            }
+        }
+        return missingChannels;
+    }
+
+    /**
+     * Stores the datapoints of all channels of a device which has been loaded from the gateway.
+     */
+    public void storeDatapoints(HmDevice device) {
+        DeviceTypeEntry entry = new DeviceTypeEntry();
+        entry.version = VERSION;
+        entry.gateway = gatewayFirmware;
+        entry.type = device.getType();
+        entry.firmware = device.getFirmware();
+        entry.channels = new ArrayList<>();
+        for (HmChannel channel : device.getChannels()) {
+            ChannelEntry channelEntry = new ChannelEntry();
+            channelEntry.number = channel.getNumber();
+            channelEntry.type = channel.getType();
+            channelEntry.reconfigurable = channel.isReconfigurable();
+            channelEntry.datapoints = new ArrayList<>();
+            if (!channelEntry.reconfigurable) {
+                for (HmDatapoint dp : channel.getDatapoints()) {
+                    if (!dp.isVirtual()) {
+                        DatapointEntry dpEntry = DatapointEntry.fromDatapoint(dp);
+                        if (dpEntry == null) {
+                            logger.debug("Not caching metadata of device type '{}', unsupported value in datapoint {}",
+                                    device.getType(), dp);
+                            return;
+                        }
+                        channelEntry.datapoints.add(dpEntry);
+                    }
+                }
+            }
+            entry.channels.add(channelEntry);
+        }
+
+        File file = getFile(device);
+        try {
+            Files.createDirectories(folder.toPath());
+            File tempFile = new File(folder, file.getName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(entry, writer);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            entries.put(getKey(device), entry);
+        } catch (IOException ex) {
+            logger.warn("Can't write metadata cache file '{}': {}", file, ex.getMessage());
+        }
+    }
+
+    private DeviceTypeEntry getEntry(HmDevice device) {
+        String key = getKey(device);
+        DeviceTypeEntry entry = entries.get(key);
+        if (entry == null) {
+            File file = getFile(device);
+            if (!file.exists()) {
+                return null;
+            }
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                entry = gson.fromJson(reader, DeviceTypeEntry.class);
+            } catch (IOException | JsonParseException | IllegalArgumentException ex) {
+                logger.debug("Ignoring metadata cache file '{}': {}", file, ex.getMessage());
+                return null;
+            }
+            if (entry == null) {
+                return null;
+            }
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private boolean isValid(DeviceTypeEntry entry, HmDevice device) {
+        if (entry.version != VERSION || !Objects.equals(entry.gateway, gatewayFirmware)
+                || !Objects.equals(entry.type, device.getType())
+                || !Objects.equals(entry.firmware, device.getFirmware()) || entry.channels == null
+                || entry.channels.size() != device.getChannels().size()) {
+            return false;
+        }
+        for (int i = 0; i < entry.channels.size(); i++) {
+            ChannelEntry channelEntry = entry.channels.get(i);
+            HmChannel channel = device.getChannels().get(i);
+            if (channelEntry == null || channelEntry.datapoints == null
+                    || !Objects.equals(channelEntry.number, channel.getNumber())
+                    || !Objects.equals(channelEntry.type, channel.getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getKey(HmDevice device) {
+        return device.getType() + ":" + device.getFirmware();
+    }
+
+    private File getFile(HmDevice device) {
+        String name = (device.getType() + "_" + device.getFirmware()).replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(folder, name + FILE_EXTENSION);
+    }
+
+    private static class DeviceTypeEntry {
+        int version;
+        String gateway;
+        String type;
+        String firmware;
+        List<ChannelEntry> channels;
+    }
+
+    private static class ChannelEntry {
+        Integer number;
+        String type;
+        boolean reconfigurable;
+        List<DatapointEntry> datapoints;
+    }
+
+    private static class DatapointEntry {
+        String name;
+        String description;
+        HmValueType type;
+        HmParamsetType paramsetType;
+        TypedValue defaultValue;
+        TypedValue minValue;
+        TypedValue maxValue;
+        TypedValue step;
+        String[] options;
+        boolean readOnly;
+        boolean readable;
+        String info;
+        String unit;
+
+        static DatapointEntry fromDatapoint(HmDatapoint dp) {
+            DatapointEntry entry = new DatapointEntry();
+            entry.name = dp.getName();
+            entry.description = dp.getDescription();
+            entry.type = dp.getType();
+            entry.paramsetType = dp.getParamsetType();
+            entry.options = dp.getOptions();
+            entry.readOnly = dp.isReadOnly();
+            entry.readable = dp.isReadable();
+            entry.info = dp.getInfo();
+            entry.unit = dp.getUnit();
+            try {
+                entry.defaultValue = TypedValue.of(dp.getDefaultValue());
+                entry.minValue = TypedValue.of(dp.getMinValue());
+                entry.maxValue = TypedValue.of(dp.getMaxValue());
+                entry.step = TypedValue.of(dp.getStep());
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+            return entry;
+        }
+
+        HmDatapoint toDatapoint() {
+            HmDatapoint dp = new HmDatapoint(name, description, type, null, readOnly, paramsetType);
+            dp.setDefaultValue(TypedValue.toValue(defaultValue));
+            dp.setMinValue((Number) TypedValue.toValue(minValue));
+            dp.setMaxValue((Number) TypedValue.toValue(maxValue));
+            dp.setStep((Number) TypedValue.toValue(step));
+            dp.setOptions(options);
+            dp.setReadable(readable);
+            dp.setInfo(info);
+            dp.setUnit(unit);
+            dp.setValue(dp.getDefaultValue());
+            return dp;
+        }
+    }
+
+    /**
+     * A value with its Java type, the converters depend on the exact number types the gateway returned.
+     */
+    private static class TypedValue {
+        String type;
+        String value;
+
+        static TypedValue of(Object object) {
+            if (object == null) {
+                return null;
+            }
+            if (!(object instanceof Integer || object instanceof Long || object instanceof Float
+                    || object instanceof Double || object instanceof BigDecimal || object instanceof BigInteger
+                    || object instanceof Boolean || object instanceof String)) {
+                throw new IllegalArgumentException("Unsupported value type " + object.getClass().getName());
+            }
+            TypedValue typedValue = new TypedValue();
+            typedValue.type = object.getClass().getSimpleName();
+            typedValue.value = object.toString();
+            return typedValue;
+        }
+
+        static Object toValue(TypedValue typedValue) {
+            if (typedValue == null) {
+                return null;
+            }
+            if (typedValue.type == null || typedValue.value == null) {
+                throw new IllegalArgumentException("Incomplete value");
+            }
+            switch (typedValue.type) {
+                case "Integer":
+                    return Integer.valueOf(typedValue.value);
+                case "Long":
+                    return Long.valueOf(typedValue.value);
+                case "Float":
+                    return Float.valueOf(typedValue.value);
+                case "Double":
+                    return Double.valueOf(typedValue.value);
+                case "BigDecimal":
+                    return new BigDecimal(typedValue.value);
+                case "BigInteger":
+                    return new BigInteger(typedValue.value);
+                case "Boolean":
+                    return Boolean.valueOf(typedValue.value);
+                case "String":
+                    return typedValue.value;
+                default:
+                    throw new IllegalArgumentException("Unsupported value type " + typedValue.type);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,14 +30,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
+ * <p>
+ * Messages are decoded in place, without copying the data, so that a server can decode from a buffer it reuses for all
+ * messages of a connection.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author Contributors to the openHAB project - Decoding in place
  */
 public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private final Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
@@ -46,9 +50,13 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         RESPONSE
     }
 
+    public static final int HEADER_SIZE = 8;
+
     private Object[] messageData;
     private byte binRpcData[];
     private int offset;
+    private int end;
+    private boolean decoded;
 
     private String methodName;
     private TYPE type;
@@ -74,34 +82,79 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
         this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
+        byte header[] = new byte[HEADER_SIZE];
+        int length = readFully(is, header, 0, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading signature");
         }
-        validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
+        validateBinXSignature(header);
+        length = readFully(is, header, 4, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte payload[] = new byte[datasize];
-        int offset = 0;
-        int currentLength;
-
-        while (offset < datasize && (currentLength = is.read(payload, offset, datasize - offset)) != -1) {
-            offset += currentLength;
-        }
+        int datasize = getMessageSize(header, 0);
+        byte message[] = new byte[HEADER_SIZE + datasize];
+        System.arraycopy(header, 0, message, 0, HEADER_SIZE);
+        int offset = readFully(is, message, HEADER_SIZE, datasize);
         if (offset != datasize) {
             throw new EOFException("Only " + offset + " bytes received while reading message payload, expected "
                     + datasize + " bytes");
         }
-        byte[] message = ArrayUtils.addAll(sig, payload);
-        decodeMessage(message, methodHeader);
+        decodeMessage(message, 0, message.length, methodHeader);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the remaining bytes of the given buffer, which must be backed by an array. The
+     * data is not copied and the message does not keep a reference to the buffer, so the buffer can be reused once
+     * this constructor returns.
+     */
+    public BinRpcMessage(ByteBuffer buffer, boolean methodHeader, String encoding) throws IOException {
+        this.encoding = encoding;
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new EOFException("Only " + buffer.remaining() + " bytes received");
+        }
+        byte[] array = buffer.array();
+        int start = buffer.arrayOffset() + buffer.position();
+        validateBinXSignature(array, start);
+        int end = start + HEADER_SIZE + getMessageSize(array, start);
+        if (end > buffer.arrayOffset() + buffer.limit()) {
+            throw new EOFException("Message exceeds the " + buffer.remaining() + " bytes received");
+        }
+        decodeMessage(array, start, end, methodHeader);
+        buffer.position(end - buffer.arrayOffset());
+        binRpcData = null;
+    }
+
+    /**
+     * Returns the size of the message payload, which is encoded in the header starting at the given position.
+     */
+    public static int getMessageSize(byte[] header, int position) throws IOException {
+        int size = ((header[position + 4] & 0xff) << 24) | ((header[position + 5] & 0xff) << 16)
+                | ((header[position + 6] & 0xff) << 8) | (header[position + 7] & 0xff);
+        if (size < 0) {
+            throw new IOException("Invalid message size " + size);
+        }
+        return size;
+    }
+
+    private static int readFully(InputStream is, byte[] buffer, int offset, int length) throws IOException {
+        int read = 0;
+        int currentLength;
+        while (read < length && (currentLength = is.read(buffer, offset + read, length - read)) != -1) {
+            read += currentLength;
+        }
+        return read;
     }
 
     private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
+        validateBinXSignature(sig, 0);
+    }
+
+    /**
+     * Checks the "Bin" signature of a message starting at the given position.
+     */
+    public static void validateBinXSignature(byte[] sig, int position) throws UnsupportedEncodingException {
+        if (sig[position] != 'B' || sig[position + 1] != 'i' || sig[position + 2] != 'n') {
             throw new UnsupportedEncodingException("No BinX signature");
         }
     }
@@ -115,19 +168,20 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             throw new EOFException("Only " + message.length + " bytes received");
         }
         validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
+        decodeMessage(message, 0, message.length, methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
+    private void decodeMessage(byte[] message, int start, int end, boolean methodHeader) throws IOException {
         binRpcData = message;
-
-        offset = 8;
+        this.end = end;
+        offset = start + HEADER_SIZE;
+        decoded = true;
 
         if (methodHeader) {
             methodName = readString();
             readInt();
         }
-        generateResponseData();
+        readValues();
     }
 
     public void setType(TYPE type) {
@@ -136,12 +190,16 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
 
     private void generateResponseData() throws IOException {
         offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
+        end = binRpcData.length;
+        readValues();
+    }
+
+    private void readValues() throws IOException {
         List<Object> values = new ArrayList<>();
-        while (offset < binRpcData.length) {
+        while (offset < end) {
             values.add(readRpcValue());
         }
         messageData = values.toArray();
-        values.clear();
     }
 
     private void createHeader() {
@@ -197,15 +255,23 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
+    private void checkAvailable(int length) throws EOFException {
+        if (length < 0 || offset + length > end) {
+            throw new EOFException("Message ends before " + length + " more bytes at offset " + offset);
+        }
+    }
+
+    private int readInt() throws EOFException {
+        checkAvailable(4);
+        int value = ((binRpcData[offset] & 0xff) << 24) | ((binRpcData[offset + 1] & 0xff) << 16)
+                | ((binRpcData[offset + 2] & 0xff) << 8) | (binRpcData[offset + 3] & 0xff);
         offset += 4;
-        return (new BigInteger(bi)).intValue();
+        return value;
     }
 
-    private String readString() throws UnsupportedEncodingException {
+    private String readString() throws IOException {
         int len = readInt();
+        checkAvailable(len);
         offset += len;
         return new String(binRpcData, offset - len, len, encoding);
     }
@@ -214,8 +280,9 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         int type = readInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(readInt());
             case 2:
+                checkAvailable(1);
                 return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
                 return readString();
@@ -225,7 +292,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(readInt() * 1000L);
             case 0x100:
                 // Array
                 int numElements = readInt();
@@ -245,8 +312,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                if (logger.isDebugEnabled()) {
+                    for (int i = 0; i < end; i++) {
+                        logger.debug("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                    }
                 }
                 throw new IOException("Unknown data type " + type);
         }
@@ -259,20 +328,25 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         offset = temp;
     }
 
-    private void addByte(byte b) {
-        if (offset == binRpcData.length) {
-            byte newdata[] = new byte[binRpcData.length * 2];
-            System.arraycopy(binRpcData, 0, newdata, 0, binRpcData.length);
+    private void ensureCapacity(int length) {
+        if (offset + length > binRpcData.length) {
+            byte newdata[] = new byte[Math.max(binRpcData.length * 2, offset + length)];
+            System.arraycopy(binRpcData, 0, newdata, 0, offset);
             binRpcData = newdata;
         }
+    }
+
+    private void addByte(byte b) {
+        ensureCapacity(1);
         binRpcData[offset++] = b;
     }
 
     private void addInt(int value) {
-        addByte((byte) (value >> 24));
-        addByte((byte) (value >> 16));
-        addByte((byte) (value >> 8));
-        addByte((byte) (value));
+        ensureCapacity(4);
+        binRpcData[offset++] = (byte) (value >> 24);
+        binRpcData[offset++] = (byte) (value >> 16);
+        binRpcData[offset++] = (byte) (value >> 8);
+        binRpcData[offset++] = (byte) value;
     }
 
     private void addDouble(double value) {
@@ -304,9 +378,9 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         } catch (UnsupportedEncodingException use) {
             sd = string.getBytes();
         }
-        for (byte ch : sd) {
-            addByte(ch);
-        }
+        ensureCapacity(sd.length);
+        System.arraycopy(sd, 0, binRpcData, offset, sd.length);
+        offset += sd.length;
     }
 
     private void addList(Collection<?> collection) {
@@ -370,8 +444,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
+            if (!decoded) {
+                trimBinRpcData();
+                generateResponseData();
+            }
             return RpcUtils.dumpRpcMessage(methodName, messageData);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
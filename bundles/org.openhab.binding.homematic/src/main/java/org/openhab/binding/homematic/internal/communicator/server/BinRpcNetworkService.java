@@ -14,40 +14,189 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and hands them to the RpcResponseHandler.
+ * <p>
+ * All connections are served by one selector thread. A complete message is read into a pooled buffer, decoded in place
+ * and handled on the RPC thread pool, while the connection does not read further messages until the response has been
+ * written. Therefore the gateway gets its responses in order, but connections do not block each other.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author Contributors to the openHAB project - Non-blocking server with pooled buffers
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+
+    private static final int MAX_MESSAGE_SIZE = 32 * 1024 * 1024;
+    private static final int POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 8;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
 
+    private final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final Queue<Connection> pendingConnections = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The state of a connection from the gateway. Only the selector thread reads and writes the channel, the message
+     * buffer is handed over to the RPC thread pool while a message is handled.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final long created = System.currentTimeMillis();
+        private final ByteBuffer header = ByteBuffer.allocate(BinRpcMessage.HEADER_SIZE);
+        private ByteBuffer message;
+        private ByteBuffer response;
+        private volatile boolean failed;
+
+        Connection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+
+        void read() throws IOException {
+            if (message == null) {
+                if (channel.read(header) < 0) {
+                    close();
+                    return;
+                }
+                if (header.hasRemaining()) {
+                    return;
+                }
+                byte[] headerData = header.array();
+                BinRpcMessage.validateBinXSignature(headerData, 0);
+                int size = BinRpcMessage.getMessageSize(headerData, 0);
+                if (size > MAX_MESSAGE_SIZE) {
+                    throw new IOException("BIN-RPC message of " + size + " bytes exceeds the maximum size");
+                }
+                message = takeBuffer(BinRpcMessage.HEADER_SIZE + size);
+                header.flip();
+                message.put(header);
+                header.clear();
+            }
+            if (channel.read(message) < 0) {
+                close();
+                return;
+            }
+            if (!message.hasRemaining()) {
+                message.flip();
+                // Do not read the next message before this one is answered
+                key.interestOps(0);
+                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(this::handle);
+            }
+        }
+
+        /**
+         * Decodes and handles the message on the RPC thread pool.
+         */
+        private void handle() {
+            try {
+                BinRpcMessage binRpcMessage = new BinRpcMessage(message, true, config.getEncoding());
+                returnBuffer(message);
+                message = null;
+                logger.trace("Event BinRpcMessage: {}", binRpcMessage);
+                byte[] returnValue = rpcResponseHandler.handleMethodCall(binRpcMessage.getMethodName(),
+                        binRpcMessage.getResponseData());
+                if (returnValue != null) {
+                    response = ByteBuffer.wrap(returnValue);
+                }
+            } catch (Exception e) {
+                logger.warn("{}", e.getMessage(), e);
+                failed = true;
+            }
+            pendingConnections.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Called on the selector thread when a message has been handled.
+         */
+        void handled() throws IOException {
+            if (failed) {
+                close();
+            } else if (response != null) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else {
+                finishRequest();
+            }
+        }
+
+        void write() throws IOException {
+            channel.write(response);
+            if (!response.hasRemaining()) {
+                response = null;
+                finishRequest();
+            }
+        }
+
+        private void finishRequest() throws IOException {
+            boolean isMaxAliveReached = System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000);
+            if (isMaxAliveReached) {
+                close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                // ignore
+            }
+            if (message != null) {
+                returnBuffer(message);
+                message = null;
+            }
+        }
+    }
+
     /**
      * Creates the socket for listening to events from the Homematic gateway.
      */
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -78,27 +227,108 @@ public class BinRpcNetworkService implements Runnable {
      */
     @Override
     public void run() {
-        while (accept) {
+        try {
+            while (accept) {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingConnections.poll()) != null) {
+                    handled(connection);
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handleKey(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException ex) {
+            if (accept) {
+                logger.warn("BIN-RPC server stopped: {}", ex.getMessage(), ex);
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
             try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
+                selector.close();
+            } catch (IOException ioe) {
                 // ignore
             }
         }
     }
 
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            } else if (key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Closing BIN-RPC connection: {}", e.getMessage());
+            connection.close();
+        }
+    }
+
+    private void handled(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        try {
+            connection.handled();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Closing BIN-RPC connection: {}", e.getMessage());
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                new Connection(channel);
+            }
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    private ByteBuffer takeBuffer(int size) {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, POOLED_BUFFER_SIZE));
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    private void returnBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE && bufferPool.size() < MAX_POOLED_BUFFERS) {
+            bufferPool.offer(buffer);
+        }
+    }
+
     /**
      * Stops the listening.
      */
     public void shutdown() {
         accept = false;
         try {
-            serverSocket.close();
+            serverChannel.close();
         } catch (IOException ioe) {
             // ignore
         }
+        selector.wakeup();
     }
 
 }
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.misc.HomematicConstants;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmInterface;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests for {@link DeviceMetadataCache}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class DeviceMetadataCacheTest {
+    private static final String GATEWAY = "CCU3 3.47.22";
+
+    private File folder;
+
+    @Before
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("homematic").toFile();
+    }
+
+    @After
+    public void cleanup() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    private HmDevice createDevice(String address, String firmware, boolean withDatapoints) {
+        HmDevice device = new HmDevice(address, HmInterface.RF, "HM-LC-Dim1T-Pl", "CCU", null, firmware);
+        HmChannel maintenance = new HmChannel("MAINTENANCE", 0);
+        HmChannel dimmer = new HmChannel("DIMMER", 1);
+        HmChannel function = new HmChannel("MULTI_MODE_INPUT_TRANSMITTER", 2);
+        device.addChannel(maintenance);
+        device.addChannel(dimmer);
+        device.addChannel(function);
+        if (withDatapoints) {
+            HmDatapoint unreach = new HmDatapoint("UNREACH", "Unreach", HmValueType.BOOL, Boolean.FALSE, true,
+                    HmParamsetType.VALUES);
+            unreach.setDefaultValue(Boolean.FALSE);
+            maintenance.addDatapoint(unreach);
+
+            HmDatapoint level = new HmDatapoint("LEVEL", "Level", HmValueType.FLOAT, 0.0, false,
+                    HmParamsetType.VALUES);
+            level.setMinValue(Double.valueOf(0.0));
+            level.setMaxValue(new BigDecimal("1.01"));
+            level.setDefaultValue(Double.valueOf(0.0));
+            level.setUnit("100%");
+            dimmer.addDatapoint(level);
+
+            HmDatapoint ramp = new HmDatapoint("RAMP_TIME", "Ramp time", HmValueType.INTEGER, 5, false,
+                    HmParamsetType.MASTER);
+            ramp.setMinValue(Integer.valueOf(0));
+            ramp.setMaxValue(Long.valueOf(85825945L));
+            ramp.setOptions(new String[] { "A", "B" });
+            dimmer.addDatapoint(ramp);
+
+            function.addDatapoint(new HmDatapoint(HomematicConstants.DATAPOINT_NAME_CHANNEL_FUNCTION, "Function",
+                    HmValueType.ENUM, 1, false, HmParamsetType.MASTER));
+        }
+        return device;
+    }
+
+    @Test
+    public void storedMetadataIsLoadedWithExactTypes() {
+        new DeviceMetadataCache(folder, GATEWAY).storeDatapoints(createDevice("NEQ0000001", "2.9", true));
+
+        HmDevice device = createDevice("NEQ0000002", "2.9", false);
+        List<HmChannel> missingChannels = new DeviceMetadataCache(folder, GATEWAY).loadDatapoints(device);
+
+        assertThat(missingChannels, is(notNullValue()));
+        assertThat(missingChannels.size(), is(1));
+        assertThat(missingChannels.get(0).getNumber(), is(2));
+        assertThat(device.getChannel(2).getDatapoints().size(), is(0));
+
+        HmDatapoint level = device.getChannel(1).getDatapoint(HmParamsetType.VALUES, "LEVEL");
+        assertThat(level.getValue(), is((Object) Double.valueOf(0.0)));
+        assertThat(level.getMinValue(), is((Number) Double.valueOf(0.0)));
+        assertThat(level.getMaxValue(), is((Number) new BigDecimal("1.01")));
+        assertThat(level.getUnit(), is("100%"));
+        assertThat(level.getChannel(), is(device.getChannel(1)));
+
+        HmDatapoint ramp = device.getChannel(1).getDatapoint(HmParamsetType.MASTER, "RAMP_TIME");
+        assertThat(ramp.getMinValue(), is((Number) Integer.valueOf(0)));
+        assertThat(ramp.getMaxValue(), is((Number) Long.valueOf(85825945L)));
+        assertThat(ramp.getOptions()[1], is("B"));
+
+        HmDatapoint unreach = device.getChannel(0).getDatapoint(HmParamsetType.VALUES, "UNREACH");
+        assertThat(unreach.getDefaultValue(), is((Object) Boolean.FALSE));
+        assertThat(unreach.getValue(), is((Object) Boolean.FALSE));
+        assertThat(unreach.isReadOnly(), is(true));
+    }
+
+    @Test
+    public void otherFirmwareIsNotLoaded() {
+        new DeviceMetadataCache(folder, GATEWAY).storeDatapoints(createDevice("NEQ0000001", "2.9", true));
+
+        HmDevice device = createDevice("NEQ0000002", "2.11", false);
+
+        assertThat(new DeviceMetadataCache(folder, GATEWAY).loadDatapoints(device), is(nullValue()));
+    }
+
+    @Test
+    public void gatewayUpdateInvalidatesEntries() {
+        new DeviceMetadataCache(folder, GATEWAY).storeDatapoints(createDevice("NEQ0000001", "2.9", true));
+
+        HmDevice device = createDevice("NEQ0000002", "2.9", false);
+
+        assertThat(new DeviceMetadataCache(folder, "CCU3 3.49.17").loadDatapoints(device), is(nullValue()));
+    }
+
+    @Test
+    public void changedChannelsAreNotLoaded() {
+        new DeviceMetadataCache(folder, GATEWAY).storeDatapoints(createDevice("NEQ0000001", "2.9", true));
+
+        HmDevice device = createDevice("NEQ0000002", "2.9", false);
+        device.addChannel(new HmChannel("DIMMER", 3));
+
+        assertThat(new DeviceMetadataCache(folder, GATEWAY).loadDatapoints(device), is(nullValue()));
+        assertThat(device.getChannel(1).getDatapoints().size(), is(0));
+    }
+}
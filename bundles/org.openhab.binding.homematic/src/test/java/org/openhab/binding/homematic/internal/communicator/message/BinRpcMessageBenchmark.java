@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Measures the in place decoding of the system.multicall event batches a gateway sends after a restart. This is no
+ * unit test, run its main method with the test classpath and optionally the number of events per multicall and the
+ * number of decoded messages.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class BinRpcMessageBenchmark {
+    private static final String ENCODING = "ISO-8859-1";
+
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 150;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        byte[] data = BinRpcMessageTest.createMulticall(events);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        // warm up
+        for (int i = 0; i < messages / 10; i++) {
+            buffer.rewind();
+            new BinRpcMessage(buffer, true, ENCODING);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            buffer.rewind();
+            new BinRpcMessage(buffer, true, ENCODING);
+        }
+        long durationInNs = System.nanoTime() - start;
+
+        System.out.printf("Decoded %d multicalls of %d events (%d bytes) in %d ms: %d events/s%n", messages, events,
+                data.length, durationInNs / 1000000, (long) messages * events * 1000000000L / Math.max(1, durationInNs));
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for the in place decoding of {@link BinRpcMessage}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ENCODING = "ISO-8859-1";
+    // the size of the event batches a gateway sends after a restart
+    private static final int EVENTS_PER_MULTICALL = 150;
+
+    static byte[] createMulticall(int events) {
+        List<Object> calls = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", "event");
+            call.put("params", Arrays.asList("BidCos-RF", "NEQ00000" + i + ":1", "LEVEL", Double.valueOf(0.5)));
+            calls.add(call);
+        }
+        BinRpcMessage request = new BinRpcMessage("system.multicall", ENCODING);
+        request.addArg(calls);
+        return request.createMessage();
+    }
+
+    private void assertMulticall(BinRpcMessage message, int events) {
+        assertThat(message.getMethodName(), is("system.multicall"));
+        Object[] calls = (Object[]) message.getResponseData()[0];
+        assertThat(calls.length, is(events));
+        Map<?, ?> last = (Map<?, ?>) calls[events - 1];
+        assertThat(last.get("methodName"), is("event"));
+        Object[] params = (Object[]) last.get("params");
+        assertThat(params[1], is("NEQ00000" + (events - 1) + ":1"));
+        assertThat(params[3], is(0.5));
+    }
+
+    @Test
+    public void multicallIsDecodedFromBytes() throws IOException, ParseException {
+        BinRpcMessage message = new BinRpcMessage(createMulticall(3), true, ENCODING);
+
+        assertMulticall(message, 3);
+    }
+
+    @Test
+    public void multicallIsDecodedFromStream() throws IOException {
+        BinRpcMessage message = new BinRpcMessage(new ByteArrayInputStream(createMulticall(3)), true, ENCODING);
+
+        assertMulticall(message, 3);
+    }
+
+    @Test
+    public void multicallIsDecodedInPlaceFromReusedBuffer() throws IOException {
+        byte[] data = createMulticall(3);
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 20);
+        buffer.put(new byte[10]);
+        buffer.put(data);
+        buffer.put(new byte[10]);
+        buffer.flip();
+        buffer.position(10);
+
+        BinRpcMessage message = new BinRpcMessage(buffer, true, ENCODING);
+
+        assertMulticall(message, 3);
+        assertThat(buffer.position(), is(10 + data.length));
+        // the message does not depend on the buffer anymore
+        Arrays.fill(buffer.array(), (byte) 0);
+        assertMulticall(message, 3);
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedMessageIsRejected() throws IOException {
+        byte[] data = createMulticall(3);
+        new BinRpcMessage(ByteBuffer.wrap(data, 0, data.length - 1), true, ENCODING);
+    }
+
+    @Test
+    public void largeMulticallIsDecodedFromBuffer() throws IOException {
+        byte[] data = createMulticall(EVENTS_PER_MULTICALL);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        assertMulticall(new BinRpcMessage(buffer, true, ENCODING), EVENTS_PER_MULTICALL);
+        assertThat(buffer.remaining(), is(0));
+    }
+}
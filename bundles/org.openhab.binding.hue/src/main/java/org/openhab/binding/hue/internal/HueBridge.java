@@ -55,6 +55,8 @@ import com.google.gson.JsonParser;
  * @author Andre Fuechsel - search for lights with given serial number added
  * @author Denis Dudnik - moved Jue library source code inside the smarthome Hue binding, minor code cleanup
  * @author Samuel Leisering - added cached config and API-Version
+ * @author Contributors to the openHAB project - send updates through the {@link HueCommandScheduler}
+ * @author Contributors to the openHAB project - only parse changed lights and sensors when polling
  */
 @NonNullByDefault
 public class HueBridge {
@@ -69,7 +71,10 @@ public class HueBridge {
 
     private final Gson gson = new GsonBuilder().setDateFormat(DATE_FORMAT).create();
     private HttpClient http = new HttpClient();
-    private final ScheduledExecutorService scheduler;
+    private final HueCommandScheduler commandScheduler;
+    private final ResourceStateTracker<FullLight> lightTracker = new ResourceStateTracker<>(gson, FullLight.class);
+    private final ResourceStateTracker<FullSensor> sensorTracker = new ResourceStateTracker<>(gson,
+            FullSensor.class);
 
     @Nullable
     private Config cachedConfig;
@@ -92,7 +97,7 @@ public class HueBridge {
             baseUrl = protocol + "://" + ip + ":" + port + "/api";
         }
         this.baseUrl = baseUrl;
-        this.scheduler = scheduler;
+        this.commandScheduler = new HueCommandScheduler(http, scheduler, this::getRelativeURL);
     }
 
     /**
@@ -122,6 +127,15 @@ public class HueBridge {
         http.setTimeout(timeout);
     }
 
+    /**
+     * Returns the scheduler which sends the state and config updates to the bridge.
+     *
+     * @return command scheduler
+     */
+    public HueCommandScheduler getCommandScheduler() {
+        return commandScheduler;
+    }
+
     /**
      * Returns the IP address of the bridge.
      *
@@ -240,6 +254,39 @@ public class HueBridge {
         return sensorList;
     }
 
+    /**
+     * Returns the lights which changed since the previous call. The first call returns all lights.
+     * Requires an API version which supports full lights, see {@link ApiVersionUtils#supportsFullLights}.
+     *
+     * @return the changed lights and the ids of all lights
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public ResourceStateTracker.Changes<FullLight> getChangedLights() throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL("lights"));
+
+        handleErrors(result);
+
+        return lightTracker.update(result.getBody());
+    }
+
+    /**
+     * Returns the sensors which changed since the previous call. The first call returns all sensors.
+     *
+     * @return the changed sensors and the ids of all sensors
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public ResourceStateTracker.Changes<FullSensor> getChangedSensors() throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL("sensors"));
+
+        handleErrors(result);
+
+        return sensorTracker.update(result.getBody());
+    }
+
     /**
      * Returns the last time a search for new lights was started.
      * If a search is currently running, the current time will be
@@ -358,9 +405,7 @@ public class HueBridge {
     public CompletableFuture<Result> setLightState(FullLight light, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("lights/" + enc(light.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return commandScheduler.submitLightState(enc(light.getId()), update);
     }
 
     /**
@@ -376,9 +421,7 @@ public class HueBridge {
     public CompletableFuture<Result> setSensorState(FullSensor sensor, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return commandScheduler.submit("sensors/" + enc(sensor.getId()) + "/state", update);
     }    
     
     /**
@@ -393,9 +436,7 @@ public class HueBridge {
     public CompletableFuture<Result> updateSensorConfig(FullSensor sensor, ConfigUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/config"), body,
-                update.getMessageDelay(), scheduler);
+        return commandScheduler.submit("sensors/" + enc(sensor.getId()) + "/config", update);
     }
 
     /**
@@ -436,6 +477,31 @@ public class HueBridge {
         return groupList;
     }
 
+    /**
+     * Returns the list of groups with their lights, without the all lights group.
+     *
+     * @return list of groups
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public List<FullGroup> getFullGroups() throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL("groups"));
+
+        handleErrors(result);
+
+        Map<String, FullGroup> groupMap = safeFromJson(result.getBody(), FullGroup.GSON_TYPE);
+        ArrayList<FullGroup> groupList = new ArrayList<>();
+
+        for (String id : groupMap.keySet()) {
+            FullGroup group = groupMap.get(id);
+            group.setId(id);
+            groupList.add(group);
+        }
+
+        return groupList;
+    }
+
     /**
      * Creates a new group and returns it.
      * Due to API limitations, the name of the returned object
@@ -998,6 +1064,9 @@ public class HueBridge {
     public void handleErrors(Result result) throws IOException, ApiException {
         if (result.getResponseCode() != 200) {
             throw new IOException();
+        } else if (!isArray(result.getBody())) {
+            // errors are always returned as array, don't parse large resource objects twice
+            return;
         } else {
             try {
                 List<ErrorResponse> errors = gson.fromJson(result.getBody(), ErrorResponse.GSON_TYPE);
@@ -1034,6 +1103,16 @@ public class HueBridge {
         }
     }
 
+    private static boolean isArray(String body) {
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
     // UTF-8 URL encode
     private String enc(@Nullable String str) {
         if (str != null) {
@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the state and config updates of lights and sensors to the Hue bridge.
+ * <p>
+ * Updates are queued per resource. An update for a resource which is still queued is merged into the queued update,
+ * so the latest value of each attribute wins and the resource gets a single request. If all lights of a bridge group
+ * have the same queued update, the update is sent as one group action. The requests are paced by a token bucket,
+ * because the bridge drops commands if it receives more than about 10 light commands or one group command per second.
+ * A group action costs the tokens of its lights, at most the tokens of one second.
+ * <p>
+ * The first update is sent after {@link #COLLECT_DELAY_MS}, so that the updates of a scene or rule which switches many
+ * lights at once are queued together.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class HueCommandScheduler {
+    public static final int DEFAULT_COMMANDS_PER_SECOND = 10;
+    static final long COLLECT_DELAY_MS = 50;
+    private static final long METRICS_LOG_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final String ALL_LIGHTS_GROUP = "0";
+
+    private final Logger logger = LoggerFactory.getLogger(HueCommandScheduler.class);
+
+    private final HttpClient http;
+    private final ScheduledExecutorService scheduler;
+    private final Function<String, String> urlResolver;
+    private final LongSupplier clock;
+
+    // queued updates by resource path, in the order they were queued
+    private final Map<String, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+    private Map<String, Set<String>> groupLights = Collections.emptyMap();
+    private Set<String> allLights = Collections.emptySet();
+    private @Nullable ScheduledFuture<?> job;
+
+    private double commandsPerSecond = DEFAULT_COMMANDS_PER_SECOND;
+    private double tokens = DEFAULT_COMMANDS_PER_SECOND;
+    private long lastRefill;
+
+    private long queuedUpdates;
+    private long mergedUpdates;
+    private long sentRequests;
+    private long groupRequests;
+    private long lightsSentAsGroup;
+    private long totalWaitMs;
+    private long maxWaitMs;
+    private long lastMetricsLog;
+
+    /**
+     * @param http the client to send the requests
+     * @param scheduler the executor of the send job
+     * @param urlResolver resolves the URL of a resource path, like "lights/1/state"
+     */
+    public HueCommandScheduler(HttpClient http, ScheduledExecutorService scheduler,
+            Function<String, String> urlResolver) {
+        this(http, scheduler, urlResolver, System::currentTimeMillis);
+    }
+
+    HueCommandScheduler(HttpClient http, ScheduledExecutorService scheduler, Function<String, String> urlResolver,
+            LongSupplier clock) {
+        this.http = http;
+        this.scheduler = scheduler;
+        this.urlResolver = urlResolver;
+        this.clock = clock;
+        this.lastRefill = clock.getAsLong();
+        this.lastMetricsLog = lastRefill;
+    }
+
+    /**
+     * Sets the number of requests the bridge gets per second at most.
+     */
+    public synchronized void setCommandsPerSecond(int commandsPerSecond) {
+        this.commandsPerSecond = Math.max(1, commandsPerSecond);
+        tokens = Math.min(tokens, this.commandsPerSecond);
+    }
+
+    /**
+     * Sets the lights of the groups of the bridge, which are used to send the same update of several lights as group
+     * action.
+     *
+     * @param groupLights the light ids by group id
+     */
+    public synchronized void setGroups(Map<String, Set<String>> groupLights) {
+        Map<String, Set<String>> groups = new HashMap<>(groupLights);
+        groups.remove(ALL_LIGHTS_GROUP);
+        this.groupLights = groups;
+    }
+
+    /**
+     * Sets the ids of all lights of the bridge, which are the lights of the all lights group.
+     */
+    public synchronized void setLights(Set<String> lightIds) {
+        this.allLights = new HashSet<>(lightIds);
+    }
+
+    /**
+     * Queues the state update of a light.
+     *
+     * @param lightId the id of the light
+     * @param update the update
+     * @return the result of the request which contains the update
+     */
+    public CompletableFuture<Result> submitLightState(String lightId, ConfigUpdate update) {
+        return submit("lights/" + lightId + "/state", lightId, update);
+    }
+
+    /**
+     * Queues an update of a resource which is never sent as group action, like the state or config of a sensor.
+     *
+     * @param path the path of the resource, like "sensors/1/config"
+     * @param update the update
+     * @return the result of the request which contains the update
+     */
+    public CompletableFuture<Result> submit(String path, ConfigUpdate update) {
+        return submit(path, null, update);
+    }
+
+    private synchronized CompletableFuture<Result> submit(String path, @Nullable String lightId, ConfigUpdate update) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        queuedUpdates++;
+        PendingUpdate pending = pendingUpdates.get(path);
+        if (pending == null) {
+            pending = new PendingUpdate(path, lightId, clock.getAsLong());
+            pendingUpdates.put(path, pending);
+        } else {
+            mergedUpdates++;
+        }
+        pending.merge(update, future);
+
+        if (job == null) {
+            job = scheduler.schedule(this::sendPendingUpdates, COLLECT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    private void sendPendingUpdates() {
+        while (true) {
+            Request request;
+            synchronized (this) {
+                if (pendingUpdates.isEmpty()) {
+                    job = null;
+                    logMetrics();
+                    return;
+                }
+                refillTokens();
+                request = nextRequest();
+                if (tokens < request.cost) {
+                    long waitMs = (long) Math.ceil((request.cost - tokens) * 1000 / commandsPerSecond);
+                    job = scheduler.schedule(this::sendPendingUpdates, waitMs, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                tokens -= request.cost;
+
+                long now = clock.getAsLong();
+                for (PendingUpdate update : request.updates) {
+                    pendingUpdates.remove(update.path);
+                    long waitMs = now - update.queued;
+                    totalWaitMs += waitMs;
+                    maxWaitMs = Math.max(maxWaitMs, waitMs);
+                }
+                sentRequests++;
+                if (request.updates.size() > 1) {
+                    groupRequests++;
+                    lightsSentAsGroup += request.updates.size();
+                }
+            }
+            send(request);
+        }
+    }
+
+    private void send(Request request) {
+        String url = urlResolver.apply(request.path);
+        logger.debug("Sending put to address: {} body: {}", url, request.body);
+        try {
+            Result result = http.put(url, request.body);
+            request.updates.forEach(update -> update.futures.forEach(future -> future.complete(result)));
+        } catch (IOException | RuntimeException e) {
+            request.updates.forEach(update -> update.futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    private void refillTokens() {
+        long now = clock.getAsLong();
+        tokens = Math.min(commandsPerSecond, tokens + (now - lastRefill) * commandsPerSecond / 1000);
+        lastRefill = now;
+    }
+
+    /**
+     * Returns the request for the oldest queued update. If it is a light update and all lights of a group have the
+     * same queued update, the largest such group is used.
+     */
+    private Request nextRequest() {
+        PendingUpdate first = pendingUpdates.values().iterator().next();
+        String lightId = first.lightId;
+        if (lightId != null) {
+            Map<String, PendingUpdate> equalUpdates = new HashMap<>();
+            for (PendingUpdate update : pendingUpdates.values()) {
+                String updateLightId = update.lightId;
+                if (updateLightId != null && update.getBody().equals(first.getBody())) {
+                    equalUpdates.put(updateLightId, update);
+                }
+            }
+            if (equalUpdates.size() > 1) {
+                String groupId = findLargestGroup(lightId, equalUpdates.keySet());
+                if (groupId != null) {
+                    Set<String> lights = ALL_LIGHTS_GROUP.equals(groupId) ? allLights
+                            : groupLights.getOrDefault(groupId, Collections.emptySet());
+                    List<PendingUpdate> updates = new ArrayList<>();
+                    for (Map.Entry<String, PendingUpdate> update : equalUpdates.entrySet()) {
+                        if (lights.contains(update.getKey())) {
+                            updates.add(update.getValue());
+                        }
+                    }
+                    return new Request("groups/" + groupId + "/action", first.getBody(), updates,
+                            Math.min(updates.size(), commandsPerSecond));
+                }
+            }
+        }
+        return new Request(first.path, first.getBody(), Collections.singletonList(first), 1);
+    }
+
+    private @Nullable String findLargestGroup(String lightId, Set<String> lightIds) {
+        if (allLights.size() > 1 && lightIds.containsAll(allLights)) {
+            return ALL_LIGHTS_GROUP;
+        }
+        String largestGroup = null;
+        int largestSize = 1;
+        for (Map.Entry<String, Set<String>> group : groupLights.entrySet()) {
+            Set<String> lights = group.getValue();
+            if (lights.size() > largestSize && lights.contains(lightId) && lightIds.containsAll(lights)) {
+                largestGroup = group.getKey();
+                largestSize = lights.size();
+            }
+        }
+        return largestGroup;
+    }
+
+    private void logMetrics() {
+        long now = clock.getAsLong();
+        if (now - lastMetricsLog >= METRICS_LOG_INTERVAL_MS) {
+            lastMetricsLog = now;
+            logger.debug(
+                    "Hue commands: {} updates queued, {} merged, {} requests sent, {} group actions for {} lights, average wait {} ms, max wait {} ms",
+                    queuedUpdates, mergedUpdates, sentRequests, groupRequests, lightsSentAsGroup,
+                    getAverageWaitMillis(), maxWaitMs);
+        }
+    }
+
+    /**
+     * Returns the number of updates which were queued.
+     */
+    public synchronized long getQueuedUpdates() {
+        return queuedUpdates;
+    }
+
+    /**
+     * Returns the number of updates which were merged into an update which was already queued.
+     */
+    public synchronized long getMergedUpdates() {
+        return mergedUpdates;
+    }
+
+    /**
+     * Returns the number of requests which were sent to the bridge.
+     */
+    public synchronized long getSentRequests() {
+        return sentRequests;
+    }
+
+    /**
+     * Returns the number of group actions which were sent instead of light updates.
+     */
+    public synchronized long getGroupRequests() {
+        return groupRequests;
+    }
+
+    /**
+     * Returns the number of light updates which were sent as group action.
+     */
+    public synchronized long getLightsSentAsGroup() {
+        return lightsSentAsGroup;
+    }
+
+    /**
+     * Returns the number of resources with a queued update.
+     */
+    public synchronized int getQueueSize() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * Returns the average time an update was queued.
+     */
+    public synchronized long getAverageWaitMillis() {
+        long updates = queuedUpdates - mergedUpdates - pendingUpdates.size();
+        return updates > 0 ? totalWaitMs / updates : 0;
+    }
+
+    private static class PendingUpdate {
+        private final String path;
+        private final @Nullable String lightId;
+        private final long queued;
+        private final Map<String, Command> commands = new LinkedHashMap<>();
+        private final List<CompletableFuture<Result>> futures = new ArrayList<>();
+        private @Nullable String body;
+
+        PendingUpdate(String path, @Nullable String lightId, long queued) {
+            this.path = path;
+            this.lightId = lightId;
+            this.queued = queued;
+        }
+
+        void merge(ConfigUpdate update, CompletableFuture<Result> future) {
+            for (Command command : update.commands) {
+                commands.put(command.key, command);
+            }
+            futures.add(future);
+            body = null;
+        }
+
+        String getBody() {
+            String body = this.body;
+            if (body == null) {
+                body = commands.values().stream().map(c -> c.toJson()).collect(joining(",", "{", "}"));
+                this.body = body;
+            }
+            return body;
+        }
+    }
+
+    private static class Request {
+        private final String path;
+        private final String body;
+        private final List<PendingUpdate> updates;
+        private final double cost;
+
+        Request(String path, String body, List<PendingUpdate> updates, double cost) {
+            this.path = path;
+            this.body = body;
+            this.updates = updates;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.hue.internal.exceptions.ApiException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Keeps a hash of the JSON of each resource of a lights or sensors response, so that a poll only deserializes the
+ * resources which changed since the previous poll.
+ * <p>
+ * The response, a JSON object with the resources by id, is scanned in a single pass. The hash of each resource is
+ * computed over its JSON text while scanning, so an unchanged resource is neither copied nor deserialized.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ *
+ * @param <T> the type of the resources
+ */
+@NonNullByDefault
+public class ResourceStateTracker<T extends HueObject> {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Gson gson;
+    private final Class<T> type;
+    private final Map<String, Long> hashes = new HashMap<>();
+
+    /**
+     * The resources of a response which were added or changed since the previous response
+     */
+    public static class Changes<T> {
+        private final List<T> changed;
+        private final Set<String> ids;
+
+        Changes(List<T> changed, Set<String> ids) {
+            this.changed = changed;
+            this.ids = ids;
+        }
+
+        /**
+         * Returns the resources which were added or whose JSON changed.
+         */
+        public List<T> getChanged() {
+            return changed;
+        }
+
+        /**
+         * Returns the ids of all resources of the response, a resource which is missing was removed.
+         */
+        public Set<String> getIds() {
+            return ids;
+        }
+    }
+
+    public ResourceStateTracker(Gson gson, Class<T> type) {
+        this.gson = gson;
+        this.type = type;
+    }
+
+    /**
+     * Compares the resources of a response with the previous response.
+     *
+     * @param json the JSON object with the resources by id
+     * @return the changes since the previous response
+     * @throws ApiException if the JSON can not be parsed
+     */
+    public synchronized Changes<T> update(String json) throws ApiException {
+        List<T> changed = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        try {
+            int pos = skipWhitespace(json, 0);
+            expect(json, pos, '{');
+            pos = skipWhitespace(json, pos + 1);
+            boolean more = json.charAt(pos) != '}';
+            while (more) {
+                expect(json, pos, '"');
+                int keyEnd = skipString(json, pos);
+                String id = json.substring(pos + 1, keyEnd - 1);
+                pos = skipWhitespace(json, keyEnd);
+                expect(json, pos, ':');
+                int valueStart = skipWhitespace(json, pos + 1);
+                int valueEnd = skipValue(json, valueStart);
+
+                long hash = hash(json, valueStart, valueEnd);
+                ids.add(id);
+                Long previousHash = hashes.put(id, hash);
+                if (previousHash == null || previousHash != hash) {
+                    T resource = gson.fromJson(json.substring(valueStart, valueEnd), type);
+                    if (resource != null) {
+                        resource.setId(id);
+                        changed.add(resource);
+                    }
+                }
+
+                pos = skipWhitespace(json, valueEnd);
+                char c = json.charAt(pos);
+                if (c != ',' && c != '}') {
+                    throw new JsonParseException("Expected ',' or '}' at " + pos);
+                }
+                more = c == ',';
+                pos = skipWhitespace(json, pos + 1);
+            }
+        } catch (JsonParseException | StringIndexOutOfBoundsException e) {
+            // the next response is compared completely
+            hashes.clear();
+            throw new ApiException("API returned unexpected result: " + e.getMessage());
+        }
+        hashes.keySet().retainAll(ids);
+        return new Changes<>(changed, ids);
+    }
+
+    private static long hash(String json, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash ^= json.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static void expect(String json, int pos, char expected) {
+        if (json.charAt(pos) != expected) {
+            throw new JsonParseException("Expected '" + expected + "' at " + pos);
+        }
+    }
+
+    private static int skipWhitespace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the position after the string which starts at the given position.
+     */
+    private static int skipString(String json, int pos) {
+        int i = pos + 1;
+        while (true) {
+            char c = json.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Returns the position after the value which starts at the given position.
+     */
+    private static int skipValue(String json, int pos) {
+        char first = json.charAt(pos);
+        if (first == '"') {
+            return skipString(json, pos);
+        }
+        if (first != '{' && first != '[') {
+            int i = pos;
+            while (i < json.length() && ",}] \t\r\n".indexOf(json.charAt(i)) < 0) {
+                i++;
+            }
+            return i;
+        }
+        int depth = 0;
+        int i = pos;
+        while (true) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                i = skipString(json, i);
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+    }
+}
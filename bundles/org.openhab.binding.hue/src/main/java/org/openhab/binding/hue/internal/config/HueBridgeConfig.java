@@ -14,12 +14,14 @@ package org.openhab.binding.hue.internal.config;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.hue.internal.HueCommandScheduler;
 import org.openhab.binding.hue.internal.handler.HueBridgeHandler;
 
 /**
  * Configuration for the {@link HueBridgeHandler}.
  *
  * @author Christoph Weitkamp - Initial contribution
+ * @author Contributors to the openHAB project - Added commands per second
  */
 @NonNullByDefault
 public class HueBridgeConfig {
@@ -32,6 +34,7 @@ public class HueBridgeConfig {
     private @Nullable String userName;
     private int pollingInterval = 10;
     private int sensorPollingInterval = 500;
+    private int commandsPerSecond = HueCommandScheduler.DEFAULT_COMMANDS_PER_SECOND;
 
     public String getIpAddress() {
         return ipAddress;
@@ -80,4 +83,12 @@ public class HueBridgeConfig {
     public void setSensorPollingInterval(int sensorPollingInterval) {
         this.sensorPollingInterval = sensorPollingInterval;
     }
+
+    public int getCommandsPerSecond() {
+        return commandsPerSecond;
+    }
+
+    public void setCommandsPerSecond(int commandsPerSecond) {
+        this.commandsPerSecond = commandsPerSecond;
+    }
 }
@@ -30,6 +30,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -47,10 +48,14 @@ import org.openhab.binding.hue.internal.ApiVersionUtils;
 import org.openhab.binding.hue.internal.Config;
 import org.openhab.binding.hue.internal.ConfigUpdate;
 import org.openhab.binding.hue.internal.FullConfig;
+import org.openhab.binding.hue.internal.FullGroup;
 import org.openhab.binding.hue.internal.FullLight;
 import org.openhab.binding.hue.internal.FullSensor;
 import org.openhab.binding.hue.internal.HueBridge;
+import org.openhab.binding.hue.internal.HueCommandScheduler;
 import org.openhab.binding.hue.internal.HueConfigStatusMessage;
+import org.openhab.binding.hue.internal.HueObject;
+import org.openhab.binding.hue.internal.ResourceStateTracker;
 import org.openhab.binding.hue.internal.State;
 import org.openhab.binding.hue.internal.StateUpdate;
 import org.openhab.binding.hue.internal.config.HueBridgeConfig;
@@ -76,6 +81,8 @@ import org.slf4j.LoggerFactory;
  * @author Denis Dudnik - switched to internally integrated source of Jue library
  * @author Samuel Leisering - Added support for sensor API
  * @author Christoph Weitkamp - Added support for sensor API
+ * @author Contributors to the openHAB project - Provide the groups to the command scheduler
+ * @author Contributors to the openHAB project - Only process changed lights and sensors, notify their listeners only
  */
 @NonNullByDefault
 public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueClient {
@@ -157,6 +164,8 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private static final String DEVICE_TYPE = "EclipseSmartHome";
 
+    private static final long GROUP_REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
     private final Logger logger = LoggerFactory.getLogger(HueBridgeHandler.class);
 
     private final Map<String, FullLight> lastLightStates = new ConcurrentHashMap<>();
@@ -166,6 +175,8 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private boolean propertiesInitializedSuccessfully = false;
 
+    private long lastGroupRefresh = 0;
+
     private final List<LightStatusListener> lightStatusListeners = new CopyOnWriteArrayList<>();
     private final List<SensorStatusListener> sensorStatusListeners = new CopyOnWriteArrayList<>();
 
@@ -178,35 +189,37 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private final Runnable sensorPollingRunnable = new PollingRunnable() {
         @Override
         protected void doConnectedRun() throws IOException, ApiException {
-            Map<String, FullSensor> lastSensorStateCopy = new HashMap<>(lastSensorStates);
+            // only sensors whose JSON changed since the last poll are parsed
+            ResourceStateTracker.Changes<FullSensor> changes = hueBridge.getChangedSensors();
 
-            for (final FullSensor sensor : hueBridge.getSensors()) {
+            for (final FullSensor sensor : changes.getChanged()) {
                 String sensorId = sensor.getId();
-                if (lastSensorStateCopy.containsKey(sensorId)) {
-                    final FullSensor lastFullSensor = lastSensorStateCopy.remove(sensorId);
-                    final Map<String, Object> lastFullSensorState = lastFullSensor.getState();
-                    lastSensorStates.put(sensorId, sensor);
-                    if (!lastFullSensorState.equals(sensor.getState())) {
+                final FullSensor lastFullSensor = lastSensorStates.put(sensorId, sensor);
+                if (lastFullSensor != null) {
+                    if (!lastFullSensor.getState().equals(sensor.getState())) {
                         logger.debug("Status update for Hue sensor '{}' detected: {}", sensorId, sensor.getState());
                         notifySensorStatusListeners(sensor, STATE_CHANGED);
                     }
                 } else {
-                    lastSensorStates.put(sensorId, sensor);
                     logger.debug("Hue sensor '{}' added.", sensorId);
                     notifySensorStatusListeners(sensor, STATE_ADDED);
-
                 }
             }
 
             // Check for removed sensors
-            for (Entry<String, FullSensor> fullSensorEntry : lastSensorStateCopy.entrySet()) {
+            for (Entry<String, FullSensor> fullSensorEntry : lastSensorStates.entrySet()) {
+                if (changes.getIds().contains(fullSensorEntry.getKey())) {
+                    continue;
+                }
                 lastSensorStates.remove(fullSensorEntry.getKey());
                 logger.debug("Hue sensor '{}' removed.", fullSensorEntry.getKey());
                 for (SensorStatusListener sensorStatusListener : sensorStatusListeners) {
-                    try {
-                        sensorStatusListener.onSensorRemoved(hueBridge, fullSensorEntry.getValue());
-                    } catch (Exception e) {
-                        logger.error("An exception occurred while calling the Sensor Listeners", e);
+                    if (isListenerFor(sensorStatusListener.getSensorId(), fullSensorEntry.getKey())) {
+                        try {
+                            sensorStatusListener.onSensorRemoved(hueBridge, fullSensorEntry.getValue());
+                        } catch (Exception e) {
+                            logger.error("An exception occurred while calling the Sensor Listeners", e);
+                        }
                     }
                 }
             }
@@ -216,41 +229,48 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private final Runnable lightPollingRunnable = new PollingRunnable() {
         @Override
         protected void doConnectedRun() throws IOException, ApiException {
-            Map<String, FullLight> lastLightStateCopy = new HashMap<>(lastLightStates);
-
             List<FullLight> lights;
+            Set<String> lightIds;
             if (ApiVersionUtils.supportsFullLights(hueBridge.getVersion())) {
-                lights = hueBridge.getFullLights();
+                // only lights whose JSON changed since the last poll are parsed
+                ResourceStateTracker.Changes<FullLight> changes = hueBridge.getChangedLights();
+                lights = changes.getChanged();
+                lightIds = changes.getIds();
             } else {
                 lights = hueBridge.getFullConfig().getLights();
+                lightIds = lights.stream().map(FullLight::getId).collect(Collectors.toSet());
             }
 
             for (final FullLight fullLight : lights) {
                 final String lightId = fullLight.getId();
-                if (lastLightStateCopy.containsKey(lightId)) {
-                    final FullLight lastFullLight = lastLightStateCopy.remove(lightId);
-                    final State lastFullLightState = lastFullLight.getState();
-                    lastLightStates.put(lightId, fullLight);
-                    if (!isEqual(lastFullLightState, fullLight.getState())) {
+                final FullLight lastFullLight = lastLightStates.put(lightId, fullLight);
+                if (lastFullLight != null) {
+                    if (!isEqual(lastFullLight.getState(), fullLight.getState())) {
                         logger.debug("Status update for Hue light '{}' detected.", lightId);
                         notifyLightStatusListeners(fullLight, STATE_CHANGED);
                     }
                 } else {
-                    lastLightStates.put(lightId, fullLight);
                     logger.debug("Hue light '{}' added.", lightId);
                     notifyLightStatusListeners(fullLight, STATE_ADDED);
                 }
             }
 
+            updateCommandGroups(lightIds);
+
             // Check for removed lights
-            for (Entry<String, FullLight> fullLightEntry : lastLightStateCopy.entrySet()) {
+            for (Entry<String, FullLight> fullLightEntry : lastLightStates.entrySet()) {
+                if (lightIds.contains(fullLightEntry.getKey())) {
+                    continue;
+                }
                 lastLightStates.remove(fullLightEntry.getKey());
                 logger.debug("Hue light '{}' removed.", fullLightEntry.getKey());
                 for (LightStatusListener lightStatusListener : lightStatusListeners) {
-                    try {
-                        lightStatusListener.onLightRemoved(hueBridge, fullLightEntry.getValue());
-                    } catch (Exception e) {
-                        logger.error("An exception occurred while calling the BridgeHeartbeatListener", e);
+                    if (isListenerFor(lightStatusListener.getLightId(), fullLightEntry.getKey())) {
+                        try {
+                            lightStatusListener.onLightRemoved(hueBridge, fullLightEntry.getValue());
+                        } catch (Exception e) {
+                            logger.error("An exception occurred while calling the BridgeHeartbeatListener", e);
+                        }
                     }
                 }
             }
@@ -371,6 +391,30 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
     }
 
+    /**
+     * Provides the lights and, every {@link #GROUP_REFRESH_INTERVAL_MS}, the groups of the bridge to the command
+     * scheduler, which sends equal updates of all lights of a group as one group action.
+     */
+    private void updateCommandGroups(Set<String> lightIds) {
+        HueCommandScheduler commandScheduler = hueBridge.getCommandScheduler();
+        commandScheduler.setLights(lightIds);
+
+        long now = System.currentTimeMillis();
+        if (now - lastGroupRefresh >= GROUP_REFRESH_INTERVAL_MS) {
+            try {
+                Map<String, Set<String>> groupLights = new HashMap<>();
+                for (FullGroup group : hueBridge.getFullGroups()) {
+                    groupLights.put(group.getId(),
+                            group.getLights().stream().map(HueObject::getId).collect(Collectors.toSet()));
+                }
+                commandScheduler.setGroups(groupLights);
+                lastGroupRefresh = now;
+            } catch (IOException | ApiException e) {
+                logger.debug("Cannot load the groups of the Hue bridge: {}", e.getMessage());
+            }
+        }
+    }
+
     private void startLightPolling() {
         if (lightPollingJob == null || lightPollingJob.isCancelled()) {
             if (hueBridgeConfig.getPollingInterval() < 1) {
@@ -435,6 +479,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                 hueBridge = new HueBridge(ip, hueBridgeConfig.getPort(), hueBridgeConfig.getProtocol(), scheduler);
                 hueBridge.setTimeout(5000);
             }
+            hueBridge.getCommandScheduler().setCommandsPerSecond(hueBridgeConfig.getCommandsPerSecond());
             onUpdate();
         }
     }
@@ -713,6 +758,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
 
         for (LightStatusListener lightStatusListener : lightStatusListeners) {
+            if (!isListenerFor(lightStatusListener.getLightId(), fullLight.getId())) {
+                continue;
+            }
             try {
                 switch (type) {
                     case STATE_ADDED:
@@ -743,6 +791,9 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
 
         for (SensorStatusListener sensorStatusListener : sensorStatusListeners) {
+            if (!isListenerFor(sensorStatusListener.getSensorId(), fullSensor.getId())) {
+                continue;
+            }
             try {
                 switch (type) {
                     case STATE_ADDED:
@@ -766,6 +817,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
     }
 
+    private static boolean isListenerFor(@Nullable String listenerId, String id) {
+        return listenerId == null || listenerId.equals(id);
+    }
+
     /**
      * Compare to states for equality.
      *
@@ -73,6 +73,7 @@ import org.slf4j.LoggerFactory;
  * @author Denis Dudnik - switched to internally integrated source of Jue library
  * @author Christoph Weitkamp - Added support for bulbs using CIE XY colormode only
  * @author Jochen Leopold - Added support for custom fade times
+ * @author Contributors to the openHAB project - only receive the updates of the own light
  */
 @NonNullByDefault
 public class HueLightHandler extends BaseThingHandler implements LightStatusListener {
@@ -506,6 +507,11 @@ public class HueLightHandler extends BaseThingHandler implements LightStatusList
         }
     }
 
+    @Override
+    public @Nullable String getLightId() {
+        return lightId;
+    }
+
     @Override
     public void onLightRemoved(@Nullable HueBridge bridge, FullLight light) {
         if (light.getId().equals(lightId)) {
@@ -51,6 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Samuel Leisering - Initial contribution
  * @author Christoph Weitkamp - Initial contribution
+ * @author Contributors to the openHAB project - only receive the updates of the own sensor
  */
 @NonNullByDefault
 public abstract class HueSensorHandler extends BaseThingHandler implements SensorStatusListener {
@@ -325,6 +326,11 @@ public abstract class HueSensorHandler extends BaseThingHandler implements Senso
      */
     protected abstract void doSensorStateChanged(@Nullable HueBridge bridge, FullSensor sensor, Configuration config);
 
+    @Override
+    public @Nullable String getSensorId() {
+        return sensorId;
+    }
+
     @Override
     public void onSensorRemoved(@Nullable HueBridge bridge, FullSensor sensor) {
         if (sensor.getId().equals(sensorId)) {
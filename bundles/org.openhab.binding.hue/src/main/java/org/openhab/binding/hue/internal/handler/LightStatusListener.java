@@ -22,10 +22,21 @@ import org.openhab.binding.hue.internal.HueBridge;
  *
  * @author Oliver Libutzki - Initial contribution
  * @author Denis Dudnik - switched to internally integrated source of Jue library, minor code cleanup
+ * @author Contributors to the openHAB project - added {@link #getLightId()}
  */
 @NonNullByDefault
 public interface LightStatusListener {
 
+    /**
+     * Returns the id of the light this listener is interested in. The bridge only notifies the listener about this
+     * light.
+     *
+     * @return the id of the light or null to be notified about all lights
+     */
+    default @Nullable String getLightId() {
+        return null;
+    }
+
     /**
      * This method is called whenever the state of the given light has changed. The new state can be obtained by
      * {@link FullLight#getState()}.
@@ -22,10 +22,21 @@ import org.openhab.binding.hue.internal.HueBridge;
  *
  * @author Samuel Leisering - Initial contribution
  * @author Christoph Weitkamp - Initial contribution
+ * @author Contributors to the openHAB project - added {@link #getSensorId()}
  */
 @NonNullByDefault
 public interface SensorStatusListener {
 
+    /**
+     * Returns the id of the sensor this listener is interested in. The bridge only notifies the listener about this
+     * sensor.
+     *
+     * @return the id of the sensor or null to be notified about all sensors
+     */
+    default @Nullable String getSensorId() {
+        return null;
+    }
+
     /**
      * This method is called whenever the state of the given sensor has changed. The new state can be obtained by
      * {@link FullSensor#getState()}.
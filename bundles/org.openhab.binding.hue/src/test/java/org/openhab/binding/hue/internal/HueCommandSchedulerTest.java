@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+
+/**
+ * Tests for the {@link HueCommandScheduler}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class HueCommandSchedulerTest {
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+
+    private final HttpClient http = new HttpClient() {
+        @Override
+        protected Result doNetwork(String address, String requestMethod, @Nullable String body) {
+            requests.add(address + " " + body);
+            requestTimes.add(System.currentTimeMillis());
+            return new Result("[]", 200);
+        }
+    };
+
+    private ScheduledExecutorService scheduler;
+    private HueCommandScheduler commandScheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        commandScheduler = new HueCommandScheduler(http, scheduler, path -> "/api/user/" + path);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static StateUpdate brightness(int brightness) {
+        return new StateUpdate().setBrightness(brightness);
+    }
+
+    @Test
+    public void queuedUpdatesOfALightAreMerged() throws Exception {
+        CompletableFuture<Result> on = commandScheduler.submitLightState("1", new StateUpdate().turnOn());
+        CompletableFuture<Result> bri = commandScheduler.submitLightState("1", brightness(100));
+        CompletableFuture<Result> bri2 = commandScheduler.submitLightState("1", brightness(200));
+
+        bri2.get(2, TimeUnit.SECONDS);
+
+        assertTrue(on.isDone());
+        assertTrue(bri.isDone());
+        assertEquals(Arrays.asList("/api/user/lights/1/state {\"on\":true,\"bri\":200}"), requests);
+        assertEquals(3, commandScheduler.getQueuedUpdates());
+        assertEquals(2, commandScheduler.getMergedUpdates());
+        assertEquals(1, commandScheduler.getSentRequests());
+    }
+
+    @Test
+    public void equalUpdatesOfAllGroupLightsAreSentAsGroupAction() throws Exception {
+        commandScheduler.setGroups(Collections.singletonMap("3", new HashSet<>(Arrays.asList("1", "2", "4"))));
+        commandScheduler.setLights(new HashSet<>(Arrays.asList("1", "2", "4", "5")));
+
+        commandScheduler.submitLightState("1", new StateUpdate().turnOff());
+        commandScheduler.submitLightState("5", brightness(10));
+        commandScheduler.submitLightState("2", new StateUpdate().turnOff());
+        CompletableFuture<Result> last = commandScheduler.submitLightState("4", new StateUpdate().turnOff());
+
+        last.get(2, TimeUnit.SECONDS);
+        Thread.sleep(100);
+
+        assertEquals(Arrays.asList("/api/user/groups/3/action {\"on\":false}",
+                "/api/user/lights/5/state {\"bri\":10}"), requests);
+        assertEquals(1, commandScheduler.getGroupRequests());
+        assertEquals(3, commandScheduler.getLightsSentAsGroup());
+    }
+
+    @Test
+    public void equalUpdatesOfAllLightsAreSentToTheAllLightsGroup() throws Exception {
+        commandScheduler.setLights(new HashSet<>(Arrays.asList("1", "2")));
+
+        commandScheduler.submitLightState("1", new StateUpdate().turnOff());
+        commandScheduler.submitLightState("2", new StateUpdate().turnOff()).get(2, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("/api/user/groups/0/action {\"on\":false}"), requests);
+    }
+
+    @Test
+    public void partialGroupUpdatesAreSentPerLight() throws Exception {
+        commandScheduler.setGroups(Collections.singletonMap("3", new HashSet<>(Arrays.asList("1", "2", "4"))));
+
+        commandScheduler.submitLightState("1", new StateUpdate().turnOff());
+        commandScheduler.submitLightState("2", new StateUpdate().turnOff()).get(2, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("/api/user/lights/1/state {\"on\":false}",
+                "/api/user/lights/2/state {\"on\":false}"), requests);
+    }
+
+    @Test
+    public void requestsArePaced() throws Exception {
+        commandScheduler.setCommandsPerSecond(2);
+
+        CompletableFuture<Result> last = null;
+        for (int i = 1; i <= 4; i++) {
+            last = commandScheduler.submitLightState(String.valueOf(i), brightness(i));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, requests.size());
+        // the bucket holds the tokens of one second, the remaining requests have to wait for new tokens
+        assertTrue(requestTimes.get(3) - requestTimes.get(0) >= 900);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.openhab.binding.hue.internal.ResourceStateTracker.Changes;
+import org.openhab.binding.hue.internal.exceptions.ApiException;
+
+import com.google.gson.Gson;
+
+/**
+ * Tests for the {@link ResourceStateTracker}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ResourceStateTrackerTest {
+
+    private static final String LIGHT_1 = "{\"state\":{\"on\":true,\"bri\":254,\"xy\":[0.3,0.3]},"
+            + "\"name\":\"Desk \\\"}\\\" lamp\"}";
+    private static final String LIGHT_2 = "{\"state\":{\"on\":false,\"bri\":1},\"name\":\"Hallway\"}";
+    private static final String LIGHT_2_ON = "{\"state\":{\"on\":true,\"bri\":1},\"name\":\"Hallway\"}";
+
+    private final ResourceStateTracker<FullLight> tracker = new ResourceStateTracker<>(new Gson(), FullLight.class);
+
+    private static String lights(String... idsAndLights) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < idsAndLights.length; i += 2) {
+            if (i > 0) {
+                json.append(",\n ");
+            }
+            json.append('"').append(idsAndLights[i]).append("\": ").append(idsAndLights[i + 1]);
+        }
+        return json.append('}').toString();
+    }
+
+    @Test
+    public void allLightsAreReturnedInitially() throws ApiException {
+        Changes<FullLight> changes = tracker.update(lights("1", LIGHT_1, "2", LIGHT_2));
+
+        assertEquals(2, changes.getChanged().size());
+        assertEquals("1", changes.getChanged().get(0).getId());
+        assertEquals("Desk \"}\" lamp", changes.getChanged().get(0).getName());
+        assertEquals(254, changes.getChanged().get(0).getState().getBrightness());
+        assertEquals("2", changes.getChanged().get(1).getId());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), changes.getIds());
+    }
+
+    @Test
+    public void onlyChangedLightsAreReturned() throws ApiException {
+        tracker.update(lights("1", LIGHT_1, "2", LIGHT_2));
+
+        Changes<FullLight> changes = tracker.update(lights("1", LIGHT_1, "2", LIGHT_2_ON));
+
+        assertEquals(1, changes.getChanged().size());
+        assertEquals("2", changes.getChanged().get(0).getId());
+        assertTrue(changes.getChanged().get(0).getState().isOn());
+
+        assertTrue(tracker.update(lights("1", LIGHT_1, "2", LIGHT_2_ON)).getChanged().isEmpty());
+    }
+
+    @Test
+    public void removedLightsAreMissingInIdsAndReturnedWhenAddedAgain() throws ApiException {
+        tracker.update(lights("1", LIGHT_1, "2", LIGHT_2));
+
+        Changes<FullLight> changes = tracker.update(lights("2", LIGHT_2));
+        assertTrue(changes.getChanged().isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("2")), changes.getIds());
+
+        changes = tracker.update(lights("1", LIGHT_1, "2", LIGHT_2));
+        assertEquals(1, changes.getChanged().size());
+        assertEquals("1", changes.getChanged().get(0).getId());
+    }
+
+    @Test
+    public void emptyObjectHasNoLights() throws ApiException {
+        tracker.update(lights("1", LIGHT_1));
+
+        Changes<FullLight> changes = tracker.update(" { } ");
+
+        assertTrue(changes.getChanged().isEmpty());
+        assertTrue(changes.getIds().isEmpty());
+    }
+
+    @Test
+    public void invalidJsonResetsTheTracker() throws ApiException {
+        tracker.update(lights("1", LIGHT_1));
+
+        try {
+            tracker.update("{\"1\": {\"state\":");
+            fail("ApiException expected");
+        } catch (ApiException e) {
+            // expected
+        }
+
+        assertEquals(1, tracker.update(lights("1", LIGHT_1)).getChanged().size());
+    }
+}
@@ -78,6 +78,7 @@ import org.w3c.dom.Document;
  * sent to one of the channels.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Dispatch resource values by resource id
  */
 public class IhcHandler extends BaseThingHandler implements IhcEventListener {
     private final Logger logger = LoggerFactory.getLogger(IhcHandler.class);
@@ -126,6 +127,24 @@ public class IhcHandler extends BaseThingHandler implements IhcEventListener {
 
     private Map<String, ScheduledFuture<?>> longPressFutures = new HashMap<>();
 
+    /**
+     * Channels by resource id, rebuilt when the thing (and so its channels or
+     * their configuration) is replaced.
+     */
+    private final Object resourceChannelsLock = new Object();
+    private Thing resourceChannelsThing;
+    private Map<Integer, List<ResourceChannel>> resourceChannels = Collections.emptyMap();
+
+    private static class ResourceChannel {
+        final Channel channel;
+        final ChannelParams params;
+
+        ResourceChannel(Channel channel, ChannelParams params) {
+            this.channel = channel;
+            this.params = params;
+        }
+    }
+
     public IhcHandler(Thing thing) {
         super(thing);
     }
@@ -711,14 +730,9 @@ public class IhcHandler extends BaseThingHandler implements IhcEventListener {
     public void resourceValueUpdateReceived(WSResourceValue value) {
         logger.debug("resourceValueUpdateReceived: {}", value);
 
-        thing.getChannels().forEach(channel -> {
+        getResourceChannels(value.resourceID).forEach(resourceChannel -> {
             try {
-                ChannelParams params = new ChannelParams(channel);
-                if (params.getResourceId() != null && params.getResourceId().intValue() == value.resourceID) {
-                    updateChannelState(channel, params, value);
-                }
-            } catch (ConversionException e) {
-                logger.warn("Channel param error, reason: {}.", e.getMessage(), e);
+                updateChannelState(resourceChannel.channel, resourceChannel.params, value);
             } catch (RuntimeException e) {
                 logger.warn("Unknown error occured, reason: {}.", e.getMessage(), e);
             }
@@ -778,39 +792,62 @@ public class IhcHandler extends BaseThingHandler implements IhcEventListener {
     }
 
     private void updateTriggers(int resourceId, Duration duration) {
-        thing.getChannels().forEach(channel -> {
-            try {
-                ChannelParams params = new ChannelParams(channel);
-                if (params.getResourceId() != null && params.getResourceId().intValue() == resourceId) {
-                    if (params.getChannelTypeId() != null) {
-                        switch (params.getChannelTypeId()) {
-                            case CHANNEL_TYPE_PUSH_BUTTON_TRIGGER:
-                                logger.debug("Update trigger channel '{}', channel params: {}",
-                                        channel.getUID().getId(), params);
-                                if (duration.toMillis() == 0) {
-                                    triggerChannel(channel.getUID().getId(), EVENT_PRESSED);
-                                    createLongPressTask(channel.getUID().getId(), params.getLongPressTime());
-                                } else {
-                                    cancelLongPressTask(channel.getUID().getId());
-                                    triggerChannel(channel.getUID().getId(), EVENT_RELEASED);
-                                    triggerChannel(channel.getUID().getId(), String.valueOf(duration.toMillis()));
-                                    ButtonPressDurationDetector button = new ButtonPressDurationDetector(duration,
-                                            params.getLongPressTime(), MAX_LONG_PRESS_IN_MS);
-                                    logger.debug("resourceId={}, ButtonPressDurationDetector={}", resourceId, button);
-                                    if (button.isShortPress()) {
-                                        triggerChannel(channel.getUID().getId(), EVENT_SHORT_PRESS);
-                                    }
-                                    break;
-                                }
+        getResourceChannels(resourceId).forEach(resourceChannel -> {
+            Channel channel = resourceChannel.channel;
+            ChannelParams params = resourceChannel.params;
+            if (params.getChannelTypeId() != null) {
+                switch (params.getChannelTypeId()) {
+                    case CHANNEL_TYPE_PUSH_BUTTON_TRIGGER:
+                        logger.debug("Update trigger channel '{}', channel params: {}", channel.getUID().getId(),
+                                params);
+                        if (duration.toMillis() == 0) {
+                            triggerChannel(channel.getUID().getId(), EVENT_PRESSED);
+                            createLongPressTask(channel.getUID().getId(), params.getLongPressTime());
+                        } else {
+                            cancelLongPressTask(channel.getUID().getId());
+                            triggerChannel(channel.getUID().getId(), EVENT_RELEASED);
+                            triggerChannel(channel.getUID().getId(), String.valueOf(duration.toMillis()));
+                            ButtonPressDurationDetector button = new ButtonPressDurationDetector(duration,
+                                    params.getLongPressTime(), MAX_LONG_PRESS_IN_MS);
+                            logger.debug("resourceId={}, ButtonPressDurationDetector={}", resourceId, button);
+                            if (button.isShortPress()) {
+                                triggerChannel(channel.getUID().getId(), EVENT_SHORT_PRESS);
+                            }
+                            break;
                         }
-                    }
                 }
-            } catch (ConversionException e) {
-                logger.warn("Channel param error, reason:  {}", e.getMessage(), e);
             }
         });
     }
 
+    /**
+     * Returns the channels of a resource. The channel parameters are parsed
+     * once per thing instead of for every channel on every received value.
+     */
+    private List<ResourceChannel> getResourceChannels(int resourceId) {
+        synchronized (resourceChannelsLock) {
+            Thing thing = getThing();
+            if (thing != resourceChannelsThing) {
+                Map<Integer, List<ResourceChannel>> channels = new HashMap<>();
+                thing.getChannels().forEach(channel -> {
+                    try {
+                        ChannelParams params = new ChannelParams(channel);
+                        if (params.getResourceId() != null) {
+                            channels.computeIfAbsent(params.getResourceId(), id -> new ArrayList<>())
+                                    .add(new ResourceChannel(channel, params));
+                        }
+                    } catch (ConversionException e) {
+                        logger.warn("Channel param error, reason: {}.", e.getMessage(), e);
+                    }
+                });
+                logger.debug("Indexed channels of {} resources", channels.size());
+                resourceChannels = channels;
+                resourceChannelsThing = thing;
+            }
+            return resourceChannels.getOrDefault(resourceId, Collections.emptyList());
+        }
+    }
+
     private void createLongPressTask(String channelId, long longPressTimeInMs) {
         if (longPressFutures.containsKey(channelId)) {
             cancelLongPressTask(channelId);
@@ -16,7 +16,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.xpath.XPath;
@@ -32,8 +34,11 @@ import org.xml.sax.InputSource;
 /**
  * Class for XPath utils.
  *
+ * XPath and compiled expressions are not thread safe, so each thread has its own XPath instance and compiles an
+ * expression only once. All expressions used by the binding are constants, so the cache stays small.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Reuse XPath and compiled expressions
  */
 public class XPathUtils {
     private static NamespaceContext ihcNamespaceContext = new NamespaceContext() {
@@ -61,14 +66,29 @@ public class XPathUtils {
         }
     };
 
+    private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(() -> {
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        xpath.setNamespaceContext(ihcNamespaceContext);
+        return xpath;
+    });
+
+    private static final ThreadLocal<Map<String, XPathExpression>> EXPRESSIONS = ThreadLocal.withInitial(HashMap::new);
+
+    private static XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = EXPRESSIONS.get();
+        XPathExpression expression = expressions.get(xpathExpression);
+        if (expression == null) {
+            expression = XPATH.get().compile(xpathExpression);
+            expressions.put(xpathExpression, expression);
+        }
+        return expression;
+    }
+
     public static String parseXMLValue(String xml, String xpathExpression)
             throws IOException, XPathExpressionException {
         try (InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8.name()))) {
-            XPath xpath = XPathFactory.newInstance().newXPath();
             InputSource inputSource = new InputSource(is);
-
-            xpath.setNamespaceContext(ihcNamespaceContext);
-            return (String) xpath.evaluate(xpathExpression, inputSource, XPathConstants.STRING);
+            return (String) compile(xpathExpression).evaluate(inputSource, XPathConstants.STRING);
         }
     }
 
@@ -82,18 +102,13 @@ public class XPathUtils {
     }
 
     public static String getSpeficValueFromNode(Node n, String xpathExpr) throws XPathExpressionException {
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        xpath.setNamespaceContext(ihcNamespaceContext);
-        XPathExpression pathExpr = xpath.compile(xpathExpr);
-        return (String) pathExpr.evaluate(n, XPathConstants.STRING);
+        return (String) compile(xpathExpr).evaluate(n, XPathConstants.STRING);
     }
 
     public static NodeList parseList(String xml, String xpathExpression) throws XPathExpressionException, IOException {
         try (InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8.name()))) {
-            XPath xpath = XPathFactory.newInstance().newXPath();
             InputSource inputSource = new InputSource(is);
-            xpath.setNamespaceContext(ihcNamespaceContext);
-            return (NodeList) xpath.evaluate(xpathExpression, inputSource, XPathConstants.NODESET);
+            return (NodeList) compile(xpathExpression).evaluate(inputSource, XPathConstants.NODESET);
         }
     }
 
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ihc.internal.ws.services;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSBooleanValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSDateValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSEnumValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSFloatingPointValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSIntegerValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSResourceValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimeValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSTimerValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSWeekdayValue;
+
+/**
+ * Streaming parser for the resource value envelopes of the getRuntimeValue and waitForResourceValueChanges responses.
+ *
+ * The response is read once with StAX and each envelope is converted to a {@link WSResourceValue} when its end is
+ * reached, instead of building a DOM and evaluating several XPath expressions per value.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+class ResourceValueParser {
+    private static final String UTCS_NAMESPACE = "utcs";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     * Fields of one resource value envelope, missing fields are empty like the string results of XPath
+     */
+    private static class Envelope {
+        String resourceId = "";
+        String floatingPointValue = "";
+        String value = "";
+        String integer = "";
+        String minimumValue = "";
+        String maximumValue = "";
+        String milliseconds = "";
+        String hours = "";
+        String minutes = "";
+        String seconds = "";
+        String year = "";
+        String month = "";
+        String day = "";
+        String definitionTypeID = "";
+        String enumValueID = "";
+        String enumName = "";
+        String weekdayNumber = "";
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Parses all resource value envelopes of a response.
+     *
+     * @param xml response from the controller.
+     * @param elementName local name of the envelope elements in the utcs namespace, e.g. arrayItem.
+     * @param containerName local name of the element which contains the envelopes, or null if the envelope is
+     *            directly in the SOAP body.
+     * @return resource values, empty envelopes (e.g. the timeout response of the controller) are skipped.
+     * @throws XMLStreamException if the response is not valid XML.
+     * @throws IllegalArgumentException if the container element is missing or the value type is not supported.
+     * @throws NumberFormatException if a value can't be parsed.
+     */
+    static List<WSResourceValue> parse(String xml, String elementName, String containerName)
+            throws XMLStreamException {
+        List<WSResourceValue> values = new ArrayList<>();
+        boolean containerFound = containerName == null;
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT
+                        || !UTCS_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if (name.equals(containerName)) {
+                    containerFound = true;
+                } else if (name.equals(elementName)) {
+                    WSResourceValue value = createValue(readEnvelope(reader));
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (!containerFound) {
+            throw new IllegalArgumentException("No " + containerName + " element found");
+        }
+        return values;
+    }
+
+    private static Envelope readEnvelope(XMLStreamReader reader) throws XMLStreamException {
+        Envelope envelope = new Envelope();
+        boolean inValue = false;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 1 && "resourceID".equals(reader.getLocalName())) {
+                    envelope.resourceId = reader.getElementText();
+                } else if (depth == 2 && inValue) {
+                    // the fields are the child elements of the value element of the envelope
+                    readValueField(reader, envelope);
+                } else {
+                    if (depth == 1) {
+                        inValue = "value".equals(reader.getLocalName());
+                    }
+                    depth++;
+                }
+            }
+        }
+        return envelope;
+    }
+
+    private static void readValueField(XMLStreamReader reader, Envelope envelope) throws XMLStreamException {
+        String name = reader.getLocalName();
+        String text = reader.getElementText();
+        switch (name) {
+            case "floatingPointValue":
+                envelope.floatingPointValue = text;
+                break;
+            case "value":
+                envelope.value = text;
+                break;
+            case "integer":
+                envelope.integer = text;
+                break;
+            case "minimumValue":
+                envelope.minimumValue = text;
+                break;
+            case "maximumValue":
+                envelope.maximumValue = text;
+                break;
+            case "milliseconds":
+                envelope.milliseconds = text;
+                break;
+            case "hours":
+                envelope.hours = text;
+                break;
+            case "minutes":
+                envelope.minutes = text;
+                break;
+            case "seconds":
+                envelope.seconds = text;
+                break;
+            case "year":
+                envelope.year = text;
+                break;
+            case "month":
+                envelope.month = text;
+                break;
+            case "day":
+                envelope.day = text;
+                break;
+            case "definitionTypeID":
+                envelope.definitionTypeID = text;
+                break;
+            case "enumValueID":
+                envelope.enumValueID = text;
+                break;
+            case "enumName":
+                envelope.enumName = text;
+                break;
+            case "weekdayNumber":
+                envelope.weekdayNumber = text;
+                break;
+            default:
+        }
+    }
+
+    private static WSResourceValue createValue(Envelope e) {
+        if (StringUtils.isBlank(e.resourceId)) {
+            return null;
+        }
+        int id = Integer.parseInt(e.resourceId);
+
+        if (StringUtils.isNotBlank(e.floatingPointValue)) {
+            return new WSFloatingPointValue(id, Double.valueOf(e.floatingPointValue), Double.valueOf(e.minimumValue),
+                    Double.valueOf(e.maximumValue));
+        }
+        if (StringUtils.isNotBlank(e.value)) {
+            return new WSBooleanValue(id, Boolean.valueOf(e.value));
+        }
+        if (StringUtils.isNotBlank(e.integer)) {
+            return new WSIntegerValue(id, Integer.valueOf(e.integer), Integer.valueOf(e.minimumValue),
+                    Integer.valueOf(e.maximumValue));
+        }
+        if (StringUtils.isNotBlank(e.milliseconds)) {
+            return new WSTimerValue(id, Integer.valueOf(e.milliseconds));
+        }
+        if (StringUtils.isNotBlank(e.hours)) {
+            return new WSTimeValue(id, Integer.valueOf(e.hours), Integer.valueOf(e.minutes),
+                    Integer.valueOf(e.seconds));
+        }
+        if (StringUtils.isNotBlank(e.year)) {
+            return new WSDateValue(id, Short.valueOf(e.year), Byte.valueOf(e.month), Byte.valueOf(e.day));
+        }
+        if (StringUtils.isNotBlank(e.definitionTypeID)) {
+            return new WSEnumValue(id, Integer.valueOf(e.definitionTypeID), Integer.valueOf(e.enumValueID),
+                    e.enumName);
+        }
+        if (StringUtils.isNotBlank(e.weekdayNumber)) {
+            return new WSWeekdayValue(id, Integer.valueOf(e.weekdayNumber));
+        }
+        throw new IllegalArgumentException("Unsupported value type");
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ihc.internal.ws.services;
+
+import static org.openhab.binding.ihc.internal.ws.services.ResourceValueParserTest.*;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Measures the decoding of resource value notification batches by the {@link ResourceValueParser}. This is no unit
+ * test, run its main method with the test classpath and optionally the number of decoded batches.
+ * <p>
+ * A batch repeats the 8 values of the test response ResourceValueNotificationsResponse.xml 100 times.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ResourceValueParserBenchmark {
+
+    public static void main(String[] args) throws XMLStreamException {
+        int batches = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        String response = createBatch(100);
+        int values = ResourceValueParser.parse(response, ENVELOPE, CONTAINER).size();
+
+        // warm up
+        for (int i = 0; i < batches / 10; i++) {
+            ResourceValueParser.parse(response, ENVELOPE, CONTAINER);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < batches; i++) {
+            ResourceValueParser.parse(response, ENVELOPE, CONTAINER);
+        }
+        long ns = System.nanoTime() - start;
+
+        System.out.printf("Decoded %d notification batches of %d values (%d bytes): %d values/s%n", batches, values,
+                response.length(), (long) batches * values * 1000000000L / Math.max(1, ns));
+    }
+}
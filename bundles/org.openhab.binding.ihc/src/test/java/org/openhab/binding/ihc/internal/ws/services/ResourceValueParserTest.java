@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ihc.internal.ws.services;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.openhab.binding.ihc.internal.ws.ResourceFileUtils;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSBooleanValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSFloatingPointValue;
+import org.openhab.binding.ihc.internal.ws.resourcevalues.WSResourceValue;
+
+/**
+ * Test for IHC / ELKO binding
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ResourceValueParserTest {
+    static final String CONTAINER = "waitForResourceValueChanges2";
+    static final String ENVELOPE = "arrayItem";
+
+    // @formatter:off
+    private static final String TIMEOUT_RESPONSE =
+              "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\">\n"
+            + "<SOAP-ENV:Body>\n"
+            + "<ns1:waitForResourceValueChanges2 xmlns:ns1=\"utcs\">\n"
+            + "<ns1:arrayItem xsi:type=\"ns1:WSResourceValueEnvelope\">\n"
+            + "<ns1:resourceID xsi:type=\"xsd:int\"></ns1:resourceID>\n"
+            + "</ns1:arrayItem>\n"
+            + "</ns1:waitForResourceValueChanges2>\n"
+            + "</SOAP-ENV:Body>\n"
+            + "</SOAP-ENV:Envelope>";
+    // @formatter:on
+
+    @Test
+    public void testRuntimeValue() throws XMLStreamException {
+        String response = ResourceFileUtils.getFileContent("ResourceValueQueryResponse22222.xml");
+        List<WSResourceValue> values = ResourceValueParser.parse(response, "getRuntimeValue2", null);
+        assertEquals(1, values.size());
+        WSFloatingPointValue val = (WSFloatingPointValue) values.get(0);
+        assertEquals(22222, val.resourceID);
+        assertEquals(24.399999618530273, val.value, 0.000001);
+        assertEquals(-1000.0, val.minimumValue, 0.01);
+        assertEquals(1000.0, val.maximumValue, 0.01);
+    }
+
+    @Test
+    public void testBooleanValueIsNotMixedWithEnvelopeValue() throws XMLStreamException {
+        String response = ResourceFileUtils.getFileContent("ResourceValueQueryResponse11111.xml");
+        List<WSResourceValue> values = ResourceValueParser.parse(response, "getRuntimeValue2", null);
+        assertEquals(1, values.size());
+        assertEquals(true, ((WSBooleanValue) values.get(0)).value);
+    }
+
+    @Test
+    public void testTimeoutResponse() throws XMLStreamException {
+        List<WSResourceValue> values = ResourceValueParser.parse(TIMEOUT_RESPONSE, ENVELOPE, CONTAINER);
+        assertTrue(values.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingContainer() throws XMLStreamException {
+        String response = ResourceFileUtils.getFileContent("ResourceValueQueryResponse11111.xml");
+        ResourceValueParser.parse(response, ENVELOPE, CONTAINER);
+    }
+
+    @Test
+    public void testNotificationBatch() throws XMLStreamException {
+        List<WSResourceValue> values = ResourceValueParser.parse(createBatch(100), ENVELOPE, CONTAINER);
+        assertEquals(800, values.size());
+        for (int i = 8; i < values.size(); i++) {
+            assertEquals(values.get(i % 8).resourceID, values.get(i).resourceID);
+            assertEquals(values.get(i % 8).getClass(), values.get(i).getClass());
+        }
+    }
+
+    /**
+     * Creates a notification response with the values of the test response repeated.
+     */
+    static String createBatch(int repeat) {
+        String response = ResourceFileUtils.getFileContent("ResourceValueNotificationsResponse.xml");
+        int start = response.indexOf("<ns1:arrayItem");
+        int end = response.lastIndexOf("</ns1:arrayItem>") + "</ns1:arrayItem>".length();
+        String items = response.substring(start, end);
+        StringBuilder batch = new StringBuilder(response.substring(0, start));
+        for (int i = 0; i < repeat; i++) {
+            batch.append(items).append('\n');
+        }
+        return batch.append(response.substring(end)).toString();
+    }
+}
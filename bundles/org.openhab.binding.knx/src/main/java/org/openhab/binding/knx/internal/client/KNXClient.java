@@ -62,6 +62,9 @@ public interface KNXClient {
 
     /**
      * Register the given listener to be informed on KNX bus traffic.
+     * <p>
+     * Registering an already registered listener again refreshes the group addresses it is indexed for, which is
+     * necessary whenever the result of {@link GroupAddressListener#getGroupAddresses()} changes.
      *
      * @param listener the listener
      * @return {@code true} if it wasn't registered before
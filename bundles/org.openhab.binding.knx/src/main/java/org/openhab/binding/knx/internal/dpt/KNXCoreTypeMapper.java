@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -95,6 +96,21 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     private static final String TIME_DAY_FORMAT = new String("EEE, HH:mm:ss");
     private static final String DATE_FORMAT = new String("yyyy-MM-dd");
 
+    private static final int MAX_CACHED_TRANSLATORS = 32;
+
+    /**
+     * translators are stateful and not thread-safe, so they are cached per DPT id instead of being created for every
+     * telegram and taken out of the cache while in use. The least recently used translators are dropped.
+     */
+    private final Map<String, DPTXlator> translators = new LinkedHashMap<String, DPTXlator>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DPTXlator> eldest) {
+            return size() > MAX_CACHED_TRANSLATORS;
+        }
+    };
+
     /**
      * stores the openHAB type class for (supported) KNX datapoint types in a generic way.
      * dptTypeMap stores more specific type class and exceptions.
@@ -587,8 +603,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         }
 
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+            DPTXlator translator = acquireTranslator(mainNumber, dptID);
             dpt = translator.getType();
+            releaseTranslator(dptID, translator);
         } catch (KNXException e) {
             return null;
         }
@@ -674,8 +691,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        DPTXlator translator = null;
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            translator = acquireTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
             String value = translator.getValue();
 
@@ -856,11 +874,44 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     datapoint.getDPT());
         } catch (KNXException e) {
             logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+        } finally {
+            if (translator != null) {
+                releaseTranslator(datapoint.getDPT(), translator);
+            }
         }
 
         return null;
     }
 
+    /**
+     * Takes the translator for the given datapoint type out of the cache, or creates it if none is available. It has to
+     * be returned with {@link #releaseTranslator(String, DPTXlator)} after use.
+     *
+     * @param mainNumber the main number of the datapoint type, or 0 to derive it from the id
+     * @param dptID the datapoint type id
+     * @return the translator for the datapoint type
+     * @throws KNXException if no translator is available for the datapoint type
+     */
+    DPTXlator acquireTranslator(int mainNumber, String dptID) throws KNXException {
+        DPTXlator translator;
+        synchronized (translators) {
+            translator = translators.remove(dptID);
+        }
+        return translator != null ? translator : TranslatorTypes.createTranslator(mainNumber, dptID);
+    }
+
+    /**
+     * Puts a translator back into the cache.
+     *
+     * @param dptID the datapoint type id
+     * @param translator the translator that is no longer used
+     */
+    void releaseTranslator(String dptID, DPTXlator translator) {
+        synchronized (translators) {
+            translators.put(dptID, translator);
+        }
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
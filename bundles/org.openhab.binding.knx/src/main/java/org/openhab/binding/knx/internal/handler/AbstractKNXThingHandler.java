@@ -57,6 +57,7 @@ public abstract class AbstractKNXThingHandler extends BaseThingHandler implement
     private final Random random = new Random();
 
     private @Nullable ScheduledFuture<?> pollingJob;
+    private volatile boolean attached = false;
 
     public AbstractKNXThingHandler(Thing thing) {
         super(thing);
@@ -196,10 +197,21 @@ public abstract class AbstractKNXThingHandler extends BaseThingHandler implement
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getLocalizedMessage());
         }
         getClient().registerGroupAddressListener(this);
+        attached = true;
         scheduleReadJobs();
     }
 
+    /**
+     * Refreshes the group addresses this handler is registered for at the client, if it is currently attached.
+     */
+    protected final void updateGroupAddressRegistration() {
+        if (attached) {
+            getClient().registerGroupAddressListener(this);
+        }
+    }
+
     protected void detachFromClient() {
+        attached = false;
         if (pollingJob != null) {
             pollingJob.cancel(true);
             pollingJob = null;
@@ -15,6 +15,7 @@ package org.openhab.binding.knx.internal.handler;
 import static org.openhab.binding.knx.internal.KNXBindingConstants.*;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -69,7 +70,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private final Logger logger = LoggerFactory.getLogger(DeviceThingHandler.class);
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
-    private final Set<GroupAddress> groupAddresses = new HashSet<>();
+    private volatile Set<GroupAddress> groupAddresses = Collections.emptySet();
     private final Set<GroupAddress> groupAddressesWriteBlockedOnce = new HashSet<>();
     private final Set<OutboundSpec> groupAddressesRespondingSpec = new HashSet<>();
     private final Map<GroupAddress, @Nullable ScheduledFuture<?>> readFutures = new HashMap<>();
@@ -83,18 +84,27 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
 
     @Override
     public void initialize() {
-        super.initialize();
         DeviceConfig config = getConfigAs(DeviceConfig.class);
         readInterval = config.getReadInterval().intValue();
         initializeGroupAddresses();
+        super.initialize();
     }
 
+    /**
+     * Collects the group addresses of all linked channels, as only those can be affected by bus telegrams.
+     */
     private void initializeGroupAddresses() {
-        forAllChannels((selector, channelConfiguration) -> {
-            groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
-        });
+        Set<GroupAddress> linkedGroupAddresses = new HashSet<>();
+        for (Channel channel : getThing().getChannels()) {
+            if (isLinked(channel.getUID().getId())) {
+                withKNXType(channel, (selector, channelConfiguration) -> {
+                    linkedGroupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
+                    linkedGroupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
+                    linkedGroupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
+                });
+            }
+        }
+        groupAddresses = Collections.unmodifiableSet(linkedGroupAddresses);
     }
 
     @Override
@@ -130,14 +140,10 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         }
     }
 
-    private void forAllChannels(ChannelFunction function) {
-        for (Channel channel : getThing().getChannels()) {
-            withKNXType(channel, function);
-        }
-    }
-
     @Override
     public void channelLinked(ChannelUID channelUID) {
+        initializeGroupAddresses();
+        updateGroupAddressRegistration();
         if (!isControl(channelUID)) {
             withKNXType(channelUID, (selector, configuration) -> {
                 scheduleRead(selector, configuration);
@@ -145,6 +151,12 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         }
     }
 
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        initializeGroupAddresses();
+        updateGroupAddressRegistration();
+    }
+
     @Override
     protected void scheduleReadJobs() {
         cancelReadFutures();
@@ -195,6 +207,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         return groupAddresses.contains(destination);
     }
 
+    @Override
+    public Set<GroupAddress> getGroupAddresses() {
+        return groupAddresses;
+    }
+
     /** KNXIO remember controls, removeIf may be null */
     @SuppressWarnings("null")
     private void rememberRespondingSpec(OutboundSpec commandSpec, boolean add) {
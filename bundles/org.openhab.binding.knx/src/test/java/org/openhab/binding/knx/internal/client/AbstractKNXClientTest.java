@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+import tuwien.auto.calimero.process.ProcessEvent;
+
+/**
+ * Tests the dispatching of bus telegrams through the group address index of {@link AbstractKNXClient}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class AbstractKNXClientTest {
+
+    private final GroupAddress light = new GroupAddress(1, 0, 1);
+    private final GroupAddress blind = new GroupAddress(1, 0, 2);
+    private final IndividualAddress source = new IndividualAddress(1, 1, 1);
+    private final byte[] asdu = new byte[] { 1 };
+
+    private ScheduledExecutorService scheduler;
+    private AbstractKNXClient client;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        client = new AbstractKNXClient(0, new ThingUID("knx", "ip", "bridge"), 0, 0, 0, scheduler,
+                mock(StatusUpdateCallback.class)) {
+            @Override
+            protected KNXNetworkLink establishConnection() throws KNXException {
+                throw new KNXException("no bus in tests");
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static GroupAddressListener listener(GroupAddress... groupAddresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(groupAddresses)));
+        return listener;
+    }
+
+    /**
+     * Receives a group write telegram and waits until the listeners are notified
+     */
+    private void groupWrite(GroupAddress destination) throws Exception {
+        ProcessEvent event = mock(ProcessEvent.class);
+        when(event.getDestination()).thenReturn(destination);
+        when(event.getSourceAddr()).thenReturn(source);
+        when(event.getASDU()).thenReturn(asdu);
+        client.processListener.groupWrite(event);
+        // the notifications are executed by the scheduler in the order they were scheduled
+        scheduler.submit(() -> null).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void onlyTheListenersOfTheDestinationAreNotified() throws Exception {
+        GroupAddressListener lightListener = listener(light);
+        GroupAddressListener blindListener = listener(blind);
+        GroupAddressListener bothListener = listener(light, blind);
+        assertTrue(client.registerGroupAddressListener(lightListener));
+        assertTrue(client.registerGroupAddressListener(blindListener));
+        assertTrue(client.registerGroupAddressListener(bothListener));
+
+        groupWrite(light);
+
+        verify(lightListener).onGroupWrite(client, source, light, asdu);
+        verify(bothListener).onGroupWrite(client, source, light, asdu);
+        verify(blindListener, never()).onGroupWrite(any(), any(), any(), any());
+        // the listeners are not asked whether they listen to the destination
+        verify(blindListener, never()).listensTo(any());
+    }
+
+    @Test
+    public void changedGroupAddressesAreIndexedAgain() throws Exception {
+        GroupAddressListener listener = listener(light);
+        assertTrue(client.registerGroupAddressListener(listener));
+
+        // a channel with the other group address was linked and the first one unlinked
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(blind)));
+        assertFalse(client.registerGroupAddressListener(listener));
+
+        groupWrite(light);
+        verify(listener, never()).onGroupWrite(any(), any(), any(), any());
+        groupWrite(blind);
+        verify(listener).onGroupWrite(client, source, blind, asdu);
+    }
+
+    @Test
+    public void unregisteredListenersAreNotNotified() throws Exception {
+        GroupAddressListener listener = listener(light);
+        assertTrue(client.registerGroupAddressListener(listener));
+        assertTrue(client.unregisterGroupAddressListener(listener));
+        assertFalse(client.unregisterGroupAddressListener(listener));
+
+        groupWrite(light);
+
+        verify(listener, never()).onGroupWrite(any(), any(), any(), any());
+    }
+}
@@ -12,11 +12,24 @@
  */
 package org.openhab.binding.knx.internal.dpt;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.junit.Test;
 
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+
 /**
  *
  * @author Simon Kaufmann - initial contribution and API
@@ -30,4 +43,41 @@ public class KNXCoreTypeMapperTest {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
 
+    @Test
+    public void translatorIsNotSharedWhileInUse() throws KNXException {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        DPTXlator first = mapper.acquireTranslator(0, "5.010");
+        DPTXlator second = mapper.acquireTranslator(0, "5.010");
+        assertNotSame(first, second);
+
+        mapper.releaseTranslator("5.010", first);
+        assertSame(first, mapper.acquireTranslator(0, "5.010"));
+    }
+
+    @Test
+    public void concurrentConversionsOfTheSameDPT() throws Exception {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        Datapoint datapoint = new CommandDP(new GroupAddress(1, 0, 0), "counter", 0, "5.010");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t * 50;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        int value = offset + i % 50;
+                        DecimalType type = (DecimalType) mapper.toType(datapoint, new byte[] { (byte) value });
+                        assertEquals(value, type.intValue());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
@@ -50,7 +50,7 @@ import org.openhab.binding.loxone.internal.types.LxConfig;
 import org.openhab.binding.loxone.internal.types.LxConfig.LxServerInfo;
 import org.openhab.binding.loxone.internal.types.LxErrorCode;
 import org.openhab.binding.loxone.internal.types.LxResponse;
-import org.openhab.binding.loxone.internal.types.LxState;
+import org.openhab.binding.loxone.internal.types.LxStateIndex;
 import org.openhab.binding.loxone.internal.types.LxUuid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +63,7 @@ import com.google.gson.GsonBuilder;
  * objects (controls) configured in the Miniserver over channels.
  *
  * @author Pawel Pieczul - Initial contribution
+ * @author Contributors to the openHAB project - Index of states for decoding event tables in place
  */
 public class LxServerHandler extends BaseThingHandler implements LxServerHandlerApi {
 
@@ -77,11 +78,11 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
     // initial delay to initiate connection
     private int reconnectDelay;
 
-    // Map of state UUID to a map of control UUID and state objects
+    // Index of state UUID to the state objects of all controls
     // State with a unique UUID can be configured in many controls and each control can even have a different name of
     // the state. It must be ensured that updates received for this state UUID are passed to all controls that have this
     // state UUID configured.
-    private Map<LxUuid, Map<LxUuid, LxState>> states = new HashMap<>();
+    private final LxStateIndex states = new LxStateIndex();
 
     private LxWebSocket socket;
     private WebSocketClient wsClient;
@@ -255,16 +256,7 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
         logger.debug("[{}] Removing control: {}", debugId, control.getName());
         control.getSubControls().values().forEach(subControl -> removeControl(subControl));
         LxUuid controlUuid = control.getUuid();
-        control.getStates().values().forEach(state -> {
-            LxUuid stateUuid = state.getUuid();
-            Map<LxUuid, LxState> perUuid = states.get(stateUuid);
-            if (perUuid != null) {
-                perUuid.remove(controlUuid);
-                if (perUuid.isEmpty()) {
-                    states.remove(stateUuid);
-                }
-            }
-        });
+        control.getStates().values().forEach(state -> states.remove(controlUuid, state.getUuid()));
 
         ThingBuilder builder = editThing();
         control.getChannels().forEach(channel -> {
@@ -399,20 +391,29 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
     }
 
     /**
-     * Update to the new value of a state received from Miniserver. This method will go through all instances of this
-     * state UUID and update their value, which will trigger corresponding control state update method in each control
-     * that has this state.
+     * Update to the new values of states received from Miniserver in an event table of value states. This method will
+     * go through all instances of each changed state UUID and update their value, which will trigger corresponding
+     * control state update method in each control that has this state.
      *
-     * @param uuid  Miniserver's state UUID
-     * @param value a new value for this state
+     * @param data   buffer with the message
+     * @param offset offset of the event table in the buffer
+     * @param length length of the event table
      */
-    void updateStateValue(LxUuid uuid, Object value) {
-        Map<LxUuid, LxState> perStateUuid = states.get(uuid);
-        if (perStateUuid != null) {
-            perStateUuid.forEach((controlUuid, state) -> {
-                state.setStateValue(value);
-            });
-        }
+    void updateValueStates(byte data[], int offset, int length) {
+        states.updateValueStates(data, offset, length);
+    }
+
+    /**
+     * Update to the new values of states received from Miniserver in an event table of text states. This method will
+     * go through all instances of each state UUID and update their value, which will trigger corresponding control
+     * state update method in each control that has this state.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the event table in the buffer
+     * @param length length of the event table
+     */
+    void updateTextStates(byte data[], int offset, int length) {
+        states.updateTextStates(data, offset, length);
     }
 
     /**
@@ -485,14 +486,7 @@ public class LxServerHandler extends BaseThingHandler implements LxServerHandler
     private void addControlStructures(LxControl control) {
         LxUuid uuid = control.getUuid();
         logger.debug("[{}] Adding control to handler: {}, {}", debugId, uuid, control.getName());
-        control.getStates().values().forEach(state -> {
-            Map<LxUuid, LxState> perUuid = states.get(state.getUuid());
-            if (perUuid == null) {
-                perUuid = new HashMap<>();
-                states.put(state.getUuid(), perUuid);
-            }
-            perUuid.put(uuid, state);
-        });
+        control.getStates().values().forEach(state -> states.add(uuid, state));
         controls.put(control.getUuid(), control);
         control.getChannels().forEach(channel -> channels.put(channel.getUID(), control));
         control.getSubControls().values().forEach(subControl -> addControlStructures(subControl));
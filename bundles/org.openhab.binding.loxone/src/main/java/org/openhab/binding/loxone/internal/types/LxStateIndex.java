@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.loxone.internal.types;
+
+import java.util.Arrays;
+
+/**
+ * Index of the states of all controls by state UUID, used to pass the event tables received from the Miniserver to
+ * the controls.
+ * <p>
+ * A state with a unique UUID can be configured in many controls and each control can even have a different name of
+ * the state, so an entry of the index holds all states with the same UUID. The UUIDs are kept in an open addressing
+ * hash table by their binary form of two long values, so that an event table is decoded in place, without creating
+ * an {@link LxUuid} object for each event. A value state is only passed to the controls if its value has changed
+ * since the last event table.
+ * <p>
+ * This class is not thread safe, the caller must synchronize the access.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ *
+ */
+public class LxStateIndex {
+    private static final int VALUE_EVENT_SIZE = 24;
+    private static final int TEXT_EVENT_HEADER_SIZE = 36;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * All states with the same state UUID
+     */
+    private static class Entry {
+        private final long mostSignificantBits;
+        private final long leastSignificantBits;
+        private LxUuid[] controlUuids = new LxUuid[0];
+        private LxState[] states = new LxState[0];
+        private boolean hasValue;
+        private long valueBits;
+
+        private Entry(long mostSignificantBits, long leastSignificantBits) {
+            this.mostSignificantBits = mostSignificantBits;
+            this.leastSignificantBits = leastSignificantBits;
+        }
+    }
+
+    /**
+     * Adds a state of a control to the index. A state of the same control with the same UUID is replaced.
+     *
+     * @param controlUuid UUID of the control that has the state
+     * @param state       state to add
+     */
+    public void add(LxUuid controlUuid, LxState state) {
+        LxUuid uuid = state.getUuid();
+        if (!uuid.isBinary()) {
+            // updates can't be received for this state
+            return;
+        }
+        Entry entry = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (entry == null) {
+            if (2 * (size + 1) > table.length) {
+                resize(2 * table.length);
+            }
+            entry = new Entry(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            int index = slot(entry.mostSignificantBits, entry.leastSignificantBits);
+            while (table[index] != null) {
+                index = (index + 1) & (table.length - 1);
+            }
+            table[index] = entry;
+            size++;
+        }
+        // the new state must receive the next value, even if it is the same as before
+        entry.hasValue = false;
+        for (int i = 0; i < entry.controlUuids.length; i++) {
+            if (entry.controlUuids[i].equals(controlUuid)) {
+                entry.states[i] = state;
+                return;
+            }
+        }
+        int length = entry.states.length;
+        entry.controlUuids = Arrays.copyOf(entry.controlUuids, length + 1);
+        entry.states = Arrays.copyOf(entry.states, length + 1);
+        entry.controlUuids[length] = controlUuid;
+        entry.states[length] = state;
+    }
+
+    /**
+     * Removes a state of a control from the index.
+     *
+     * @param controlUuid UUID of the control that has the state
+     * @param stateUuid   UUID of the state to remove
+     */
+    public void remove(LxUuid controlUuid, LxUuid stateUuid) {
+        if (!stateUuid.isBinary()) {
+            return;
+        }
+        int index = indexOf(stateUuid.getMostSignificantBits(), stateUuid.getLeastSignificantBits());
+        if (index < 0) {
+            return;
+        }
+        Entry entry = table[index];
+        int length = entry.controlUuids.length;
+        for (int i = 0; i < length; i++) {
+            if (entry.controlUuids[i].equals(controlUuid)) {
+                System.arraycopy(entry.controlUuids, i + 1, entry.controlUuids, i, length - i - 1);
+                System.arraycopy(entry.states, i + 1, entry.states, i, length - i - 1);
+                entry.controlUuids = Arrays.copyOf(entry.controlUuids, length - 1);
+                entry.states = Arrays.copyOf(entry.states, length - 1);
+                break;
+            }
+        }
+        if (entry.states.length == 0) {
+            delete(index);
+        }
+    }
+
+    /**
+     * Removes all states from the index.
+     */
+    public void clear() {
+        table = new Entry[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of state UUIDs in the index.
+     *
+     * @return number of state UUIDs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes an event table of value states and passes the changed values to the states.
+     * Each event consists of 16 bytes of state UUID and 8 bytes of little-endian double value.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the event table in the buffer
+     * @param length length of the event table
+     * @throws IndexOutOfBoundsException if the event table is malformed
+     */
+    public void updateValueStates(byte data[], int offset, int length) {
+        int end = offset + length;
+        for (int event = offset; event < end; event += VALUE_EVENT_SIZE) {
+            Entry entry = find(LxUuid.readMostSignificantBits(data, event),
+                    LxUuid.readLeastSignificantBits(data, event));
+            if (entry == null) {
+                continue;
+            }
+            long valueBits = readLong(data, event + 16);
+            if (entry.hasValue && entry.valueBits == valueBits) {
+                continue;
+            }
+            entry.hasValue = true;
+            entry.valueBits = valueBits;
+            Double value = Double.longBitsToDouble(valueBits);
+            for (LxState state : entry.states) {
+                state.setStateValue(value);
+            }
+        }
+    }
+
+    /**
+     * Decodes an event table of text states and passes the values to the states.
+     * Each event consists of 16 bytes of state UUID, 16 bytes of icon UUID, 4 bytes of little-endian text length and
+     * the text, padded to a multiple of 4 bytes.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the event table in the buffer
+     * @param length length of the event table
+     * @throws IndexOutOfBoundsException if the event table is malformed
+     */
+    public void updateTextStates(byte data[], int offset, int length) {
+        int end = offset + length;
+        int event = offset;
+        while (event < end) {
+            // unused today at (event + 16): iconUuid
+            int textLen = readInt(data, event + 32);
+            if (textLen < 0) {
+                throw new IndexOutOfBoundsException("Negative text length " + textLen);
+            }
+            Entry entry = find(LxUuid.readMostSignificantBits(data, event),
+                    LxUuid.readLeastSignificantBits(data, event));
+            if (entry != null) {
+                String value = new String(data, event + TEXT_EVENT_HEADER_SIZE, textLen);
+                for (LxState state : entry.states) {
+                    state.setStateValue(value);
+                }
+            }
+            event += TEXT_EVENT_HEADER_SIZE + (textLen % 4 > 0 ? textLen + 4 - (textLen % 4) : textLen);
+        }
+    }
+
+    private Entry find(long mostSignificantBits, long leastSignificantBits) {
+        int index = indexOf(mostSignificantBits, leastSignificantBits);
+        return index < 0 ? null : table[index];
+    }
+
+    private int indexOf(long mostSignificantBits, long leastSignificantBits) {
+        int mask = table.length - 1;
+        for (int index = slot(mostSignificantBits, leastSignificantBits);; index = (index + 1) & mask) {
+            Entry entry = table[index];
+            if (entry == null) {
+                return -1;
+            }
+            if (entry.mostSignificantBits == mostSignificantBits
+                    && entry.leastSignificantBits == leastSignificantBits) {
+                return index;
+            }
+        }
+    }
+
+    private int slot(long mostSignificantBits, long leastSignificantBits) {
+        long hash = mostSignificantBits * 31 + leastSignificantBits;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & (table.length - 1);
+    }
+
+    /**
+     * Removes the entry at an index and moves the following entries of the same probe sequence back, so that no
+     * lookup stops at the removed entry.
+     */
+    private void delete(int index) {
+        int mask = table.length - 1;
+        int free = index;
+        table[free] = null;
+        size--;
+        for (int next = (free + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+            Entry entry = table[next];
+            int home = slot(entry.mostSignificantBits, entry.leastSignificantBits);
+            // the entry can move to the free slot, if its home slot is not between the free slot and its slot
+            boolean movable = free <= next ? (home <= free || home > next) : (home <= free && home > next);
+            if (movable) {
+                table[free] = entry;
+                table[next] = null;
+                free = next;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Entry[] old = table;
+        table = new Entry[capacity];
+        for (Entry entry : old) {
+            if (entry != null) {
+                int index = slot(entry.mostSignificantBits, entry.leastSignificantBits);
+                while (table[index] != null) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                table[index] = entry;
+            }
+        }
+    }
+
+    private static int readInt(byte data[], int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16
+                | (data[offset + 3] & 0xff) << 24;
+    }
+
+    private static long readLong(byte data[], int offset) {
+        return (readInt(data, offset) & 0xffffffffL) | (long) readInt(data, offset + 4) << 32;
+    }
+}
@@ -13,8 +13,6 @@
 package org.openhab.binding.loxone.internal.types;
 
 import java.lang.reflect.Type;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -28,11 +26,15 @@ import com.google.gson.JsonParseException;
  * across all objects residing on the Miniserver.
  *
  * @author Pawel Pieczul - initial contribution
+ * @author Contributors to the openHAB project - Binary form of the UUID for decoding in place
  *
  */
 public class LxUuid {
     private final String uuid;
     private final String uuidOriginal;
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final boolean binary;
 
     public static final JsonDeserializer<LxUuid> DESERIALIZER = new JsonDeserializer<LxUuid>() {
         @Override
@@ -54,23 +56,108 @@ public class LxUuid {
     public LxUuid(String uuid) {
         uuidOriginal = uuid;
         this.uuid = init(uuid);
+        long msb = 0;
+        long lsb = 0;
+        boolean binary = false;
+        // binary form of the UUID is xxxxxxxx-xxxx-xxxx-xxxxxxxxxxxxxxxx
+        if (this.uuid.length() == 35 && this.uuid.charAt(8) == '-' && this.uuid.charAt(13) == '-'
+                && this.uuid.charAt(18) == '-') {
+            try {
+                msb = Long.parseUnsignedLong(this.uuid.substring(0, 8), 16) << 32
+                        | Long.parseUnsignedLong(this.uuid.substring(9, 13), 16) << 16
+                        | Long.parseUnsignedLong(this.uuid.substring(14, 18), 16);
+                lsb = Long.parseUnsignedLong(this.uuid.substring(19), 16);
+                binary = true;
+            } catch (NumberFormatException e) {
+                // an UUID of an object that is not referenced in binary messages
+            }
+        }
+        mostSignificantBits = msb;
+        leastSignificantBits = lsb;
+        this.binary = binary;
     }
 
+    /**
+     * Create a new {@link LxUuid} object from an UUID in a binary message from the Miniserver.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the 16 bytes of the UUID
+     */
     public LxUuid(byte data[], int offset) {
-        String id = String.format("%08x-%04x-%04x-%02x%02x%02x%02x%02x%02x%02x%02x",
-                ByteBuffer.wrap(data, offset, 4).order(ByteOrder.LITTLE_ENDIAN).getInt(),
-                ByteBuffer.wrap(data, offset + 4, 2).order(ByteOrder.LITTLE_ENDIAN).getShort(),
-                ByteBuffer.wrap(data, offset + 6, 2).order(ByteOrder.LITTLE_ENDIAN).getShort(), data[offset + 8],
-                data[offset + 9], data[offset + 10], data[offset + 11], data[offset + 12], data[offset + 13],
-                data[offset + 14], data[offset + 15]);
-        uuidOriginal = id;
-        this.uuid = init(id);
+        this(String.format("%08x-%04x-%04x-%016x", readInt(data, offset), readShort(data, offset + 4),
+                readShort(data, offset + 6), readLeastSignificantBits(data, offset)));
     }
 
     private String init(String uuid) {
         return uuidOriginal.replaceAll("[^a-zA-Z0-9-]", "-").toUpperCase();
     }
 
+    /**
+     * Checks if the UUID has the form used in binary messages, only then the most and least significant bits are
+     * defined.
+     *
+     * @return true if the UUID can be received in binary messages
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Returns the first 8 bytes of the UUID, as it is decoded by {@link #readMostSignificantBits(byte[], int)}.
+     *
+     * @return most significant bits of a binary UUID
+     */
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    /**
+     * Returns the last 8 bytes of the UUID, as it is decoded by {@link #readLeastSignificantBits(byte[], int)}.
+     *
+     * @return least significant bits of a binary UUID
+     */
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * Decodes the first 8 bytes of an UUID in a binary message, without creating an {@link LxUuid} object.
+     * The Miniserver sends the first three groups of the UUID in little-endian order.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the 16 bytes of the UUID
+     * @return most significant bits of the UUID
+     */
+    static long readMostSignificantBits(byte data[], int offset) {
+        return (readInt(data, offset) & 0xffffffffL) << 32 | (long) readShort(data, offset + 4) << 16
+                | readShort(data, offset + 6);
+    }
+
+    /**
+     * Decodes the last 8 bytes of an UUID in a binary message, without creating an {@link LxUuid} object.
+     * The Miniserver sends the last group of the UUID in the order of its string representation.
+     *
+     * @param data   buffer with the message
+     * @param offset offset of the 16 bytes of the UUID
+     * @return least significant bits of the UUID
+     */
+    static long readLeastSignificantBits(byte data[], int offset) {
+        long bits = 0;
+        for (int i = offset + 8; i < offset + 16; i++) {
+            bits = bits << 8 | (data[i] & 0xff);
+        }
+        return bits;
+    }
+
+    private static int readInt(byte data[], int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16
+                | (data[offset + 3] & 0xff) << 24;
+    }
+
+    private static int readShort(byte data[], int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
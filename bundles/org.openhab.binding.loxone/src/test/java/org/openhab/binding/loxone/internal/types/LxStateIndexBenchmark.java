@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.loxone.internal.types;
+
+/**
+ * Measures the decoding of value event tables by the {@link LxStateIndex}. This is no unit test, run its main method
+ * with the test classpath and optionally the number of decoded tables.
+ * <p>
+ * The event tables are not recorded from a Miniserver. They are built from the UUIDs of all states and global states of
+ * the test configuration LoxAPP3.json, in the binary layout of the Miniserver, with all values changed or all values
+ * unchanged.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class LxStateIndexBenchmark {
+
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        LxStateIndexTest fixture = new LxStateIndexTest();
+        fixture.setup();
+        LxStateIndex index = fixture.index;
+        int states = fixture.tableUuids.size();
+        byte[][] tables = { LxStateIndexTest.createValueTable(fixture.tableUuids, 1.0),
+                LxStateIndexTest.createValueTable(fixture.tableUuids, 0.0) };
+        int length = states * 24;
+
+        // warm up
+        for (int i = 0; i < messages / 10; i++) {
+            index.updateValueStates(tables[i % 2], 0, length);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            index.updateValueStates(tables[i % 2], 0, length);
+        }
+        long changedNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            index.updateValueStates(tables[0], 0, length);
+        }
+        long unchangedNs = System.nanoTime() - start;
+
+        System.out.printf(
+                "Decoded %d event tables of %d states (%d bytes): %d events/s changed, %d events/s unchanged%n",
+                messages, states, length, (long) messages * states * 1000000000L / Math.max(1, changedNs),
+                (long) messages * states * 1000000000L / Math.max(1, unchangedNs));
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.loxone.internal.types;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for the {@link LxStateIndex}. The event tables are built from the state UUIDs of the test Miniserver
+ * configuration.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ *
+ */
+public class LxStateIndexTest {
+    LxStateIndex index;
+    private List<CountingState> states;
+    List<LxUuid> tableUuids;
+
+    /**
+     * State that counts the updates instead of passing them to a control
+     */
+    private static class CountingState extends LxState {
+        private int updates;
+        private Object value;
+
+        CountingState(LxUuid uuid, String name) {
+            super(uuid, name, null);
+        }
+
+        @Override
+        public void setStateValue(Object value) {
+            this.value = value;
+            updates++;
+        }
+
+        @Override
+        public Object getStateValue() {
+            return value;
+        }
+    }
+
+    @Before
+    public void setup() {
+        InputStream stream = LxStateIndexTest.class
+                .getResourceAsStream("/org/openhab/binding/loxone/internal/controls/LoxAPP3.json");
+        assertNotNull(stream);
+        JsonObject config = new JsonParser().parse(new InputStreamReader(stream, StandardCharsets.UTF_8))
+                .getAsJsonObject();
+
+        index = new LxStateIndex();
+        states = new ArrayList<>();
+        tableUuids = new ArrayList<>();
+        addStates(config.getAsJsonObject("controls"));
+        // the Miniserver sends also the global states, that are not used by any control
+        for (Map.Entry<String, JsonElement> entry : config.getAsJsonObject("globalStates").entrySet()) {
+            tableUuids.add(new LxUuid(entry.getValue().getAsString()));
+        }
+    }
+
+    private void addStates(JsonObject controls) {
+        if (controls == null) {
+            return;
+        }
+        for (Map.Entry<String, JsonElement> control : controls.entrySet()) {
+            LxUuid controlUuid = new LxUuid(control.getKey());
+            JsonObject object = control.getValue().getAsJsonObject();
+            JsonObject controlStates = object.getAsJsonObject("states");
+            if (controlStates != null) {
+                for (Map.Entry<String, JsonElement> state : controlStates.entrySet()) {
+                    if (!(state.getValue() instanceof JsonArray)) {
+                        LxUuid uuid = new LxUuid(state.getValue().getAsString());
+                        CountingState countingState = new CountingState(uuid, state.getKey());
+                        index.add(controlUuid, countingState);
+                        states.add(countingState);
+                        if (!tableUuids.contains(uuid)) {
+                            tableUuids.add(uuid);
+                        }
+                    }
+                }
+            }
+            addStates(object.getAsJsonObject("subControls"));
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, LxUuid uuid) {
+        String id = uuid.toString();
+        buffer.putInt((int) Long.parseLong(id.substring(0, 8), 16));
+        buffer.putShort((short) Integer.parseInt(id.substring(9, 13), 16));
+        buffer.putShort((short) Integer.parseInt(id.substring(14, 18), 16));
+        for (int i = 19; i < 35; i += 2) {
+            buffer.put((byte) Integer.parseInt(id.substring(i, i + 2), 16));
+        }
+    }
+
+    static byte[] createValueTable(List<LxUuid> uuids, double value) {
+        ByteBuffer buffer = ByteBuffer.allocate(uuids.size() * 24).order(ByteOrder.LITTLE_ENDIAN);
+        for (LxUuid uuid : uuids) {
+            putUuid(buffer, uuid);
+            buffer.putDouble(value);
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void uuidsOfEventTableMatchConfiguration() {
+        assertEquals(94, index.size());
+        byte[] table = createValueTable(tableUuids, 0);
+        for (int i = 0; i < tableUuids.size(); i++) {
+            LxUuid uuid = tableUuids.get(i);
+            assertTrue(uuid.isBinary());
+            assertEquals(uuid, new LxUuid(table, i * 24));
+            assertEquals(uuid.getMostSignificantBits(), LxUuid.readMostSignificantBits(table, i * 24));
+            assertEquals(uuid.getLeastSignificantBits(), LxUuid.readLeastSignificantBits(table, i * 24));
+        }
+    }
+
+    @Test
+    public void onlyChangedValuesAreUpdated() {
+        index.updateValueStates(createValueTable(tableUuids, 1.0), 0, tableUuids.size() * 24);
+        for (CountingState state : states) {
+            assertEquals(1, state.updates);
+            assertEquals(1.0, state.value);
+        }
+
+        index.updateValueStates(createValueTable(tableUuids, 1.0), 0, tableUuids.size() * 24);
+        for (CountingState state : states) {
+            assertEquals(1, state.updates);
+        }
+
+        index.updateValueStates(createValueTable(tableUuids, -2.5), 0, tableUuids.size() * 24);
+        for (CountingState state : states) {
+            assertEquals(2, state.updates);
+            assertEquals(-2.5, state.value);
+        }
+    }
+
+    @Test
+    public void sharedStateIsUpdatedInAllControls() {
+        LxUuid uuid = new LxUuid("0b734138-03ac-03f0-ffff403fb0c34b9e");
+        LxUuid control1 = new LxUuid("1076668f-0101-7076-ffff403fb0c34b9e");
+        LxUuid control2 = new LxUuid("1076668f-0101-7076-ffff403fb0c34b9e-M1");
+        CountingState state1 = new CountingState(uuid, "value");
+        CountingState state2 = new CountingState(uuid, "position");
+        index.add(control1, state1);
+        index.add(control2, state2);
+        List<LxUuid> uuids = new ArrayList<>();
+        uuids.add(uuid);
+
+        index.updateValueStates(createValueTable(uuids, 1.0), 0, 24);
+        assertEquals(1, state1.updates);
+        assertEquals(1, state2.updates);
+
+        index.remove(control1, uuid);
+        index.updateValueStates(createValueTable(uuids, 2.0), 0, 24);
+        assertEquals(1, state1.updates);
+        assertEquals(2, state2.updates);
+
+        index.remove(control2, uuid);
+        assertEquals(94, index.size());
+    }
+
+    @Test
+    public void remainingStatesAreFoundAfterRemoval() {
+        LxStateIndex index = new LxStateIndex();
+        LxUuid control = new LxUuid("1076668f-0101-7076-ffff403fb0c34b9e");
+        List<LxUuid> uuids = new ArrayList<>();
+        List<CountingState> states = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            LxUuid uuid = new LxUuid(String.format("%08x-0101-7076-ffff403fb0c3%04x", i * 7919, i));
+            CountingState state = new CountingState(uuid, "value");
+            index.add(control, state);
+            uuids.add(uuid);
+            states.add(state);
+        }
+        assertEquals(1000, index.size());
+        for (int i = 0; i < 1000; i += 2) {
+            index.remove(control, uuids.get(i));
+        }
+        assertEquals(500, index.size());
+
+        index.updateValueStates(createValueTable(uuids, 1.0), 0, uuids.size() * 24);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2, states.get(i).updates);
+        }
+    }
+
+    @Test
+    public void textStatesAreUpdated() {
+        CountingState state1 = states.get(0);
+        CountingState state2 = states.get(1);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * 36 + 8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        putUuid(buffer, state1.getUuid());
+        buffer.position(buffer.position() + 16);
+        buffer.putInt(5);
+        buffer.put("Hello".getBytes(StandardCharsets.UTF_8));
+        buffer.position(buffer.position() + 3);
+        putUuid(buffer, state2.getUuid());
+        buffer.position(buffer.position() + 16);
+        buffer.putInt(8);
+        buffer.put("Miniserv".getBytes(StandardCharsets.UTF_8));
+
+        index.updateTextStates(buffer.array(), 0, buffer.position());
+
+        assertEquals("Hello", state1.value);
+        assertEquals("Miniserv", state2.value);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void truncatedEventTableIsRejected() {
+        index.updateValueStates(createValueTable(tableUuids, 1.0), 0, tableUuids.size() * 24 + 8);
+    }
+}
@@ -17,7 +17,9 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -75,6 +77,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
+    private @Nullable PresenceProbeEngine probeEngine;
     protected @Nullable ExecutorService executorService;
     private String dhcpState = "off";
     Integer currentCheck = 0;
@@ -84,10 +87,22 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             throws IllegalArgumentException {
         this.updateListener = updateListener;
         cache = new ExpiringCacheAsync<PresenceDetectionValue>(cacheDeviceStateTimeInMS, () -> {
-            performPresenceDetection(false);
+            PresenceProbeEngine engine = probeEngine;
+            if (engine == null || !engine.requestProbe(this)) {
+                performPresenceDetection(false);
+            }
         });
     }
 
+    /**
+     * Use the given shared engine for the automatic refresh instead of an own refresh job and executor.
+     *
+     * @param probeEngine The engine or null to perform the presence detection independently
+     */
+    public void setProbeEngine(@Nullable PresenceProbeEngine probeEngine) {
+        this.probeEngine = probeEngine;
+    }
+
     public @Nullable String getHostname() {
         return hostname;
     }
@@ -271,6 +286,14 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
+    /**
+     * Return the latencies measured by the shared probe engine, oldest first. Empty if no engine is used.
+     */
+    public List<Double> getLatencyHistory() {
+        PresenceProbeEngine engine = probeEngine;
+        return engine == null ? Collections.emptyList() : engine.getLatencyHistory(this);
+    }
+
     public ExecutorService getThreadsFor(int threadCount) {
         return Executors.newFixedThreadPool(threadCount);
     }
@@ -386,11 +409,56 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         executorService = null;
         detectionChecks = 0;
 
-        PresenceDetectionValue v;
-
         // The cache will be expired by now if cache_time < timeoutInMS. But the device might be actually reachable.
         // Therefore use lastSeenInMS here and not cache.isExpired() to determine if we got a ping response.
-        if (lastSeenInMS + timeoutInMS + 100 < System.currentTimeMillis()) {
+        publishFinalResult(lastSeenInMS + timeoutInMS + 100 >= System.currentTimeMillis());
+    }
+
+    /**
+     * Called by the {@link PresenceProbeEngine} after all probes of a cycle have finished.
+     *
+     * @param cycleStartInMS The start of the probe cycle. The device counts as reachable if it was seen since.
+     */
+    synchronized void probeFinished(long cycleStartInMS) {
+        publishFinalResult(lastSeenInMS >= cycleStartInMS);
+    }
+
+    /**
+     * Called by the {@link PresenceProbeEngine} for each successful probe.
+     *
+     * @param type The detection type
+     * @param latency The latency in milliseconds
+     * @param tcpPort The reachable TCP port for {@link PresenceDetectionType#TCP_CONNECTION}, ignored otherwise
+     */
+    void probeResult(PresenceDetectionType type, double latency, int tcpPort) {
+        PresenceDetectionValue v = updateReachableValue(type, latency);
+        if (type == PresenceDetectionType.TCP_CONNECTION) {
+            v.addReachableTcpService(tcpPort);
+        }
+        updateListener.partialDetectionResult(v);
+    }
+
+    @Nullable
+    InetAddress getDestinationAddress() {
+        return destination.getValue();
+    }
+
+    @Nullable
+    IpPingMethodEnum getPingMethod() {
+        return pingMethod;
+    }
+
+    /**
+     * Return true if ARP pings are enabled and the destination is an IPv4 address, which allows answering the
+     * presence from the neighbour table.
+     */
+    boolean usesArp() {
+        return !arpPingUtilPath.isEmpty() && cachedDestination instanceof Inet4Address;
+    }
+
+    private void publishFinalResult(boolean seen) {
+        PresenceDetectionValue v;
+        if (!seen) {
             // We haven't seen the device in the detection process
             v = new PresenceDetectionValue(hostname, -1);
         } else {
@@ -572,6 +640,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @param scheduledExecutorService A scheduler to run pings periodically.
      */
     public void startAutomaticRefresh(ScheduledExecutorService scheduledExecutorService) {
+        PresenceProbeEngine engine = probeEngine;
+        if (engine != null) {
+            engine.register(this);
+            return;
+        }
         ScheduledFuture<?> future = refreshJob;
         if (future != null && !future.isDone()) {
             future.cancel(true);
@@ -584,13 +657,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * Return true if automatic refreshing is enabled.
      */
     public boolean isAutomaticRefreshing() {
-        return refreshJob != null;
+        PresenceProbeEngine engine = probeEngine;
+        return refreshJob != null || (engine != null && engine.isRegistered(this));
     }
 
     /**
      * Stop automatic refreshing.
      */
     public void stopAutomaticRefresh() {
+        PresenceProbeEngine engine = probeEngine;
+        if (engine != null) {
+            engine.unregister(this);
+        }
         ScheduledFuture<?> future = refreshJob;
         if (future != null && !future.isDone()) {
             future.cancel(true);
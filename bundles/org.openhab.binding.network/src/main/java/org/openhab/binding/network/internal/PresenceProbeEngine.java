@@ -0,0 +1,338 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.openhab.binding.network.internal.utils.AsyncConnectScanner;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PresenceProbeEngine} performs the periodic presence detection of all registered
+ * {@link PresenceDetection}s from one scheduling thread instead of one executor and refresh job per thing.
+ * <p>
+ * Every second all targets whose refresh interval has elapsed are probed together in one cycle:
+ * <ul>
+ * <li>a UDP packet (the iOS wake up packet) is sent to all iOS and ARP enabled targets through one datagram channel,
+ * which makes the kernel revalidate their neighbour entries,
+ * <li>all TCP service ports are probed with non-blocking connects,
+ * <li>the kernel neighbour (ARP) table is read once and answers all ARP enabled IPv4 targets,
+ * <li>targets with ICMP pings enabled that are not known as neighbours are pinged as before, with one ping per
+ * target on a bounded pool. These targets report their result when their ping is done, without holding up the cycle.
+ * </ul>
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeEngine {
+    static final int CYCLE_INTERVAL_IN_MS = 1000;
+    static final int MAX_CONNECTIONS = 64;
+    static final int MAX_PING_THREADS = 8;
+    static final int LATENCY_HISTORY_SIZE = 10;
+    // Time the kernel gets to resolve the hardware address of a woken up device
+    static final int NEIGHBOUR_RESOLUTION_TIME_IN_MS = 300;
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeEngine.class);
+
+    NetworkUtils networkUtils = new NetworkUtils();
+    private final Map<PresenceDetection, Target> targets = new ConcurrentHashMap<>();
+    private @Nullable ScheduledExecutorService scheduler;
+    private @Nullable ExecutorService pingExecutor;
+    private @Nullable ScheduledFuture<?> cycleJob;
+
+    private static class Target {
+        final PresenceDetection detection;
+        volatile long nextProbeInMS = 0;
+        // True while a ping of the target is still running
+        volatile boolean probing = false;
+        private final double[] latencies = new double[LATENCY_HISTORY_SIZE];
+        private int latencyCount = 0;
+
+        Target(PresenceDetection detection) {
+            this.detection = detection;
+        }
+
+        synchronized void addLatency(double latency) {
+            latencies[latencyCount % LATENCY_HISTORY_SIZE] = latency;
+            latencyCount++;
+        }
+
+        synchronized List<Double> getLatencies() {
+            int size = Math.min(latencyCount, LATENCY_HISTORY_SIZE);
+            List<Double> result = new ArrayList<>(size);
+            for (int i = latencyCount - size; i < latencyCount; i++) {
+                result.add(latencies[i % LATENCY_HISTORY_SIZE]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Registers a presence detection to be probed periodically, starting with the next cycle.
+     *
+     * @param detection The presence detection
+     */
+    public synchronized void register(PresenceDetection detection) {
+        targets.put(detection, new Target(detection));
+        if (cycleJob == null) {
+            ScheduledExecutorService scheduler = Executors
+                    .newSingleThreadScheduledExecutor(new NamedThreadFactory("network-presence"));
+            this.scheduler = scheduler;
+            pingExecutor = Executors.newFixedThreadPool(MAX_PING_THREADS, new NamedThreadFactory("network-ping"));
+            cycleJob = scheduler.scheduleWithFixedDelay(this::runCycle, CYCLE_INTERVAL_IN_MS, CYCLE_INTERVAL_IN_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Removes a presence detection. The engine threads are stopped with the last one.
+     *
+     * @param detection The presence detection
+     */
+    public synchronized void unregister(PresenceDetection detection) {
+        targets.remove(detection);
+        if (targets.isEmpty()) {
+            dispose();
+        }
+    }
+
+    /**
+     * Return true if the given presence detection is registered.
+     */
+    public boolean isRegistered(PresenceDetection detection) {
+        return targets.containsKey(detection);
+    }
+
+    /**
+     * Requests the presence detection to be probed in the next cycle, regardless of its refresh interval.
+     *
+     * @param detection The presence detection
+     * @return Return true if the detection is registered and will be probed
+     */
+    public boolean requestProbe(PresenceDetection detection) {
+        Target target = targets.get(detection);
+        if (target == null) {
+            return false;
+        }
+        target.nextProbeInMS = 0;
+        return true;
+    }
+
+    /**
+     * Returns the latencies of the last successful latency measuring probes of a presence detection, oldest first.
+     *
+     * @param detection The presence detection
+     * @return The latencies in milliseconds, may be empty
+     */
+    public List<Double> getLatencyHistory(PresenceDetection detection) {
+        Target target = targets.get(detection);
+        return target == null ? Collections.emptyList() : target.getLatencies();
+    }
+
+    /**
+     * Stops the engine threads.
+     */
+    public synchronized void dispose() {
+        ScheduledFuture<?> cycleJob = this.cycleJob;
+        if (cycleJob != null) {
+            cycleJob.cancel(true);
+            this.cycleJob = null;
+        }
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+        ExecutorService pingExecutor = this.pingExecutor;
+        if (pingExecutor != null) {
+            pingExecutor.shutdownNow();
+            this.pingExecutor = null;
+        }
+    }
+
+    void runCycle() {
+        List<Target> due = new ArrayList<>();
+        try {
+            long cycleStart = System.currentTimeMillis();
+            for (Target target : targets.values()) {
+                if (target.nextProbeInMS <= cycleStart && !target.probing) {
+                    target.nextProbeInMS = cycleStart + target.detection.getRefreshInterval();
+                    target.probing = true;
+                    due.add(target);
+                }
+            }
+            if (!due.isEmpty()) {
+                probe(due, cycleStart);
+                logger.trace("Probed {} presence targets in {} ms", due.size(),
+                        System.currentTimeMillis() - cycleStart);
+            }
+        } catch (RuntimeException e) {
+            // Keep the periodic job alive
+            logger.warn("Presence detection cycle failed", e);
+            due.forEach(target -> target.probing = false);
+        }
+    }
+
+    private void probe(List<Target> due, long cycleStart) {
+        Map<String, List<Target>> targetsByIp = new HashMap<>();
+        List<String> wakeUpIps = new ArrayList<>();
+        List<InetSocketAddress> serviceAddresses = new ArrayList<>();
+        int timeout = 0;
+        for (Target target : due) {
+            PresenceDetection detection = target.detection;
+            InetAddress address = detection.getDestinationAddress();
+            if (address == null) {
+                continue;
+            }
+            String ip = address.getHostAddress();
+            targetsByIp.computeIfAbsent(ip, k -> new ArrayList<>()).add(target);
+            if (detection.isIOSdevice() || detection.usesArp()) {
+                wakeUpIps.add(ip);
+            }
+            for (Integer port : detection.getServicePorts()) {
+                serviceAddresses.add(new InetSocketAddress(address, port));
+            }
+            timeout = Math.max(timeout, detection.getTimeout());
+        }
+
+        AsyncConnectScanner scanner = new AsyncConnectScanner(MAX_CONNECTIONS, timeout);
+        long wakeUpSentInMS = System.currentTimeMillis();
+        scanner.wakeUp(wakeUpIps);
+        if (!serviceAddresses.isEmpty()) {
+            try {
+                scanner.scan(serviceAddresses.iterator(), new AsyncConnectScanner.ScanListener() {
+                    @Override
+                    public void hostReachable(String ip) {
+                        // A closed port does not count as a reachable service
+                    }
+
+                    @Override
+                    public void serviceReachable(String ip, int port, long latencyInMS) {
+                        for (Target target : targetsByIp.getOrDefault(ip, Collections.emptyList())) {
+                            if (target.detection.getServicePorts().contains(port)) {
+                                target.addLatency(latencyInMS);
+                                target.detection.probeResult(PresenceDetectionType.TCP_CONNECTION, latencyInMS,
+                                        port);
+                            }
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                logger.debug("TCP presence detection failed: {}", e.getMessage());
+            }
+        }
+
+        Set<String> neighbours = Collections.emptySet();
+        if (due.stream().anyMatch(t -> t.detection.usesArp())) {
+            long remaining = cycleStart + NEIGHBOUR_RESOLUTION_TIME_IN_MS - System.currentTimeMillis();
+            if (remaining > 0) {
+                try {
+                    Thread.sleep(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    due.forEach(target -> target.probing = false);
+                    return;
+                }
+            }
+            // Revalidated entries only count if the neighbour answered the packet sent in this cycle
+            int confirmedWithinSeconds = (int) ((System.currentTimeMillis() - wakeUpSentInMS + 999) / 1000);
+            neighbours = networkUtils.getReachableNeighbours(confirmedWithinSeconds);
+        }
+
+        for (Map.Entry<String, List<Target>> entry : targetsByIp.entrySet()) {
+            String ip = entry.getKey();
+            for (Target target : entry.getValue()) {
+                PresenceDetection detection = target.detection;
+                if (detection.usesArp() && neighbours.contains(ip)) {
+                    detection.probeResult(PresenceDetectionType.ARP_PING, 0, 0);
+                } else if (detection.getPingMethod() != null && startPing(target, ip, cycleStart)) {
+                    // The ping finishes the target
+                    due.remove(target);
+                }
+            }
+        }
+
+        for (Target target : due) {
+            finish(target, cycleStart);
+        }
+    }
+
+    private boolean startPing(Target target, String ip, long cycleStart) {
+        ExecutorService pingExecutor = this.pingExecutor;
+        if (pingExecutor == null) {
+            return false;
+        }
+        try {
+            pingExecutor.execute(() -> {
+                try {
+                    ping(target, ip);
+                } finally {
+                    finish(target, cycleStart);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // The engine is being disposed
+            return false;
+        }
+    }
+
+    private void finish(Target target, long cycleStart) {
+        target.probing = false;
+        target.detection.probeFinished(cycleStart);
+    }
+
+    private void ping(Target target, String ip) {
+        PresenceDetection detection = target.detection;
+        IpPingMethodEnum method = detection.getPingMethod();
+        try {
+            long pingTime = System.nanoTime();
+            boolean reachable;
+            if (method == IpPingMethodEnum.JAVA_PING) {
+                reachable = InetAddress.getByName(ip).isReachable(detection.getTimeout());
+            } else {
+                reachable = networkUtils.nativePing(method, ip, detection.getTimeout());
+            }
+            if (reachable) {
+                double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+                target.addLatency(latency);
+                detection.probeResult(PresenceDetectionType.ICMP_PING, latency, 0);
+            }
+        } catch (IOException e) {
+            logger.trace("Failed to ping {}", ip, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,13 +14,14 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.internal.NetworkBindingConstants.*;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,9 +34,9 @@ import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.internal.NetworkBindingConfiguration;
-import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.AsyncConnectScanner;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -47,7 +48,8 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
- * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * It tries common TCP ports to connect to with many non-blocking connects at once and reads
+ * the ARP table of the operating system afterwards.
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
@@ -57,6 +59,7 @@ import org.slf4j.LoggerFactory;
 public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
     static final int PING_TIMEOUT_IN_MS = 500;
     static final int MAXIMUM_IPS_PER_INTERFACE = 255;
+    static final int DEFAULT_MAX_CONNECTIONS = 256;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
@@ -65,17 +68,37 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     // TCP port 1025 (Xbox / MS-RPC)
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
-    private @Nullable ExecutorService executorService = null;
+    private final Set<String> discoveredPingDevices = ConcurrentHashMap.newKeySet();
+    private @Nullable AsyncConnectScanner scanner = null;
+    private @Nullable Future<?> scanJob = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
     public NetworkDiscoveryService() {
-        super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(
-                new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size() * (PING_TIMEOUT_IN_MS / 1000.0)),
+        super(SUPPORTED_THING_TYPES_UIDS,
+                estimateScanTimeout(new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size(),
+                        DEFAULT_MAX_CONNECTIONS),
                 false);
     }
 
+    /**
+     * The four TCP service ports of all IPs are probed in rounds of at most maxConnections connects, each round takes
+     * at most {@link #PING_TIMEOUT_IN_MS}.
+     */
+    static int estimateScanTimeout(int ipCount, int maxConnections) {
+        int rounds = (int) Math.ceil(ipCount * 4 / (double) Math.max(1, maxConnections));
+        return (int) Math.ceil(rounds * (PING_TIMEOUT_IN_MS / 1000.0)) + 1;
+    }
+
+    /**
+     * The scan timeout depends on the configured maximum number of connections.
+     */
+    @Override
+    public int getScanTimeout() {
+        return estimateScanTimeout(networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size(),
+                configuration.discoveryMaxConnections.intValue());
+    }
+
     @Override
     @Activate
     public void activate(@Nullable Map<String, @Nullable Object> config) {
@@ -96,9 +119,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
-        }
+        stopScan();
         super.deactivate();
     }
 
@@ -120,64 +141,73 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Starts a single scan job which probes every IP on each interface on the network. Results are submitted as soon as
+     * they are known.
      */
     @Override
-    protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
+    protected synchronized void startScan() {
+        if (scanJob != null) {
             return;
         }
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            s.setHostname(ip);
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
+        final AsyncConnectScanner scanner = new AsyncConnectScanner(configuration.discoveryMaxConnections.intValue(),
+                PING_TIMEOUT_IN_MS);
+        this.scanner = scanner;
+        discoveredPingDevices.clear();
+
+        scanJob = scheduler.submit(() -> {
+            long startTime = System.currentTimeMillis();
+            scanner.wakeUp(networkIPs);
+            try {
+                scanner.scan(networkIPs, tcpServicePorts, new AsyncConnectScanner.ScanListener() {
+                    @Override
+                    public void hostReachable(String ip) {
+                        newPingDevice(ip);
                     }
+
+                    @Override
+                    public void serviceReachable(String ip, int port, long latencyInMS) {
+                        newServiceDevice(ip, port);
+                    }
+                });
+            } catch (IOException e) {
+                logger.debug("Network scan failed: {}", e.getMessage());
+            }
+            if (this.scanner != scanner) {
+                logger.trace("Network scan has been stopped");
+                return;
+            }
+            // Every probed host has been resolved by the kernel by now, a single read of the ARP table reveals
+            // all hosts that neither accepted nor refused a connection.
+            Map<String, String> arpTable = networkUtils.getArpTable();
+            for (String ip : networkIPs) {
+                if (arpTable.containsKey(ip)) {
+                    newPingDevice(ip);
                 }
-            });
-        }
+            }
+            logger.trace("Scan of {} IPs finished in {} ms", networkIPs.size(),
+                    System.currentTimeMillis() - startTime);
+            synchronized (this) {
+                // a newer scan might have been started in the meantime
+                if (this.scanner == scanner) {
+                    stopScan();
+                }
+            }
+        });
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
-
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
+        AsyncConnectScanner scanner = this.scanner;
+        if (scanner != null) {
+            scanner.stop();
+            this.scanner = null;
         }
-        service.shutdown();
-        executorService = null;
+        scanJob = null;
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -186,7 +216,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the scan job in {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -229,11 +259,14 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the scan job in {@link startScan}.
      *
      * @param ip The device IP
      */
     public void newPingDevice(String ip) {
+        if (!discoveredPingDevices.add(ip)) {
+            return;
+        }
         logger.trace("Found pingable network device with IP address {}", ip);
 
         Map<String, Object> properties = new HashMap<>();
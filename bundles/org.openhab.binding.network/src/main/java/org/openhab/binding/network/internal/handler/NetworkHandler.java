@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.TimeZone;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
@@ -41,6 +42,7 @@ import org.openhab.binding.network.internal.NetworkHandlerConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.PresenceProbeEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +60,7 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
 
     private boolean isTCPServiceDevice;
     private NetworkBindingConfiguration configuration;
+    private @Nullable PresenceProbeEngine probeEngine;
 
     // How many retries before a device is deemed offline
     int retries;
@@ -69,9 +72,20 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
      * Do not call this directly, but use the {@see NetworkHandlerBuilder} instead.
      */
     public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration) {
+        this(thing, isTCPServiceDevice, configuration, null);
+    }
+
+    /**
+     * Do not call this directly, but use the {@see NetworkHandlerBuilder} instead.
+     *
+     * @param probeEngine The engine shared by all handlers or null to let each handler refresh on its own
+     */
+    public NetworkHandler(Thing thing, boolean isTCPServiceDevice, NetworkBindingConfiguration configuration,
+            @Nullable PresenceProbeEngine probeEngine) {
         super(thing);
         this.isTCPServiceDevice = isTCPServiceDevice;
         this.configuration = configuration;
+        this.probeEngine = probeEngine;
     }
 
     private void refreshValue(ChannelUID channelUID) {
@@ -209,7 +223,10 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
     // Create a new network service and apply all configurations.
     @Override
     public void initialize() {
-        initialize(new PresenceDetection(this, configuration.cacheDeviceStateTimeInMS.intValue()));
+        PresenceDetection presenceDetection = new PresenceDetection(this,
+                configuration.cacheDeviceStateTimeInMS.intValue());
+        presenceDetection.setProbeEngine(probeEngine);
+        initialize(presenceDetection);
     }
 
     /**
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link AsyncConnectScanner} probes many hosts at once with non-blocking TCP connects on a single thread.
+ * <p>
+ * A successful connect reports an open service. A refused connect (TCP RST) is reported as well, because it proves
+ * that the host is up even though the port is closed. At most {@code maxConnections} connects are in flight at any
+ * time, each one is abandoned after the configured timeout.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class AsyncConnectScanner {
+    private static final int MDNS_PORT = 5353;
+    private static final long SELECT_INTERVAL_IN_MS = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncConnectScanner.class);
+
+    private final int maxConnections;
+    private final int timeoutInMS;
+    private volatile boolean stopped = false;
+
+    /**
+     * Receives the results of a scan. The methods are called on the scanning thread as soon as a result is known.
+     */
+    public interface ScanListener {
+        /**
+         * The host actively refused the connection, so it is present but does not offer the service.
+         *
+         * @param ip The IP address of the host
+         */
+        void hostReachable(String ip);
+
+        /**
+         * A TCP connection to the given port of the host could be established.
+         *
+         * @param ip The IP address of the host
+         * @param port The TCP port
+         * @param latencyInMS The time it took to establish the connection
+         */
+        void serviceReachable(String ip, int port, long latencyInMS);
+    }
+
+    private class Probe {
+        final String ip;
+        final int port;
+        final long startTime;
+        final long deadline;
+        final SelectionKey key;
+
+        Probe(String ip, int port, long startTime, SelectionKey key) {
+            this.ip = ip;
+            this.port = port;
+            this.startTime = startTime;
+            this.deadline = startTime + timeoutInMS;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param maxConnections The maximum number of connects in flight
+     * @param timeoutInMS The time after which a pending connect is abandoned
+     */
+    public AsyncConnectScanner(int maxConnections, int timeoutInMS) {
+        this.maxConnections = Math.max(1, maxConnections);
+        this.timeoutInMS = timeoutInMS;
+    }
+
+    /**
+     * Aborts a running {@link #scan(Collection, Collection, ScanListener)}. Pending connects are closed. A scan that
+     * starts after this call returns immediately, a stopped scanner is not used again.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * iOS devices are in a deep sleep mode, where they only listen to UDP traffic on port 5353. This sends the wake
+     * up packet to all given hosts through a single datagram channel. As a side effect the kernel resolves the
+     * hardware addresses of the hosts, which makes them show up in the ARP table.
+     *
+     * @param ips The IPv4 addresses
+     */
+    public void wakeUp(Collection<String> ips) {
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.configureBlocking(false);
+            for (String ip : ips) {
+                try {
+                    channel.send(empty, new InetSocketAddress(ip, MDNS_PORT));
+                } catch (IOException ignored) {
+                    // Unreachable networks or full send buffers are not of interest for a best effort wake up
+                }
+                empty.rewind();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to open the wake up channel: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Connects to every port of every host. This method blocks until all probes are finished, timed out or the scan
+     * has been stopped.
+     *
+     * @param ips The IPv4 addresses to probe
+     * @param ports The TCP ports to probe on each host
+     * @param listener The listener which receives the results
+     * @throws IOException If the selector could not be opened
+     */
+    public void scan(Collection<String> ips, Collection<Integer> ports, ScanListener listener) throws IOException {
+        List<Integer> portList = new ArrayList<>(ports);
+        if (portList.isEmpty()) {
+            return;
+        }
+        Iterator<String> ipIterator = ips.iterator();
+        // Creates the socket addresses lazily, a large network would otherwise be materialized at once
+        scan(new Iterator<InetSocketAddress>() {
+            private String ip = "";
+            private int portIndex = portList.size();
+
+            @Override
+            public boolean hasNext() {
+                return portIndex < portList.size() || ipIterator.hasNext();
+            }
+
+            @Override
+            public InetSocketAddress next() {
+                if (portIndex == portList.size()) {
+                    ip = ipIterator.next();
+                    portIndex = 0;
+                }
+                return new InetSocketAddress(ip, portList.get(portIndex++));
+            }
+        }, listener);
+    }
+
+    /**
+     * Connects to each of the given socket addresses. This method blocks until all probes are finished, timed out or
+     * the scan has been stopped.
+     *
+     * @param addresses The resolved socket addresses to probe
+     * @param listener The listener which receives the results
+     * @throws IOException If the selector could not be opened
+     */
+    public void scan(Iterator<InetSocketAddress> addresses, ScanListener listener) throws IOException {
+        // Probes are created in order with the same timeout, therefore the deque is ordered by deadline
+        Deque<Probe> probes = new ArrayDeque<>();
+
+        try (Selector selector = Selector.open()) {
+            while (!stopped) {
+                while (selector.keys().size() < maxConnections && addresses.hasNext()) {
+                    Probe probe = open(selector, addresses.next(), listener);
+                    if (probe != null) {
+                        probes.add(probe);
+                    }
+                }
+                if (selector.keys().isEmpty()) {
+                    break;
+                }
+
+                selector.select(SELECT_INTERVAL_IN_MS);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    finishConnect(key, listener);
+                }
+                selector.selectedKeys().clear();
+
+                long now = System.currentTimeMillis();
+                Probe oldest = probes.peek();
+                while (oldest != null && (!oldest.key.isValid() || oldest.deadline <= now)) {
+                    close(probes.remove().key);
+                    oldest = probes.peek();
+                }
+                // Cancelled keys are removed from the key set by the next select
+                selector.selectNow();
+            }
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+        }
+    }
+
+    private @Nullable Probe open(Selector selector, InetSocketAddress address, ScanListener listener) {
+        String ip = address.getHostString();
+        int port = address.getPort();
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            long startTime = System.currentTimeMillis();
+            if (channel.connect(address)) {
+                channel.close();
+                listener.serviceReachable(ip, port, 0);
+                return null;
+            }
+            SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+            Probe probe = new Probe(ip, port, startTime, key);
+            key.attach(probe);
+            return probe;
+        } catch (IOException e) {
+            logger.trace("Could not connect to {}:{}: {}", ip, port, e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    private void finishConnect(SelectionKey key, ScanListener listener) {
+        Probe probe = (Probe) key.attachment();
+        try {
+            if (((SocketChannel) key.channel()).finishConnect()) {
+                listener.serviceReachable(probe.ip, probe.port, System.currentTimeMillis() - probe.startTime);
+            }
+        } catch (ConnectException e) {
+            // Connection refused: The host answered with a RST
+            listener.hostReachable(probe.ip);
+        } catch (IOException e) {
+            logger.trace("Could not connect to {}:{}: {}", probe.ip, probe.port, e.getMessage());
+        }
+        close(key);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+}
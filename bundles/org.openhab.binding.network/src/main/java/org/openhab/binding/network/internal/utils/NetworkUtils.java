@@ -28,11 +28,21 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.SystemUtils;
@@ -52,6 +62,16 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class NetworkUtils {
+    private static final Path PROC_NET_ARP = Paths.get("/proc/net/arp");
+    private static final String PROC_NET_ARP_INCOMPLETE = "00:00:00:00:00:00";
+    private static final Pattern ARP_ENTRY_PATTERN = Pattern
+            .compile("(\\d{1,3}(?:\\.\\d{1,3}){3}).*?([0-9a-fA-F]{1,2}(?:[:-][0-9a-fA-F]{1,2}){5})");
+    private static final int ARP_COMMAND_TIMEOUT_IN_MS = 2000;
+    private static final Set<String> CONFIRMED_NEIGHBOUR_STATES = Collections
+            .unmodifiableSet(Stream.of("REACHABLE", "PERMANENT", "NOARP").collect(Collectors.toSet()));
+    private static final Set<String> REVALIDATED_NEIGHBOUR_STATES = Collections
+            .unmodifiableSet(Stream.of("STALE", "DELAY", "PROBE").collect(Collectors.toSet()));
+
     private final Logger logger = LoggerFactory.getLogger(NetworkUtils.class);
 
     /**
@@ -328,6 +348,110 @@ public class NetworkUtils {
         return proc.waitFor() == 0;
     }
 
+    /**
+     * Reads the complete ARP (IPv4 neighbour) table of the operating system at once. On Linux the kernel table is read
+     * from /proc/net/arp, on all other systems the output of a single "arp -a" call is parsed.
+     *
+     * @return A map of IPv4 addresses to hardware addresses of all resolved neighbours
+     */
+    public Map<String, String> getArpTable() {
+        Map<String, String> table = new HashMap<>();
+        if (Files.isReadable(PROC_NET_ARP)) {
+            try {
+                // Format: IP address, HW type, Flags, HW address, Mask, Device. The first line is a header.
+                for (String line : Files.readAllLines(PROC_NET_ARP, StandardCharsets.US_ASCII)) {
+                    String[] columns = line.trim().split("\\s+");
+                    if (columns.length >= 4 && columns[2].startsWith("0x") && !"0x0".equals(columns[2])
+                            && !PROC_NET_ARP_INCOMPLETE.equals(columns[3])) {
+                        table.put(columns[0], columns[3]);
+                    }
+                }
+                return table;
+            } catch (IOException e) {
+                logger.debug("Failed to read the ARP table from {}: {}", PROC_NET_ARP, e.getMessage());
+            }
+        }
+        String result = ExecUtil.executeCommandLineAndWaitResponse("arp -a", ARP_COMMAND_TIMEOUT_IN_MS);
+        if (result != null) {
+            for (String line : result.split("\\r?\\n")) {
+                Matcher matcher = ARP_ENTRY_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    table.put(matcher.group(1), matcher.group(2));
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Determines all IPv4 neighbours the operating system currently considers reachable. On Linux the neighbour states
+     * are read with a single "ip -s -4 neigh show" call, so that stale entries of devices which left the network are
+     * ignored. Entries which are being revalidated (STALE, DELAY, PROBE) only count if the neighbour confirmed its
+     * address within the given time. Their use time is not considered, as every packet sent to a device which left the
+     * network refreshes it.
+     * On other systems, or if the ip tool is not available, all entries of the ARP table are returned.
+     *
+     * @param confirmedWithinSeconds Maximum age of the last confirmation of a revalidated entry
+     * @return A set of IPv4 addresses
+     */
+    public Set<String> getReachableNeighbours(int confirmedWithinSeconds) {
+        if (SystemUtils.IS_OS_LINUX) {
+            String result = ExecUtil.executeCommandLineAndWaitResponse("ip -s -4 neigh show",
+                    ARP_COMMAND_TIMEOUT_IN_MS);
+            if (StringUtils.isNotBlank(result)) {
+                return parseNeighbours(result, confirmedWithinSeconds);
+            }
+        }
+        return getArpTable().keySet();
+    }
+
+    /**
+     * Parses the output of "ip -s -4 neigh show".
+     *
+     * @param output The command output
+     * @param confirmedWithinSeconds Maximum age of the last confirmation of a revalidated entry
+     * @return The IPv4 addresses of the reachable neighbours
+     */
+    static Set<String> parseNeighbours(String output, int confirmedWithinSeconds) {
+        Set<String> neighbours = new HashSet<>();
+        // Format: 192.168.0.1 dev eth0 lladdr 00:11:22:33:44:55 ref 1 used 10/5/3 probes 1 STALE
+        for (String line : output.split("\\r?\\n")) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length < 2) {
+                continue;
+            }
+            String state = columns[columns.length - 1];
+            if (CONFIRMED_NEIGHBOUR_STATES.contains(state)) {
+                neighbours.add(columns[0]);
+            } else if (REVALIDATED_NEIGHBOUR_STATES.contains(state)
+                    && getNeighbourConfirmationAge(columns) <= confirmedWithinSeconds) {
+                neighbours.add(columns[0]);
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns the seconds since the neighbour last confirmed its address, from the "used" statistics column
+     * (used/confirmed/updated), or {@link Integer#MAX_VALUE} if the statistics are missing.
+     */
+    private static int getNeighbourConfirmationAge(String[] columns) {
+        for (int i = 0; i < columns.length - 1; i++) {
+            if ("used".equals(columns[i])) {
+                String[] ages = columns[i + 1].split("/");
+                if (ages.length < 2) {
+                    return Integer.MAX_VALUE;
+                }
+                try {
+                    return Integer.parseInt(ages[1]);
+                } catch (NumberFormatException e) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
     /**
      * iOS devices are in a deep sleep mode, where they only listen to UDP traffic on port 5353 (Bonjour service
      * discovery). A packet on port 5353 will wake up the network stack to respond to ARP pings at least.
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+
+/**
+ * Tests cases for {@link PresenceProbeEngine}
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class PresenceProbeEngineTest {
+    @Mock
+    NetworkUtils networkUtils;
+
+    @Mock
+    PresenceDetectionListener listener;
+
+    @Mock
+    ScheduledExecutorService scheduler;
+
+    PresenceProbeEngine engine;
+    PresenceDetection detection;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        engine = new PresenceProbeEngine();
+        engine.networkUtils = networkUtils;
+
+        detection = new PresenceDetection(listener, 2000);
+        detection.networkUtils = networkUtils;
+        detection.setProbeEngine(engine);
+        detection.setHostname("127.0.0.1");
+        detection.setTimeout(300);
+        detection.setUseDhcpSniffing(false);
+        detection.setUseIcmpPing(null);
+        detection.setUseArpPing(true, "arping", ArpPingUtilEnum.IPUTILS_ARPING);
+
+        // Register, but run the cycles by hand
+        detection.startAutomaticRefresh(scheduler);
+        engine.dispose();
+    }
+
+    @After
+    public void shutDown() {
+        engine.dispose();
+    }
+
+    @Test
+    public void automaticRefreshRegistersWithEngine() {
+        assertTrue(engine.isRegistered(detection));
+        assertTrue(detection.isAutomaticRefreshing());
+        verifyZeroInteractions(scheduler);
+
+        detection.stopAutomaticRefresh();
+        assertFalse(engine.isRegistered(detection));
+        assertFalse(detection.isAutomaticRefreshing());
+    }
+
+    @Test
+    public void neighbourTableAnswersArpTargets() throws IOException, InterruptedException {
+        when(networkUtils.getReachableNeighbours(anyInt())).thenReturn(Collections.singleton("127.0.0.1"));
+
+        assertTrue(engine.requestProbe(detection));
+        engine.runCycle();
+
+        verify(networkUtils, never()).nativeARPPing(any(), any(), anyString(), anyString(), anyInt());
+        verify(listener).partialDetectionResult(any());
+        ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener).finalDetectionResult(capture.capture());
+        assertTrue(capture.getValue().isReachable());
+        assertThat(capture.getValue().getSuccessfulDetectionTypes(), is("ARP_PING"));
+    }
+
+    @Test
+    public void unknownNeighbourIsNotReachable() {
+        when(networkUtils.getReachableNeighbours(anyInt())).thenReturn(Collections.emptySet());
+
+        assertTrue(engine.requestProbe(detection));
+        engine.runCycle();
+
+        verify(listener, never()).partialDetectionResult(any());
+        ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener).finalDetectionResult(capture.capture());
+        assertFalse(capture.getValue().isReachable());
+    }
+
+    @Test
+    public void probesOnlyDueTargets() {
+        when(networkUtils.getReachableNeighbours(anyInt())).thenReturn(Collections.singleton("127.0.0.1"));
+
+        engine.requestProbe(detection);
+        engine.runCycle();
+        // The refresh interval has not elapsed yet
+        engine.runCycle();
+
+        verify(networkUtils, times(1)).getReachableNeighbours(anyInt());
+        verify(listener, times(1)).finalDetectionResult(any());
+    }
+}
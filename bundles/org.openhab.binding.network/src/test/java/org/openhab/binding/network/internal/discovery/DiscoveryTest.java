@@ -87,4 +87,11 @@ public class DiscoveryTest {
         Assert.assertThat(dresult.getProperties().get(NetworkBindingConstants.PARAMETER_HOSTNAME), is(ip));
         Assert.assertThat(dresult.getProperties().get(NetworkBindingConstants.PARAMETER_PORT), is(1010));
     }
+
+    @Test
+    public void scanTimeoutDependsOnMaxConnections() {
+        // 4 ports of 254 IPs
+        Assert.assertThat(NetworkDiscoveryService.estimateScanTimeout(254, 256), is(3));
+        Assert.assertThat(NetworkDiscoveryService.estimateScanTimeout(254, 16), is(33));
+    }
 }
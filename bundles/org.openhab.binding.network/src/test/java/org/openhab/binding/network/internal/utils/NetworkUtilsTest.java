@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for the neighbour table parsing of {@link NetworkUtils}
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class NetworkUtilsTest {
+    // @formatter:off
+    private static final String NEIGHBOURS =
+              "192.168.0.1 dev eth0 lladdr 00:11:22:33:44:55 ref 1 used 0/0/0 probes 1 REACHABLE\n"
+            + "192.168.0.2 dev eth0 lladdr 00:11:22:33:44:56 used 0/1/1 probes 0 DELAY\n"
+            + "192.168.0.3 dev eth0 lladdr 00:11:22:33:44:57 used 120/95/80 probes 1 STALE\n"
+            + "192.168.0.4 dev eth0 used 0/125/0 probes 6 FAILED\n"
+            + "192.168.0.5 dev eth0 lladdr 00:11:22:33:44:58 used 0/60/0 probes 1 PROBE\n"
+            + "192.168.0.6 dev eth0 lladdr 00:11:22:33:44:59 PERMANENT\n"
+            + "192.168.0.7 dev eth0 lladdr 00:11:22:33:44:60 STALE\n";
+    // @formatter:on
+
+    @Test
+    public void confirmedNeighboursAreReachable() {
+        Set<String> neighbours = NetworkUtils.parseNeighbours(NEIGHBOURS, 1);
+
+        assertTrue(neighbours.contains("192.168.0.1"));
+        // Answered the packet sent in this cycle
+        assertTrue(neighbours.contains("192.168.0.2"));
+        assertTrue(neighbours.contains("192.168.0.6"));
+        // Not confirmed recently, failed, or without statistics
+        assertFalse(neighbours.contains("192.168.0.3"));
+        assertFalse(neighbours.contains("192.168.0.4"));
+        assertFalse(neighbours.contains("192.168.0.7"));
+        assertEquals(3, neighbours.size());
+    }
+
+    @Test
+    public void usedButUnconfirmedNeighboursAreNotReachable() {
+        // The packet sent to a device which left the network refreshes the use, but not the confirmation
+        assertFalse(NetworkUtils.parseNeighbours(NEIGHBOURS, 1).contains("192.168.0.5"));
+    }
+
+    @Test
+    public void revalidatedNeighboursNeedRecentConfirmation() {
+        Set<String> neighbours = NetworkUtils.parseNeighbours(NEIGHBOURS, 0);
+
+        assertTrue(neighbours.contains("192.168.0.1"));
+        assertFalse(neighbours.contains("192.168.0.2"));
+        assertTrue(neighbours.contains("192.168.0.6"));
+    }
+}
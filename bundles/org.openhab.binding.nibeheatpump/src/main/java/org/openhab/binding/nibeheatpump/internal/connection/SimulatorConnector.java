@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
  * Connector for testing purposes.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Read out messages for benchmarks
  */
 public class SimulatorConnector extends NibeHeatPumpBaseConnector {
 
@@ -163,11 +164,7 @@ public class SimulatorConnector extends NibeHeatPumpBaseConnector {
                     } else if (i % 10 == 0) {
 
                         // ok data
-                        ModbusDataReadOutMessage dataReadOut = new ModbusDataReadOutMessage.MessageBuilder()
-                                .values(dataReadoutValues).build();
-                        updateData();
-                        updateCache();
-                        sendMsgToListeners(dataReadOut.decodeMessage());
+                        sendMsgToListeners(createDataReadOut());
                     }
 
                     if (!writeQueue.isEmpty()) {
@@ -214,6 +211,18 @@ public class SimulatorConnector extends NibeHeatPumpBaseConnector {
         }
     }
 
+    /**
+     * Creates the next data read out message with simulated values, like the
+     * heat pump sends every ~2 seconds.
+     *
+     * @return raw message data.
+     */
+    public byte[] createDataReadOut() {
+        updateData();
+        updateCache();
+        return new ModbusDataReadOutMessage.MessageBuilder().values(dataReadoutValues).build().decodeMessage();
+    }
+
     private void updateCache() {
         for (ModbusValue val : dataReadoutValues) {
             cache.put(val.getCoilAddress(), val.getValue());
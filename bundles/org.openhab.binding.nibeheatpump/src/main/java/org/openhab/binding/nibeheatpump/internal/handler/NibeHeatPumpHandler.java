@@ -13,6 +13,7 @@
 package org.openhab.binding.nibeheatpump.internal.handler;
 
 import org.eclipse.smarthome.core.library.types.*;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -29,7 +30,9 @@ import org.openhab.binding.nibeheatpump.internal.connection.ConnectorFactory;
 import org.openhab.binding.nibeheatpump.internal.connection.NibeHeatPumpConnector;
 import org.openhab.binding.nibeheatpump.internal.connection.NibeHeatPumpEventListener;
 import org.openhab.binding.nibeheatpump.internal.message.*;
+import org.openhab.binding.nibeheatpump.internal.handler.RegisterValueCache.CacheObject;
 import org.openhab.binding.nibeheatpump.internal.models.PumpModel;
+import org.openhab.binding.nibeheatpump.internal.models.RegisterTable;
 import org.openhab.binding.nibeheatpump.internal.models.VariableInformation;
 import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.NibeDataType;
 import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.Type;
@@ -49,6 +52,7 @@ import java.util.stream.Collectors;
  * are sent to one of the channels.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Array-indexed register cache, one pass per read out message
  */
 public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPumpEventListener {
 
@@ -57,7 +61,9 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
     private final PumpModel pumpModel;
     private final List<Integer> itemsToPoll = Collections.synchronizedList(new ArrayList<>());
     private final List<Integer> itemsToEnableWrite = new ArrayList<>();
-    private final Map<Integer, CacheObject> stateMap = Collections.synchronizedMap(new HashMap<Integer, CacheObject>());
+    private final RegisterTable registerTable;
+    private final RegisterValueCache stateCache;
+    private volatile RegisterChannels registerChannels;
     private NibeHeatPumpConfiguration configuration;
     private NibeHeatPumpConnector connector;
     private boolean reconnectionRequest;
@@ -81,7 +87,7 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
                 if (connector != null && connector.isConnected()
                         && getThing().getStatusInfo().getStatus() == ThingStatus.ONLINE) {
 
-                    CacheObject oldValue = stateMap.get(item);
+                    CacheObject oldValue = stateCache.get(registerTable.indexOf(item));
                     if (oldValue == null
                             || (oldValue.lastUpdateTime + refreshIntervalMillis()) < System.currentTimeMillis()) {
 
@@ -101,7 +107,7 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
                                             result.getCoilAddress(), request.getCoilAddress());
                                 }
                                 // update variable anyway
-                                handleVariableUpdate(pumpModel, result.getValueAsModbusValue());
+                                handleVariableUpdates(Collections.singletonList(result.getValueAsModbusValue()));
                             }
                         } catch (TimeoutException e) {
                             logger.debug("Message sending to heat pump failed, no response");
@@ -126,6 +132,8 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
     public NibeHeatPumpHandler(Thing thing, PumpModel pumpModel) {
         super(thing);
         this.pumpModel = pumpModel;
+        this.registerTable = VariableInformation.getRegisterTable(pumpModel);
+        this.stateCache = new RegisterValueCache(registerTable.size());
     }
 
     @Override
@@ -421,12 +429,12 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
     }
 
     private void clearCache() {
-        stateMap.clear();
+        stateCache.clear();
         lastUpdateTime = 0;
     }
 
     private void clearCache(int coilAddress) {
-        stateMap.put(coilAddress, null);
+        stateCache.clear(registerTable.indexOf(coilAddress));
     }
 
     private synchronized NibeHeatPumpCommandResult sendMessageToNibe(NibeHeatPumpMessage msg)
@@ -498,65 +506,92 @@ public class NibeHeatPumpHandler extends BaseThingHandler implements NibeHeatPum
             List<ModbusValue> regValues = msg.getValues();
 
             if (regValues != null) {
-                for (ModbusValue val : regValues) {
-                    handleVariableUpdate(pumpModel, val);
-                }
+                handleVariableUpdates(regValues);
             }
         }
     }
 
-    private void handleVariableUpdate(PumpModel pumpModel, ModbusValue value) {
-        logger.debug("Received variable update: {}", value);
-        int coilAddress = value.getCoilAddress();
-
-        VariableInformation variableInfo = VariableInformation.getVariableInfo(pumpModel, coilAddress);
-
-        if (variableInfo != null) {
-            logger.trace("Using variable information to register {}: {}", coilAddress, variableInfo);
+    /**
+     * Updates the cached values and publishes the changed values in one pass.
+     */
+    private void handleVariableUpdates(List<ModbusValue> values) {
+        final long now = System.currentTimeMillis();
+        final long maxAge = refreshIntervalMillis() / 2;
+        final RegisterChannels channels = getRegisterChannels();
+
+        for (ModbusValue value : values) {
+            int coilAddress = value.getCoilAddress();
+            int index = registerTable.indexOf(coilAddress);
+
+            if (index < 0) {
+                logger.debug("Unknown register {}", coilAddress);
+                continue;
+            }
 
+            VariableInformation variableInfo = registerTable.getVariableInfoAt(index);
             int val = value.getValue();
-            logger.debug("{} = {}", coilAddress + ":" + variableInfo.variable + "/" + variableInfo.factor, val);
-
-            CacheObject oldValue = stateMap.get(coilAddress);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{}:{}/{} = {}", coilAddress, variableInfo.variable, variableInfo.factor, val);
+            }
 
-            if (oldValue != null && val == oldValue.value && (oldValue.lastUpdateTime + refreshIntervalMillis() / 2) >= System.currentTimeMillis()) {
+            if (!stateCache.update(index, val, now, maxAge)) {
                 logger.trace("Value did not change, ignoring update");
-            } else {
-                final String channelPrefix = (variableInfo.type == Type.SETTING ? "setting#" : "sensor#");
-                final String channelId = channelPrefix + String.valueOf(coilAddress);
-                final String acceptedItemType = thing.getChannel(channelId).getAcceptedItemType();
-
-                logger.trace("AcceptedItemType for channel {} = {}", channelId, acceptedItemType);
-                State state = convertNibeValueToState(variableInfo, val, acceptedItemType);
-                logger.debug("Setting state {} = {}", coilAddress + ":" + variableInfo.variable, state);
-                stateMap.put(coilAddress, new CacheObject(System.currentTimeMillis(), val));
-                updateState(new ChannelUID(getThing().getUID(), channelId), state);
+                continue;
             }
-        } else {
-            logger.debug("Unknown register {}", coilAddress);
+
+            ChannelUID channelUID = channels.channelUIDs[index];
+            if (channelUID == null) {
+                logger.debug("No channel for register {}", coilAddress);
+                continue;
+            }
+
+            State state = convertNibeValueToState(variableInfo, val, channels.acceptedItemTypes[index]);
+            logger.debug("Setting state {}:{} = {}", coilAddress, variableInfo.variable, state);
+            updateState(channelUID, state);
+        }
+    }
+
+    /**
+     * Returns the channels of the registers, resolved again when the thing
+     * (and so its channels) is replaced.
+     */
+    private RegisterChannels getRegisterChannels() {
+        Thing thing = getThing();
+        RegisterChannels channels = registerChannels;
+        if (channels == null || channels.thing != thing) {
+            channels = new RegisterChannels(thing, registerTable);
+            registerChannels = channels;
         }
+        return channels;
     }
 
-    protected class CacheObject {
-
-        /** Time when cache object updated in milliseconds */
-        final long lastUpdateTime;
-
-        /** Cache value */
-        final int value;
-
-        /**
-         * Initialize cache object.
-         *
-         * @param lastUpdateTime
-         *                           Time in milliseconds.
-         *
-         * @param value
-         *                           Cache value.
-         */
-        CacheObject(long lastUpdateTime, int value) {
-            this.lastUpdateTime = lastUpdateTime;
-            this.value = value;
+    /**
+     * Channel and accepted item type of each register, indexed like the
+     * {@link RegisterTable}.
+     */
+    private static class RegisterChannels {
+        final Thing thing;
+        final ChannelUID[] channelUIDs;
+        final String[] acceptedItemTypes;
+
+        RegisterChannels(Thing thing, RegisterTable registerTable) {
+            this.thing = thing;
+            channelUIDs = new ChannelUID[registerTable.size()];
+            acceptedItemTypes = new String[registerTable.size()];
+
+            Map<String, Channel> channels = new HashMap<>();
+            for (Channel channel : thing.getChannels()) {
+                channels.put(channel.getUID().getId(), channel);
+            }
+            for (int i = 0; i < registerTable.size(); i++) {
+                VariableInformation variableInfo = registerTable.getVariableInfoAt(i);
+                String channelPrefix = (variableInfo.type == Type.SETTING ? "setting#" : "sensor#");
+                Channel channel = channels.get(channelPrefix + registerTable.getCoilAddressAt(i));
+                if (channel != null) {
+                    channelUIDs[i] = channel.getUID();
+                    acceptedItemTypes[i] = channel.getAcceptedItemType();
+                }
+            }
         }
     }
 }
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.nibeheatpump.internal.handler;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.openhab.binding.nibeheatpump.internal.models.RegisterTable;
+
+/**
+ * The {@link RegisterValueCache} holds the last received value of each
+ * register, indexed by the register index of the {@link RegisterTable}.
+ *
+ * The cache is updated without locks, so data read out messages and the
+ * polling of the handler don't block each other.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class RegisterValueCache {
+
+    private volatile AtomicReferenceArray<CacheObject> values;
+
+    public RegisterValueCache(int size) {
+        values = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Returns the cached value of a register.
+     *
+     * @param index
+     *                  Index of the register, or -1 for an unknown register.
+     * @return cached value or null if there is no value.
+     */
+    public CacheObject get(int index) {
+        return index < 0 ? null : values.get(index);
+    }
+
+    /**
+     * Stores a received value, if it has changed or the cached value is
+     * older than the given age.
+     *
+     * @param index
+     *                      Index of the register.
+     * @param value
+     *                      Received value.
+     * @param now
+     *                      Current time in milliseconds.
+     * @param maxAge
+     *                      Time in milliseconds after which an unchanged value is
+     *                      stored again.
+     * @return true if the value was stored and should be published.
+     */
+    public boolean update(int index, int value, long now, long maxAge) {
+        AtomicReferenceArray<CacheObject> values = this.values;
+        CacheObject newValue = null;
+        while (true) {
+            CacheObject oldValue = values.get(index);
+            if (oldValue != null && oldValue.value == value && oldValue.lastUpdateTime + maxAge >= now) {
+                return false;
+            }
+            if (newValue == null) {
+                newValue = new CacheObject(now, value);
+            }
+            if (values.compareAndSet(index, oldValue, newValue)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the cached value of a register, the next received value is
+     * stored and published even if it has not changed.
+     *
+     * @param index
+     *                  Index of the register, or -1 for an unknown register.
+     */
+    public void clear(int index) {
+        if (index >= 0) {
+            values.set(index, null);
+        }
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public void clear() {
+        values = new AtomicReferenceArray<>(values.length());
+    }
+
+    public static class CacheObject {
+
+        /** Time when cache object updated in milliseconds */
+        final long lastUpdateTime;
+
+        /** Cache value */
+        final int value;
+
+        /**
+         * Initialize cache object.
+         *
+         * @param lastUpdateTime
+         *                           Time in milliseconds.
+         *
+         * @param value
+         *                           Cache value.
+         */
+        CacheObject(long lastUpdateTime, int value) {
+            this.lastUpdateTime = lastUpdateTime;
+            this.value = value;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.Type
  *
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Array-indexed register table
  */
 public class F1X45 {
 
@@ -767,7 +768,13 @@ public class F1X45 {
                 }
             });
 
+    private static final RegisterTable REGISTER_TABLE_F1X45 = new RegisterTable(VARIABLE_INFO_F1X45);
+
     public static VariableInformation getVariableInfo(int key) {
-        return VARIABLE_INFO_F1X45.get(key);
+        return REGISTER_TABLE_F1X45.getVariableInfo(key);
+    }
+
+    public static RegisterTable getRegisterTable() {
+        return REGISTER_TABLE_F1X45;
     }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
  *
  *
  * @author Jevgeni Kiski - Initial contribution
+ * @author Contributors to the openHAB project - Array-indexed register table
  */
 public class F1X55 {
 
@@ -1012,7 +1013,13 @@ public class F1X55 {
                 }
             });
 
+    private static final RegisterTable REGISTER_TABLE_F1X55 = new RegisterTable(VARIABLE_INFO_F1X55);
+
     public static VariableInformation getVariableInfo(int key) {
-        return VARIABLE_INFO_F1X55.get(key);
+        return REGISTER_TABLE_F1X55.getVariableInfo(key);
+    }
+
+    public static RegisterTable getRegisterTable() {
+        return REGISTER_TABLE_F1X55;
     }
 }
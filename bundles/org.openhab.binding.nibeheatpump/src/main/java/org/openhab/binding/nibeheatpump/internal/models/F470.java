@@ -24,6 +24,7 @@ import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.Type
  *
  * @author Pauli Anttila - Initial contribution
  * @author Juho Mäkinen - Adding model F470
+ * @author Contributors to the openHAB project - Array-indexed register table
  */
 public class F470 {
 
@@ -523,7 +524,13 @@ public class F470 {
                 }
             });
 
+    private static final RegisterTable REGISTER_TABLE_F470 = new RegisterTable(VARIABLE_INFO_F470);
+
     public static VariableInformation getVariableInfo(int key) {
-        return VARIABLE_INFO_F470.get(key);
+        return REGISTER_TABLE_F470.getVariableInfo(key);
+    }
+
+    public static RegisterTable getRegisterTable() {
+        return REGISTER_TABLE_F470;
     }
 }
@@ -24,6 +24,7 @@ import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.Type
  *
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Array-indexed register table
  */
 public class F750 {
 
@@ -675,7 +676,13 @@ public class F750 {
                 }
             });
 
+    private static final RegisterTable REGISTER_TABLE_F750 = new RegisterTable(VARIABLE_INFO_F750);
+
     public static VariableInformation getVariableInfo(int key) {
-        return VARIABLE_INFO_F750.get(key);
+        return REGISTER_TABLE_F750.getVariableInfo(key);
+    }
+
+    public static RegisterTable getRegisterTable() {
+        return REGISTER_TABLE_F750;
     }
 }
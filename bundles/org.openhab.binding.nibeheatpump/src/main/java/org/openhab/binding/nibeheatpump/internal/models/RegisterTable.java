@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.nibeheatpump.internal.models;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Class which holds the registers of one heat pump model in arrays.
+ *
+ * Each register has an index between 0 and {@link #size()} - 1, sorted by
+ * coil address. The index of a coil address is found by one array access,
+ * so the index can be used to hold per register data (e.g. cached values) in
+ * plain arrays.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class RegisterTable {
+
+    private static final short NO_REGISTER = -1;
+
+    private final int firstCoilAddress;
+    private final short[] indexes;
+    private final int[] coilAddresses;
+    private final VariableInformation[] variables;
+
+    public RegisterTable(Map<Integer, VariableInformation> variableInfo) {
+        if (variableInfo.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many registers " + variableInfo.size());
+        }
+
+        coilAddresses = variableInfo.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        variables = new VariableInformation[coilAddresses.length];
+
+        if (coilAddresses.length > 0) {
+            firstCoilAddress = coilAddresses[0];
+            indexes = new short[coilAddresses[coilAddresses.length - 1] - firstCoilAddress + 1];
+        } else {
+            firstCoilAddress = 0;
+            indexes = new short[0];
+        }
+        Arrays.fill(indexes, NO_REGISTER);
+
+        for (int i = 0; i < coilAddresses.length; i++) {
+            indexes[coilAddresses[i] - firstCoilAddress] = (short) i;
+            variables[i] = variableInfo.get(coilAddresses[i]);
+        }
+    }
+
+    /**
+     * Returns the number of registers.
+     */
+    public int size() {
+        return coilAddresses.length;
+    }
+
+    /**
+     * Returns the index of a register.
+     *
+     * @param coilAddress
+     *                        Coil address of the register.
+     * @return index of the register or -1 if the model does not have the register.
+     */
+    public int indexOf(int coilAddress) {
+        int offset = coilAddress - firstCoilAddress;
+        if (offset < 0 || offset >= indexes.length) {
+            return NO_REGISTER;
+        }
+        return indexes[offset];
+    }
+
+    public VariableInformation getVariableInfo(int coilAddress) {
+        int index = indexOf(coilAddress);
+        return index < 0 ? null : variables[index];
+    }
+
+    public int getCoilAddressAt(int index) {
+        return coilAddresses[index];
+    }
+
+    public VariableInformation getVariableInfoAt(int index) {
+        return variables[index];
+    }
+}
@@ -16,6 +16,7 @@ package org.openhab.binding.nibeheatpump.internal.models;
  * Class for VariableInformation
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Contributors to the openHAB project - Array-indexed register table
  */
 public class VariableInformation {
 
@@ -63,6 +64,21 @@ public class VariableInformation {
         }
     }
 
+    public static RegisterTable getRegisterTable(PumpModel model) {
+        switch (model) {
+            case F1X45:
+                return F1X45.getRegisterTable();
+            case F1X55:
+                return F1X55.getRegisterTable();
+            case F750:
+                return F750.getRegisterTable();
+            case F470:
+                return F470.getRegisterTable();
+            default:
+                return null;
+        }
+    }
+
     @Override
     public String toString() {
         String str = "";
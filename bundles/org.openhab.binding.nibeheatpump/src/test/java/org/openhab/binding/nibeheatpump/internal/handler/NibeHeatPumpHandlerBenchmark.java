@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.nibeheatpump.internal.handler;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.nibeheatpump.internal.NibeHeatPumpBindingConstants;
+import org.openhab.binding.nibeheatpump.internal.NibeHeatPumpException;
+import org.openhab.binding.nibeheatpump.internal.config.NibeHeatPumpConfiguration;
+import org.openhab.binding.nibeheatpump.internal.connection.ConnectorFactory;
+import org.openhab.binding.nibeheatpump.internal.connection.SimulatorConnector;
+import org.openhab.binding.nibeheatpump.internal.models.PumpModel;
+import org.openhab.binding.nibeheatpump.internal.models.RegisterTable;
+import org.openhab.binding.nibeheatpump.internal.models.VariableInformation;
+import org.openhab.binding.nibeheatpump.internal.models.VariableInformation.Type;
+
+/**
+ * Measures how fast the {@link NibeHeatPumpHandler} handles the data read out messages of the
+ * {@link SimulatorConnector}: decoding, change detection, state conversion and publishing of the changed values. This
+ * is no unit test, run its main method with the test classpath and optionally the number of messages.
+ * <p>
+ * The thing has a channel for every register of the F1X55. The states are counted instead of being passed to the
+ * framework.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class NibeHeatPumpHandlerBenchmark {
+
+    /**
+     * Handler that counts the published states
+     */
+    private static class CountingHandler extends NibeHeatPumpHandler {
+        private long states;
+
+        CountingHandler(Thing thing) {
+            super(thing, PumpModel.F1X55);
+        }
+
+        @Override
+        protected void updateState(ChannelUID channelUID, State state) {
+            states++;
+        }
+
+        @Override
+        protected void updateStatus(ThingStatus status) {
+        }
+    }
+
+    public static void main(String[] args) throws NibeHeatPumpException, ReflectiveOperationException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        ThingUID thingUID = new ThingUID(NibeHeatPumpBindingConstants.THING_TYPE_F1X55_SIMULATOR, "benchmark");
+        RegisterTable table = VariableInformation.getRegisterTable(PumpModel.F1X55);
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            String prefix = table.getVariableInfoAt(i).type == Type.SETTING ? "setting#" : "sensor#";
+            channels.add(ChannelBuilder
+                    .create(new ChannelUID(thingUID, prefix + table.getCoilAddressAt(i)), "Number").build());
+        }
+        Thing thing = ThingBuilder.create(NibeHeatPumpBindingConstants.THING_TYPE_F1X55_SIMULATOR, thingUID)
+                .withChannels(channels).build();
+
+        CountingHandler handler = new CountingHandler(thing);
+        NibeHeatPumpConfiguration configuration = new NibeHeatPumpConfiguration();
+        configuration.refreshInterval = 60;
+        // the configuration is set by initialize(), which would also connect to the simulator
+        Field field = NibeHeatPumpHandler.class.getDeclaredField("configuration");
+        field.setAccessible(true);
+        field.set(handler, configuration);
+
+        SimulatorConnector connector = (SimulatorConnector) ConnectorFactory
+                .getConnector(NibeHeatPumpBindingConstants.THING_TYPE_F1X55_SIMULATOR);
+        connector.addEventListener(handler);
+        byte[][] messages = new byte[100][];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = connector.createDataReadOut();
+        }
+
+        // warm up
+        for (int i = 0; i < count / 10; i++) {
+            connector.sendMsgToListeners(messages[i % messages.length]);
+        }
+
+        handler.states = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            connector.sendMsgToListeners(messages[i % messages.length]);
+        }
+        long ns = System.nanoTime() - start;
+
+        System.out.printf("Handled %d data read out messages: %d messages/s, %d states published%n", count,
+                (long) count * 1000000000L / Math.max(1, ns), handler.states);
+    }
+}
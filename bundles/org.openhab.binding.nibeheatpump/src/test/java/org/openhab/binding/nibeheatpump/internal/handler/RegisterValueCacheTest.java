@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.nibeheatpump.internal.handler;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link RegisterValueCache}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class RegisterValueCacheTest {
+
+    @Test
+    public void unchangedValueIsIgnored() {
+        RegisterValueCache cache = new RegisterValueCache(2);
+        assertNull(cache.get(0));
+        assertNull(cache.get(-1));
+
+        assertTrue(cache.update(0, 10, 1000, 500));
+        assertFalse(cache.update(0, 10, 1400, 500));
+        assertEquals(10, cache.get(0).value);
+        assertEquals(1000, cache.get(0).lastUpdateTime);
+
+        assertTrue(cache.update(0, 11, 1400, 500));
+        assertEquals(1400, cache.get(0).lastUpdateTime);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void oldValueIsUpdated() {
+        RegisterValueCache cache = new RegisterValueCache(1);
+        assertTrue(cache.update(0, 10, 1000, 500));
+        assertTrue(cache.update(0, 10, 1501, 500));
+        assertEquals(1501, cache.get(0).lastUpdateTime);
+    }
+
+    @Test
+    public void clearedValueIsUpdated() {
+        RegisterValueCache cache = new RegisterValueCache(2);
+        cache.update(0, 10, 1000, 500);
+        cache.update(1, 10, 1000, 500);
+
+        cache.clear(0);
+        assertNull(cache.get(0));
+        assertTrue(cache.update(0, 10, 1000, 500));
+
+        cache.clear();
+        assertNull(cache.get(0));
+        assertNull(cache.get(1));
+        assertTrue(cache.update(1, 10, 1000, 500));
+    }
+}
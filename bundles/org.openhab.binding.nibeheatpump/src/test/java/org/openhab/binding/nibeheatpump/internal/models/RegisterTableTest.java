@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.nibeheatpump.internal.models;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class RegisterTableTest {
+
+    @Test
+    public void TestIndexesOfAllModels() {
+        for (PumpModel model : PumpModel.values()) {
+            RegisterTable table = VariableInformation.getRegisterTable(model);
+            assertTrue(table.size() > 0);
+            for (int i = 0; i < table.size(); i++) {
+                int coilAddress = table.getCoilAddressAt(i);
+                if (i > 0) {
+                    assertTrue(coilAddress > table.getCoilAddressAt(i - 1));
+                }
+                assertEquals(i, table.indexOf(coilAddress));
+                assertSame(table.getVariableInfoAt(i), table.getVariableInfo(coilAddress));
+                assertSame(table.getVariableInfoAt(i), VariableInformation.getVariableInfo(model, coilAddress));
+            }
+        }
+    }
+
+    @Test
+    public void TestUnknownRegisters() {
+        RegisterTable table = VariableInformation.getRegisterTable(PumpModel.F1X55);
+        assertEquals(-1, table.indexOf(0));
+        assertEquals(-1, table.indexOf(40000));
+        assertEquals(-1, table.indexOf(0xFFFF));
+        assertEquals(-1, table.indexOf(-1));
+        assertNull(table.getVariableInfo(40000));
+    }
+}
@@ -108,6 +108,8 @@ public class ShellyBindingConstants {
     public static final int UPDATE_MIN_DELAY = 15;
     // check for updates every x sec
     public static final int UPDATE_SETTINGS_INTERVAL_SECONDS = 60;
+    // while CoIoT updates are received the regular updates are delayed up to x times the update interval
+    public static final int UPDATE_COIOT_MAX_BACKOFF = 4;
 
     // Thing Configuration Properties
     public static final String CONFIG_DEVICEIP = "deviceIp";
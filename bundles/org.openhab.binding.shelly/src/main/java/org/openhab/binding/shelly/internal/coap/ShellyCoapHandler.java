@@ -43,21 +43,19 @@ import org.openhab.binding.shelly.internal.api.ShellyDeviceProfile;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotDescrBlk;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotDescrSen;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotDevDescription;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotGenericSensorList;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotSensor;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotSensorTypeAdapter;
 import org.openhab.binding.shelly.internal.config.ShellyThingConfiguration;
 import org.openhab.binding.shelly.internal.handler.ShellyBaseHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 /**
  * The {@link ShellyCoapHandler} handles the CoIoT/Coap registration and events.
  *
  * @author Markus Michels - Initial contribution
+ * @author Contributors to the openHAB project - Decode status updates without Gson
  */
 @NonNullByDefault
 public class ShellyCoapHandler implements ShellyCoapListener {
@@ -65,8 +63,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
     private final ShellyBaseHandler thingHandler;
     private final ShellyThingConfiguration config;
-    private final GsonBuilder gsonBuilder;
-    private final Gson gson;
+    private final Gson gson = new Gson();
     private String thingName;
 
     private @Nullable ShellyCoapServer coapServer;
@@ -86,11 +83,6 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         this.coapServer = coapServer;
         this.config = config;
         this.thingName = thingHandler.thingName;
-
-        gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(CoIotGenericSensorList.class, new CoIotSensorTypeAdapter());
-        gsonBuilder.setPrettyPrinting();
-        gson = gsonBuilder.create();
     }
 
     /*
@@ -103,7 +95,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
             if (statusClient == null) {
                 coapServer.init(config.localIp);
-                coapServer.addListener(this);
+                coapServer.addListener(config.deviceIp, this);
 
                 statusClient = new CoapClient(completeUrl(config.deviceIp, COLOIT_URI_DEVSTATUS))
                         .setTimeout((long) SHELLY_API_TIMEOUT_MS).useNONs().setEndpoint(coapServer.getEndpoint());
@@ -216,7 +208,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                  */
                 reqStatus = sendRequest(reqStatus, config.deviceIp, COLOIT_URI_DEVSTATUS, Type.NON);
             }
-        } catch (NullPointerException | IOException e) {
+        } catch (NullPointerException | IllegalArgumentException | IOException e) {
             logger.debug("{}: Unable to process CoIoT Message: {} ({}); payload={}\n{}", thingName, e.getMessage(),
                     e.getClass(), payload, e.getStackTrace());
             resetSerial();
@@ -326,17 +318,11 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             logger.debug("{}: Device description for {} restored: {}", thingName, devId, savedDescr);
         }
 
-        // Parse Json,
-        CoIotGenericSensorList list = gson.fromJson(payload, CoIotGenericSensorList.class);
-        Validate.notNull(list, "sensor list must not be empty!");
+        // Decode the sensors, unchanged values are skipped when the channels are updated
+        List<CoIotSensor> sensors = ShellyCoapStatusParser.parse(payload);
         Map<String, State> updates = new HashMap<String, State>();
+        thingHandler.coiotUpdateReceived();
 
-        if (list.generic == null) {
-            logger.debug("{}: Sensor list is empty! Payload: {}", devId, payload);
-            return;
-        }
-
-        Validate.notNull(thingHandler, "thingHandler must not be null!");
         ShellyDeviceProfile profile = thingHandler.getProfile();
         if (profile == null) {
             logger.debug("{}: Thing not initialized yet, skip update (ID={})", thingName, devId);
@@ -344,9 +330,9 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             return;
         }
 
-        logger.debug("{}: {} status updates received", thingName, list.generic.size());
-        for (int i = 0; i < list.generic.size(); i++) {
-            CoIotSensor s = list.generic.get(i);
+        logger.debug("{}: {} status updates received", thingName, sensors.size());
+        for (int i = 0; i < sensors.size(); i++) {
+            CoIotSensor s = sensors.get(i);
             CoIotDescrSen sen = sensorMap.get(s.index);
             if (sen != null) {
                 // find matching sensor definition from device description, use the Link ID as
@@ -726,7 +712,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             statusClient.shutdown();
             statusClient = null;
         }
-        coapServer.removeListener(this);
+        coapServer.removeListener(config.deviceIp, this);
     }
 
     public void dispose() {
@@ -12,15 +12,9 @@
  */
 package org.openhab.binding.shelly.internal.coap;
 
-import java.io.IOException;
 import java.util.ArrayList;
 
-import org.apache.commons.lang.Validate;
-
-import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
 
 /**
  * The {@link ShellyCoapJSon} helps the CoIoT Json into Java objects
@@ -92,60 +86,4 @@ public class ShellyCoapJSon {
         public String index; // id
         public double value; // value
     }
-
-    public static class CoIotGenericSensorList {
-        @SerializedName("G")
-        public ArrayList<CoIotSensor> generic;
-
-        public CoIotGenericSensorList() {
-            generic = new ArrayList<CoIotSensor>();
-        }
-    }
-
-    protected static class CoIotSensorTypeAdapter extends TypeAdapter<CoIotGenericSensorList> {
-        @Override
-        public CoIotGenericSensorList read(final JsonReader in) throws IOException {
-            CoIotGenericSensorList list = new CoIotGenericSensorList();
-
-            in.beginObject();
-            String generic = in.nextName();
-            Validate.notNull(generic, "Invalid JSon format for CoIotSensorList");
-            if (generic.equals(COIOT_TAG_GENERIC)) {
-                in.beginArray();
-                while (in.hasNext()) {
-                    in.beginArray();
-                    final CoIotSensor sensor = new CoIotSensor();
-                    in.nextInt(); // alway 0
-                    sensor.index = new Integer(in.nextInt()).toString();
-                    sensor.value = in.nextDouble();
-                    in.endArray();
-                    list.generic.add(sensor);
-                }
-                in.endArray();
-            }
-            in.endObject();
-
-            return list;
-        }
-
-        @Override
-        public void write(final JsonWriter out, final CoIotGenericSensorList o) throws IOException {
-            CoIotGenericSensorList sensors = o;
-            out.beginObject();
-            if (sensors != null) {
-                out.name(COIOT_TAG_GENERIC).beginArray();
-                for (int i = 0; i < sensors.generic.size(); i++) {
-                    out.beginArray();
-                    out.value(0);
-                    out.value(sensors.generic.get(i).index);
-                    out.value(sensors.generic.get(i).value);
-                    out.endArray();
-                }
-                out.endArray();
-            }
-            out.endObject();
-        }
-
-    }
-
 }
@@ -17,8 +17,8 @@ import static org.openhab.binding.shelly.internal.ShellyBindingConstants.COIOT_P
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.Validate;
 import org.eclipse.californium.core.CoapResource;
@@ -39,8 +39,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The {@link ShellyCoapServer} implements the UDP listener and status event processor (for /cit/s messages)
+ * <p>
+ * The listeners are indexed by the IP address of their device, a message is dispatched only to the listener of the
+ * device which sent it.
  *
  * @author Markus Michels - Initial contribution
+ * @author Contributors to the openHAB project - Dispatch messages by device IP address
  */
 @NonNullByDefault
 public class ShellyCoapServer {
@@ -50,7 +54,7 @@ public class ShellyCoapServer {
     private @Nullable UdpMulticastConnector statusConnector;
     private @Nullable CoapServer server;
     boolean started = false;
-    private final Set<ShellyCoapListener> coapListeners = new CopyOnWriteArraySet<>();
+    private final Map<String, ShellyCoapListener> coapListeners = new ConcurrentHashMap<>();
 
     @SuppressWarnings("null")
     @NonNullByDefault
@@ -81,12 +85,27 @@ public class ShellyCoapServer {
 
     }
 
-    public void addListener(ShellyCoapListener listener) {
-        coapListeners.add(listener);
+    /**
+     * Register the listener for the messages of a device
+     *
+     * @param deviceIp IP address or host name of the device
+     * @param listener listener, which replaces a listener registered before for the same device
+     */
+    public void addListener(String deviceIp, ShellyCoapListener listener) {
+        coapListeners.put(getHostAddress(deviceIp), listener);
+    }
+
+    public void removeListener(String deviceIp, ShellyCoapListener listener) {
+        coapListeners.remove(getHostAddress(deviceIp), listener);
     }
 
-    public void removeListener(ShellyCoapListener listener) {
-        coapListeners.remove(listener);
+    private String getHostAddress(String deviceIp) {
+        try {
+            return InetAddress.getByName(deviceIp).getHostAddress();
+        } catch (UnknownHostException e) {
+            logger.debug("Unable to resolve device address {}: {}", deviceIp, e.getMessage());
+            return deviceIp;
+        }
     }
 
     @SuppressWarnings("null")
@@ -119,7 +138,14 @@ public class ShellyCoapServer {
     }
 
     protected void processResponse(Response response) {
-        coapListeners.forEach(listener -> listener.processResponse(response));
+        InetSocketAddress peer = response.getSourceContext().getPeerAddress();
+        String ip = peer.getAddress() != null ? peer.getAddress().getHostAddress() : peer.getHostString();
+        ShellyCoapListener listener = coapListeners.get(ip);
+        if (listener != null) {
+            listener.processResponse(response);
+        } else {
+            logger.trace("CoIoT message from unknown device {} ignored", ip);
+        }
     }
 
     public static Response createResponse(Request request) {
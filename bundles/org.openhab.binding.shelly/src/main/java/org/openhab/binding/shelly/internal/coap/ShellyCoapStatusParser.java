@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.COIOT_TAG_GENERIC;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.shelly.internal.coap.ShellyCoapJSon.CoIotSensor;
+
+/**
+ * The {@link ShellyCoapStatusParser} decodes CoIoT status messages (/cit/s). The payload has the format
+ * {"G":[[channel,id,value],...]}. It is scanned directly instead of being deserialized with Gson.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoapStatusParser {
+
+    /**
+     * Decode a status message
+     *
+     * @param payload Coap payload, example: {"G":[[0,112,0],[0,111,23.5]]}
+     * @return all sensors of the message
+     * @throws IllegalArgumentException if the payload is not a valid status message
+     */
+    public static List<CoIotSensor> parse(String payload) throws IllegalArgumentException {
+        List<CoIotSensor> sensors = new ArrayList<>();
+        try {
+            int pos = expect(payload, skipWhitespace(payload, 0), '{');
+            pos = expect(payload, pos, '"');
+            int tagEnd = payload.indexOf('"', pos);
+            if (tagEnd < 0 || !payload.regionMatches(pos, COIOT_TAG_GENERIC, 0, tagEnd - pos)) {
+                throw new IllegalArgumentException("Unexpected tag at " + pos);
+            }
+            pos = expect(payload, tagEnd + 1, ':');
+            pos = expect(payload, pos, '[');
+            boolean more = payload.charAt(skipWhitespace(payload, pos)) != ']';
+            while (more) {
+                pos = expect(payload, pos, '[');
+                int end = skipNumber(payload, pos); // channel, always 0
+                pos = expect(payload, end, ',');
+                end = skipNumber(payload, pos);
+                String index = unquote(payload, pos, end);
+                pos = expect(payload, end, ',');
+                end = skipNumber(payload, pos);
+                double value = Double.parseDouble(unquote(payload, pos, end));
+                pos = expect(payload, end, ']');
+
+                CoIotSensor sensor = new CoIotSensor();
+                sensor.index = index;
+                sensor.value = value;
+                sensors.add(sensor);
+
+                pos = skipWhitespace(payload, pos);
+                more = payload.charAt(pos) == ',';
+                pos = expect(payload, pos, more ? ',' : ']');
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid CoIoT status message: " + e.getMessage(), e);
+        }
+        return sensors;
+    }
+
+    /**
+     * Checks that the given character follows at the position (after optional white spaces)
+     *
+     * @return position after the character
+     */
+    private static int expect(String payload, int pos, char expected) {
+        int i = skipWhitespace(payload, pos);
+        if (payload.charAt(i) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at " + i);
+        }
+        return i + 1;
+    }
+
+    private static int skipWhitespace(String payload, int pos) {
+        int i = pos;
+        while (i < payload.length() && Character.isWhitespace(payload.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the position after the number (or quoted number) which starts at the given position
+     */
+    private static int skipNumber(String payload, int pos) {
+        int i = skipWhitespace(payload, pos);
+        if (payload.charAt(i) == '"') {
+            int end = payload.indexOf('"', i + 1);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated string at " + i);
+            }
+            return end + 1;
+        }
+        while (i < payload.length() && ",] \t\r\n".indexOf(payload.charAt(i)) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String unquote(String payload, int start, int end) {
+        String value = payload.substring(start, end).trim();
+        if (value.length() >= 2 && value.charAt(0) == '"') {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing value at " + start);
+        }
+        return value;
+    }
+}
@@ -55,6 +55,7 @@ import org.slf4j.LoggerFactory;
  * sent to one of the channels.
  *
  * @author Markus Michels - Initial contribution
+ * @author Contributors to the openHAB project - Delay regular updates while CoIoT updates are received
  */
 @NonNullByDefault
 public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceListener {
@@ -79,6 +80,11 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
     public int scheduledUpdates = 0;
     private int skipCount = UPDATE_SKIP_COUNT;
 
+    // regular updates are delayed while CoIoT updates are received
+    private volatile long lastCoIotUpdate = 0;
+    private int lastRegularUpdate = 0;
+    private int updateBackoff = 1;
+
     // force settings refresh every x seconds
     private int refreshCount = UPDATE_SETTINGS_INTERVAL_SECONDS / UPDATE_STATUS_INTERVAL_SECONDS;
     private boolean refreshSettings = false;
@@ -320,12 +326,23 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
                 return;
             }
 
-            if ((skipUpdate % refreshCount == 0) && (profile != null)
+            if ((skipUpdate % (refreshCount * updateBackoff) == 0) && (profile != null)
                     && (getThing().getStatus() == ThingStatus.ONLINE)) {
                 refreshSettings |= !profile.hasBattery;
             }
 
-            if (refreshSettings || (scheduledUpdates > 0) || (skipUpdate % skipCount == 0)) {
+            boolean coiotActive = isCoIotActive();
+            if (!coiotActive) {
+                updateBackoff = 1;
+            }
+            boolean regularUpdate = skipUpdate - lastRegularUpdate >= skipCount * updateBackoff;
+            if (regularUpdate) {
+                // back off while the device reports its changes by CoIoT
+                lastRegularUpdate = skipUpdate;
+                updateBackoff = coiotActive ? Math.min(updateBackoff * 2, UPDATE_COIOT_MAX_BACKOFF) : 1;
+            }
+
+            if (refreshSettings || (scheduledUpdates > 0) || regularUpdate) {
                 if ((profile == null) || ((getThing().getStatus() == ThingStatus.OFFLINE)
                         && (getThing().getStatusInfo().getStatusDetail() != ThingStatusDetail.CONFIGURATION_ERROR))) {
                     logger.debug("{}: Status update triggered thing initialization", thingName);
@@ -608,6 +625,22 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
         }
     }
 
+    /**
+     * Called by the CoIoT handler for every status update received from the device. While those updates are received
+     * the regular status updates are delayed.
+     */
+    public void coiotUpdateReceived() {
+        lastCoIotUpdate = System.currentTimeMillis();
+    }
+
+    /**
+     * @return true if a CoIoT update was received within the regular update interval
+     */
+    private boolean isCoIotActive() {
+        return (lastCoIotUpdate > 0) && (System.currentTimeMillis()
+                - lastCoIotUpdate < TimeUnit.SECONDS.toMillis(skipCount * UPDATE_STATUS_INTERVAL_SECONDS));
+    }
+
     /**
      * Flag the status job to do an exceptional update (something happened) rather
      * than waiting until the next regular poll
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.sonos.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link SonosBrowseCache} gives cursor based access to the containers of the ContentDirectory of a zone player,
+ * like the queue, the favorites or the saved playlists.
+ * <p>
+ * A cursor only browses the pages it actually reaches, so a lookup that finds its entry on the first page does not load
+ * the whole container. The most recently used pages are kept per zone player, they are invalidated when the player
+ * reports a new update ID for their container and expire after {@link #MAX_PAGE_AGE_MS} in case an event got lost.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class SonosBrowseCache {
+
+    public static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 20;
+    private static final long MAX_PAGE_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Executes a ContentDirectory Browse action
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+        /**
+         * @param containerId the ObjectID of the container
+         * @param filter the filter of the browse action
+         * @param startingIndex the index of the first entry
+         * @param requestedCount the maximum number of entries
+         * @return the page, or null if the browse failed
+         */
+        Page browse(String containerId, String filter, long startingIndex, int requestedCount);
+    }
+
+    /**
+     * A consecutive part of the entries of a container
+     */
+    public static class Page {
+        private final List<SonosEntry> entries;
+        private final long totalMatches;
+        private final long created = System.currentTimeMillis();
+
+        public Page(List<SonosEntry> entries, long totalMatches) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.totalMatches = totalMatches;
+        }
+
+        public List<SonosEntry> getEntries() {
+            return entries;
+        }
+
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+    }
+
+    private static class PageKey {
+        private final String containerId;
+        private final String filter;
+        private final long startingIndex;
+
+        PageKey(String containerId, String filter, long startingIndex) {
+            this.containerId = containerId;
+            this.filter = filter;
+            this.startingIndex = startingIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(containerId, filter, startingIndex);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) obj;
+            return containerId.equals(other.containerId) && filter.equals(other.filter)
+                    && startingIndex == other.startingIndex;
+        }
+    }
+
+    private final PageLoader loader;
+
+    // access ordered, so that the least recently used page is evicted first
+    private final Map<PageKey, Page> pages = new LinkedHashMap<PageKey, Page>(MAX_PAGES, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PageKey, Page> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    // incremented on each invalidation, so that a page loaded concurrently is not cached with outdated content
+    private long generation = 0;
+
+    public SonosBrowseCache(PageLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns a cursor over the entries of a container. Pages are browsed when the cursor reaches them.
+     *
+     * @param containerId the ObjectID of the container, for example "Q:0" or "FV:2"
+     * @param filter the filter of the browse action
+     * @return the cursor
+     */
+    public Iterator<SonosEntry> browse(String containerId, String filter) {
+        return new Cursor(containerId, filter);
+    }
+
+    /**
+     * Invalidates the pages of all containers whose ObjectID starts with the given one.
+     *
+     * @param containerId the ObjectID of the updated container
+     */
+    public synchronized void invalidate(String containerId) {
+        generation++;
+        pages.keySet().removeIf(key -> key.containerId.startsWith(containerId));
+    }
+
+    /**
+     * Invalidates the containers listed in a ContainerUpdateIDs event, which has the form
+     * "containerId,updateId[,containerId,updateId...]".
+     *
+     * @param containerUpdateIds the value of the ContainerUpdateIDs state variable
+     */
+    public void invalidateContainers(String containerUpdateIds) {
+        String[] parts = containerUpdateIds.split(",");
+        for (int i = 0; i < parts.length; i += 2) {
+            if (!parts[i].isEmpty()) {
+                invalidate(parts[i]);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        pages.clear();
+    }
+
+    private Page getPage(String containerId, String filter, long startingIndex) {
+        PageKey key = new PageKey(containerId, filter, startingIndex);
+        long loadGeneration;
+        synchronized (this) {
+            Page page = pages.get(key);
+            if (page != null && System.currentTimeMillis() - page.created < MAX_PAGE_AGE_MS) {
+                return page;
+            }
+            loadGeneration = generation;
+        }
+        // Browse without holding the lock, a slow player must not block the cached pages
+        Page page = loader.browse(containerId, filter, startingIndex, PAGE_SIZE);
+        if (page != null) {
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    pages.put(key, page);
+                }
+            }
+        }
+        return page;
+    }
+
+    private class Cursor implements Iterator<SonosEntry> {
+        private final String containerId;
+        private final String filter;
+        private long pageStart = 0;
+        private Page page;
+        private int index = 0;
+        private boolean finished = false;
+
+        Cursor(String containerId, String filter) {
+            this.containerId = containerId;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!finished && (page == null || index >= page.getEntries().size())) {
+                if (page != null) {
+                    pageStart += page.getEntries().size();
+                    if (page.getEntries().isEmpty() || pageStart >= page.getTotalMatches()) {
+                        finished = true;
+                        break;
+                    }
+                }
+                page = getPage(containerId, filter, pageStart);
+                index = 0;
+                if (page == null) {
+                    finished = true;
+                }
+            }
+            return !finished;
+        }
+
+        @Override
+        public SonosEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.getEntries().get(index++);
+        }
+    }
+}
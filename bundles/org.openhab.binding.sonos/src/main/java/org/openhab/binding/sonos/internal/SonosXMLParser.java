@@ -13,22 +13,31 @@
 package org.openhab.binding.sonos.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.lang.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -40,6 +49,7 @@ import org.xml.sax.helpers.XMLReaderFactory;
  * to parse XML data returned by the Zone Players
  *
  * @author Karel Goderis - Initial contribution
+ * @author Contributors to the openHAB project - Pooled SAX readers and streaming parsing of browse results
  */
 public class SonosXMLParser {
 
@@ -80,6 +90,45 @@ public class SonosXMLParser {
         desc
     }
 
+    /**
+     * Each thread keeps its SAX reader, GENA events of all zone players would otherwise create a new reader per event.
+     * A reader is taken out of the pool while it parses, so that a nested parse on the same thread gets its own one.
+     */
+    private static final ThreadLocal<XMLReader> READER_POOL = new ThreadLocal<>();
+    private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+
+    private static final XMLInputFactory STAX_FACTORY = createStaxFactory();
+
+    private static XMLInputFactory createStaxFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static void parse(String xml, ContentHandler handler) throws IOException, SAXException {
+        parse(new InputSource(new StringReader(xml)), handler);
+    }
+
+    private static void parse(InputSource source, ContentHandler handler) throws IOException, SAXException {
+        XMLReader reader = READER_POOL.get();
+        if (reader == null) {
+            reader = XMLReaderFactory.createXMLReader();
+        } else {
+            READER_POOL.remove();
+        }
+        try {
+            reader.setContentHandler(handler);
+            reader.parse(source);
+        } finally {
+            // Do not keep the handler and its results alive
+            reader.setContentHandler(NO_HANDLER);
+            READER_POOL.set(reader);
+        }
+    }
+
     /**
      * @param xml
      * @return a list of alarms from the given xml string.
@@ -89,9 +138,7 @@ public class SonosXMLParser {
     public static List<SonosAlarm> getAlarmsFromStringResult(String xml) {
         AlarmHandler handler = new AlarmHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             LOGGER.error("Could not parse Alarms from string '{}'", xml);
         } catch (SAXException s) {
@@ -109,9 +156,7 @@ public class SonosXMLParser {
     public static List<SonosEntry> getEntriesFromString(String xml) {
         EntryHandler handler = new EntryHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             LOGGER.error("Could not parse Entries from string '{}'", xml);
         } catch (SAXException s) {
@@ -121,6 +166,21 @@ public class SonosXMLParser {
         return handler.getArtists();
     }
 
+    /**
+     * Parses the entries of a DIDL-Lite document, as returned by a ContentDirectory Browse, lazily: each call of
+     * {@link Iterator#next()} only reads the document up to the end of the next item or container. Large browse
+     * results are therefore never held as a whole list of entries, and the caller can stop reading at any time.
+     * <p>
+     * The entries are the same as the ones of {@link #getEntriesFromString(String)}. A malformed document ends the
+     * iteration.
+     *
+     * @param xml the DIDL-Lite document
+     * @return an iterator over the entries of the document
+     */
+    public static Iterator<SonosEntry> getEntryIterator(String xml) {
+        return new EntryIterator(xml);
+    }
+
     /**
      * Returns the meta data which is needed to play Pandora
      * (and others?) favorites
@@ -130,11 +190,9 @@ public class SonosXMLParser {
      * @throws SAXException
      */
     public static SonosResourceMetaData getResourceMetaData(String xml) throws SAXException {
-        XMLReader reader = XMLReaderFactory.createXMLReader();
         ResourceMetaDataHandler handler = new ResourceMetaDataHandler();
-        reader.setContentHandler(handler);
         try {
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             LOGGER.error("Could not parse Resource MetaData from String '{}'", xml);
         } catch (SAXException s) {
@@ -153,9 +211,7 @@ public class SonosXMLParser {
     public static List<SonosZoneGroup> getZoneGroupFromXML(String xml) {
         ZoneGroupHandler handler = new ZoneGroupHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse ZoneGroup from string '{}'", xml);
@@ -169,9 +225,7 @@ public class SonosXMLParser {
     public static List<String> getRadioTimeFromXML(String xml) {
         OpmlHandler handler = new OpmlHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse RadioTime from string '{}'", xml);
@@ -185,9 +239,7 @@ public class SonosXMLParser {
     public static Map<String, String> getRenderingControlFromXML(String xml) {
         RenderingControlEventHandler handler = new RenderingControlEventHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse Rendering Control from string '{}'", xml);
@@ -200,9 +252,7 @@ public class SonosXMLParser {
     public static Map<String, String> getAVTransportFromXML(String xml) {
         AVTransportEventHandler handler = new AVTransportEventHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse AV Transport from string '{}'", xml);
@@ -215,9 +265,7 @@ public class SonosXMLParser {
     public static SonosMetaData getMetaDataFromXML(String xml) {
         MetaDataHandler handler = new MetaDataHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse MetaData from string '{}'", xml);
@@ -231,9 +279,7 @@ public class SonosXMLParser {
     public static List<SonosMusicService> getMusicServicesFromXML(String xml) {
         MusicServiceHandler handler = new MusicServiceHandler();
         try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(handler);
-            reader.parse(new InputSource(new StringReader(xml)));
+            parse(xml, handler);
         } catch (IOException e) {
             // This should never happen - we're not performing I/O!
             LOGGER.error("Could not parse music services from string '{}'", xml);
@@ -380,6 +426,159 @@ public class SonosXMLParser {
         }
     }
 
+    private static class EntryIterator implements Iterator<SonosEntry> {
+        private final String xml;
+        private XMLStreamReader reader;
+        private SonosEntry next;
+
+        EntryIterator(String xml) {
+            this.xml = xml;
+            try {
+                reader = STAX_FACTORY.createXMLStreamReader(new StringReader(xml));
+            } catch (XMLStreamException e) {
+                LOGGER.error("Could not parse Entries from string '{}'", xml);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && reader != null) {
+                try {
+                    next = readEntry();
+                } catch (XMLStreamException e) {
+                    LOGGER.error("Could not parse Entries from string '{}'", xml);
+                }
+                if (next == null) {
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SonosEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SonosEntry entry = next;
+            next = null;
+            return entry;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignore) {
+            }
+            reader = null;
+        }
+
+        private SonosEntry readEntry() throws XMLStreamException {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && ("container".equals(reader.getLocalName()) || "item".equals(reader.getLocalName()))) {
+                    return readEntryElement();
+                }
+            }
+            return null;
+        }
+
+        private SonosEntry readEntryElement() throws XMLStreamException {
+            String id = reader.getAttributeValue(null, "id");
+            String parentId = reader.getAttributeValue(null, "parentID");
+            String title = "";
+            String upnpClass = "";
+            String res = "";
+            String album = "";
+            String albumArtUri = "";
+            String creator = "";
+            String trackNumber = "";
+            String desc = "";
+
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (qualifiedName()) {
+                        case "res":
+                            res += readText();
+                            break;
+                        case "dc:title":
+                            title += readText();
+                            break;
+                        case "upnp:class":
+                            upnpClass += readText();
+                            break;
+                        case "dc:creator":
+                            creator += readText();
+                            break;
+                        case "upnp:album":
+                            album += readText();
+                            break;
+                        case "upnp:albumArtURI":
+                            albumArtUri += readText();
+                            break;
+                        case "upnp:originalTrackNumber":
+                            trackNumber += readText();
+                            break;
+                        case "r:resMD":
+                            desc += readText();
+                            break;
+                        default:
+                            depth++;
+                            break;
+                    }
+                }
+            }
+
+            int trackNumberVal = 0;
+            try {
+                trackNumberVal = Integer.parseInt(trackNumber);
+            } catch (NumberFormatException e) {
+            }
+
+            SonosResourceMetaData md = null;
+            // The resource description is needed for playing favorites on pandora
+            if (!desc.isEmpty()) {
+                try {
+                    md = getResourceMetaData(desc);
+                } catch (SAXException ignore) {
+                    LOGGER.debug("Failed to parse embeded", ignore);
+                }
+            }
+
+            return new SonosEntry(id, title, parentId, album, albumArtUri, creator, upnpClass, res, trackNumberVal,
+                    md);
+        }
+
+        private String qualifiedName() {
+            String prefix = reader.getPrefix();
+            return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+        }
+
+        /**
+         * Reads the text of the current element and moves to its end, the text of nested elements is skipped
+         */
+        private String readText() throws XMLStreamException {
+            StringBuilder text = new StringBuilder();
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS
+                        || event == XMLStreamConstants.CDATA)) {
+                    text.append(reader.getText());
+                }
+            }
+            return text.toString();
+        }
+    }
+
     private static class ResourceMetaDataHandler extends DefaultHandler {
 
         private String id;
@@ -855,11 +1054,8 @@ public class SonosXMLParser {
 
     public static String getRoomName(String descriptorXML) {
         RoomNameHandler roomNameHandler = new RoomNameHandler();
-        try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(roomNameHandler);
-            URL url = new URL(descriptorXML);
-            reader.parse(new InputSource(url.openStream()));
+        try (InputStream stream = new URL(descriptorXML).openStream()) {
+            parse(new InputSource(stream), roomNameHandler);
         } catch (IOException | SAXException e) {
             LOGGER.error("Could not parse Sonos room name from string '{}'", descriptorXML);
         }
@@ -893,11 +1089,8 @@ public class SonosXMLParser {
 
     public static String parseModelDescription(URL descriptorURL) {
         ModelNameHandler modelNameHandler = new ModelNameHandler();
-        try {
-            XMLReader reader = XMLReaderFactory.createXMLReader();
-            reader.setContentHandler(modelNameHandler);
-            URL url = new URL(descriptorURL.toString());
-            reader.parse(new InputSource(url.openStream()));
+        try (InputStream stream = new URL(descriptorURL.toString()).openStream()) {
+            parse(new InputSource(stream), modelNameHandler);
         } catch (IOException | SAXException e) {
             LOGGER.error("Could not parse Sonos model name from string '{}'", descriptorURL.toString());
         }
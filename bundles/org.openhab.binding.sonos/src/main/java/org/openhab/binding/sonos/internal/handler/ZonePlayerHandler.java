@@ -146,6 +146,8 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
 
     private final SonosStateDescriptionOptionProvider stateDescriptionProvider;
 
+    private final SonosBrowseCache browseCache = new SonosBrowseCache(this::browsePage);
+
     private final Runnable pollingRunnable = () -> {
         try {
             logger.debug("Polling job");
@@ -204,6 +206,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
 
         removeSubscription();
         service.unregisterParticipant(this);
+        browseCache.clear();
     }
 
     @Override
@@ -529,12 +532,14 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
                     updateChannel(TUNEINSTATIONID);
                     break;
                 case "SavedQueuesUpdateID": // service ContentDirectoy
+                    browseCache.invalidate("SQ:");
                     for (SonosEntry entry : getPlayLists()) {
                         options.add(new StateOption(entry.getTitle(), entry.getTitle()));
                     }
                     stateDescriptionProvider.setStateOptions(new ChannelUID(getThing().getUID(), PLAYLIST), options);
                     break;
                 case "FavoritesUpdateID": // service ContentDirectoy
+                    browseCache.invalidate("FV:");
                     for (SonosEntry entry : getFavorites()) {
                         options.add(new StateOption(entry.getTitle(), entry.getTitle()));
                     }
@@ -544,6 +549,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
                 // Due to a bug in the data type definition of this state variable, it is not set.
                 // As a workaround, we check the state variable named ContainerUpdateIDs.
                 case "ContainerUpdateIDs": // service ContentDirectoy
+                    browseCache.invalidateContainers(value);
                     if (value.startsWith("R:0,") || stateDescriptionProvider
                             .getStateOptions(new ChannelUID(getThing().getUID(), RADIO)) == null) {
                         for (SonosEntry entry : getFavoriteRadios()) {
@@ -1274,42 +1280,48 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
     }
 
     protected List<SonosEntry> getEntries(String type, String filter) {
-        long startAt = 0;
+        List<SonosEntry> resultList = new ArrayList<>();
+        browseCache.browse(type, filter).forEachRemaining(resultList::add);
+        return resultList;
+    }
 
+    /**
+     * Returns the first entry of a container with the given title. Only the pages up to the entry are browsed.
+     *
+     * @param type the ObjectID of the container
+     * @param title the title of the entry
+     * @return the entry or null if there is no entry with this title
+     */
+    protected SonosEntry findEntryByTitle(String type, String title) {
+        Iterator<SonosEntry> entries = browseCache.browse(type, "dc:title,res,dc:creator,upnp:artist,upnp:album");
+        while (entries.hasNext()) {
+            SonosEntry entry = entries.next();
+            if (entry.getTitle().equals(title)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private SonosBrowseCache.Page browsePage(String type, String filter, long startingIndex, int requestedCount) {
         Map<String, String> inputs = new HashMap<String, String>();
         inputs.put("ObjectID", type);
         inputs.put("BrowseFlag", "BrowseDirectChildren");
         inputs.put("Filter", filter);
-        inputs.put("StartingIndex", Long.toString(startAt));
-        inputs.put("RequestedCount", Integer.toString(200));
+        inputs.put("StartingIndex", Long.toString(startingIndex));
+        inputs.put("RequestedCount", Integer.toString(requestedCount));
         inputs.put("SortCriteria", "");
 
-        List<SonosEntry> resultList = null;
-
         Map<String, String> result = service.invokeAction(this, "ContentDirectory", "Browse", inputs);
 
-        long totalMatches = getResultEntry(result, "TotalMatches", type, filter);
-        long initialNumberReturned = getResultEntry(result, "NumberReturned", type, filter);
-
-        String initialResult = result.get("Result");
-
-        resultList = SonosXMLParser.getEntriesFromString(initialResult);
-        startAt = startAt + initialNumberReturned;
-
-        while (startAt < totalMatches) {
-            inputs.put("StartingIndex", Long.toString(startAt));
-            result = service.invokeAction(this, "ContentDirectory", "Browse", inputs);
-
-            // Execute this action synchronously
-            String nextResult = result.get("Result");
-            long numberReturned = getResultEntry(result, "NumberReturned", type, filter);
-
-            resultList.addAll(SonosXMLParser.getEntriesFromString(nextResult));
-
-            startAt = startAt + numberReturned;
+        String xml = result.get("Result");
+        if (xml == null) {
+            return null;
         }
-
-        return resultList;
+        long totalMatches = getResultEntry(result, "TotalMatches", type, filter);
+        List<SonosEntry> entries = new ArrayList<>();
+        SonosXMLParser.getEntryIterator(xml).forEachRemaining(entries::add);
+        return new SonosBrowseCache.Page(entries, totalMatches);
     }
 
     protected long getNbEntries(String type) {
@@ -1391,14 +1403,11 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
 
                         if (queued.getUpnpClass().contains("object.container.playlistContainer")) {
                             // we are playing a real 'saved' playlist
-                            List<SonosEntry> playLists = getPlayLists();
-                            for (SonosEntry someList : playLists) {
-                                if (someList.getTitle().equals(queued.getTitle())) {
-                                    savedState.entry = new SonosEntry(someList.getId(), someList.getTitle(),
-                                            someList.getParentId(), "", "", "", someList.getUpnpClass(),
-                                            someList.getRes());
-                                    break;
-                                }
+                            SonosEntry someList = findEntryByTitle("SQ:", queued.getTitle());
+                            if (someList != null) {
+                                savedState.entry = new SonosEntry(someList.getId(), someList.getTitle(),
+                                        someList.getParentId(), "", "", "", someList.getUpnpClass(),
+                                        someList.getRes());
                             }
                         } else if (queued.getUpnpClass().contains("object.container")) {
                             // we are playing some other sort of
@@ -1407,27 +1416,16 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
                             logger.debug("Save State for a container of type {}", queued.getUpnpClass());
 
                             // save the playlist
-                            String existingList = "";
-                            List<SonosEntry> playLists = getPlayLists();
-                            for (SonosEntry someList : playLists) {
-                                if (someList.getTitle().equals(ESH_PREFIX + getUDN())) {
-                                    existingList = someList.getId();
-                                    break;
-                                }
-                            }
+                            SonosEntry existingList = findEntryByTitle("SQ:", ESH_PREFIX + getUDN());
 
-                            saveQueue(ESH_PREFIX + getUDN(), existingList);
-
-                            // get all the playlists and a ref to our
-                            // saved list
-                            playLists = getPlayLists();
-                            for (SonosEntry someList : playLists) {
-                                if (someList.getTitle().equals(ESH_PREFIX + getUDN())) {
-                                    savedState.entry = new SonosEntry(someList.getId(), someList.getTitle(),
-                                            someList.getParentId(), "", "", "", someList.getUpnpClass(),
-                                            someList.getRes());
-                                    break;
-                                }
+                            saveQueue(ESH_PREFIX + getUDN(), existingList != null ? existingList.getId() : "");
+
+                            // get a ref to our saved list
+                            SonosEntry someList = findEntryByTitle("SQ:", ESH_PREFIX + getUDN());
+                            if (someList != null) {
+                                savedState.entry = new SonosEntry(someList.getId(), someList.getTitle(),
+                                        someList.getParentId(), "", "", "", someList.getUpnpClass(),
+                                        someList.getRes());
                             }
                         }
                     } else {
@@ -1491,6 +1489,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
             inputs.put("ObjectID", queueID);
 
             Map<String, String> result = service.invokeAction(this, "AVTransport", "SaveQueue", inputs);
+            browseCache.invalidate("SQ:");
 
             for (String variable : result.keySet()) {
                 this.onValueReceived(variable, result.get(variable), "AVTransport");
@@ -1641,6 +1640,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
             }
 
             Map<String, String> result = service.invokeAction(this, "AVTransport", "AddURIToQueue", inputs);
+            browseCache.invalidate("Q:");
 
             for (String variable : result.keySet()) {
                 this.onValueReceived(variable, result.get(variable), "AVTransport");
@@ -1877,6 +1877,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
         inputs.put("InstanceID", "0");
 
         Map<String, String> result = service.invokeAction(this, "AVTransport", "RemoveAllTracksFromQueue", inputs);
+        browseCache.invalidate("Q:");
 
         for (String variable : result.keySet()) {
             this.onValueReceived(variable, result.get(variable), "AVTransport");
@@ -2579,6 +2580,7 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
             inputs.put("NumberOfTracks", numberOfTracks);
 
             Map<String, String> result = service.invokeAction(this, "AVTransport", "RemoveTrackRangeFromQueue", inputs);
+            browseCache.invalidate("Q:");
 
             for (String variable : result.keySet()) {
                 this.onValueReceived(variable, result.get(variable), "AVTransport");
@@ -2793,16 +2795,8 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
     public void playFavorite(Command command) {
         if (command instanceof StringType) {
             String favorite = command.toString();
-            List<SonosEntry> favorites = getFavorites();
-
-            SonosEntry theEntry = null;
             // search for the appropriate favorite based on its name (title)
-            for (SonosEntry entry : favorites) {
-                if (entry.getTitle().equals(favorite)) {
-                    theEntry = entry;
-                    break;
-                }
-            }
+            SonosEntry theEntry = findEntryByTitle("FV:2", favorite);
 
             // set the URI of the group coordinator
             if (theEntry != null) {
@@ -2860,16 +2854,8 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
     public void playPlayList(Command command) {
         if (command != null && command instanceof StringType) {
             String playlist = command.toString();
-            List<SonosEntry> playlists = getPlayLists();
-
-            SonosEntry theEntry = null;
             // search for the appropriate play list based on its name (title)
-            for (SonosEntry somePlaylist : playlists) {
-                if (somePlaylist.getTitle().equals(playlist)) {
-                    theEntry = somePlaylist;
-                    break;
-                }
-            }
+            SonosEntry theEntry = findEntryByTitle("SQ:", playlist);
 
             // set the URI of the group coordinator
             if (theEntry != null) {
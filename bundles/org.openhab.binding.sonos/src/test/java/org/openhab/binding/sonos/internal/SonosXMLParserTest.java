@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.sonos.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that the streaming {@link SonosXMLParser#getEntryIterator(String)} returns the same entries as the SAX based
+ * {@link SonosXMLParser#getEntriesFromString(String)}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class SonosXMLParserTest {
+
+    private static final String DIDL_START = "<DIDL-Lite xmlns:dc=\"http://purl.org/dc/elements/1.1/\" "
+            + "xmlns:upnp=\"urn:schemas-upnp-org:metadata-1-0/upnp/\" "
+            + "xmlns:r=\"urn:schemas-rinconnetworks-com:metadata-1-0/\" "
+            + "xmlns=\"urn:schemas-upnp-org:metadata-1-0/DIDL-Lite/\">";
+
+    private static final String QUEUE = DIDL_START
+            + "<item id=\"Q:0/1\" parentID=\"Q:0\" restricted=\"true\">"
+            + "<res protocolInfo=\"x-file-cifs:*:audio/mpeg:*\" duration=\"0:03:45\">"
+            + "x-file-cifs://nas/music/Artist/Album/01%20Song.mp3</res>"
+            + "<upnp:albumArtURI>/getaa?u=x-file-cifs%3a%2f%2fnas%2fmusic&amp;v=2</upnp:albumArtURI>"
+            + "<dc:title>Song &amp; Dance</dc:title><upnp:class>object.item.audioItem.musicTrack</upnp:class>"
+            + "<dc:creator>Artist</dc:creator><upnp:album>Album</upnp:album>"
+            + "<upnp:originalTrackNumber>1</upnp:originalTrackNumber></item>"
+            + "<item id=\"Q:0/2\" parentID=\"Q:0\" restricted=\"true\">"
+            + "<res protocolInfo=\"sonos.com-spotify:*:audio/x-spotify:*\" duration=\"0:04:02\">"
+            + "x-sonos-spotify:spotify%3atrack%3a4uLU6hMCjMI75M1A2tKUQC?sid=9&amp;flags=8224&amp;sn=1</res>"
+            + "<upnp:albumArtURI>https://i.scdn.co/image/ab67616d0000b273</upnp:albumArtURI>"
+            + "<dc:title>Never Gonna Give You Up</dc:title>"
+            + "<upnp:class>object.item.audioItem.musicTrack</upnp:class><dc:creator>Rick Astley</dc:creator>"
+            + "<upnp:album>Whenever You Need Somebody</upnp:album>"
+            + "<desc id=\"cdudn\" nameSpace=\"urn:schemas-rinconnetworks-com:metadata-1-0/\">"
+            + "SA_RINCON2311_X_#Svc2311-0-Token</desc></item>"
+            + "<container id=\"SQ:3\" parentID=\"SQ:\" restricted=\"true\">"
+            + "<dc:title>Party</dc:title><upnp:class>object.container.playlistContainer</upnp:class></container>"
+            + "</DIDL-Lite>";
+
+    private static final String FAVORITES = DIDL_START
+            + "<item id=\"FV:2/3\" parentID=\"FV:2\" restricted=\"false\">"
+            + "<dc:title>Radio Swiss Jazz</dc:title><upnp:class>object.itemobject.item.sonos-favorite</upnp:class>"
+            + "<r:ordinal>2</r:ordinal><res protocolInfo=\"x-sonosapi-stream:*:*:*\">"
+            + "x-sonosapi-stream:s6814?sid=254&amp;flags=8224&amp;sn=0</res>"
+            + "<upnp:albumArtURI>http://cdn-radiotime-logos.tunein.com/s6814q.png</upnp:albumArtURI>"
+            + "<r:type>instantPlay</r:type><r:description>TuneIn</r:description>"
+            + "<r:resMD>&lt;DIDL-Lite xmlns:dc=&quot;http://purl.org/dc/elements/1.1/&quot; "
+            + "xmlns:upnp=&quot;urn:schemas-upnp-org:metadata-1-0/upnp/&quot; "
+            + "xmlns:r=&quot;urn:schemas-rinconnetworks-com:metadata-1-0/&quot; "
+            + "xmlns=&quot;urn:schemas-upnp-org:metadata-1-0/DIDL-Lite/&quot;&gt;"
+            + "&lt;item id=&quot;F00092020s6814&quot; parentID=&quot;L&quot; restricted=&quot;true&quot;&gt;"
+            + "&lt;dc:title&gt;Radio Swiss Jazz &amp;amp; Blues&lt;/dc:title&gt;"
+            + "&lt;upnp:class&gt;object.item.audioItem.audioBroadcast&lt;/upnp:class&gt;"
+            + "&lt;desc id=&quot;cdudn&quot; nameSpace=&quot;urn:schemas-rinconnetworks-com:metadata-1-0/&quot;&gt;"
+            + "SA_RINCON65031_&lt;/desc&gt;&lt;/item&gt;&lt;/DIDL-Lite&gt;</r:resMD></item>"
+            + "<item id=\"FV:2/4\" parentID=\"FV:2\" restricted=\"false\">"
+            + "<dc:title>Pandora Station</dc:title><upnp:class>object.itemobject.item.sonos-favorite</upnp:class>"
+            + "<res protocolInfo=\"x-sonosapi-radio:*:*:*\">x-sonosapi-radio:ST%3a123?sid=236&amp;flags=8300</res>"
+            + "<r:resMD><![CDATA[" + DIDL_START
+            + "<item id=\"100c206cST%3a123\" parentID=\"0\" restricted=\"true\">"
+            + "<dc:title>Pandora Station</dc:title>"
+            + "<upnp:class>object.item.audioItem.audioBroadcast.#station</upnp:class>"
+            + "<desc id=\"cdudn\" nameSpace=\"urn:schemas-rinconnetworks-com:metadata-1-0/\">"
+            + "SA_RINCON3_user@example.com</desc></item></DIDL-Lite>]]></r:resMD></item>" + "</DIDL-Lite>";
+
+    private static List<SonosEntry> iterate(String xml) {
+        List<SonosEntry> entries = new ArrayList<>();
+        for (Iterator<SonosEntry> iterator = SonosXMLParser.getEntryIterator(xml); iterator.hasNext();) {
+            entries.add(iterator.next());
+        }
+        return entries;
+    }
+
+    private static void assertSameEntries(List<SonosEntry> expected, List<SonosEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SonosEntry e = expected.get(i);
+            SonosEntry a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getParentId(), a.getParentId());
+            assertEquals(e.getTitle(), a.getTitle());
+            assertEquals(e.getUpnpClass(), a.getUpnpClass());
+            assertEquals(e.getRes(), a.getRes());
+            assertEquals(e.getAlbum(), a.getAlbum());
+            assertEquals(e.getAlbumArtUri(), a.getAlbumArtUri());
+            assertEquals(e.getCreator(), a.getCreator());
+            assertEquals(e.getOriginalTrackNumber(), a.getOriginalTrackNumber());
+            SonosResourceMetaData em = e.getResourceMetaData();
+            SonosResourceMetaData am = a.getResourceMetaData();
+            if (em == null) {
+                assertNull(am);
+            } else {
+                assertNotNull(am);
+                assertEquals(em.getId(), am.getId());
+                assertEquals(em.getParentId(), am.getParentId());
+                assertEquals(em.getTitle(), am.getTitle());
+                assertEquals(em.getUpnpClass(), am.getUpnpClass());
+                assertEquals(em.getDesc(), am.getDesc());
+            }
+        }
+    }
+
+    @Test
+    public void queueEntriesAreEqual() {
+        List<SonosEntry> entries = SonosXMLParser.getEntriesFromString(QUEUE);
+        assertEquals(3, entries.size());
+        assertEquals("Song & Dance", entries.get(0).getTitle());
+        assertEquals(1, entries.get(0).getOriginalTrackNumber());
+        assertEquals("x-sonos-spotify:spotify%3atrack%3a4uLU6hMCjMI75M1A2tKUQC?sid=9&flags=8224&sn=1",
+                entries.get(1).getRes());
+        assertEquals("SQ:3", entries.get(2).getId());
+
+        assertSameEntries(entries, iterate(QUEUE));
+    }
+
+    @Test
+    public void favoriteEntriesWithResourceMetaDataAreEqual() {
+        List<SonosEntry> entries = SonosXMLParser.getEntriesFromString(FAVORITES);
+        assertEquals(2, entries.size());
+        SonosResourceMetaData escaped = entries.get(0).getResourceMetaData();
+        assertNotNull(escaped);
+        assertEquals("Radio Swiss Jazz & Blues", escaped.getTitle());
+        assertEquals("SA_RINCON65031_", escaped.getDesc());
+        SonosResourceMetaData cdata = entries.get(1).getResourceMetaData();
+        assertNotNull(cdata);
+        assertEquals("object.item.audioItem.audioBroadcast.#station", cdata.getUpnpClass());
+        assertEquals("SA_RINCON3_user@example.com", cdata.getDesc());
+
+        assertSameEntries(entries, iterate(FAVORITES));
+    }
+
+    @Test
+    public void iterationStopsAtMalformedDocument() {
+        Iterator<SonosEntry> iterator = SonosXMLParser.getEntryIterator(QUEUE.substring(0, QUEUE.indexOf("Q:0/2")));
+        assertTrue(iterator.hasNext());
+        assertEquals("Q:0/1", iterator.next().getId());
+        assertFalse(iterator.hasNext());
+    }
+}
@@ -318,6 +318,11 @@ public class SysteminfoBindingConstants {
      */
     public static final String MEDIUM_PRIORITY_REFRESH_TIME = "interval_medium";
 
+    /**
+     * Name of the configuration parameter of the thing that defines the change a numeric state needs to be published
+     */
+    public static final String DEADBAND = "deadband";
+
     // Channel configuration
 
     /**
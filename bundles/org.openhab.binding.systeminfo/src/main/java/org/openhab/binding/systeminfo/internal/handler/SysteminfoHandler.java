@@ -20,12 +20,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -48,6 +50,7 @@ import org.slf4j.LoggerFactory;
  * @author Svilen Valkanov - Initial contribution
  * @author Lyubomir Papzov - Separate the creation of the systeminfo object and its initialization
  * @author Wouter Born - Add null annotations
+ * @author Contributors to the openHAB project - Sample once per cycle and publish changed states only
  */
 @NonNullByDefault
 public class SysteminfoHandler extends BaseThingHandler {
@@ -61,6 +64,16 @@ public class SysteminfoHandler extends BaseThingHandler {
      */
     private @NonNullByDefault({}) BigDecimal refreshIntervalMediumPriority;
 
+    /**
+     * Numeric states are only published, if they differ from the last published state by more than this value.
+     */
+    private BigDecimal deadband = BigDecimal.ZERO;
+
+    /**
+     * The last published state of each channel.
+     */
+    private final Map<ChannelUID, State> publishedStates = new ConcurrentHashMap<>();
+
     /**
      * Channels with priority configuration parameter set to High. They usually need frequent update of the state like
      * CPU load, or information about the free and used memory.
@@ -137,15 +150,21 @@ public class SysteminfoHandler extends BaseThingHandler {
             refreshIntervalMediumPriority = (BigDecimal) this.thing.getConfiguration()
                     .get(MEDIUM_PRIORITY_REFRESH_TIME);
             refreshIntervalHighPriority = (BigDecimal) this.thing.getConfiguration().get(HIGH_PRIORITY_REFRESH_TIME);
+            BigDecimal deadbandValue = (BigDecimal) this.thing.getConfiguration().get(DEADBAND);
+            deadband = deadbandValue != null ? deadbandValue : BigDecimal.ZERO;
 
             if (refreshIntervalHighPriority.intValue() <= 0 || refreshIntervalMediumPriority.intValue() <= 0) {
                 throw new IllegalArgumentException("Refresh time must be positive number!");
             }
+            if (deadband.signum() < 0) {
+                throw new IllegalArgumentException("Deadband must not be negative!");
+            }
             logger.debug("Refresh time for medium priority channels set to {} s", refreshIntervalMediumPriority);
             logger.debug("Refresh time for high priority channels set to {} s", refreshIntervalHighPriority);
+            logger.debug("Deadband for numeric channels set to {}", deadband);
             return true;
         } catch (IllegalArgumentException e) {
-            logger.warn("Refresh time value is invalid! Please change the thing configuration!");
+            logger.warn("Refresh time or deadband value is invalid! Please change the thing configuration!");
             return false;
         } catch (ClassCastException e) {
             logger.debug("Channel configuration cannot be read!");
@@ -239,22 +258,49 @@ public class SysteminfoHandler extends BaseThingHandler {
 
     }
 
-    private void publishData(Set<ChannelUID> channels) {
+    /**
+     * Publishes the changed states of all linked channels from a single snapshot of the system information, so that
+     * the system is queried once per cycle and not once per channel.
+     *
+     * @param channels the channels to be updated
+     */
+    synchronized void publishData(Set<ChannelUID> channels) {
+        systeminfo.takeSnapshot();
         Iterator<ChannelUID> iter = channels.iterator();
         while (iter.hasNext()) {
             ChannelUID channeUID = iter.next();
             if (isLinked(channeUID.getId())) {
-                publishDataForChannel(channeUID);
+                publishDataForChannel(channeUID, false);
             }
         }
     }
 
-    private void publishDataForChannel(ChannelUID channelUID) {
+    /**
+     * Publishes the state of the channel from the current snapshot.
+     *
+     * @param channelUID the UID of the channel
+     * @param force true, if the state has to be published even if it has not changed beyond the deadband
+     */
+    private void publishDataForChannel(ChannelUID channelUID, boolean force) {
         State state = getInfoForChannel(channelUID);
+        State publishedState = publishedStates.get(channelUID);
+        if (!force && publishedState != null && isWithinDeadband(publishedState, state)) {
+            return;
+        }
+        publishedStates.put(channelUID, state);
         String channelID = channelUID.getId();
         updateState(channelID, state);
     }
 
+    private boolean isWithinDeadband(State publishedState, State state) {
+        if (publishedState instanceof DecimalType && state instanceof DecimalType) {
+            BigDecimal difference = ((DecimalType) state).toBigDecimal()
+                    .subtract(((DecimalType) publishedState).toBigDecimal());
+            return difference.abs().compareTo(deadband) <= 0;
+        }
+        return publishedState.equals(state);
+    }
+
     public Set<ChannelUID> getHighPriorityChannels() {
         return highPriorityChannels;
     }
@@ -516,7 +562,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         if (thing.getStatus().equals(ThingStatus.ONLINE)) {
             if (command instanceof RefreshType) {
                 logger.debug("Refresh command received for channel {}!", channelUID);
-                publishDataForChannel(channelUID);
+                publishDataForChannel(channelUID, true);
             } else {
                 logger.debug("Unsupported command {}! Supported commands: REFRESH", command);
             }
@@ -582,7 +628,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         Object newValue = newConfig.get(parameter);
         logger.debug("Channel with UID {} has changed its {} from {} to {}", channel.getUID(), parameter, oldValue,
                 newValue);
-        publishDataForChannel(channel.getUID());
+        publishDataForChannel(channel.getUID(), true);
     }
 
     private void stopScheduledUpdates() {
@@ -602,6 +648,7 @@ public class SysteminfoHandler extends BaseThingHandler {
     @Override
     public void dispose() {
         stopScheduledUpdates();
+        publishedStates.clear();
     }
 
 }
@@ -31,6 +31,12 @@ public interface SysteminfoInterface {
      */
     public void initializeSysteminfo();
 
+    /**
+     * Starts a new sampling cycle. The dynamic information is queried at most once per snapshot and shared by all
+     * getters, until the next snapshot is taken.
+     */
+    public void takeSnapshot();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.handler;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.openhab.binding.systeminfo.internal.SysteminfoBindingConstants.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.openhab.binding.systeminfo.internal.model.SysteminfoInterface;
+
+/**
+ * Tests that {@link SysteminfoHandler} queries the system once per cycle and publishes changed states only.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class SysteminfoHandlerTest {
+
+    private final ThingUID thingUID = new ThingUID(THING_TYPE_COMPUTER, "test");
+    private final ChannelUID load1 = new ChannelUID(thingUID, CHANNEL_CPU_LOAD_1);
+    private final ChannelUID memoryUsedPercent = new ChannelUID(thingUID, CHANNEL_MEMORY_USED_PERCENT);
+    private final ChannelUID cpuName = new ChannelUID(thingUID, CHANNEL_CPU_NAME);
+
+    private final Configuration configuration = new Configuration();
+
+    @Mock
+    private @NonNullByDefault({}) SysteminfoInterface systeminfo;
+    @Mock
+    private @NonNullByDefault({}) ThingHandlerCallback callback;
+    @Mock
+    private @NonNullByDefault({}) Thing thing;
+
+    private @NonNullByDefault({}) SysteminfoHandler handler;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        // the cycles are run by the tests, the scheduled ones start one second after the initialization
+        configuration.put(HIGH_PRIORITY_REFRESH_TIME, new BigDecimal(600));
+        configuration.put(MEDIUM_PRIORITY_REFRESH_TIME, new BigDecimal(600));
+        configuration.put(DEADBAND, new BigDecimal("0.5"));
+
+        List<Channel> channels = Arrays.asList(channel(load1), channel(memoryUsedPercent), channel(cpuName));
+        when(thing.getUID()).thenReturn(thingUID);
+        when(thing.getConfiguration()).thenReturn(configuration);
+        when(thing.getChannels()).thenReturn(channels);
+        for (Channel channel : channels) {
+            when(thing.getChannel(channel.getUID().getId())).thenReturn(channel);
+        }
+        when(callback.isChannelLinked(any())).thenReturn(true);
+
+        when(systeminfo.getCpuLogicalCores()).thenReturn(new DecimalType(4));
+        when(systeminfo.getCpuPhysicalCores()).thenReturn(new DecimalType(2));
+        when(systeminfo.getOsFamily()).thenReturn(new StringType("Linux"));
+        when(systeminfo.getOsManufacturer()).thenReturn(new StringType("GNU/Linux"));
+        when(systeminfo.getOsVersion()).thenReturn(new StringType("5.4"));
+        when(systeminfo.getCpuName()).thenReturn(new StringType("CPU"));
+        when(systeminfo.getMemoryUsedPercent()).thenReturn(new DecimalType(40));
+
+        handler = new SysteminfoHandler(thing, systeminfo);
+        handler.setCallback(callback);
+        handler.initialize();
+    }
+
+    @After
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    private Channel channel(ChannelUID channelUID) {
+        Configuration channelConfiguration = new Configuration();
+        channelConfiguration.put(PRIOIRITY_PARAM, "High");
+        return ChannelBuilder.create(channelUID, "Number").withConfiguration(channelConfiguration).build();
+    }
+
+    @Test
+    public void oneSnapshotServesAllChannelsOfACycle() {
+        when(systeminfo.getCpuLoad1()).thenReturn(new DecimalType(1));
+
+        handler.publishData(handler.getHighPriorityChannels());
+
+        InOrder inOrder = inOrder(systeminfo);
+        inOrder.verify(systeminfo).takeSnapshot();
+        inOrder.verify(systeminfo).getCpuLoad1();
+        verify(systeminfo, times(1)).takeSnapshot();
+        verify(systeminfo, times(1)).getMemoryUsedPercent();
+        verify(systeminfo, times(1)).getCpuName();
+
+        handler.publishData(handler.getHighPriorityChannels());
+
+        verify(systeminfo, times(2)).takeSnapshot();
+        verify(systeminfo, times(2)).getCpuLoad1();
+        verify(systeminfo, times(2)).getMemoryUsedPercent();
+        verify(systeminfo, times(2)).getCpuName();
+    }
+
+    @Test
+    public void valuesWithinTheDeadbandAreNotPublished() {
+        when(systeminfo.getCpuLoad1()).thenReturn(new DecimalType("1.0"), new DecimalType("1.3"),
+                new DecimalType("0.6"), new DecimalType("1.6"));
+
+        for (int cycle = 0; cycle < 4; cycle++) {
+            handler.publishData(handler.getHighPriorityChannels());
+        }
+
+        verify(callback).stateUpdated(load1, new DecimalType("1.0"));
+        verify(callback, never()).stateUpdated(load1, new DecimalType("1.3"));
+        verify(callback, never()).stateUpdated(load1, new DecimalType("0.6"));
+        verify(callback).stateUpdated(load1, new DecimalType("1.6"));
+        // the unchanged states were published in the first cycle only
+        verify(callback, times(1)).stateUpdated(eq(memoryUsedPercent), any());
+        verify(callback, times(1)).stateUpdated(eq(cpuName), any());
+    }
+}
@@ -55,6 +55,10 @@ public class TradfriBindingConstants {
     public static final String GATEWAY_CONFIG_IDENTITY = "identity";
     public static final String GATEWAY_CONFIG_PRE_SHARED_KEY = "preSharedKey";
 
+    // Gateway properties with command statistics
+    public static final String PROPERTY_COMMAND_QUEUE_DEPTH = "commandQueueDepth";
+    public static final String PROPERTY_NOTIFICATION_LATENCY = "notificationLatencyMillis";
+
     // Not yet used - included for future support
     public static final Set<ThingTypeUID> SUPPORTED_CONTROLLER_TYPES_UIDS = Collections.unmodifiableSet(Stream
             .of(THING_TYPE_DIMMER, THING_TYPE_REMOTE_CONTROL, THING_TYPE_MOTION_SENSOR).collect(Collectors.toSet()));
@@ -23,6 +23,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonNull;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 
@@ -31,12 +32,13 @@ import com.google.gson.JsonParser;
  * It can either be used with a callback class or with a future.
  *
  * @author Kai Kreuzer - Initial contribution
+ * @author Contributors to the openHAB project - Shared parser, empty responses are not parsed
  */
 @NonNullByDefault
 public class TradfriCoapHandler implements CoapHandler {
 
     private final Logger logger = LoggerFactory.getLogger(TradfriCoapHandler.class);
-    private final JsonParser parser = new JsonParser();
+    private static final JsonParser PARSER = new JsonParser();
 
     private @Nullable CoapCallback callback;
     private @Nullable CompletableFuture<String> future;
@@ -65,21 +67,23 @@ public class TradfriCoapHandler implements CoapHandler {
             logger.trace("received empty CoAP response");
             return;
         }
-        logger.debug("CoAP response\noptions: {}\npayload: {}", response.getOptions(), response.getResponseText());
+        String responseText = response.getResponseText();
+        if (logger.isDebugEnabled()) {
+            logger.debug("CoAP response\noptions: {}\npayload: {}", response.getOptions(), responseText);
+        }
         if (response.isSuccess()) {
             final CoapCallback callback = this.callback;
             if (callback != null) {
                 try {
-                    callback.onUpdate(parser.parse(response.getResponseText()));
+                    callback.onUpdate(responseText.isEmpty() ? JsonNull.INSTANCE : PARSER.parse(responseText));
                     callback.setStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
                 } catch (JsonParseException e) {
-                    logger.warn("Observed value is no valid json: {}, {}", response.getResponseText(), e.getMessage());
+                    logger.warn("Observed value is no valid json: {}, {}", responseText, e.getMessage());
                 }
             }
             final CompletableFuture<String> future = this.future;
             if (future != null) {
-                String data = response.getResponseText();
-                future.complete(data);
+                future.complete(responseText);
             }
         } else {
             logger.debug("CoAP error {}", response.getCode());
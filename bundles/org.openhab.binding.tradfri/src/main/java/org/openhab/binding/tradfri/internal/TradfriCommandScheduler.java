@@ -0,0 +1,457 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tradfri.internal;
+
+import static org.openhab.binding.tradfri.internal.TradfriBindingConstants.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link TradfriCommandScheduler} sends the commands of all devices of a gateway. Only one request is sent at a
+ * time and the next one follows a short pause after the response, so that the gateway is not flooded when many devices
+ * are switched at once.
+ * <p>
+ * Only the latest command of each device is kept until it is sent, a new command is merged into a pending one. If all
+ * members of a group are lights with a pending command with the same on/off, brightness and transition time, a single
+ * request is sent to the group instead.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class TradfriCommandScheduler {
+
+    /** Delay before the first command is sent, to collect the commands sent by a rule at the same time */
+    static final long COLLECT_DELAY_MILLIS = 50;
+    /** Pause after a response before the next command is sent */
+    static final long COMMAND_INTERVAL_MILLIS = 100;
+    /** Time after which the next command is sent if no response was received */
+    private static final long RESPONSE_TIMEOUT_MILLIS = 5000;
+
+    /** The attributes which can be set for a group */
+    private static final Set<String> GROUP_ATTRIBUTES = new HashSet<>(Arrays.asList(ONOFF, DIMMER, TRANSITION_TIME));
+    private static final JsonParser PARSER = new JsonParser();
+
+    private final Logger logger = LoggerFactory.getLogger(TradfriCommandScheduler.class);
+
+    private final TradfriCoapClient client;
+    private final String rootURI;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Integer, PendingCommand> pendingCommands = new LinkedHashMap<>();
+    private final Set<Integer> lights = new HashSet<>();
+    private final Map<Integer, Set<Integer>> groups = new HashMap<>();
+    private @Nullable ScheduledFuture<?> job;
+    /** Whether {@link #sendNext()} is scheduled and has not started yet */
+    private boolean sendScheduled;
+    private @Nullable ScheduledFuture<?> responseTimeoutJob;
+    private @Nullable ResponseCallback pendingResponse;
+
+    // statistics
+    private final Map<Integer, Long> sendTimes = new ConcurrentHashMap<>();
+    private int maxQueueDepth;
+    private long notificationLatencySum;
+    private int notificationCount;
+
+    /**
+     * A request to a device or a group
+     */
+    static class Request {
+        final String path;
+        final String payload;
+        final Map<Integer, CoapCallback> callbacks;
+
+        Request(String path, String payload, Map<Integer, CoapCallback> callbacks) {
+            this.path = path;
+            this.payload = payload;
+            this.callbacks = callbacks;
+        }
+    }
+
+    private static class PendingCommand {
+        final JsonObject payload;
+        CoapCallback callback;
+
+        PendingCommand(JsonObject payload, CoapCallback callback) {
+            this.payload = payload;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * @param client the client used for the requests, with the endpoint of the gateway
+     * @param rootURI the root URI of the gateway, e.g. coaps://host:5684
+     * @param scheduler scheduler to be used for sending commands
+     */
+    public TradfriCommandScheduler(TradfriCoapClient client, String rootURI, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.rootURI = rootURI;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedules a command for a device. A pending command of the device is updated with the attributes of the payload.
+     *
+     * @param deviceId the instance id of the device
+     * @param payload the payload of the PUT request to the device
+     * @param callback the callback to use for the response
+     */
+    public void schedule(int deviceId, String payload, CoapCallback callback) {
+        JsonObject json;
+        try {
+            json = PARSER.parse(payload).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            logger.warn("Invalid command payload '{}' for device {}", payload, deviceId);
+            return;
+        }
+        synchronized (this) {
+            PendingCommand pending = pendingCommands.get(deviceId);
+            if (pending == null) {
+                pendingCommands.put(deviceId, new PendingCommand(json, callback));
+            } else {
+                merge(pending.payload, json);
+                pending.callback = callback;
+            }
+            maxQueueDepth = Math.max(maxQueueDepth, pendingCommands.size());
+            if (pendingResponse == null) {
+                scheduleNext(COLLECT_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Sets whether a device is a light, only lights are addressed by group requests.
+     *
+     * @param deviceId the instance id of the device
+     * @param light true if the device is a light
+     */
+    public synchronized void setLight(int deviceId, boolean light) {
+        if (light) {
+            lights.add(deviceId);
+        } else {
+            lights.remove(deviceId);
+        }
+    }
+
+    /**
+     * Sets the members of a group of the gateway.
+     *
+     * @param groupId the instance id of the group
+     * @param members the instance ids of the devices of the group
+     */
+    public synchronized void setGroup(int groupId, Set<Integer> members) {
+        groups.put(groupId, members);
+    }
+
+    /**
+     * Removes the groups which do not exist anymore.
+     *
+     * @param groupIds the instance ids of all groups of the gateway
+     */
+    public synchronized void retainGroups(Collection<Integer> groupIds) {
+        groups.keySet().retainAll(groupIds);
+    }
+
+    /**
+     * Returns a callback for the observation of a device, which measures the time between a command and the
+     * notification about the new state.
+     *
+     * @param deviceId the instance id of the device
+     * @param callback the callback to use for the notifications
+     */
+    public CoapCallback trackNotifications(int deviceId, CoapCallback callback) {
+        return new CoapCallback() {
+            @Override
+            public void onUpdate(JsonElement data) {
+                Long sendTime = sendTimes.remove(deviceId);
+                if (sendTime != null) {
+                    addNotificationLatency(System.nanoTime() - sendTime);
+                }
+                callback.onUpdate(data);
+            }
+
+            @Override
+            public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
+                callback.setStatus(status, statusDetail);
+            }
+        };
+    }
+
+    private synchronized void addNotificationLatency(long nanos) {
+        notificationLatencySum += nanos;
+        notificationCount++;
+    }
+
+    /**
+     * Returns the maximum number of pending commands since the previous call and resets it.
+     */
+    public synchronized int pollMaxQueueDepth() {
+        int depth = maxQueueDepth;
+        maxQueueDepth = pendingCommands.size();
+        return depth;
+    }
+
+    /**
+     * Returns the average time in milliseconds between a command and the notification about the new state since the
+     * previous call, or -1 if no notification was received.
+     */
+    public synchronized long pollNotificationLatency() {
+        long latency = notificationCount == 0 ? -1
+                : TimeUnit.NANOSECONDS.toMillis(notificationLatencySum / notificationCount);
+        notificationLatencySum = 0;
+        notificationCount = 0;
+        return latency;
+    }
+
+    /**
+     * Discards the pending commands and stops sending.
+     */
+    public synchronized void dispose() {
+        pendingCommands.clear();
+        sendTimes.clear();
+        ScheduledFuture<?> job = this.job;
+        if (job != null) {
+            job.cancel(false);
+            this.job = null;
+        }
+        sendScheduled = false;
+        ScheduledFuture<?> responseTimeoutJob = this.responseTimeoutJob;
+        if (responseTimeoutJob != null) {
+            responseTimeoutJob.cancel(false);
+            this.responseTimeoutJob = null;
+        }
+        client.shutdown();
+    }
+
+    private void scheduleNext(long delay) {
+        // the job is not done yet while sendNext() returns, so a response at that time relies on the flag
+        if (!sendScheduled) {
+            sendScheduled = true;
+            job = scheduler.schedule(this::sendNext, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void sendNext() {
+        sendScheduled = false;
+        Request request = nextRequest();
+        if (request == null) {
+            return;
+        }
+        ResponseCallback responseCallback = new ResponseCallback(request);
+        pendingResponse = responseCallback;
+        // the gateway may not answer at all, e.g. if the response can not be parsed
+        responseTimeoutJob = scheduler.schedule(() -> requestDone(responseCallback), RESPONSE_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS);
+        long now = System.nanoTime();
+        request.callbacks.keySet().forEach(deviceId -> sendTimes.put(deviceId, now));
+
+        logger.debug("CoAP PUT request\nuri: {}/{}\npayload: {}", rootURI, request.path, request.payload);
+        client.setURI(rootURI + "/" + request.path);
+        client.put(new TradfriCoapHandler(responseCallback), request.payload, MediaTypeRegistry.TEXT_PLAIN);
+    }
+
+    private synchronized void requestDone(ResponseCallback responseCallback) {
+        if (pendingResponse != responseCallback) {
+            return;
+        }
+        pendingResponse = null;
+        ScheduledFuture<?> responseTimeoutJob = this.responseTimeoutJob;
+        if (responseTimeoutJob != null) {
+            responseTimeoutJob.cancel(false);
+            this.responseTimeoutJob = null;
+        }
+        if (!pendingCommands.isEmpty()) {
+            scheduleNext(COMMAND_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * Removes the oldest pending command and returns the request for it. If the command can be sent to a group, the
+     * commands of the other lights of the group are removed as well.
+     */
+    synchronized @Nullable Request nextRequest() {
+        Iterator<Map.Entry<Integer, PendingCommand>> iterator = pendingCommands.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Map.Entry<Integer, PendingCommand> first = iterator.next();
+        iterator.remove();
+        int deviceId = first.getKey();
+        PendingCommand command = first.getValue();
+
+        JsonObject attributes = getLightAttributes(command.payload);
+        if (attributes != null && isGroupCommand(attributes)) {
+            Integer groupId = findGroup(deviceId, attributes);
+            if (groupId != null) {
+                Map<Integer, CoapCallback> callbacks = new LinkedHashMap<>();
+                callbacks.put(deviceId, command.callback);
+                for (Integer member : groups.get(groupId)) {
+                    PendingCommand removed = pendingCommands.remove(member);
+                    if (removed != null) {
+                        callbacks.put(member, removed.callback);
+                    }
+                }
+                return new Request(GROUPS + "/" + groupId, attributes.toString(), callbacks);
+            }
+        }
+        return new Request(DEVICES + "/" + deviceId, command.payload.toString(),
+                Collections.singletonMap(deviceId, command.callback));
+    }
+
+    /**
+     * Returns the largest group with more than one member, where every member is a light with a pending command with
+     * the given attributes. Groups with other devices, or with lights without a pending command, e.g. lights without a
+     * thing, are never used, as the group request would switch them as well.
+     */
+    private @Nullable Integer findGroup(int deviceId, JsonObject attributes) {
+        Integer result = null;
+        int resultSize = 1;
+        for (Map.Entry<Integer, Set<Integer>> group : groups.entrySet()) {
+            Set<Integer> members = group.getValue();
+            if (members.size() <= resultSize || !members.contains(deviceId)) {
+                continue;
+            }
+            boolean allPending = true;
+            for (Integer member : members) {
+                if (!lights.contains(member)) {
+                    allPending = false;
+                } else if (member != deviceId) {
+                    PendingCommand pending = pendingCommands.get(member);
+                    allPending = pending != null && attributes.equals(getLightAttributes(pending.payload));
+                }
+                if (!allPending) {
+                    break;
+                }
+            }
+            if (allPending) {
+                result = group.getKey();
+                resultSize = members.size();
+            }
+        }
+        return result;
+    }
+
+    private static boolean isGroupCommand(JsonObject attributes) {
+        if (attributes.size() == 0) {
+            return false;
+        }
+        for (Map.Entry<String, JsonElement> entry : attributes.entrySet()) {
+            if (!GROUP_ATTRIBUTES.contains(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the attributes of a light command, or null if it is no light command or contains other data
+     */
+    private static @Nullable JsonObject getLightAttributes(JsonObject payload) {
+        JsonObject attributes = null;
+        for (Map.Entry<String, JsonElement> entry : payload.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (LIGHT.equals(entry.getKey()) && value.isJsonArray() && value.getAsJsonArray().size() == 1
+                    && value.getAsJsonArray().get(0).isJsonObject()) {
+                attributes = value.getAsJsonArray().get(0).getAsJsonObject();
+            } else if (!value.isJsonObject() || value.getAsJsonObject().size() > 0) {
+                // the payloads contain an empty device information object
+                return null;
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Merges the attributes of a device payload into another one, the values of the source replace existing ones.
+     */
+    static void merge(JsonObject target, JsonObject source) {
+        for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+            JsonObject existing = getFirstObject(target.get(entry.getKey()));
+            JsonObject value = getFirstObject(entry.getValue());
+            if (existing != null && value != null) {
+                merge(existing, value);
+            } else {
+                target.add(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the object, or the first element of an attributes array, or null for other elements
+     */
+    private static @Nullable JsonObject getFirstObject(@Nullable JsonElement element) {
+        if (element == null) {
+            return null;
+        } else if (element.isJsonObject()) {
+            return element.getAsJsonObject();
+        } else if (element.isJsonArray() && element.getAsJsonArray().size() == 1
+                && element.getAsJsonArray().get(0).isJsonObject()) {
+            return element.getAsJsonArray().get(0).getAsJsonObject();
+        }
+        return null;
+    }
+
+    /**
+     * Passes the response of a request to the callbacks of the devices and triggers the next request.
+     */
+    private class ResponseCallback implements CoapCallback {
+        private final Request request;
+
+        ResponseCallback(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onUpdate(JsonElement data) {
+            if (request.callbacks.size() == 1) {
+                request.callbacks.values().forEach(callback -> callback.onUpdate(data));
+            }
+        }
+
+        @Override
+        public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
+            try {
+                if (status != ThingStatus.ONLINE) {
+                    request.callbacks.keySet().forEach(sendTimes::remove);
+                }
+                request.callbacks.values().forEach(callback -> callback.setStatus(status, statusDetail));
+            } finally {
+                requestDone(this);
+            }
+        }
+    }
+}
@@ -18,6 +18,9 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -47,6 +50,7 @@ import org.openhab.binding.tradfri.internal.DeviceUpdateListener;
 import org.openhab.binding.tradfri.internal.TradfriBindingConstants;
 import org.openhab.binding.tradfri.internal.TradfriCoapClient;
 import org.openhab.binding.tradfri.internal.TradfriCoapHandler;
+import org.openhab.binding.tradfri.internal.TradfriCommandScheduler;
 import org.openhab.binding.tradfri.internal.config.TradfriGatewayConfig;
 import org.openhab.binding.tradfri.internal.model.TradfriVersion;
 import org.slf4j.Logger;
@@ -64,6 +68,7 @@ import com.google.gson.JsonSyntaxException;
  * sent to one of the channels.
  *
  * @author Kai Kreuzer - Initial contribution
+ * @author Contributors to the openHAB project - Command scheduler with group requests and statistics
  */
 @NonNullByDefault
 public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCallback {
@@ -77,6 +82,7 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
     private @NonNullByDefault({}) String gatewayInfoURI;
     private @NonNullByDefault({}) DTLSConnector dtlsConnector;
     private @Nullable CoapEndpoint endPoint;
+    private @Nullable TradfriCommandScheduler commandScheduler;
 
     private final Set<DeviceUpdateListener> deviceUpdateListeners = new CopyOnWriteArraySet<>();
 
@@ -153,6 +159,17 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         dtlsConnector = new DTLSConnector(builder.build());
         endPoint = new CoapEndpoint.Builder().setConnector(dtlsConnector).build();
         deviceClient.setEndpoint(endPoint);
+
+        String rootURI = "coaps://" + configuration.host + ":" + configuration.port;
+        try {
+            TradfriCoapClient commandClient = new TradfriCoapClient(new URI(rootURI));
+            commandClient.setEndpoint(endPoint);
+            commandScheduler = new TradfriCommandScheduler(commandClient, rootURI, scheduler);
+        } catch (URISyntaxException e) {
+            logger.error("Illegal gateway URI '{}': {}", rootURI, e.getMessage());
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            return;
+        }
         updateStatus(ThingStatus.UNKNOWN);
 
         // schedule a new scan every minute
@@ -257,6 +274,10 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
             scanJob.cancel(true);
             scanJob = null;
         }
+        if (commandScheduler != null) {
+            commandScheduler.dispose();
+            commandScheduler = null;
+        }
         if (endPoint != null) {
             endPoint.destroy();
             endPoint = null;
@@ -276,6 +297,8 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         if (endPoint != null) {
             requestGatewayInfo();
             deviceClient.get(new TradfriCoapHandler(this));
+            requestGroups();
+            updateStatistics();
         }
     }
 
@@ -297,6 +320,15 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         return endPoint;
     }
 
+    /**
+     * Returns the scheduler which sends the commands of the devices.
+     *
+     * @return the command scheduler or null if the gateway is not connected
+     */
+    public @Nullable TradfriCommandScheduler getCommandScheduler() {
+        return commandScheduler;
+    }
+
     @Override
     public void onUpdate(JsonElement data) {
         logger.debug("onUpdate response: {}", data);
@@ -333,12 +365,80 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         deviceClient.asyncGet().thenAccept(data -> {
             logger.debug("requestDeviceDetails response: {}", data);
             JsonObject json = new JsonParser().parse(data).getAsJsonObject();
+            final TradfriCommandScheduler commandScheduler = this.commandScheduler;
+            if (commandScheduler != null && json.has(INSTANCE_ID)) {
+                commandScheduler.setLight(json.get(INSTANCE_ID).getAsInt(), json.has(LIGHT));
+            }
             deviceUpdateListeners.forEach(listener -> listener.onUpdate(instanceId, json));
         });
         // restore root URI
         deviceClient.setURI(gatewayURI);
     }
 
+    /**
+     * Requests the groups and their members, so that commands for all lights of a group can be sent to the group.
+     */
+    private synchronized void requestGroups() {
+        String groupsURI = getGroupsURI();
+        // we are reusing our coap client and merely temporarily set the groups URI to call
+        deviceClient.setURI(groupsURI);
+        deviceClient.asyncGet().thenAccept(data -> {
+            logger.debug("requestGroups response: {}", data);
+            final TradfriCommandScheduler commandScheduler = this.commandScheduler;
+            if (commandScheduler == null) {
+                return;
+            }
+            List<Integer> groupIds = new ArrayList<>();
+            new JsonParser().parse(data).getAsJsonArray().forEach(groupId -> groupIds.add(groupId.getAsInt()));
+            commandScheduler.retainGroups(groupIds);
+            groupIds.forEach(this::requestGroupDetails);
+        }).exceptionally(e -> {
+            logger.debug("Requesting the groups failed: {}", e.getMessage());
+            return null;
+        });
+        // restore root URI
+        deviceClient.setURI(gatewayURI);
+    }
+
+    private synchronized void requestGroupDetails(Integer groupId) {
+        // we are reusing our coap client and merely temporarily set a sub-URI to call
+        deviceClient.setURI(getGroupsURI() + "/" + groupId);
+        deviceClient.asyncGet().thenAccept(data -> {
+            logger.debug("requestGroupDetails response: {}", data);
+            final TradfriCommandScheduler commandScheduler = this.commandScheduler;
+            if (commandScheduler == null) {
+                return;
+            }
+            JsonObject json = new JsonParser().parse(data).getAsJsonObject();
+            Set<Integer> members = new HashSet<>();
+            json.getAsJsonObject(HS_ACCESSORY_LINK).getAsJsonObject(HS_LINK).getAsJsonArray(INSTANCE_ID)
+                    .forEach(member -> members.add(member.getAsInt()));
+            commandScheduler.setGroup(groupId, members);
+        }).exceptionally(e -> {
+            logger.debug("Requesting the details of group {} failed: {}", groupId, e.getMessage());
+            return null;
+        });
+        // restore root URI
+        deviceClient.setURI(gatewayURI);
+    }
+
+    private String getGroupsURI() {
+        return gatewayURI.substring(0, gatewayURI.length() - DEVICES.length()) + GROUPS;
+    }
+
+    /**
+     * Updates the gateway properties with the command queue depth and notification latency since the last update.
+     */
+    private void updateStatistics() {
+        final TradfriCommandScheduler commandScheduler = this.commandScheduler;
+        if (commandScheduler != null) {
+            long latency = commandScheduler.pollNotificationLatency();
+            getThing().setProperty(PROPERTY_COMMAND_QUEUE_DEPTH,
+                    String.valueOf(commandScheduler.pollMaxQueueDepth()));
+            getThing().setProperty(PROPERTY_NOTIFICATION_LATENCY, latency < 0 ? null : String.valueOf(latency));
+        }
+    }
+
     @Override
     public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
         // to fix connection issues after a gateway reboot, a session resume is forced for the next command
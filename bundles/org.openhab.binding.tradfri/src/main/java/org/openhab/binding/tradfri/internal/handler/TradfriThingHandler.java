@@ -29,6 +29,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.openhab.binding.tradfri.internal.CoapCallback;
 import org.openhab.binding.tradfri.internal.TradfriCoapClient;
+import org.openhab.binding.tradfri.internal.TradfriCommandScheduler;
 import org.openhab.binding.tradfri.internal.config.TradfriDeviceConfig;
 import org.openhab.binding.tradfri.internal.model.TradfriDeviceData;
 import org.slf4j.Logger;
@@ -39,6 +40,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Christoph Weitkamp - Restructuring and refactoring of the binding
+ * @author Contributors to the openHAB project - Commands are sent by the gateway scheduler
  */
 @NonNullByDefault
 public abstract class TradfriThingHandler extends BaseThingHandler implements CoapCallback {
@@ -53,6 +55,8 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
 
     protected @NonNullByDefault({}) TradfriCoapClient coapClient;
 
+    private CoapCallback observeCallback = this;
+
     private @Nullable CoapObserveRelation observeRelation;
 
     public TradfriThingHandler(Thing thing) {
@@ -76,12 +80,14 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
             return;
         }
+        final TradfriCommandScheduler commandScheduler = handler.getCommandScheduler();
+        observeCallback = commandScheduler != null && id != null ? commandScheduler.trackNotifications(id, this) : this;
         active = true;
         updateStatus(ThingStatus.UNKNOWN);
         switch (tradfriGateway.getStatus()) {
             case ONLINE:
                 scheduler.schedule(() -> {
-                    observeRelation = coapClient.startObserve(this);
+                    observeRelation = coapClient.startObserve(observeCallback);
                 }, 3, TimeUnit.SECONDS);
                 break;
             case OFFLINE:
@@ -116,7 +122,7 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
                     observeRelation.reactiveCancel();
                     observeRelation = null;
                 }
-                observeRelation = coapClient.startObserve(this);
+                observeRelation = coapClient.startObserve(observeCallback);
             }, 10, TimeUnit.SECONDS);
         }
     }
@@ -134,8 +140,26 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
     }
 
     protected void set(String payload) {
+        final TradfriCommandScheduler commandScheduler = getCommandScheduler();
+        final Integer id = this.id;
+        if (commandScheduler == null || id == null) {
+            logger.debug("Cannot send payload {} as the gateway is not connected", payload);
+            return;
+        }
         logger.debug("Sending payload: {}", payload);
-        coapClient.asyncPut(payload, this, scheduler);
+        commandScheduler.schedule(id, payload, this);
+    }
+
+    /**
+     * Returns the command scheduler of the gateway, which is replaced whenever the gateway is initialized.
+     */
+    private @Nullable TradfriCommandScheduler getCommandScheduler() {
+        Bridge tradfriGateway = getBridge();
+        if (tradfriGateway == null) {
+            return null;
+        }
+        TradfriGatewayHandler handler = (TradfriGatewayHandler) tradfriGateway.getHandler();
+        return handler == null ? null : handler.getCommandScheduler();
     }
 
     protected void updateDeviceProperties(TradfriDeviceData state) {
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tradfri.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.tradfri.internal.TradfriCommandScheduler.Request;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link TradfriCommandScheduler}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class TradfriCommandSchedulerTest {
+
+    private static final String DIM = "{\"3311\":[{\"5851\":127,\"5712\":5}],\"3\":{}}";
+    private static final String DIM_OTHER = "{\"3311\":[{\"5851\":20,\"5712\":5}],\"3\":{}}";
+    private static final String COLOR = "{\"3311\":[{\"5709\":24930,\"5710\":24694,\"5712\":5}],\"3\":{}}";
+    private static final int GROUP = 131073;
+    private static final int GROUP_WITH_REMOTE = 131074;
+    private static final int GROUP_WITHOUT_THING = 131075;
+
+    private final CoapCallback callback = new CoapCallback() {
+        @Override
+        public void onUpdate(JsonElement data) {
+        }
+
+        @Override
+        public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
+        }
+    };
+
+    private TradfriCommandScheduler commandScheduler;
+
+    @Before
+    public void setUp() throws URISyntaxException {
+        String rootURI = "coaps://127.0.0.1:5684";
+        commandScheduler = new TradfriCommandScheduler(new TradfriCoapClient(new URI(rootURI)), rootURI,
+                mock(ScheduledExecutorService.class));
+        for (int id = 65537; id <= 65539; id++) {
+            commandScheduler.setLight(id, true);
+        }
+        commandScheduler.setLight(65540, false);
+        commandScheduler.setLight(65541, true);
+        commandScheduler.setGroup(GROUP, new HashSet<>(Arrays.asList(65537, 65538, 65539)));
+        // a remote control or a light without a thing would be switched by a group request as well
+        commandScheduler.setGroup(GROUP_WITH_REMOTE, new HashSet<>(Arrays.asList(65537, 65538, 65540)));
+        commandScheduler.setGroup(GROUP_WITHOUT_THING, new HashSet<>(Arrays.asList(65537, 65538, 65541)));
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+
+    @Test
+    public void commandsOfADeviceAreMerged() {
+        commandScheduler.schedule(65537, DIM, callback);
+        commandScheduler.schedule(65537, COLOR, callback);
+
+        Request request = commandScheduler.nextRequest();
+        assertNotNull(request);
+        assertEquals("15001/65537", request.path);
+        assertEquals(parse("{\"3311\":[{\"5851\":127,\"5712\":5,\"5709\":24930,\"5710\":24694}],\"3\":{}}"),
+                parse(request.payload));
+        assertNull(commandScheduler.nextRequest());
+    }
+
+    @Test
+    public void equalCommandsOfAllGroupLightsAreSentToTheGroup() {
+        commandScheduler.schedule(65537, DIM, callback);
+        commandScheduler.schedule(65538, DIM, callback);
+        commandScheduler.schedule(65539, DIM, callback);
+
+        Request request = commandScheduler.nextRequest();
+        assertNotNull(request);
+        assertEquals("15004/" + GROUP, request.path);
+        assertEquals(parse("{\"5851\":127,\"5712\":5}"), parse(request.payload));
+        assertEquals(new HashSet<>(Arrays.asList(65537, 65538, 65539)), request.callbacks.keySet());
+        assertNull(commandScheduler.nextRequest());
+    }
+
+    @Test
+    public void groupsWithOtherMembersAreNotUsed() {
+        commandScheduler.schedule(65537, DIM, callback);
+        commandScheduler.schedule(65538, DIM, callback);
+
+        assertEquals("15001/65537", commandScheduler.nextRequest().path);
+        assertEquals("15001/65538", commandScheduler.nextRequest().path);
+        assertNull(commandScheduler.nextRequest());
+    }
+
+    @Test
+    public void differentCommandsAreSentToTheDevices() {
+        commandScheduler.schedule(65537, DIM, callback);
+        commandScheduler.schedule(65538, DIM, callback);
+        commandScheduler.schedule(65539, DIM_OTHER, callback);
+
+        assertEquals("15001/65537", commandScheduler.nextRequest().path);
+        assertEquals("15001/65538", commandScheduler.nextRequest().path);
+        assertEquals("15001/65539", commandScheduler.nextRequest().path);
+        assertNull(commandScheduler.nextRequest());
+    }
+
+    @Test
+    public void colorCommandsAreNotSentToTheGroup() {
+        commandScheduler.schedule(65537, COLOR, callback);
+        commandScheduler.schedule(65538, COLOR, callback);
+        commandScheduler.schedule(65539, COLOR, callback);
+
+        assertEquals("15001/65537", commandScheduler.nextRequest().path);
+        assertEquals("15001/65538", commandScheduler.nextRequest().path);
+        assertEquals("15001/65539", commandScheduler.nextRequest().path);
+    }
+
+    @Test
+    public void queueDepthIsTheMaximumSinceThePreviousPoll() {
+        commandScheduler.schedule(65537, DIM, callback);
+        commandScheduler.schedule(65538, DIM_OTHER, callback);
+        commandScheduler.schedule(65537, DIM_OTHER, callback);
+
+        assertEquals(2, commandScheduler.pollMaxQueueDepth());
+        commandScheduler.nextRequest();
+        assertEquals(2, commandScheduler.pollMaxQueueDepth());
+        assertEquals(1, commandScheduler.pollMaxQueueDepth());
+        assertEquals(-1, commandScheduler.pollNotificationLatency());
+    }
+}
@@ -37,4 +37,22 @@ public interface Homekit {
      * @param allow boolean indicating whether or not to allow unauthenticated requests
      */
     void allowUnauthenticatedRequests(boolean allow);
+
+    /**
+     * Returns the number of accessories currently published to HomeKit.
+     */
+    int getAccessoryCount();
+
+    /**
+     * Returns the number of characteristic change events sent per second, averaged over the last minute. Each event
+     * is sent to every HomeKit client that subscribed to the characteristic, so this is the rate a single client
+     * receives at most.
+     */
+    double getEventsPerSecond();
+
+    /**
+     * Returns the number of item state changes per second, averaged over the last minute, that were merged into an
+     * already pending characteristic change event.
+     */
+    double getCoalescedEventsPerSecond();
 }
@@ -29,13 +29,18 @@ import io.github.hapjava.HomekitRoot;
 /**
  * Stores the created HomekitAccessories. GroupedAccessories are also held here
  * in a pre-created pending state until all required characteristics are found.
+ * <p>
+ * Each accessory is stored together with the signature of the items it was created from, so that unchanged
+ * accessories can be kept when the item registry changes.
  *
  * @author Andy Lintner - Initial contribution
+ * @author Contributors to the openHAB project - Keep the signature of each accessory
  */
 class HomekitAccessoryRegistry {
 
     private @Nullable HomekitRoot bridge;
     private final Map<String, HomekitAccessory> createdAccessories = new HashMap<>();
+    private final Map<String, String> signatures = new HashMap<>();
     private final Set<Integer> createdIds = new HashSet<>();
 
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryRegistry.class);
@@ -43,6 +48,7 @@ class HomekitAccessoryRegistry {
     public synchronized void remove(String itemName) {
         if (createdAccessories.containsKey(itemName)) {
             HomekitAccessory accessory = createdAccessories.remove(itemName);
+            signatures.remove(itemName);
             logger.debug("Removed accessory {} for taggedItem {}", accessory.getId(), itemName);
             if (bridge != null) {
                 bridge.removeAccessory(accessory);
@@ -63,9 +69,18 @@ class HomekitAccessoryRegistry {
             }
             iter.remove();
         }
+        signatures.clear();
         createdIds.clear();
     }
 
+    /**
+     * Returns the signature of the items the accessory of the given root item was created from, or null if there is
+     * no such accessory.
+     */
+    public synchronized @Nullable String getSignature(String itemName) {
+        return signatures.get(itemName);
+    }
+
     public synchronized void setBridge(HomekitRoot bridge) {
         this.bridge = bridge;
         createdAccessories.values().forEach(accessory -> bridge.addAccessory(accessory));
@@ -79,12 +94,17 @@ class HomekitAccessoryRegistry {
         bridge = null;
     }
 
-    public synchronized void addRootAccessory(String itemName, HomekitAccessory accessory) {
+    public synchronized void addRootAccessory(String itemName, String signature, HomekitAccessory accessory) {
         createdAccessories.put(itemName, accessory);
+        signatures.put(itemName, signature);
         createdIds.add(accessory.getId());
         if (bridge != null) {
             bridge.addAccessory(accessory);
         }
         logger.debug("Added accessory {}", accessory.getId());
     }
+
+    public synchronized int size() {
+        return createdAccessories.size();
+    }
 }
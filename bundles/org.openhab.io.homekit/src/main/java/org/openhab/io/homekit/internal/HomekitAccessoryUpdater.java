@@ -12,9 +12,13 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.time.Clock;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -29,12 +33,34 @@ import io.github.hapjava.HomekitCharacteristicChangeCallback;
  * clients. Each item/key pair (key is optional) should be unique, as the underlying
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
+ * <p>
+ * Notifications are coalesced per subscription: the first change is sent immediately, further changes within
+ * {@link #COALESCE_WINDOW_MS} are folded into a single notification at the end of the window. Homekit reads the
+ * characteristic value when it is notified, so the last value wins.
  *
  * @author Andy Lintner - Initial contribution
+ * @author Contributors to the openHAB project - Coalesce notifications, keep subscriptions on item updates
  */
 public class HomekitAccessoryUpdater {
+    static final long COALESCE_WINDOW_MS = 100;
+
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+    private final EventRate sentEvents;
+    private final EventRate coalescedEvents;
+
+    public HomekitAccessoryUpdater() {
+        this(ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON), Clock.systemUTC());
+    }
+
+    HomekitAccessoryUpdater(ScheduledExecutorService scheduler, Clock clock) {
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.sentEvents = new EventRate(clock);
+        this.coalescedEvents = new EventRate(clock);
+    }
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -49,15 +75,15 @@ public class HomekitAccessoryUpdater {
             logger.trace("The received subscription contains a null callback, skipping");
             return;
         }
-        ItemKey itemKey = new ItemKey(item, key);
+        ItemKey itemKey = new ItemKey(item.getName(), key);
         subscriptionsByName.compute(itemKey, (k, v) -> {
             if (v != null) {
                 logger.debug("Received duplicate subscription for {} / {}", item, key);
-                unsubscribe(item, key);
+                v.detach();
             }
             logger.debug("Adding subscription for {} / {}", item, key);
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
-            item.addStateChangeListener(subscription);
+            Subscription subscription = new Subscription(callback);
+            subscription.attach(item);
             return subscription;
         });
     }
@@ -70,31 +96,154 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
+        subscriptionsByName.computeIfPresent(new ItemKey(item.getName(), key), (k, v) -> {
             logger.debug("Removing existing subscription for {} / {}", item, key);
-            item.removeStateChangeListener(v);
+            v.detach();
             return null;
         });
     }
 
-    @FunctionalInterface
-    private static interface Subscription extends StateChangeListener {
+    /**
+     * The item registry replaces the item instance on each update. This moves all subscriptions of the item to the new
+     * instance, so that an unchanged accessory does not need to be re-created.
+     *
+     * @param item The new item instance
+     */
+    public void itemUpdated(GenericItem item) {
+        subscriptionsByName.forEach((itemKey, subscription) -> {
+            if (itemKey.itemName.equals(item.getName())) {
+                subscriptionsByName.computeIfPresent(itemKey, (k, v) -> {
+                    v.detach();
+                    v.attach(item);
+                    return v;
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the number of characteristic change notifications per second, averaged over the last minute. Homekit
+     * sends each notification to every controller that subscribed to the characteristic, so this is the event rate
+     * each subscribed controller receives.
+     */
+    public double getEventsPerSecond() {
+        return sentEvents.getRatePerSecond();
+    }
+
+    /**
+     * Returns the number of item state changes per second, averaged over the last minute, that were folded into
+     * another notification.
+     */
+    public double getCoalescedEventsPerSecond() {
+        return coalescedEvents.getRatePerSecond();
+    }
+
+    private class Subscription implements StateChangeListener {
+        private final HomekitCharacteristicChangeCallback callback;
+        private GenericItem item;
+        private long lastNotification = 0;
+        private boolean notificationPending = false;
+
+        Subscription(HomekitCharacteristicChangeCallback callback) {
+            this.callback = callback;
+        }
+
+        void attach(GenericItem item) {
+            this.item = item;
+            item.addStateChangeListener(this);
+        }
+
+        void detach() {
+            item.removeStateChangeListener(this);
+        }
 
         @Override
-        void stateChanged(Item item, State oldState, State newState);
+        public void stateChanged(Item item, State oldState, State newState) {
+            long delay;
+            synchronized (this) {
+                if (notificationPending) {
+                    coalescedEvents.record();
+                    return;
+                }
+                delay = lastNotification + COALESCE_WINDOW_MS - clock.millis();
+                if (delay > 0) {
+                    notificationPending = true;
+                } else {
+                    lastNotification = clock.millis();
+                }
+            }
+            if (delay > 0) {
+                scheduler.schedule(this::sendPending, delay, TimeUnit.MILLISECONDS);
+            } else {
+                send();
+            }
+        }
 
         @Override
-        default void stateUpdated(Item item, State state) {
+        public void stateUpdated(Item item, State state) {
             // Do nothing on non-change update
         }
+
+        private void sendPending() {
+            synchronized (this) {
+                notificationPending = false;
+                lastNotification = clock.millis();
+            }
+            send();
+        }
+
+        private void send() {
+            sentEvents.record();
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.debug("Could not notify homekit about the change of {}: {}", item.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counts events in one second buckets over the last minute
+     */
+    private static class EventRate {
+        private static final int SECONDS = 60;
+
+        private final Clock clock;
+        private final long[] counts = new long[SECONDS];
+        private final long[] seconds = new long[SECONDS];
+
+        EventRate(Clock clock) {
+            this.clock = clock;
+        }
+
+        synchronized void record() {
+            long second = clock.millis() / 1000;
+            int bucket = (int) (second % SECONDS);
+            if (seconds[bucket] != second) {
+                seconds[bucket] = second;
+                counts[bucket] = 0;
+            }
+            counts[bucket]++;
+        }
+
+        synchronized double getRatePerSecond() {
+            long now = clock.millis() / 1000;
+            long sum = 0;
+            for (int i = 0; i < SECONDS; i++) {
+                if (now - seconds[i] < SECONDS) {
+                    sum += counts[i];
+                }
+            }
+            return (double) sum / SECONDS;
+        }
     }
 
     private static class ItemKey {
-        public GenericItem item;
+        public String itemName;
         public String key;
 
-        public ItemKey(GenericItem item, String key) {
-            this.item = item;
+        public ItemKey(String itemName, String key) {
+            this.itemName = itemName;
             this.key = key;
         }
 
@@ -102,7 +251,7 @@ public class HomekitAccessoryUpdater {
         public int hashCode() {
             final int prime = 31;
             int result = 1;
-            result = prime * result + ((item == null) ? 0 : item.hashCode());
+            result = prime * result + ((itemName == null) ? 0 : itemName.hashCode());
             result = prime * result + ((key == null) ? 0 : key.hashCode());
             return result;
         }
@@ -119,11 +268,11 @@ public class HomekitAccessoryUpdater {
                 return false;
             }
             ItemKey other = (ItemKey) obj;
-            if (item == null) {
-                if (other.item != null) {
+            if (itemName == null) {
+                if (other.itemName != null) {
                     return false;
                 }
-            } else if (!item.equals(other.item)) {
+            } else if (!itemName.equals(other.itemName)) {
                 return false;
             }
             if (key == null) {
@@ -16,12 +16,14 @@ import java.time.Clock;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
@@ -36,8 +38,12 @@ import io.github.hapjava.HomekitRoot;
 /**
  * Listens for changes to the item registry. When changes are detected, check
  * for Homekit tags and, if present, add the items to the HomekitAccessoryRegistry.
+ * <p>
+ * Adding or removing an accessory makes the Homekit server reset all client connections, therefore only accessories
+ * whose items changed in a way that affects the accessory are re-created.
  *
  * @author Andy Lintner - Initial contribution
+ * @author Contributors to the openHAB project - Keep unchanged accessories on item registry changes
  */
 public class HomekitChangeListener implements ItemRegistryChangeListener {
     private final Logger logger = LoggerFactory.getLogger(HomekitChangeListener.class);
@@ -117,24 +123,56 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     private synchronized void applyUpdates() {
-        Iterator<String> iter = pendingUpdates.iterator();
-
-        while (iter.hasNext()) {
-            String name = iter.next();
+        int unchanged = 0;
+        for (String name : pendingUpdates) {
+            Optional<HomekitTaggedItem> rootItem = getItemOptional(name)
+                    .map(i -> new HomekitTaggedItem(i, itemRegistry))
+                    .filter(i -> i.isAccessory() && !i.isMemberOfAccessoryGroup());
+            if (rootItem.isPresent() && createSignature(rootItem.get()).equals(accessoryRegistry.getSignature(name))) {
+                unchanged++;
+                continue;
+            }
             accessoryRegistry.remove(name);
-
-            getItemOptional(name).map(i -> new HomekitTaggedItem(i, itemRegistry))
-                    .filter(i -> i.isAccessory() && !i.isMemberOfAccessoryGroup())
-                    .ifPresent(rootItem -> createRootAccessory(rootItem));
+            rootItem.ifPresent(this::createRootAccessory);
         }
+        logger.debug("Applied {} homekit updates, {} accessories were unchanged", pendingUpdates.size(), unchanged);
+        pendingUpdates.clear();
     }
 
     @Override
     public void updated(Item oldElement, Item element) {
+        if (element instanceof GenericItem) {
+            updater.itemUpdated((GenericItem) element);
+        }
         markDirty(oldElement);
         markDirty(element);
     }
 
+    /**
+     * Describes everything an accessory is created from. Root items are looked up by name, so their instance is not
+     * part of the signature, but grouped accessories keep their member instances.
+     */
+    private String createSignature(HomekitTaggedItem taggedItem) {
+        StringBuilder signature = new StringBuilder();
+        appendSignature(signature, taggedItem.getItem());
+        if (taggedItem.getItem() instanceof GroupItem) {
+            for (Item member : ((GroupItem) taggedItem.getItem()).getMembers()) {
+                appendSignature(signature, member);
+                signature.append(System.identityHashCode(member)).append(';');
+            }
+        }
+        return signature.toString();
+    }
+
+    private void appendSignature(StringBuilder signature, Item item) {
+        signature.append(item.getName()).append('|').append(item.getType()).append('|').append(item.getLabel())
+                .append('|').append(new TreeSet<>(item.getTags())).append('|');
+        if (item instanceof GroupItem) {
+            Item baseItem = ((GroupItem) item).getBaseItem();
+            signature.append(baseItem == null ? "" : baseItem.getType()).append('|');
+        }
+    }
+
     public synchronized void clearAccessories() {
         accessoryRegistry.clear();
     }
@@ -151,6 +189,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         this.updater = updater;
     }
 
+    public HomekitAccessoryUpdater getUpdater() {
+        return updater;
+    }
+
+    public synchronized int getAccessoryCount() {
+        return accessoryRegistry.size();
+    }
+
     public void updateSettings(HomekitSettings settings) {
         this.settings = settings;
     }
@@ -167,7 +213,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
                 return;
             }
             logger.debug("Adding homekit device {}", taggedItem.getItem().getUID());
-            accessoryRegistry.addRootAccessory(taggedItem.getName(),
+            accessoryRegistry.addRootAccessory(taggedItem.getName(), createSignature(taggedItem),
                     HomekitAccessoryFactory.create(taggedItem, itemRegistry, updater, settings));
             logger.debug("Added homekit device {}", taggedItem.getItem().getUID());
         } catch (HomekitException | IncompleteAccessoryException e) {
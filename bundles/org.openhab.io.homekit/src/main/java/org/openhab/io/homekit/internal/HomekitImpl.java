@@ -166,4 +166,19 @@ public class HomekitImpl implements Homekit {
             bridge.allowUnauthenticatedRequests(allow);
         }
     }
+
+    @Override
+    public int getAccessoryCount() {
+        return changeListener.getAccessoryCount();
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return changeListener.getUpdater().getEventsPerSecond();
+    }
+
+    @Override
+    public double getCoalescedEventsPerSecond() {
+        return changeListener.getUpdater().getCoalescedEventsPerSecond();
+    }
 }
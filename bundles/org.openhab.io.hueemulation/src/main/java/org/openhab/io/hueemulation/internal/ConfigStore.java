@@ -86,6 +86,11 @@ public class ConfigStore {
 
     public HueDataStore ds = new HueDataStore();
 
+    /**
+     * The serialized lights and groups, shared by all rest components
+     */
+    public final ResponseCache responseCache = new ResponseCache();
+
     protected @NonNullByDefault({}) ScheduledExecutorService scheduler;
     private @Nullable ScheduledFuture<?> pairingOffFuture;
     private @Nullable ScheduledFuture<?> writeUUIDFuture;
@@ -240,6 +245,7 @@ public class ConfigStore {
         ds.config.ipaddress = configuredAddress.getHostAddress();
         ds.config.netmask = networkPrefixLength < 32 ? NetUtil.networkPrefixLengthToNetmask(networkPrefixLength)
                 : "255.255.255.0";
+        responseCache.invalidate(ResponseCache.DATASTORE);
 
         if (eventAdmin != null) {
             eventAdmin.postEvent(new Event(EVENT_ADDRESS_CHANGED, Collections.emptyMap()));
@@ -331,6 +337,7 @@ public class ConfigStore {
         } else if (!config.permanentV1bridge) {
             ds.config.makeV2bridge();
         }
+        responseCache.invalidate(ResponseCache.DATASTORE);
         ScheduledFuture<?> future = pairingOffFuture;
         if (future != null) {
             future.cancel(false);
@@ -345,6 +352,7 @@ public class ConfigStore {
             logger.info("Hue Emulation disable pairing...");
             if (!config.permanentV1bridge) { // Restore bridge version
                 ds.config.makeV2bridge();
+                responseCache.invalidate(ResponseCache.DATASTORE);
             }
             config.createNewUserOnEveryEndpoint = false;
             config.temporarilyEmulateV1bridge = false;
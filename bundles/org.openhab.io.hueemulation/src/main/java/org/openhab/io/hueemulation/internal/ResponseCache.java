@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Keeps the serialized json of frequently polled resources (the full data store, all lights, single lights, all groups
+ * and single groups), so that a repeated poll does not walk the data store with Gson again.
+ * <p>
+ * An entry is created on the first request and stays valid until the owner of the resource invalidates it, for
+ * lights and groups this is done by {@link org.openhab.io.hueemulation.internal.rest.LightsAndGroups} on item registry
+ * and item state changes. The full data store is invalidated together with any other resource and by every change of
+ * the remaining parts of the data store, the times in its configuration are those of its serialization. Each entry
+ * carries an entity tag, so that clients sending "If-None-Match" get a "304 Not Modified" without a body. Clients
+ * accepting gzip get a compressed body, which is also cached.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ResponseCache {
+    public static final String DATASTORE = "";
+    public static final String LIGHTS = "lights";
+    public static final String GROUPS = "groups";
+
+    // Small bodies are not worth to be compressed
+    private static final int GZIP_MIN_SIZE = 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The serialized form of a resource
+     */
+    public static class Entry {
+        public final byte[] body;
+        public final EntityTag etag;
+        private volatile byte @Nullable [] gzippedBody;
+
+        Entry(String json) {
+            this.body = json.getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            this.etag = new EntityTag(Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length));
+        }
+
+        byte[] getGzippedBody() {
+            byte[] gzipped = gzippedBody;
+            if (gzipped == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    // Not possible for an in-memory stream
+                    throw new IllegalStateException(e);
+                }
+                gzipped = out.toByteArray();
+                gzippedBody = gzipped;
+            }
+            return gzipped;
+        }
+    }
+
+    /**
+     * Returns the cached serialized form of a resource, serializing it if necessary.
+     *
+     * @param resource The resource path relative to the user, for example "lights", "lights/1" or {@link #DATASTORE}
+     * @param serializer Creates the json of the resource
+     */
+    public Entry get(String resource, Supplier<String> serializer) {
+        // An invalidation of the same resource waits until the computation is done, so that an entry
+        // created from an outdated state cannot survive the invalidation
+        return entries.computeIfAbsent(resource, k -> new Entry(serializer.get()));
+    }
+
+    /**
+     * Returns a response for a resource. The response is "304 Not Modified" if the request carries a matching
+     * entity tag and gzip compressed if the client accepts it.
+     *
+     * @param request The request, used to evaluate the preconditions
+     * @param headers The request headers
+     * @param resource The resource path relative to the user, for example "lights", "lights/1" or {@link #DATASTORE}
+     * @param serializer Creates the json of the resource, if it is not cached
+     */
+    public Response respond(Request request, HttpHeaders headers, String resource, Supplier<String> serializer) {
+        Entry entry = get(resource, serializer);
+        ResponseBuilder notModified = request.evaluatePreconditions(entry.etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        ResponseBuilder response;
+        if (entry.body.length >= GZIP_MIN_SIZE && acceptsGzip(headers)) {
+            response = Response.ok(entry.getGzippedBody()).header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            response = Response.ok(entry.body);
+        }
+        return response.tag(entry.etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    private boolean acceptsGzip(HttpHeaders headers) {
+        List<String> encodings = headers.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (encodings == null) {
+            return false;
+        }
+        for (String encoding : encodings) {
+            if (encoding.contains("gzip")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invalidates the cached form of the given resource.
+     *
+     * @param resource The resource path relative to the user, for example "lights", "lights/1" or {@link #DATASTORE}
+     */
+    public void invalidate(String resource) {
+        entries.remove(resource);
+        // Every resource is part of the full data store
+        entries.remove(DATASTORE);
+    }
+
+    /**
+     * Invalidates all cached resources
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+}
@@ -50,6 +50,7 @@ import org.openhab.core.automation.util.ModuleBuilder;
 import org.openhab.core.automation.util.RuleBuilder;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.ResponseCache;
 import org.openhab.io.hueemulation.internal.RuleUtils;
 import org.openhab.io.hueemulation.internal.dto.HueRuleEntry;
 import org.openhab.io.hueemulation.internal.dto.changerequest.HueCommand;
@@ -139,11 +140,13 @@ public class Rules implements RegistryChangeListener<Rule> {
         });
 
         cs.ds.rules.put(rule.getUID(), entry);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
     public void removed(Rule element) {
         cs.ds.rules.remove(element.getUID());
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
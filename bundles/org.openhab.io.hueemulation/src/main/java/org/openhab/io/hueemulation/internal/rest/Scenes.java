@@ -50,6 +50,7 @@ import org.openhab.core.automation.util.ModuleBuilder;
 import org.openhab.core.automation.util.RuleBuilder;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.ResponseCache;
 import org.openhab.io.hueemulation.internal.StateUtils;
 import org.openhab.io.hueemulation.internal.automation.dto.ItemCommandActionConfig;
 import org.openhab.io.hueemulation.internal.dto.AbstractHueState;
@@ -149,11 +150,13 @@ public class Scenes implements RegistryChangeListener<Rule> {
         }
 
         cs.ds.scenes.put(scene.getUID(), entry);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
     public void removed(Rule element) {
         cs.ds.scenes.remove(element.getUID());
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
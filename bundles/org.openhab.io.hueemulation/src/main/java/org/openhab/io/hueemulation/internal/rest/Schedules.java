@@ -45,6 +45,7 @@ import org.openhab.core.automation.util.ModuleBuilder;
 import org.openhab.core.automation.util.RuleBuilder;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.ResponseCache;
 import org.openhab.io.hueemulation.internal.RuleUtils;
 import org.openhab.io.hueemulation.internal.dto.HueDataStore;
 import org.openhab.io.hueemulation.internal.dto.HueScheduleEntry;
@@ -147,11 +148,13 @@ public class Schedules implements RegistryChangeListener<Rule> {
         }
 
         cs.ds.schedules.put(rule.getUID(), entry);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
     public void removed(Rule element) {
         cs.ds.schedules.remove(element.getUID());
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
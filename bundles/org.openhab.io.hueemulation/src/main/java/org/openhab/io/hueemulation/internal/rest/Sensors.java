@@ -37,6 +37,7 @@ import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.library.CoreItemFactory;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.ResponseCache;
 import org.openhab.io.hueemulation.internal.dto.HueNewLights;
 import org.openhab.io.hueemulation.internal.dto.HueSensorEntry;
 import org.openhab.io.hueemulation.internal.dto.changerequest.HueChangeRequest;
@@ -86,6 +87,7 @@ public class Sensors implements RegistryChangeListener<Item> {
     @Activate
     protected void activate() {
         cs.ds.resetSensors();
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
 
         itemRegistry.removeRegistryChangeListener(this);
         itemRegistry.addRegistryChangeListener(this);
@@ -120,7 +122,7 @@ public class Sensors implements RegistryChangeListener<Item> {
 
         HueSensorEntry sensor = new HueSensorEntry(element);
         cs.ds.sensors.put(hueID, sensor);
-
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
@@ -128,6 +130,7 @@ public class Sensors implements RegistryChangeListener<Item> {
         String hueID = cs.mapItemUIDtoHueID(element);
         logger.debug("Remove item {}", hueID);
         cs.ds.sensors.remove(hueID);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @Override
@@ -141,6 +144,7 @@ public class Sensors implements RegistryChangeListener<Item> {
 
         HueSensorEntry sensor = new HueSensorEntry(element);
         cs.ds.sensors.put(hueID, sensor);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
     }
 
     @GET
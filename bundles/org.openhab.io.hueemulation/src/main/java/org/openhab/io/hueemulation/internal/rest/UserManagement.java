@@ -34,6 +34,7 @@ import org.eclipse.smarthome.core.common.registry.DefaultAbstractManagedProvider
 import org.eclipse.smarthome.core.storage.StorageService;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
+import org.openhab.io.hueemulation.internal.ResponseCache;
 import org.openhab.io.hueemulation.internal.dto.HueUserAuth;
 import org.openhab.io.hueemulation.internal.dto.HueUserAuthWithSecrets;
 import org.openhab.io.hueemulation.internal.dto.changerequest.HueCreateUser;
@@ -119,12 +120,14 @@ public class UserManagement extends DefaultAbstractManagedProvider<HueUserAuthWi
         HueUserAuthWithSecrets hueUserAuth = new HueUserAuthWithSecrets(l[0], l.length == 2 ? l[1] : "openhab", apiKey,
                 clientKey);
         cs.ds.config.whitelist.put(apiKey, hueUserAuth);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
         add(hueUserAuth);
     }
 
     @SuppressWarnings("null")
     private synchronized void removeUser(String apiKey) {
         HueUserAuth userAuth = cs.ds.config.whitelist.remove(apiKey);
+        cs.responseCache.invalidate(ResponseCache.DATASTORE);
         if (userAuth != null) {
             logger.debug("APIKey {} removed", apiKey);
         }
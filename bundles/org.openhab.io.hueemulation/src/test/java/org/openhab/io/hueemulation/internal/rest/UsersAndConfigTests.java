@@ -16,10 +16,14 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Collections;
 import java.util.Dictionary;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.glassfish.jersey.server.ResourceConfig;
@@ -29,6 +33,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.HueEmulationConfig;
+import org.openhab.io.hueemulation.internal.dto.HueDataStore;
 import org.openhab.io.hueemulation.internal.dto.HueUnauthorizedConfig;
 import org.openhab.io.hueemulation.internal.dto.response.HueResponse;
 import org.openhab.io.hueemulation.internal.dto.response.HueSuccessResponseCreateUser;
@@ -36,6 +41,7 @@ import org.openhab.io.hueemulation.internal.rest.mocks.ConfigStoreWithoutMetadat
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 /**
@@ -138,4 +144,38 @@ public class UsersAndConfigTests {
         assertThat(response.readEntity(String.class), containsString("error"));
     }
 
+    @Test
+    public void fullDataStoreContainsAllFields() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser").request().get();
+        assertThat(response.getStatus(), is(200));
+        JsonObject ds = new JsonParser().parse(response.readEntity(String.class)).getAsJsonObject();
+        for (Field field : HueDataStore.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                assertTrue(field.getName(), ds.has(field.getName()));
+            }
+        }
+    }
+
+    @Test
+    public void cachedFullDataStoreWithEntityTag() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser").request().get();
+        assertThat(response.getStatus(), is(200));
+        EntityTag etag = response.getEntityTag();
+        assertThat(etag, is(notNullValue()));
+
+        // Unchanged data store
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertThat(response.getStatus(), is(304));
+
+        // A configuration change invalidates the cached data store
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/config").request()
+                .put(Entity.json("{'devicename':'renamed'}"));
+        assertThat(response.getStatus(), is(200));
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntityTag(), is(not(etag)));
+        assertThat(response.readEntity(String.class), containsString("renamed"));
+    }
 }
@@ -43,15 +43,13 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javazoom.jl.decoder.JavaLayerException;
-import javazoom.jl.player.Player;
-
 /**
  * This is an audio sink that is registered as a service, which can play wave files to the hosts outputs (e.g. speaker,
  * line-out).
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Christoph Weitkamp - Added getSupportedStreams() and UnsupportedAudioStreamException
+ * @author Contributors to the openHAB project - Mix all streams on one long-lived line
  *
  */
 @Component(service = AudioSink.class, immediate = true)
@@ -61,7 +59,16 @@ public class JavaSoundAudioSink implements AudioSink {
 
     private boolean isMac = false;
     private PercentType macVolumeValue = null;
-    private static Player streamPlayer = null;
+
+    /**
+     * Plays all streams through one line
+     */
+    private final SoftwareMixer mixer = new SoftwareMixer();
+
+    /**
+     * The currently playing url stream
+     */
+    private MixerClip continuousClip;
 
     private static final Set<AudioFormat> SUPPORTED_AUDIO_FORMATS = Collections
             .unmodifiableSet(Stream.of(AudioFormat.MP3, AudioFormat.WAV).collect(toSet()));
@@ -79,67 +86,42 @@ public class JavaSoundAudioSink implements AudioSink {
     }
 
     @Override
-    public synchronized void process(final AudioStream audioStream)
+    public void process(final AudioStream audioStream)
             throws UnsupportedAudioFormatException, UnsupportedAudioStreamException {
-        if (audioStream != null && audioStream.getFormat().getCodec() != AudioFormat.CODEC_MP3) {
-            AudioPlayer audioPlayer = new AudioPlayer(audioStream);
-            audioPlayer.start();
-            try {
-                audioPlayer.join();
-            } catch (InterruptedException e) {
-                LOGGER.error("Playing audio has been interrupted.");
-            }
-        } else {
-            if (audioStream == null || audioStream instanceof URLAudioStream) {
-                // we are dealing with an infinite stream here
-                if (streamPlayer != null) {
+        if (audioStream == null || audioStream instanceof URLAudioStream) {
+            // we are dealing with an infinite stream here
+            synchronized (this) {
+                if (continuousClip != null) {
                     // if we are already playing a stream, stop it first
-                    streamPlayer.close();
-                    streamPlayer = null;
+                    continuousClip.stop();
+                    continuousClip = null;
                 }
-                if (audioStream == null) {
-                    // the call was only for stopping the currently playing stream
-                    return;
-                } else {
-                    try {
-                        // we start a new continuous stream and store its handle
-                        streamPlayer = new Player(audioStream);
-                        playInThread(streamPlayer);
-                    } catch (JavaLayerException e) {
-                        LOGGER.error("An exception occurred while playing url audio stream : '{}'", e.getMessage());
-                    }
-                    return;
-                }
-            } else {
-                // we are playing some normal file (no url stream)
-                try {
-                    playInThread(new Player(audioStream));
-                } catch (JavaLayerException e) {
-                    LOGGER.error("An exception occurred while playing audio : '{}'", e.getMessage());
+                if (audioStream != null) {
+                    // the stream is mixed with the other clips and ducked while they play
+                    continuousClip = mixer.play(audioStream, true);
                 }
             }
+            // the call was only for stopping the currently playing stream or the stream plays until it is stopped
+            return;
         }
-    }
 
-    private void playInThread(final Player player) {
-        // run in new thread
-        new Thread(() -> {
+        MixerClip clip = mixer.play(audioStream, false);
+        if (clip != null && !AudioFormat.CODEC_MP3.equals(audioStream.getFormat().getCodec())) {
             try {
-                player.play();
-            } catch (Exception e) {
-                LOGGER.error("An exception occurred while playing audio : '{}'", e.getMessage());
-            } finally {
-                player.close();
+                clip.awaitEnd();
+            } catch (InterruptedException e) {
+                clip.stop();
+                LOGGER.error("Playing audio has been interrupted.");
             }
-        }).start();
+        }
     }
 
-    protected synchronized void deactivate() {
-        if (streamPlayer != null) {
-            // stop playing streams on shutdown
-            streamPlayer.close();
-            streamPlayer = null;
+    protected void deactivate() {
+        synchronized (this) {
+            continuousClip = null;
         }
+        // stop playing streams on shutdown
+        mixer.dispose();
     }
 
     @Override
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One audio stream which is played by the {@link SoftwareMixer}.
+ * <p>
+ * A decoder thread converts the stream into the format of the mixer and queues the audio in chunks, which are taken
+ * from and returned to the pool of the mixer. The mixer thread only takes the queued chunks, so a slow stream (e.g.
+ * a radio stream over the network) never blocks the other clips.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+class MixerClip implements Runnable {
+
+    /**
+     * Number of queued chunks of a clip, about 0.2 seconds
+     */
+    private static final int QUEUED_CHUNKS = 10;
+
+    /**
+     * Number of frames for a gain change, about 10 ms
+     */
+    private static final int GAIN_RAMP_FRAMES = 441;
+
+    private final Logger logger = LoggerFactory.getLogger(MixerClip.class);
+
+    private final SoftwareMixer mixer;
+    private final AudioStream audioStream;
+    private final boolean continuous;
+    private final long createdNanos = System.nanoTime();
+
+    private final BlockingQueue<SoftwareMixer.Chunk> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean decoded;
+    private volatile boolean stopped;
+
+    // only used by the mixer thread
+    private SoftwareMixer.Chunk current;
+    private int position;
+    private boolean started;
+    private float gain = 1;
+
+    /**
+     * @param mixer the mixer which plays the clip
+     * @param audioStream the audio
+     * @param continuous true for a stream without end (e.g. a radio stream), it is ducked while other clips play
+     */
+    MixerClip(SoftwareMixer mixer, AudioStream audioStream, boolean continuous) {
+        this.mixer = mixer;
+        this.audioStream = audioStream;
+        this.continuous = continuous;
+    }
+
+    boolean isContinuous() {
+        return continuous;
+    }
+
+    long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Stops the clip, the rest of the stream is discarded.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Waits until the clip was played completely or stopped.
+     */
+    void awaitEnd() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Decodes the stream into chunks, runs in its own thread.
+     */
+    @Override
+    public void run() {
+        try (AudioInputStream input = openMixerStream()) {
+            int frameSize = SoftwareMixer.FORMAT.getFrameSize();
+            while (!stopped) {
+                SoftwareMixer.Chunk chunk = mixer.takeChunk();
+                int length = readFully(input, chunk.data);
+                // the mixer consumes whole frames
+                chunk.length = length - length % frameSize;
+                if (chunk.length <= 0) {
+                    mixer.returnChunk(chunk);
+                    break;
+                }
+                while (!stopped && !queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    // wait until the mixer took the queued audio
+                }
+            }
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            logger.warn("Audio format is unsupported or does not have enough details in order to be played: {}",
+                    e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error while playing audio: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            decoded = true;
+        }
+    }
+
+    private AudioInputStream openMixerStream() throws IOException, UnsupportedAudioFileException {
+        AudioInputStream input;
+        if (org.eclipse.smarthome.core.audio.AudioFormat.CODEC_MP3.equals(audioStream.getFormat().getCodec())) {
+            Mp3InputStream mp3Stream = new Mp3InputStream(audioStream);
+            input = new AudioInputStream(mp3Stream, mp3Stream.getFormat(), AudioSystem.NOT_SPECIFIED);
+        } else {
+            InputStream stream = new BufferedInputStream(audioStream);
+            try {
+                // the format of the WAV header
+                input = AudioSystem.getAudioInputStream(stream);
+            } catch (UnsupportedAudioFileException e) {
+                AudioFormat format = convertAudioFormat(audioStream.getFormat());
+                if (format == null) {
+                    throw e;
+                }
+                input = new AudioInputStream(stream, format, AudioSystem.NOT_SPECIFIED);
+            }
+        }
+        if (!input.getFormat().matches(SoftwareMixer.FORMAT)) {
+            input = AudioSystem.getAudioInputStream(SoftwareMixer.FORMAT, input);
+        }
+        return input;
+    }
+
+    private static int readFully(InputStream input, byte[] data) throws IOException {
+        int length = 0;
+        while (length < data.length) {
+            int count = input.read(data, length, data.length - length);
+            if (count < 0) {
+                break;
+            }
+            length += count;
+        }
+        return length;
+    }
+
+    /**
+     * Adds the next frames of the clip to the mix, called by the mixer thread.
+     *
+     * @param mix the samples of the mix, two channels interleaved
+     * @param frames the number of frames to add
+     * @param targetGain the gain of the clip, changes are ramped to avoid clicks
+     * @return false if the clip has ended
+     */
+    boolean mixInto(int[] mix, int frames, float targetGain) {
+        if (stopped) {
+            end();
+            return false;
+        }
+        float gainStep = (targetGain - gain) / GAIN_RAMP_FRAMES;
+        int frame = 0;
+        while (frame < frames) {
+            if (current == null || position >= current.length) {
+                if (current != null) {
+                    mixer.returnChunk(current);
+                }
+                current = queue.poll();
+                position = 0;
+                if (current == null) {
+                    if (decoded && queue.isEmpty()) {
+                        end();
+                        return false;
+                    }
+                    if (started) {
+                        // the decoder did not keep up, the rest of the period is silent
+                        mixer.countClipUnderrun();
+                    }
+                    return true;
+                }
+                if (!started) {
+                    started = true;
+                    mixer.recordStartLatency(this);
+                }
+            }
+            byte[] data = current.data;
+            for (; frame < frames && position < current.length; frame++, position += 4) {
+                if (gain != targetGain) {
+                    gain = Math.abs(targetGain - gain) <= Math.abs(gainStep) ? targetGain : gain + gainStep;
+                }
+                int left = (short) ((data[position] & 0xff) | (data[position + 1] << 8));
+                int right = (short) ((data[position + 2] & 0xff) | (data[position + 3] << 8));
+                mix[2 * frame] += (int) (left * gain);
+                mix[2 * frame + 1] += (int) (right * gain);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ends the clip, the queued audio is returned to the pool and the waiting caller is released.
+     */
+    void end() {
+        if (current != null) {
+            mixer.returnChunk(current);
+            current = null;
+        }
+        SoftwareMixer.Chunk chunk;
+        while ((chunk = queue.poll()) != null) {
+            mixer.returnChunk(chunk);
+        }
+        stopped = true;
+        try {
+            audioStream.close();
+        } catch (IOException e) {
+            // the clip has ended anyway
+        }
+        finished.countDown();
+    }
+
+    /**
+     * Converts a org.eclipse.smarthome.core.audio.AudioFormat
+     * to a javax.sound.sampled.AudioFormat
+     *
+     * @param audioFormat The AudioFormat to convert
+     * @return The corresponding AudioFormat
+     */
+    static AudioFormat convertAudioFormat(org.eclipse.smarthome.core.audio.AudioFormat audioFormat) {
+        AudioFormat.Encoding encoding = new AudioFormat.Encoding(audioFormat.getCodec());
+        if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_SIGNED)) {
+            encoding = AudioFormat.Encoding.PCM_SIGNED;
+        } else if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_ULAW)) {
+            encoding = AudioFormat.Encoding.ULAW;
+        } else if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_ALAW)) {
+            encoding = AudioFormat.Encoding.ALAW;
+        }
+
+        final Long frequency = audioFormat.getFrequency();
+        if (frequency == null) {
+            return null;
+        }
+        final float sampleRate = frequency.floatValue();
+
+        final Integer bitDepth = audioFormat.getBitDepth();
+        if (bitDepth == null) {
+            return null;
+        }
+        final int sampleSizeInBits = bitDepth.intValue();
+
+        final int channels = 1;
+
+        final int frameSize = sampleSizeInBits / 8;
+
+        final Boolean bigEndian = audioFormat.isBigEndian();
+        if (bigEndian == null) {
+            return null;
+        }
+
+        return new AudioFormat(encoding, sampleRate, sampleSizeInBits, channels, frameSize, sampleRate, bigEndian);
+    }
+}
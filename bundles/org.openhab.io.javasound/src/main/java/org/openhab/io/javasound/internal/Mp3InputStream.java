@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sound.sampled.AudioFormat;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+/**
+ * Decodes an MP3 stream into signed 16 bit little-endian PCM, so that it can be mixed with other audio instead of being
+ * played by a javazoom Player on its own line.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+class Mp3InputStream extends InputStream {
+
+    private final InputStream mp3Stream;
+    private final Bitstream bitstream;
+    private final Decoder decoder = new Decoder();
+    private final AudioFormat format;
+
+    private byte[] pcm = new byte[0];
+    private int pcmLength;
+    private int pcmPosition;
+    private boolean end;
+
+    /**
+     * Decodes the first frame to determine the sample rate and channels.
+     *
+     * @param mp3Stream the MP3 stream
+     * @throws IOException if the stream does not contain a valid MP3 frame
+     */
+    Mp3InputStream(InputStream mp3Stream) throws IOException {
+        this.mp3Stream = mp3Stream;
+        bitstream = new Bitstream(mp3Stream);
+        if (!decodeFrame()) {
+            throw new IOException("The stream does not contain MP3 audio");
+        }
+        format = new AudioFormat(decoder.getOutputFrequency(), 16, decoder.getOutputChannels(), true, false);
+    }
+
+    /**
+     * Returns the format of the decoded audio.
+     */
+    AudioFormat getFormat() {
+        return format;
+    }
+
+    private boolean decodeFrame() throws IOException {
+        try {
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                return false;
+            }
+            SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+            bitstream.closeFrame();
+
+            short[] samples = output.getBuffer();
+            int sampleCount = output.getBufferLength();
+            if (pcm.length < sampleCount * 2) {
+                pcm = new byte[sampleCount * 2];
+            }
+            for (int i = 0; i < sampleCount; i++) {
+                pcm[2 * i] = (byte) samples[i];
+                pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+            }
+            pcmLength = sampleCount * 2;
+            pcmPosition = 0;
+            return true;
+        } catch (BitstreamException | DecoderException e) {
+            throw new IOException("Error decoding MP3 audio: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        while (pcmPosition >= pcmLength) {
+            if (end || !decodeFrame()) {
+                end = true;
+                return -1;
+            }
+        }
+        int count = Math.min(len, pcmLength - pcmPosition);
+        System.arraycopy(pcm, pcmPosition, b, off, count);
+        pcmPosition += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            bitstream.close();
+        } catch (BitstreamException e) {
+            // the stream is closed below
+        }
+        mp3Stream.close();
+    }
+}
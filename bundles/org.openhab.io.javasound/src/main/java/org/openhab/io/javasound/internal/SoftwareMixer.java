@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.Line;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plays several audio streams at the same time through one {@link SourceDataLine}.
+ * <p>
+ * The line is opened once and kept open, a new clip starts with the next period of the mixer thread instead of
+ * waiting for a line to be opened. All clips are converted to one format and added sample by sample. While a clip
+ * plays, the continuous clips (e.g. a radio stream) are ducked. The audio is passed in chunks from a pool, so that
+ * playing does not allocate new buffers.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+class SoftwareMixer {
+
+    /**
+     * The format of the line, all clips are converted to it
+     */
+    static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+
+    /**
+     * Frames of one period of the mixer thread, 10 ms
+     */
+    private static final int PERIOD_FRAMES = 441;
+
+    /**
+     * Periods buffered by the line, this is the latency of a new clip while other clips play
+     */
+    private static final int LINE_PERIODS = 4;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Gain of the continuous clips while other clips play
+     */
+    private static final float DUCKING_GAIN = 0.25f;
+
+    private final Logger logger = LoggerFactory.getLogger(SoftwareMixer.class);
+
+    private final List<MixerClip> clips = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Chunk> chunkPool = new ConcurrentLinkedQueue<>();
+
+    private SourceDataLine line;
+    private Thread mixerThread;
+    private boolean running;
+
+    private final AtomicLong underruns = new AtomicLong();
+    private final AtomicLong clipUnderruns = new AtomicLong();
+    private long startLatencyCount;
+    private long startLatencyTotalNanos;
+    private long startLatencyMaxNanos;
+
+    /**
+     * A buffer of audio in the format of the mixer
+     */
+    static class Chunk {
+        final byte[] data = new byte[CHUNK_SIZE];
+        int length;
+    }
+
+    /**
+     * Plays an audio stream.
+     *
+     * @param audioStream the audio
+     * @param continuous true for a stream without end (e.g. a radio stream), it is ducked while other clips play
+     * @return the clip or null if no line is available
+     */
+    MixerClip play(AudioStream audioStream, boolean continuous) {
+        synchronized (this) {
+            if (!open()) {
+                return null;
+            }
+        }
+        MixerClip clip = new MixerClip(this, audioStream, continuous);
+        Thread decoder = new Thread(clip, "OH-javasound-clip");
+        decoder.setDaemon(true);
+        decoder.start();
+        clips.add(clip);
+        synchronized (this) {
+            notifyAll();
+        }
+        return clip;
+    }
+
+    /**
+     * Opens the line and starts the mixer thread, if this was not done before.
+     *
+     * @return true if the line is open
+     */
+    private boolean open() {
+        if (line != null) {
+            return true;
+        }
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, FORMAT);
+        try {
+            SourceDataLine line = (SourceDataLine) AudioSystem.getLine(info);
+            line.open(FORMAT, LINE_PERIODS * PERIOD_FRAMES * FORMAT.getFrameSize());
+            this.line = line;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            logger.warn("No line found: {}", e.getMessage());
+            logger.info("Available lines are:");
+            for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+                for (Line.Info lineInfo : AudioSystem.getMixer(mixerInfo).getSourceLineInfo()) {
+                    logger.info("{}", lineInfo);
+                }
+            }
+            return false;
+        }
+        running = true;
+        mixerThread = new Thread(this::mix, "OH-javasound-mixer");
+        mixerThread.setDaemon(true);
+        mixerThread.setPriority(Thread.MAX_PRIORITY);
+        mixerThread.start();
+        logger.debug("Opened line with {} bytes buffer", line.getBufferSize());
+        return true;
+    }
+
+    /**
+     * Stops all clips and closes the line.
+     */
+    void dispose() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = mixerThread;
+            mixerThread = null;
+            notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // release the callers which wait for the end of their clips
+        clips.forEach(MixerClip::end);
+        clips.clear();
+        synchronized (this) {
+            if (line != null) {
+                line.close();
+                line = null;
+            }
+        }
+        chunkPool.clear();
+    }
+
+    /**
+     * The mixer thread, adds one period of all clips and writes it to the line. Writing blocks while the line buffer
+     * is full, so the thread runs in the pace of the line.
+     */
+    private void mix() {
+        int[] mix = new int[PERIOD_FRAMES * 2];
+        byte[] output = new byte[PERIOD_FRAMES * FORMAT.getFrameSize()];
+        boolean playing = false;
+        while (true) {
+            SourceDataLine line;
+            if (playing && clips.isEmpty()) {
+                // play the rest of the buffer, the line stays open
+                this.line.drain();
+                this.line.stop();
+                playing = false;
+            }
+            synchronized (this) {
+                while (running && clips.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+                line = this.line;
+            }
+
+            Arrays.fill(mix, 0);
+            boolean ducking = clips.stream().anyMatch(clip -> !clip.isContinuous());
+            for (MixerClip clip : clips) {
+                float gain = ducking && clip.isContinuous() ? DUCKING_GAIN : 1;
+                if (!clip.mixInto(mix, PERIOD_FRAMES, gain)) {
+                    clips.remove(clip);
+                }
+            }
+            for (int i = 0; i < mix.length; i++) {
+                int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                output[2 * i] = (byte) sample;
+                output[2 * i + 1] = (byte) (sample >> 8);
+            }
+
+            if (!playing) {
+                line.start();
+                playing = true;
+            } else if (line.available() >= line.getBufferSize()) {
+                // the line played all buffered audio before this period was written
+                long count = underruns.incrementAndGet();
+                logger.debug("Line underrun, {} underruns since start", count);
+            }
+            line.write(output, 0, output.length);
+        }
+    }
+
+    Chunk takeChunk() {
+        Chunk chunk = chunkPool.poll();
+        return chunk != null ? chunk : new Chunk();
+    }
+
+    void returnChunk(Chunk chunk) {
+        chunkPool.offer(chunk);
+    }
+
+    void countClipUnderrun() {
+        clipUnderruns.incrementAndGet();
+    }
+
+    /**
+     * Records the time between the creation and the first mixed audio of a clip.
+     */
+    synchronized void recordStartLatency(MixerClip clip) {
+        long latency = System.nanoTime() - clip.getCreatedNanos();
+        startLatencyCount++;
+        startLatencyTotalNanos += latency;
+        startLatencyMaxNanos = Math.max(startLatencyMaxNanos, latency);
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    "Clip started after {} ms (average {} ms, maximum {} ms), {} line underruns, {} clip underruns",
+                    TimeUnit.NANOSECONDS.toMillis(latency),
+                    TimeUnit.NANOSECONDS.toMillis(startLatencyTotalNanos / startLatencyCount),
+                    TimeUnit.NANOSECONDS.toMillis(startLatencyMaxNanos), underruns.get(), clipUnderruns.get());
+        }
+    }
+}
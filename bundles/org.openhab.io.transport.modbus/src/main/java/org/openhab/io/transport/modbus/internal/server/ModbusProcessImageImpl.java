@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.server.ModbusProcessImage;
+
+/**
+ * Array backed {@link ModbusProcessImage}
+ *
+ * Each table is guarded by a {@link StampedLock}. The server reads the tables with optimistic reads, directly into
+ * the response buffer, so frequent updates of the image and requests of the masters do not wait for each other.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusProcessImageImpl implements ModbusProcessImage {
+
+    private static void checkRange(String table, int size, int address, int count) {
+        if (address < 0 || count < 0 || address + count > size) {
+            throw new IllegalArgumentException(String.format("%s %d-%d out of bounds, size %d", table, address,
+                    address + count - 1, size));
+        }
+    }
+
+    /**
+     * Table of coils or discrete inputs
+     */
+    static class BitTable {
+        private final String name;
+        private final StampedLock lock = new StampedLock();
+        private final boolean[] bits;
+
+        BitTable(String name, int size) {
+            this.name = name;
+            this.bits = new boolean[size];
+        }
+
+        int size() {
+            return bits.length;
+        }
+
+        boolean get(int address) {
+            checkRange(name, bits.length, address, 1);
+            long stamp = lock.tryOptimisticRead();
+            boolean value = bits[address];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = bits[address];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        void set(int address, boolean value) {
+            checkRange(name, bits.length, address, 1);
+            long stamp = lock.writeLock();
+            try {
+                bits[address] = value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Write bits packed as in Modbus requests, least significant bit of the first byte first
+         */
+        void write(int address, int count, ByteBuffer src) {
+            checkRange(name, bits.length, address, count);
+            int position = src.position();
+            long stamp = lock.writeLock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    bits[address + i] = (src.get(position + (i >> 3)) & (1 << (i & 7))) != 0;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            src.position(position + (count + 7) / 8);
+        }
+
+        /**
+         * Read bits packed as in Modbus responses, least significant bit of the first byte first
+         */
+        void read(int address, int count, ByteBuffer dst) {
+            checkRange(name, bits.length, address, count);
+            int position = dst.position();
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                pack(address, count, dst);
+                if (lock.validate(stamp)) {
+                    return;
+                }
+                dst.position(position);
+            }
+            stamp = lock.readLock();
+            try {
+                pack(address, count, dst);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void pack(int address, int count, ByteBuffer dst) {
+            int packed = 0;
+            for (int i = 0; i < count; i++) {
+                if (bits[address + i]) {
+                    packed |= 1 << (i & 7);
+                }
+                if ((i & 7) == 7) {
+                    dst.put((byte) packed);
+                    packed = 0;
+                }
+            }
+            if ((count & 7) != 0) {
+                dst.put((byte) packed);
+            }
+        }
+    }
+
+    /**
+     * Table of holding registers or input registers
+     */
+    static class RegisterTable {
+        private final String name;
+        private final StampedLock lock = new StampedLock();
+        private final short[] registers;
+
+        RegisterTable(String name, int size) {
+            this.name = name;
+            this.registers = new short[size];
+        }
+
+        int size() {
+            return registers.length;
+        }
+
+        ModbusRegisterArray get(int address, int count) {
+            checkRange(name, registers.length, address, count);
+            int[] values = new int[count];
+            long stamp = lock.tryOptimisticRead();
+            copy(address, values);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    copy(address, values);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return new BasicModbusRegisterArray(values);
+        }
+
+        private void copy(int address, int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = registers[address + i] & 0xffff;
+            }
+        }
+
+        void set(int address, ModbusRegisterArray values) {
+            int count = values.size();
+            checkRange(name, registers.length, address, count);
+            short[] converted = new short[count];
+            for (int i = 0; i < count; i++) {
+                converted[i] = (short) values.getRegister(i).getValue();
+            }
+            long stamp = lock.writeLock();
+            try {
+                System.arraycopy(converted, 0, registers, address, count);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void set(int address, int value) {
+            checkRange(name, registers.length, address, 1);
+            long stamp = lock.writeLock();
+            try {
+                registers[address] = (short) value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Write registers in big endian byte order, as in Modbus requests
+         */
+        void write(int address, int count, ByteBuffer src) {
+            checkRange(name, registers.length, address, count);
+            long stamp = lock.writeLock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    registers[address + i] = src.getShort();
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Read registers in big endian byte order, as in Modbus responses
+         */
+        void read(int address, int count, ByteBuffer dst) {
+            checkRange(name, registers.length, address, count);
+            int position = dst.position();
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                for (int i = 0; i < count; i++) {
+                    dst.putShort(registers[address + i]);
+                }
+                if (lock.validate(stamp)) {
+                    return;
+                }
+                dst.position(position);
+            }
+            stamp = lock.readLock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    dst.putShort(registers[address + i]);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    final BitTable coils;
+    final BitTable discreteInputs;
+    final RegisterTable holdingRegisters;
+    final RegisterTable inputRegisters;
+
+    public ModbusProcessImageImpl(int coilCount, int discreteInputCount, int holdingRegisterCount,
+            int inputRegisterCount) {
+        coils = new BitTable("Coils", coilCount);
+        discreteInputs = new BitTable("Discrete inputs", discreteInputCount);
+        holdingRegisters = new RegisterTable("Holding registers", holdingRegisterCount);
+        inputRegisters = new RegisterTable("Input registers", inputRegisterCount);
+    }
+
+    @Override
+    public int getCoilCount() {
+        return coils.size();
+    }
+
+    @Override
+    public int getDiscreteInputCount() {
+        return discreteInputs.size();
+    }
+
+    @Override
+    public int getHoldingRegisterCount() {
+        return holdingRegisters.size();
+    }
+
+    @Override
+    public int getInputRegisterCount() {
+        return inputRegisters.size();
+    }
+
+    @Override
+    public boolean getCoil(int address) {
+        return coils.get(address);
+    }
+
+    @Override
+    public void setCoil(int address, boolean value) {
+        coils.set(address, value);
+    }
+
+    @Override
+    public boolean getDiscreteInput(int address) {
+        return discreteInputs.get(address);
+    }
+
+    @Override
+    public void setDiscreteInput(int address, boolean value) {
+        discreteInputs.set(address, value);
+    }
+
+    @Override
+    public ModbusRegisterArray getHoldingRegisters(int address, int count) {
+        return holdingRegisters.get(address, count);
+    }
+
+    @Override
+    public void setHoldingRegisters(int address, ModbusRegisterArray registers) {
+        holdingRegisters.set(address, registers);
+    }
+
+    @Override
+    public ModbusRegisterArray getInputRegisters(int address, int count) {
+        return inputRegisters.get(address, count);
+    }
+
+    @Override
+    public void setInputRegisters(int address, ModbusRegisterArray registers) {
+        inputRegisters.set(address, registers);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.server;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.internal.server.ModbusProcessImageImpl.BitTable;
+import org.openhab.io.transport.modbus.internal.server.ModbusProcessImageImpl.RegisterTable;
+
+import net.wimpi.modbus.Modbus;
+
+/**
+ * Executes request PDUs (function code and data) against a {@link ModbusProcessImageImpl} and writes the response
+ * PDUs. Framing is left to the caller.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusRequestProcessor {
+
+    public static final int ILLEGAL_FUNCTION = 0x01;
+    public static final int ILLEGAL_DATA_ADDRESS = 0x02;
+    public static final int ILLEGAL_DATA_VALUE = 0x03;
+    public static final int GATEWAY_TARGET_FAILED_TO_RESPOND = 0x0B;
+
+    private static final int EXCEPTION_OFFSET = 0x80;
+
+    /**
+     * Maximum length of a PDU
+     */
+    public static final int MAX_PDU_LENGTH = 253;
+
+    private static final int MAX_READ_BITS = 2000;
+    private static final int MAX_READ_REGISTERS = 125;
+    private static final int MAX_WRITE_BITS = 1968;
+    private static final int MAX_WRITE_REGISTERS = 123;
+
+    private static final int COIL_ON = 0xFF00;
+    private static final int COIL_OFF = 0x0000;
+
+    private final ModbusProcessImageImpl processImage;
+
+    public ModbusRequestProcessor(ModbusProcessImageImpl processImage) {
+        this.processImage = processImage;
+    }
+
+    /**
+     * Execute a request.
+     *
+     * @param unitId unit id of the request, passed to the returned write request
+     * @param request request PDU between position and limit. The position is moved to the limit.
+     * @param response buffer with at least {@link #MAX_PDU_LENGTH} bytes remaining, response PDU is put there
+     * @return write request if the request changed the process image, otherwise null
+     */
+    public @Nullable ModbusWriteRequestBlueprint process(int unitId, ByteBuffer request, ByteBuffer response) {
+        int functionCode = request.get() & 0xff;
+        int responseStart = response.position();
+        response.put((byte) functionCode);
+
+        int error;
+        ModbusWriteRequestBlueprint write = null;
+        if (request.remaining() < 4) {
+            error = isSupported(functionCode) ? ILLEGAL_DATA_VALUE : ILLEGAL_FUNCTION;
+        } else {
+            int address = request.getShort() & 0xffff;
+            int value = request.getShort() & 0xffff;
+            switch (functionCode) {
+                case Modbus.READ_COILS:
+                    error = readBits(processImage.coils, address, value, request, response);
+                    break;
+                case Modbus.READ_INPUT_DISCRETES:
+                    error = readBits(processImage.discreteInputs, address, value, request, response);
+                    break;
+                case Modbus.READ_MULTIPLE_REGISTERS:
+                    error = readRegisters(processImage.holdingRegisters, address, value, request, response);
+                    break;
+                case Modbus.READ_INPUT_REGISTERS:
+                    error = readRegisters(processImage.inputRegisters, address, value, request, response);
+                    break;
+                case Modbus.WRITE_COIL:
+                    if (request.hasRemaining() || value != COIL_ON && value != COIL_OFF) {
+                        error = ILLEGAL_DATA_VALUE;
+                    } else if (address >= processImage.coils.size()) {
+                        error = ILLEGAL_DATA_ADDRESS;
+                    } else {
+                        processImage.coils.set(address, value == COIL_ON);
+                        response.putShort((short) address).putShort((short) value);
+                        write = new BasicModbusWriteCoilRequestBlueprint(unitId, address, value == COIL_ON, false, 1);
+                        error = 0;
+                    }
+                    break;
+                case Modbus.WRITE_SINGLE_REGISTER:
+                    if (request.hasRemaining()) {
+                        error = ILLEGAL_DATA_VALUE;
+                    } else if (address >= processImage.holdingRegisters.size()) {
+                        error = ILLEGAL_DATA_ADDRESS;
+                    } else {
+                        processImage.holdingRegisters.set(address, value);
+                        response.putShort((short) address).putShort((short) value);
+                        write = new BasicModbusWriteRegisterRequestBlueprint(unitId, address,
+                                new BasicModbusRegisterArray(value), false, 1);
+                        error = 0;
+                    }
+                    break;
+                case Modbus.WRITE_MULTIPLE_COILS:
+                    error = checkWrite(processImage.coils.size(), address, value, MAX_WRITE_BITS, (value + 7) / 8,
+                            request);
+                    if (error == 0) {
+                        BasicBitArray bits = new BasicBitArray(value);
+                        int position = request.position();
+                        for (int i = 0; i < value; i++) {
+                            bits.setBit(i, (request.get(position + (i >> 3)) & (1 << (i & 7))) != 0);
+                        }
+                        processImage.coils.write(address, value, request);
+                        response.putShort((short) address).putShort((short) value);
+                        write = new BasicModbusWriteCoilRequestBlueprint(unitId, address, bits, true, 1);
+                    }
+                    break;
+                case Modbus.WRITE_MULTIPLE_REGISTERS:
+                    error = checkWrite(processImage.holdingRegisters.size(), address, value, MAX_WRITE_REGISTERS,
+                            value * 2, request);
+                    if (error == 0) {
+                        int[] registers = new int[value];
+                        int position = request.position();
+                        for (int i = 0; i < value; i++) {
+                            registers[i] = request.getShort(position + i * 2) & 0xffff;
+                        }
+                        processImage.holdingRegisters.write(address, value, request);
+                        response.putShort((short) address).putShort((short) value);
+                        write = new BasicModbusWriteRegisterRequestBlueprint(unitId, address,
+                                new BasicModbusRegisterArray(registers), true, 1);
+                    }
+                    break;
+                default:
+                    error = ILLEGAL_FUNCTION;
+                    break;
+            }
+        }
+
+        request.position(request.limit());
+        if (error != 0) {
+            response.position(responseStart);
+            putException(functionCode, error, response);
+        }
+        return write;
+    }
+
+    /**
+     * Put an exception response PDU
+     *
+     * @param functionCode function code of the request
+     * @param exceptionCode exception code
+     * @param response buffer to put the response to
+     */
+    public static void putException(int functionCode, int exceptionCode, ByteBuffer response) {
+        response.put((byte) (functionCode | EXCEPTION_OFFSET)).put((byte) exceptionCode);
+    }
+
+    private static boolean isSupported(int functionCode) {
+        switch (functionCode) {
+            case Modbus.READ_COILS:
+            case Modbus.READ_INPUT_DISCRETES:
+            case Modbus.READ_MULTIPLE_REGISTERS:
+            case Modbus.READ_INPUT_REGISTERS:
+            case Modbus.WRITE_COIL:
+            case Modbus.WRITE_SINGLE_REGISTER:
+            case Modbus.WRITE_MULTIPLE_COILS:
+            case Modbus.WRITE_MULTIPLE_REGISTERS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int readBits(BitTable table, int address, int count, ByteBuffer request, ByteBuffer response) {
+        if (request.hasRemaining() || count < 1 || count > MAX_READ_BITS) {
+            return ILLEGAL_DATA_VALUE;
+        }
+        if (address + count > table.size()) {
+            return ILLEGAL_DATA_ADDRESS;
+        }
+        response.put((byte) ((count + 7) / 8));
+        table.read(address, count, response);
+        return 0;
+    }
+
+    private static int readRegisters(RegisterTable table, int address, int count, ByteBuffer request,
+            ByteBuffer response) {
+        if (request.hasRemaining() || count < 1 || count > MAX_READ_REGISTERS) {
+            return ILLEGAL_DATA_VALUE;
+        }
+        if (address + count > table.size()) {
+            return ILLEGAL_DATA_ADDRESS;
+        }
+        response.put((byte) (count * 2));
+        table.read(address, count, response);
+        return 0;
+    }
+
+    /**
+     * Checks the quantity and byte count of write multiple requests, leaving the request at the first data byte
+     */
+    private static int checkWrite(int size, int address, int count, int maxCount, int byteCount, ByteBuffer request) {
+        if (count < 1 || count > maxCount || !request.hasRemaining() || (request.get() & 0xff) != byteCount
+                || request.remaining() != byteCount) {
+            return ILLEGAL_DATA_VALUE;
+        }
+        if (address + count > size) {
+            return ILLEGAL_DATA_ADDRESS;
+        }
+        return 0;
+    }
+}
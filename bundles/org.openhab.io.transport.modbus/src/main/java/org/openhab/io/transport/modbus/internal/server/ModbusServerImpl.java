@@ -0,0 +1,512 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.server.ModbusProcessImage;
+import org.openhab.io.transport.modbus.server.ModbusServer;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration.Framing;
+import org.openhab.io.transport.modbus.server.ModbusServerListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.Modbus;
+
+/**
+ * {@link ModbusServer} serving masters with non-blocking I/O.
+ *
+ * One thread serves all connections with a {@link Selector}. Requests are executed directly against the process
+ * image, and pipelined requests of a master are answered in order. Writes of the masters are passed to the
+ * {@link ModbusServerListener} in the callback executor, one at a time, so slow listeners never block the
+ * connections.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusServerImpl implements ModbusServer, Runnable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MBAP_HEADER_LENGTH = 7;
+    private static final int MAX_ADU_LENGTH = MBAP_HEADER_LENGTH + ModbusRequestProcessor.MAX_PDU_LENGTH;
+    private static final int RTU_BROADCAST_UNIT_ID = 0;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < CRC_TABLE.length; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    /**
+     * State of one connected master
+     */
+    private static class Connection {
+        private final SocketChannel channel;
+
+        /**
+         * Received bytes, in write mode
+         */
+        private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * Responses not sent yet, in write mode
+         */
+        private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusServerImpl.class);
+
+    private final ModbusServerConfiguration configuration;
+    private final ModbusProcessImageImpl processImage;
+    private final ModbusRequestProcessor processor;
+    private final @Nullable ModbusServerListener listener;
+    private final Executor callbackExecutor;
+    private final Queue<ModbusWriteRequestBlueprint> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile int connectionCount;
+
+    /**
+     * Open the server socket. Connections are served after {@link #start()}.
+     *
+     * @param configuration configuration of the server
+     * @param listener listener for writes of the masters
+     * @param callbackExecutor executor calling the listener
+     * @throws IOException when the server socket cannot be opened
+     * @throws IllegalArgumentException when the configuration is invalid
+     */
+    public ModbusServerImpl(ModbusServerConfiguration configuration, @Nullable ModbusServerListener listener,
+            Executor callbackExecutor) throws IOException {
+        validate(configuration);
+        this.configuration = configuration;
+        this.processImage = new ModbusProcessImageImpl(configuration.getCoilCount(),
+                configuration.getDiscreteInputCount(), configuration.getHoldingRegisterCount(),
+                configuration.getInputRegisterCount());
+        this.processor = new ModbusRequestProcessor(processImage);
+        this.listener = listener;
+        this.callbackExecutor = callbackExecutor;
+
+        String address = configuration.getAddress();
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(address == null ? new InetSocketAddress(configuration.getPort())
+                    : new InetSocketAddress(address, configuration.getPort()));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        thread = new Thread(this, "modbus-server-" + getLocalPort());
+        thread.setDaemon(true);
+    }
+
+    private static void validate(ModbusServerConfiguration configuration) {
+        if (configuration.getPort() < 0 || configuration.getPort() > 0xffff) {
+            throw new IllegalArgumentException("Invalid port " + configuration.getPort());
+        }
+        if (configuration.getUnitId() < 0 || configuration.getUnitId() > 247) {
+            throw new IllegalArgumentException("Invalid unit id " + configuration.getUnitId());
+        }
+        if (configuration.getMaxConnections() < 1) {
+            throw new IllegalArgumentException("maxConnections should be positive");
+        }
+        for (int size : new int[] { configuration.getCoilCount(), configuration.getDiscreteInputCount(),
+                configuration.getHoldingRegisterCount(), configuration.getInputRegisterCount() }) {
+            if (size < 0 || size > ModbusServerConfiguration.MAX_IMAGE_SIZE) {
+                throw new IllegalArgumentException("Invalid process image size " + size);
+            }
+        }
+    }
+
+    /**
+     * Start serving connections
+     */
+    public void start() {
+        thread.start();
+        logger.debug("Modbus server started on port {}: {}", getLocalPort(), configuration);
+    }
+
+    @Override
+    public ModbusServerConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public ModbusProcessImage getProcessImage() {
+        return processImage;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (thread.isAlive()) {
+            if (thread != Thread.currentThread()) {
+                try {
+                    thread.join(CLOSE_TIMEOUT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } else {
+            closeChannels();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable() && connection.channel.read(connection.input) < 0) {
+                            disconnect(key, connection);
+                            continue;
+                        }
+                        serve(key, connection);
+                    } catch (IOException e) {
+                        logger.debug("Closing connection of master {}: {}", remoteAddress(connection),
+                                e.getMessage());
+                        disconnect(key, connection);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                logger.warn("Modbus server on port {} failed: {}", getLocalPort(), e.getMessage());
+            }
+        } finally {
+            running = false;
+            closeChannels();
+            logger.debug("Modbus server on port {} stopped", configuration.getPort());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (connectionCount >= configuration.getMaxConnections()) {
+            logger.debug("Rejecting master {}, already {} connections", channel.getRemoteAddress(),
+                    connectionCount);
+            channel.close();
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        connectionCount++;
+        logger.trace("Accepted master {}", channel.getRemoteAddress());
+    }
+
+    private void disconnect(SelectionKey key, Connection connection) {
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing connection: {}", e.getMessage());
+        }
+        connectionCount--;
+    }
+
+    private void closeChannels() {
+        try {
+            if (selector.isOpen()) {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            }
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing Modbus server: {}", e.getMessage());
+        }
+        connectionCount = 0;
+    }
+
+    private @Nullable Object remoteAddress(Connection connection) {
+        return connection.channel.socket().getRemoteSocketAddress();
+    }
+
+    /**
+     * Answer the received requests and send the responses. Pipelined requests are answered as long as the master
+     * receives the responses, reading is paused while it does not.
+     */
+    private void serve(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer input = connection.input;
+        ByteBuffer output = connection.output;
+
+        boolean progress;
+        do {
+            progress = false;
+            input.flip();
+            try {
+                while (output.remaining() >= MAX_ADU_LENGTH
+                        && (configuration.getFraming() == Framing.TCP ? processTcpFrame(input, output)
+                                : processRtuFrame(input, output))) {
+                    progress = true;
+                }
+            } finally {
+                input.compact();
+            }
+
+            if (output.position() > 0) {
+                output.flip();
+                connection.channel.write(output);
+                output.compact();
+                // a full output may have blocked the requests left in the input
+                progress = true;
+            }
+            // continue with the requests left in the input until the socket does not take all responses
+        } while (progress && output.position() == 0);
+
+        int ops = 0;
+        if (output.position() > 0) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (input.hasRemaining() && output.remaining() >= MAX_ADU_LENGTH) {
+            ops |= SelectionKey.OP_READ;
+        }
+        key.interestOps(ops);
+    }
+
+    /**
+     * Answer one request with MBAP header
+     *
+     * @return false if the input does not contain a complete request
+     * @throws IOException with invalid header
+     */
+    private boolean processTcpFrame(ByteBuffer input, ByteBuffer output) throws IOException {
+        int start = input.position();
+        if (input.remaining() < MBAP_HEADER_LENGTH) {
+            return false;
+        }
+        int transactionId = input.getShort(start) & 0xffff;
+        int protocolId = input.getShort(start + 2) & 0xffff;
+        int length = input.getShort(start + 4) & 0xffff;
+        if (protocolId != Modbus.DEFAULT_PROTOCOL_ID || length < 2
+                || length > ModbusRequestProcessor.MAX_PDU_LENGTH + 1) {
+            throw new IOException(
+                    String.format("Invalid MBAP header (protocol id %d, length %d)", protocolId, length));
+        }
+        int end = start + 6 + length;
+        if (input.limit() < end) {
+            return false;
+        }
+
+        int unitId = input.get(start + 6) & 0xff;
+        int responseStart = output.position();
+        output.position(responseStart + MBAP_HEADER_LENGTH);
+        int limit = input.limit();
+        input.limit(end).position(start + MBAP_HEADER_LENGTH);
+        if (isServedUnit(unitId)) {
+            enqueueWrite(processor.process(unitId, input, output));
+        } else {
+            ModbusRequestProcessor.putException(input.get() & 0xff,
+                    ModbusRequestProcessor.GATEWAY_TARGET_FAILED_TO_RESPOND, output);
+        }
+        input.limit(limit).position(end);
+
+        output.putShort(responseStart, (short) transactionId);
+        output.putShort(responseStart + 2, (short) protocolId);
+        output.putShort(responseStart + 4, (short) (output.position() - responseStart - 6));
+        output.put(responseStart + 6, (byte) unitId);
+        return true;
+    }
+
+    /**
+     * Answer one RTU frame. The length of RTU frames is not transmitted, so it is derived from the function code.
+     *
+     * @return false if the input does not contain a complete request
+     */
+    private boolean processRtuFrame(ByteBuffer input, ByteBuffer output) {
+        int start = input.position();
+        int available = input.remaining();
+        if (available < 2) {
+            return false;
+        }
+        int unitId = input.get(start) & 0xff;
+        int functionCode = input.get(start + 1) & 0xff;
+        int length;
+        switch (functionCode) {
+            case Modbus.READ_COILS:
+            case Modbus.READ_INPUT_DISCRETES:
+            case Modbus.READ_MULTIPLE_REGISTERS:
+            case Modbus.READ_INPUT_REGISTERS:
+            case Modbus.WRITE_COIL:
+            case Modbus.WRITE_SINGLE_REGISTER:
+                length = 8;
+                break;
+            case Modbus.WRITE_MULTIPLE_COILS:
+            case Modbus.WRITE_MULTIPLE_REGISTERS:
+                if (available < 7) {
+                    return false;
+                }
+                length = 9 + (input.get(start + 6) & 0xff);
+                break;
+            default:
+                // the end of the frame is unknown, drop everything received so far
+                logger.debug("Unsupported function code {} from RTU master, discarding {} bytes", functionCode,
+                        available);
+                input.position(input.limit());
+                if (isServedUnit(unitId)) {
+                    int responseStart = output.position();
+                    output.put((byte) unitId);
+                    ModbusRequestProcessor.putException(functionCode, ModbusRequestProcessor.ILLEGAL_FUNCTION, output);
+                    putCrc(output, responseStart);
+                }
+                return true;
+        }
+        if (available < length) {
+            return false;
+        }
+        int end = start + length;
+        int receivedCrc = (input.get(end - 2) & 0xff) | (input.get(end - 1) & 0xff) << 8;
+        if (crc(input, start, end - 2) != receivedCrc) {
+            logger.debug("Discarding RTU frame with invalid CRC from master");
+            input.position(end);
+            return true;
+        }
+        boolean broadcast = unitId == RTU_BROADCAST_UNIT_ID;
+        if (!broadcast && !isServedUnit(unitId)) {
+            input.position(end);
+            return true;
+        }
+
+        int responseStart = output.position();
+        output.put((byte) unitId);
+        int limit = input.limit();
+        input.limit(end - 2).position(start + 1);
+        enqueueWrite(processor.process(unitId, input, output));
+        input.limit(limit).position(end);
+        if (broadcast) {
+            output.position(responseStart);
+        } else {
+            putCrc(output, responseStart);
+        }
+        return true;
+    }
+
+    private boolean isServedUnit(int unitId) {
+        return configuration.getUnitId() == 0 || configuration.getUnitId() == unitId;
+    }
+
+    private static int crc(ByteBuffer buffer, int start, int end) {
+        int crc = 0xffff;
+        for (int i = start; i < end; i++) {
+            crc = (crc >>> 8) ^ CRC_TABLE[(crc ^ buffer.get(i)) & 0xff];
+        }
+        return crc;
+    }
+
+    private static void putCrc(ByteBuffer output, int frameStart) {
+        int crc = crc(output, frameStart, output.position());
+        output.put((byte) crc).put((byte) (crc >>> 8));
+    }
+
+    private void enqueueWrite(@Nullable ModbusWriteRequestBlueprint write) {
+        if (write == null || listener == null) {
+            return;
+        }
+        pendingWrites.add(write);
+        if (dispatching.compareAndSet(false, true)) {
+            callbackExecutor.execute(this::dispatchWrites);
+        }
+    }
+
+    private void dispatchWrites() {
+        ModbusServerListener listener = this.listener;
+        if (listener == null) {
+            return;
+        }
+        do {
+            ModbusWriteRequestBlueprint write;
+            while ((write = pendingWrites.poll()) != null) {
+                try {
+                    listener.onWrite(write);
+                } catch (RuntimeException e) {
+                    logger.warn("Modbus server listener failed for {}: {}", write, e.getMessage(), e);
+                }
+            }
+            dispatching.set(false);
+        } while (!pendingWrites.isEmpty() && dispatching.compareAndSet(false, true));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.server;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.io.transport.modbus.server.ModbusServer;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration;
+import org.openhab.io.transport.modbus.server.ModbusServerListener;
+import org.openhab.io.transport.modbus.server.ModbusServerManager;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link ModbusServerManager}, starting {@link ModbusServerImpl} servers
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@Component(service = ModbusServerManager.class)
+@NonNullByDefault
+public class ModbusServerManagerImpl implements ModbusServerManager {
+
+    /**
+     * Thread naming for calling the server listeners
+     */
+    private static final String MODBUS_SERVER_CALLBACK_THREAD_POOL_NAME = "modbusServerCallbackThreadPool";
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusServerManagerImpl.class);
+
+    private final Set<ModbusServer> servers = new CopyOnWriteArraySet<>();
+
+    @Override
+    public ModbusServer startServer(ModbusServerConfiguration configuration, @Nullable ModbusServerListener listener)
+            throws IOException {
+        servers.removeIf(server -> !server.isRunning());
+        ModbusServerImpl server = new ModbusServerImpl(configuration, listener,
+                ThreadPoolManager.getPool(MODBUS_SERVER_CALLBACK_THREAD_POOL_NAME));
+        servers.add(server);
+        server.start();
+        return server;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        for (ModbusServer server : servers) {
+            server.close();
+        }
+        servers.clear();
+        logger.debug("Modbus server manager deactivated");
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.server;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.types.Command;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * In-memory image of the coils, discrete inputs, holding registers and input registers served by a
+ * {@link ModbusServer}.
+ *
+ * Updates of the image never wait for network I/O: remote masters are served from the image, and values written
+ * by the masters are applied to the image before {@link ModbusServerListener} is notified.
+ *
+ * All addresses are zero-based.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusProcessImage {
+
+    /**
+     * @return number of coils in the image
+     */
+    public int getCoilCount();
+
+    /**
+     * @return number of discrete inputs in the image
+     */
+    public int getDiscreteInputCount();
+
+    /**
+     * @return number of holding registers in the image
+     */
+    public int getHoldingRegisterCount();
+
+    /**
+     * @return number of input registers in the image
+     */
+    public int getInputRegisterCount();
+
+    /**
+     * @param address address of the coil
+     * @return value of the coil
+     * @throws IllegalArgumentException when address is out of bounds
+     */
+    public boolean getCoil(int address);
+
+    /**
+     * @param address address of the coil
+     * @param value new value of the coil
+     * @throws IllegalArgumentException when address is out of bounds
+     */
+    public void setCoil(int address, boolean value);
+
+    /**
+     * @param address address of the discrete input
+     * @return value of the discrete input
+     * @throws IllegalArgumentException when address is out of bounds
+     */
+    public boolean getDiscreteInput(int address);
+
+    /**
+     * @param address address of the discrete input
+     * @param value new value of the discrete input
+     * @throws IllegalArgumentException when address is out of bounds
+     */
+    public void setDiscreteInput(int address, boolean value);
+
+    /**
+     * @param address address of the first register
+     * @param count number of registers
+     * @return copy of the registers
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public ModbusRegisterArray getHoldingRegisters(int address, int count);
+
+    /**
+     * Set consecutive holding registers. The registers are updated atomically, a master never reads a partially
+     * updated multi-register value.
+     *
+     * @param address address of the first register
+     * @param registers new values of the registers
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public void setHoldingRegisters(int address, ModbusRegisterArray registers);
+
+    /**
+     * @param address address of the first register
+     * @param count number of registers
+     * @return copy of the registers
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public ModbusRegisterArray getInputRegisters(int address, int count);
+
+    /**
+     * Set consecutive input registers. The registers are updated atomically, a master never reads a partially
+     * updated multi-register value.
+     *
+     * @param address address of the first register
+     * @param registers new values of the registers
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public void setInputRegisters(int address, ModbusRegisterArray registers);
+
+    /**
+     * Set holding registers from a command or state, e.g. the state of an item
+     *
+     * @param address address of the first register
+     * @param command command or state to convert
+     * @param type value type of the registers, see {@link ModbusBitUtilities#commandToRegisters}
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public default void setHoldingRegisters(int address, Command command, ValueType type) {
+        setHoldingRegisters(address, ModbusBitUtilities.commandToRegisters(command, type));
+    }
+
+    /**
+     * Set input registers from a command or state, e.g. the state of an item
+     *
+     * @param address address of the first register
+     * @param command command or state to convert
+     * @param type value type of the registers, see {@link ModbusBitUtilities#commandToRegisters}
+     * @throws IllegalArgumentException when the registers are out of bounds
+     */
+    public default void setInputRegisters(int address, Command command, ValueType type) {
+        setInputRegisters(address, ModbusBitUtilities.commandToRegisters(command, type));
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.server;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Running Modbus server, serving a {@link ModbusProcessImage} to remote masters
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusServer extends AutoCloseable {
+
+    /**
+     * @return configuration of the server
+     */
+    public ModbusServerConfiguration getConfiguration();
+
+    /**
+     * @return process image served by this server
+     */
+    public ModbusProcessImage getProcessImage();
+
+    /**
+     * @return local port of the server. Useful when the server was started with port 0.
+     */
+    public int getLocalPort();
+
+    /**
+     * @return number of connected masters
+     */
+    public int getConnectionCount();
+
+    /**
+     * @return true if the server is accepting connections
+     */
+    public boolean isRunning();
+
+    /**
+     * Stop the server and disconnect all masters
+     */
+    @Override
+    public void close();
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.server;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Configuration of a {@link ModbusServer}
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusServerConfiguration {
+
+    /**
+     * Framing of the requests and responses
+     */
+    public static enum Framing {
+        /**
+         * Modbus TCP, requests and responses are prefixed with the MBAP header
+         */
+        TCP,
+        /**
+         * Modbus RTU frames (unit id, PDU and CRC) over a TCP connection, e.g. from serial device servers
+         */
+        RTU_OVER_TCP
+    }
+
+    /**
+     * Maximum number of coils, discrete inputs and registers addressable by Modbus
+     */
+    public static final int MAX_IMAGE_SIZE = 65536;
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    /**
+     * Address to listen on. Null means all local addresses.
+     */
+    private @Nullable String address;
+
+    /**
+     * Port to listen on. Zero means a free port chosen by the system.
+     */
+    private int port = 502;
+
+    private Framing framing = Framing.TCP;
+
+    /**
+     * Unit id served. Zero means that requests to any unit id are served.
+     */
+    private int unitId;
+
+    /**
+     * Maximum number of concurrently connected masters. Further connections are closed right after accepting.
+     */
+    private int maxConnections = 64;
+
+    private int coilCount = MAX_IMAGE_SIZE;
+    private int discreteInputCount = MAX_IMAGE_SIZE;
+    private int holdingRegisterCount = MAX_IMAGE_SIZE;
+    private int inputRegisterCount = MAX_IMAGE_SIZE;
+
+    public @Nullable String getAddress() {
+        return address;
+    }
+
+    public void setAddress(@Nullable String address) {
+        this.address = address;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public Framing getFraming() {
+        return framing;
+    }
+
+    public void setFraming(Framing framing) {
+        this.framing = framing;
+    }
+
+    public int getUnitId() {
+        return unitId;
+    }
+
+    public void setUnitId(int unitId) {
+        this.unitId = unitId;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getCoilCount() {
+        return coilCount;
+    }
+
+    public void setCoilCount(int coilCount) {
+        this.coilCount = coilCount;
+    }
+
+    public int getDiscreteInputCount() {
+        return discreteInputCount;
+    }
+
+    public void setDiscreteInputCount(int discreteInputCount) {
+        this.discreteInputCount = discreteInputCount;
+    }
+
+    public int getHoldingRegisterCount() {
+        return holdingRegisterCount;
+    }
+
+    public void setHoldingRegisterCount(int holdingRegisterCount) {
+        this.holdingRegisterCount = holdingRegisterCount;
+    }
+
+    public int getInputRegisterCount() {
+        return inputRegisterCount;
+    }
+
+    public void setInputRegisterCount(int inputRegisterCount) {
+        this.inputRegisterCount = inputRegisterCount;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("address", address).append("port", port)
+                .append("framing", framing).append("unitId", unitId).append("maxConnections", maxConnections)
+                .append("coilCount", coilCount).append("discreteInputCount", discreteInputCount)
+                .append("holdingRegisterCount", holdingRegisterCount).append("inputRegisterCount", inputRegisterCount)
+                .toString();
+    }
+}
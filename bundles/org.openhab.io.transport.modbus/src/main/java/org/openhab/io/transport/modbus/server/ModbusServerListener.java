@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.server;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+
+/**
+ * Listener for writes of remote masters to a {@link ModbusServer}
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@FunctionalInterface
+@NonNullByDefault
+public interface ModbusServerListener {
+
+    /**
+     * Called after a remote master has written coils or holding registers, and the written values have been applied
+     * to the {@link ModbusProcessImage}.
+     *
+     * The listener is called in the order of the writes, in a thread of a thread pool. Slow listeners do not block
+     * the server.
+     *
+     * @param request write request of the master. The unit id is the one used by the master, and the maximum number
+     *            of tries is always one.
+     */
+    public void onWrite(ModbusWriteRequestBlueprint request);
+}
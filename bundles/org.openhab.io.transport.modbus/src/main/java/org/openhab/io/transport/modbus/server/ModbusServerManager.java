@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.server;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * ModbusServerManager starts Modbus servers (slaves), serving in-memory process images to remote masters.
+ *
+ * Servers are stopped when the manager is deactivated.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public interface ModbusServerManager {
+
+    /**
+     * Start a server
+     *
+     * @param configuration configuration of the server
+     * @param listener listener for writes of remote masters, or null if writes are only applied to the process image
+     * @return started server
+     * @throws IOException when the server cannot listen on the configured address and port
+     * @throws IllegalArgumentException when configuration is invalid
+     */
+    public ModbusServer startServer(ModbusServerConfiguration configuration, @Nullable ModbusServerListener listener)
+            throws IOException;
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.internal.server.ModbusServerImpl;
+import org.openhab.io.transport.modbus.server.ModbusProcessImage;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration;
+
+/**
+ * Measures the requests per second of many masters reading input registers of a {@link ModbusServerImpl}, while the
+ * registers are updated. This is no unit test, run it with
+ * {@code java -cp <test classpath> org.openhab.io.transport.modbus.test.ModbusServerBenchmark [masters] [requests]}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ModbusServerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int masters = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setAddress(InetAddress.getLoopbackAddress().getHostAddress());
+        configuration.setPort(0);
+        configuration.setMaxConnections(masters);
+        configuration.setInputRegisterCount(200);
+        ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService executor = Executors.newFixedThreadPool(masters);
+        AtomicBoolean updating = new AtomicBoolean(true);
+        try (ModbusServerImpl server = new ModbusServerImpl(configuration, null, callbackExecutor)) {
+            server.start();
+            ModbusProcessImage image = server.getProcessImage();
+
+            // item updates keep changing the registers while the masters read them
+            Thread updater = new Thread(() -> {
+                int value = 0;
+                while (updating.get()) {
+                    value++;
+                    image.setInputRegisters(value % 100 * 2,
+                            new BasicModbusRegisterArray(value & 0xffff, value & 0xffff));
+                }
+            });
+            updater.start();
+
+            List<Future<?>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int m = 0; m < masters; m++) {
+                results.add(executor.submit(() -> {
+                    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+                        socket.setTcpNoDelay(true);
+                        byte[] request = new byte[] { 0, 0, 0, 0, 0, 6, 1, 4, 0, 0, 0, 100 };
+                        DataInputStream in = new DataInputStream(socket.getInputStream());
+                        byte[] response = new byte[9 + 200];
+                        for (int i = 0; i < requests; i++) {
+                            request[0] = (byte) (i >> 8);
+                            request[1] = (byte) i;
+                            socket.getOutputStream().write(request);
+                            in.readFully(response);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.MINUTES);
+            }
+            long ns = System.nanoTime() - start;
+            updating.set(false);
+            updater.join();
+
+            System.out.printf("%d masters served %d requests of 100 input registers: %d requests/s%n", masters,
+                    masters * requests, (long) masters * requests * 1000000000L / Math.max(1, ns));
+        } finally {
+            updating.set(false);
+            executor.shutdownNow();
+            callbackExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteFunctionCode;
+import org.openhab.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.internal.server.ModbusServerImpl;
+import org.openhab.io.transport.modbus.server.ModbusProcessImage;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration;
+import org.openhab.io.transport.modbus.server.ModbusServerConfiguration.Framing;
+
+/**
+ * Tests for {@link ModbusServerImpl}, with masters talking raw Modbus TCP and RTU over TCP
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class ModbusServerTest {
+
+    private static final int REQUESTS_PER_ROUND = 500;
+
+    private final BlockingQueue<ModbusWriteRequestBlueprint> writes = new LinkedBlockingQueue<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    private ExecutorService callbackExecutor;
+    private ModbusServerImpl server;
+    private int transactionId;
+
+    @Before
+    public void setUp() {
+        callbackExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        callbackExecutor.shutdownNow();
+    }
+
+    private ModbusProcessImage startServer(ModbusServerConfiguration configuration) throws IOException {
+        configuration.setAddress(InetAddress.getLoopbackAddress().getHostAddress());
+        configuration.setPort(0);
+        server = new ModbusServerImpl(configuration, writes::add, callbackExecutor);
+        server.start();
+        return server.getProcessImage();
+    }
+
+    private ModbusProcessImage startServer() throws IOException {
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setHoldingRegisterCount(100);
+        configuration.setCoilCount(100);
+        return startServer(configuration);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        socket.setSoTimeout(5000);
+        socket.setTcpNoDelay(true);
+        sockets.add(socket);
+        return socket;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Send a request with MBAP header and return the response PDU
+     */
+    private byte[] transact(Socket socket, int unitId, int... pdu) throws IOException {
+        int id = ++transactionId & 0xffff;
+        socket.getOutputStream().write(tcpFrame(id, unitId, pdu));
+        return readTcpResponse(socket, id, unitId);
+    }
+
+    private static byte[] tcpFrame(int id, int unitId, int... pdu) {
+        byte[] frame = new byte[7 + pdu.length];
+        frame[0] = (byte) (id >> 8);
+        frame[1] = (byte) id;
+        frame[4] = (byte) ((pdu.length + 1) >> 8);
+        frame[5] = (byte) (pdu.length + 1);
+        frame[6] = (byte) unitId;
+        System.arraycopy(bytes(pdu), 0, frame, 7, pdu.length);
+        return frame;
+    }
+
+    private static byte[] readTcpResponse(Socket socket, int id, int unitId) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        assertThat(in.readUnsignedShort(), is(equalTo(id)));
+        assertThat(in.readUnsignedShort(), is(equalTo(0)));
+        int length = in.readUnsignedShort();
+        assertThat(in.readUnsignedByte(), is(equalTo(unitId)));
+        byte[] pdu = new byte[length - 1];
+        in.readFully(pdu);
+        return pdu;
+    }
+
+    private static int crc(byte[] frame, int length) {
+        int crc = 0xffff;
+        for (int i = 0; i < length; i++) {
+            crc ^= frame[i] & 0xff;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+            }
+        }
+        return crc;
+    }
+
+    private static byte[] rtuFrame(int... unitIdAndPdu) {
+        byte[] frame = new byte[unitIdAndPdu.length + 2];
+        System.arraycopy(bytes(unitIdAndPdu), 0, frame, 0, unitIdAndPdu.length);
+        int crc = crc(frame, unitIdAndPdu.length);
+        frame[unitIdAndPdu.length] = (byte) crc;
+        frame[unitIdAndPdu.length + 1] = (byte) (crc >>> 8);
+        return frame;
+    }
+
+    @Test
+    public void testReadAndWriteHoldingRegisters() throws IOException, InterruptedException {
+        ModbusProcessImage image = startServer();
+        image.setHoldingRegisters(10, new BasicModbusRegisterArray(1, 0x1234, 0xffff));
+        Socket socket = connect();
+
+        assertArrayEquals(bytes(3, 6, 0, 1, 0x12, 0x34, 0xff, 0xff), transact(socket, 1, 3, 0, 10, 0, 3));
+
+        assertArrayEquals(bytes(16, 0, 20, 0, 2),
+                transact(socket, 1, 16, 0, 20, 0, 2, 4, 0x00, 0x07, 0x80, 0x08));
+        ModbusRegisterArray registers = image.getHoldingRegisters(20, 2);
+        assertThat(registers.getRegister(0).toUnsignedShort(), is(equalTo(7)));
+        assertThat(registers.getRegister(1).toUnsignedShort(), is(equalTo(0x8008)));
+
+        ModbusWriteRegisterRequestBlueprint write = (ModbusWriteRegisterRequestBlueprint) writes.poll(5,
+                TimeUnit.SECONDS);
+        assertThat(write.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_MULTIPLE_REGISTERS)));
+        assertThat(write.getUnitID(), is(equalTo(1)));
+        assertThat(write.getReference(), is(equalTo(20)));
+        assertThat(write.getRegisters().size(), is(equalTo(2)));
+        assertThat(write.getRegisters().getRegister(1).toUnsignedShort(), is(equalTo(0x8008)));
+
+        assertArrayEquals(bytes(6, 0, 11, 0xab, 0xcd), transact(socket, 1, 6, 0, 11, 0xab, 0xcd));
+        assertThat(image.getHoldingRegisters(11, 1).getRegister(0).toUnsignedShort(), is(equalTo(0xabcd)));
+        write = (ModbusWriteRegisterRequestBlueprint) writes.poll(5, TimeUnit.SECONDS);
+        assertThat(write.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_SINGLE_REGISTER)));
+        assertThat(write.getReference(), is(equalTo(11)));
+    }
+
+    @Test
+    public void testReadInputRegistersFromState() throws IOException {
+        ModbusProcessImage image = startServer();
+        image.setInputRegisters(0, new DecimalType(1.5), ValueType.FLOAT32);
+        Socket socket = connect();
+
+        assertArrayEquals(bytes(4, 4, 0x3f, 0xc0, 0, 0), transact(socket, 1, 4, 0, 0, 0, 2));
+    }
+
+    @Test
+    public void testReadAndWriteCoils() throws IOException, InterruptedException {
+        ModbusProcessImage image = startServer();
+        image.setCoil(0, true);
+        image.setCoil(9, true);
+        image.setDiscreteInput(1, true);
+        Socket socket = connect();
+
+        assertArrayEquals(bytes(1, 2, 0x01, 0x02), transact(socket, 1, 1, 0, 0, 0, 10));
+        assertArrayEquals(bytes(2, 1, 0x02), transact(socket, 1, 2, 0, 0, 0, 3));
+
+        assertArrayEquals(bytes(5, 0, 3, 0xff, 0), transact(socket, 1, 5, 0, 3, 0xff, 0));
+        assertTrue(image.getCoil(3));
+        ModbusWriteCoilRequestBlueprint write = (ModbusWriteCoilRequestBlueprint) writes.poll(5, TimeUnit.SECONDS);
+        assertThat(write.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_COIL)));
+        assertThat(write.getReference(), is(equalTo(3)));
+        assertTrue(write.getCoils().getBit(0));
+
+        assertArrayEquals(bytes(15, 0, 20, 0, 10), transact(socket, 1, 15, 0, 20, 0, 10, 2, 0x05, 0x02));
+        for (int i = 0; i < 10; i++) {
+            assertThat("coil " + (20 + i), image.getCoil(20 + i), is(equalTo(i == 0 || i == 2 || i == 9)));
+        }
+        write = (ModbusWriteCoilRequestBlueprint) writes.poll(5, TimeUnit.SECONDS);
+        assertThat(write.getFunctionCode(), is(equalTo(ModbusWriteFunctionCode.WRITE_MULTIPLE_COILS)));
+        assertThat(write.getCoils().size(), is(equalTo(10)));
+        assertTrue(write.getCoils().getBit(9));
+        assertFalse(write.getCoils().getBit(8));
+    }
+
+    @Test
+    public void testExceptionResponses() throws IOException {
+        startServer();
+        Socket socket = connect();
+
+        // unsupported function
+        assertArrayEquals(bytes(0x87, 1), transact(socket, 1, 7));
+        // out of bounds
+        assertArrayEquals(bytes(0x83, 2), transact(socket, 1, 3, 0, 99, 0, 2));
+        // too many registers
+        assertArrayEquals(bytes(0x83, 3), transact(socket, 1, 3, 0, 0, 0, 126));
+        // invalid coil value
+        assertArrayEquals(bytes(0x85, 3), transact(socket, 1, 5, 0, 0, 0x12, 0x34));
+        // byte count does not match
+        assertArrayEquals(bytes(0x90, 3), transact(socket, 1, 16, 0, 0, 0, 1, 4, 0, 1));
+        // the connection is still usable
+        assertArrayEquals(bytes(3, 2, 0, 0), transact(socket, 1, 3, 0, 0, 0, 1));
+        assertThat(writes.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testUnitId() throws IOException {
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setUnitId(5);
+        startServer(configuration);
+        Socket socket = connect();
+
+        assertArrayEquals(bytes(3, 2, 0, 0), transact(socket, 5, 3, 0, 0, 0, 1));
+        assertArrayEquals(bytes(0x83, 0x0B), transact(socket, 6, 3, 0, 0, 0, 1));
+    }
+
+    @Test
+    public void testRtuOverTcp() throws IOException, InterruptedException {
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setFraming(Framing.RTU_OVER_TCP);
+        configuration.setUnitId(3);
+        ModbusProcessImage image = startServer(configuration);
+        image.setHoldingRegisters(1, new BasicModbusRegisterArray(0x0102));
+        Socket socket = connect();
+        OutputStream out = socket.getOutputStream();
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+
+        byte[] corrupted = rtuFrame(3, 3, 0, 1, 0, 1);
+        corrupted[corrupted.length - 1]++;
+        out.write(corrupted);
+        // other unit, broadcast write and read are answered in order
+        out.write(rtuFrame(4, 3, 0, 1, 0, 1));
+        out.write(rtuFrame(0, 6, 0, 2, 0, 9));
+        out.write(rtuFrame(3, 3, 0, 1, 0, 2));
+
+        byte[] response = new byte[9];
+        in.readFully(response);
+        assertArrayEquals(rtuFrame(3, 3, 4, 1, 2, 0, 9), response);
+        ModbusWriteRegisterRequestBlueprint write = (ModbusWriteRegisterRequestBlueprint) writes.poll(5,
+                TimeUnit.SECONDS);
+        assertThat(write.getUnitID(), is(equalTo(0)));
+        assertThat(write.getReference(), is(equalTo(2)));
+
+        out.write(rtuFrame(3, 16, 0, 5, 0, 1, 2, 0xa, 0xb));
+        response = new byte[8];
+        in.readFully(response);
+        assertArrayEquals(rtuFrame(3, 16, 0, 5, 0, 1), response);
+        assertThat(image.getHoldingRegisters(5, 1).getRegister(0).toUnsignedShort(), is(equalTo(0x0a0b)));
+    }
+
+    @Test
+    public void testMaxConnections() throws IOException, InterruptedException {
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setMaxConnections(2);
+        startServer(configuration);
+        Socket first = connect();
+        Socket second = connect();
+        transact(first, 1, 3, 0, 0, 0, 1);
+        transact(second, 1, 3, 0, 0, 0, 1);
+        assertThat(server.getConnectionCount(), is(equalTo(2)));
+
+        Socket third = connect();
+        assertThat(third.getInputStream().read(), is(equalTo(-1)));
+
+        first.close();
+        for (int i = 0; i < 100 && server.getConnectionCount() > 1; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(server.getConnectionCount(), is(equalTo(1)));
+        transact(connect(), 1, 3, 0, 0, 0, 1);
+    }
+
+    @Test
+    public void testPipelinedRequestsExceedingTheOutputBuffer() throws IOException {
+        int requests = 100;
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setHoldingRegisterCount(125);
+        ModbusProcessImage image = startServer(configuration);
+        image.setHoldingRegisters(124, new BasicModbusRegisterArray(0xabcd));
+        Socket socket = connect();
+
+        // the responses of 125 registers take about 26 kB, more than the output buffer of the connection
+        byte[] pipelined = new byte[requests * 12];
+        for (int i = 0; i < requests; i++) {
+            System.arraycopy(bytes(i >> 8, i, 0, 0, 0, 6, 1, 3, 0, 0, 0, 125), 0, pipelined, i * 12, 12);
+        }
+        socket.getOutputStream().write(pipelined);
+
+        for (int i = 0; i < requests; i++) {
+            byte[] pdu = readTcpResponse(socket, i, 1);
+            assertThat(pdu.length, is(equalTo(2 + 250)));
+            assertThat(pdu[1] & 0xff, is(equalTo(250)));
+            assertThat(pdu[250] & 0xff, is(equalTo(0xab)));
+            assertThat(pdu[251] & 0xff, is(equalTo(0xcd)));
+        }
+    }
+
+    @Test
+    public void testPipelinedRequestsWhileTheMasterDoesNotRead() throws IOException, InterruptedException {
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setHoldingRegisterCount(125);
+        ModbusProcessImage image = startServer(configuration);
+        image.setHoldingRegisters(124, new BasicModbusRegisterArray(0xabcd));
+        Socket socket = connect();
+
+        // the socket buffers do not always fill up at the same response, so this is tried several times
+        for (int attempt = 0; attempt < 5; attempt++) {
+            // send rounds of requests until a round is not answered completely, because the master does not read
+            // and the socket buffers are full
+            int rounds = 0;
+            do {
+                sendRound(socket, rounds++);
+            } while (writes.poll(500, TimeUnit.MILLISECONDS) != null);
+            // one more round is read while the output of the connection waits, it fills the output completely
+            sendRound(socket, rounds++);
+            Thread.sleep(100);
+
+            // all responses are sent once the master reads again, the server does not wait for more requests
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+                    byte[] pdu = readTcpResponse(socket, (round * (REQUESTS_PER_ROUND + 1) + i) & 0xffff, 1);
+                    assertThat(pdu.length, is(equalTo(2 + 250)));
+                    assertThat(pdu[251] & 0xff, is(equalTo(0xcd)));
+                }
+                assertArrayEquals(bytes(6, 0, 0, 0, round), readTcpResponse(socket,
+                        (round * (REQUESTS_PER_ROUND + 1) + REQUESTS_PER_ROUND) & 0xffff, 1));
+            }
+            assertThat(writes.poll(5, TimeUnit.SECONDS), is(notNullValue()));
+            assertThat(writes.poll(5, TimeUnit.SECONDS), is(notNullValue()));
+        }
+    }
+
+    /**
+     * Send reads of 125 registers, followed by a write of the round number to notice when the round was answered
+     */
+    private static void sendRound(Socket socket, int round) throws IOException {
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        int id = round * (REQUESTS_PER_ROUND + 1);
+        for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+            requests.write(tcpFrame(id++, 1, 3, 0, 0, 0, 125));
+        }
+        requests.write(tcpFrame(id, 1, 6, 0, 0, 0, round));
+        socket.getOutputStream().write(requests.toByteArray());
+    }
+
+    @Test
+    public void testConcurrentUpdatesAreNotTorn() throws Exception {
+        int masters = 4;
+        int requests = 200;
+        ModbusServerConfiguration configuration = new ModbusServerConfiguration();
+        configuration.setMaxConnections(masters);
+        ModbusProcessImage image = startServer(configuration);
+
+        // item updates keep changing two-register values while the masters read them
+        AtomicBoolean updating = new AtomicBoolean(true);
+        Thread updater = new Thread(() -> {
+            int value = 0;
+            while (updating.get()) {
+                value++;
+                image.setInputRegisters(value % 100 * 2, new BasicModbusRegisterArray(value & 0xffff, value & 0xffff));
+            }
+        });
+        updater.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(masters);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int m = 0; m < masters; m++) {
+                Socket socket = connect();
+                results.add(executor.submit(() -> {
+                    byte[] request = bytes(0, 0, 0, 0, 0, 6, 1, 4, 0, 0, 0, 100);
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    byte[] response = new byte[9 + 200];
+                    for (int i = 0; i < requests; i++) {
+                        socket.getOutputStream().write(request);
+                        in.readFully(response);
+                        assertThat(response[8] & 0xff, is(equalTo(200)));
+                        for (int r = 9; r < response.length; r += 4) {
+                            assertThat("torn value", response[r + 2], is(equalTo(response[r])));
+                            assertThat("torn value", response[r + 3], is(equalTo(response[r + 1])));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            updating.set(false);
+            updater.join();
+            executor.shutdownNow();
+        }
+    }
+}
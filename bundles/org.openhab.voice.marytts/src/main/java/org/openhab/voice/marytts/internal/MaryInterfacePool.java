@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import marytts.LocalMaryInterface;
+import marytts.MaryInterface;
+import marytts.exceptions.MaryConfigurationException;
+
+/**
+ * Pool of {@link MaryInterface}s. A {@link MaryInterface} keeps the selected locale and voice, so it can only be used
+ * by one synthesis at a time. The interfaces share the voices of the MaryTTS runtime, so creating more interfaces only
+ * costs the memory of the syntheses which run in parallel.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+class MaryInterfacePool {
+
+    private final LinkedBlockingQueue<MaryInterface> idle = new LinkedBlockingQueue<>();
+    private int size;
+    private int created;
+
+    /**
+     * Creates the pool, the interfaces are created when they are needed.
+     *
+     * @param size maximum number of interfaces
+     */
+    MaryInterfacePool(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Changes the maximum number of interfaces, surplus interfaces are dropped when they are idle.
+     */
+    synchronized void setSize(int size) {
+        this.size = size;
+        while (created > size && idle.poll() != null) {
+            created--;
+        }
+    }
+
+    /**
+     * Returns an idle interface, creates a new one if the size allows it or waits for an interface to be released.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return the interface or null if no interface was released in time
+     * @throws MaryConfigurationException if a new interface could not be created
+     * @throws InterruptedException if interrupted while waiting
+     */
+    MaryInterface acquire(long timeout) throws MaryConfigurationException, InterruptedException {
+        MaryInterface maryInterface = idle.poll();
+        if (maryInterface != null) {
+            return maryInterface;
+        }
+        synchronized (this) {
+            if (created < size) {
+                created++;
+                try {
+                    return new LocalMaryInterface();
+                } catch (MaryConfigurationException e) {
+                    created--;
+                    throw e;
+                }
+            }
+        }
+        return idle.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns an interface to the pool.
+     */
+    synchronized void release(MaryInterface maryInterface) {
+        if (created > size) {
+            // the pool was reduced
+            created--;
+        } else {
+            idle.add(maryInterface);
+        }
+    }
+}
@@ -15,11 +15,11 @@ package org.openhab.voice.marytts.internal;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
-import javax.sound.sampled.AudioInputStream;
-
-import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioSource;
@@ -27,36 +27,51 @@ import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
 
 /**
  * Implementation of the {@link AudioSource} interface for the {@link MaryTTSService}
+ * <p>
+ * The audio is appended sentence by sentence while it is synthesized, a reader gets the first sentence while the
+ * rest is still rendered. If the first byte is read before the synthesis is complete, the WAV header does not contain
+ * the length of the audio. {@link #length()} and {@link #getClonedStream()} wait until the synthesis is complete.
  *
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
+ * @author Contributors to the openHAB project - Stream the audio while it is synthesized
  */
 class MaryTTSAudioStream extends FixedLengthAudioStream {
 
+    private static final int HEADER_LENGTH = 44;
+
     /**
-     * {@link AudioFormat} of this {@link AudioSource}
+     * Length of the data chunk in the header if the audio is read while it is synthesized
      */
-    private final AudioFormat audioFormat;
+    private static final long UNKNOWN_DATA_LENGTH = Integer.MAX_VALUE - 36;
 
     /**
-     * {@link InputStream} of this {@link AudioSource}
+     * Time after which a reader stops waiting if the synthesis made no progress. It is longer than the time the
+     * synthesis waits for a MaryTTS interface.
      */
-    private InputStream inputStream;
+    static final long PROGRESS_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
 
-    private final byte[] rawAudio;
-    private final int length;
+    /**
+     * {@link AudioFormat} of this {@link AudioSource}
+     */
+    private final AudioFormat audioFormat;
+
+    private byte[] rawAudio = new byte[64 * 1024];
+    private int rawLength;
+    private boolean complete;
+    private boolean closed;
+    private IOException failure;
+    private long lastProgress = System.nanoTime();
+
+    private byte[] header;
+    private long position;
 
     /**
-     * Constructs an instance with the passed properties
+     * Constructs an instance with the passed properties, the audio is added with {@link #append(byte[])}.
      *
-     * @param inputStream The InputStream of this instance
      * @param audioFormat The AudioFormat of this instance
-     * @throws IOException
      */
-    public MaryTTSAudioStream(AudioInputStream inputStream, AudioFormat audioFormat) throws IOException {
-        rawAudio = IOUtils.toByteArray(inputStream);
-        this.length = rawAudio.length + 36;
-        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
+    public MaryTTSAudioStream(AudioFormat audioFormat) {
         this.audioFormat = audioFormat;
     }
 
@@ -65,36 +80,202 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         return this.audioFormat;
     }
 
+    /**
+     * Appends synthesized raw audio.
+     */
+    synchronized void append(byte[] audio) {
+        if (rawLength + audio.length > rawAudio.length) {
+            rawAudio = Arrays.copyOf(rawAudio, Math.max(rawAudio.length * 2, rawLength + audio.length));
+        }
+        System.arraycopy(audio, 0, rawAudio, rawLength, audio.length);
+        rawLength += audio.length;
+        lastProgress = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Marks the synthesis as complete.
+     */
+    synchronized void complete() {
+        complete = true;
+        notifyAll();
+    }
+
+    /**
+     * Marks the synthesis as failed, the reader gets the exception after the already synthesized audio. A complete
+     * synthesis can not fail anymore.
+     */
+    synchronized void fail(IOException e) {
+        if (!complete && failure == null) {
+            failure = e;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns true if the synthesis is complete or failed.
+     */
+    synchronized boolean isDone() {
+        return complete || failure != null;
+    }
+
+    /**
+     * Returns true if the stream was closed, the rest of the text does not need to be synthesized.
+     */
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns true if the first audio is available or the synthesis failed.
+     */
+    synchronized boolean isStarted() {
+        return rawLength > 0 || complete || failure != null;
+    }
+
+    /**
+     * Waits until the first audio is available.
+     *
+     * @throws IOException if the synthesis failed before
+     */
+    synchronized void awaitStart() throws IOException {
+        while (!isStarted()) {
+            await();
+        }
+        if (rawLength == 0 && failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the WAV header and the complete audio.
+     */
+    synchronized byte[] getAudio() throws IOException {
+        awaitComplete();
+        byte[] audio = Arrays.copyOf(getWavHeader(rawLength), HEADER_LENGTH + rawLength);
+        System.arraycopy(rawAudio, 0, audio, HEADER_LENGTH, rawLength);
+        return audio;
+    }
+
     @Override
     public int read(byte[] b) throws IOException {
-        return inputStream.read(b, 0, b.length);
+        return read(b, 0, b.length);
     }
 
     @Override
-    public int read(byte[] b, int off, int len) throws IOException {
-        return inputStream.read(b, off, len);
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (header == null) {
+            // the header of an incomplete synthesis does not contain the length
+            header = getWavHeader(complete ? rawLength : UNKNOWN_DATA_LENGTH);
+        }
+        if (position < HEADER_LENGTH) {
+            int count = Math.min(len, HEADER_LENGTH - (int) position);
+            System.arraycopy(header, (int) position, b, off, count);
+            position += count;
+            return count;
+        }
+        int index = (int) (position - HEADER_LENGTH);
+        while (index >= rawLength && !complete) {
+            if (failure != null) {
+                throw failure;
+            }
+            await();
+        }
+        if (index >= rawLength) {
+            return -1;
+        }
+        int count = Math.min(len, rawLength - index);
+        System.arraycopy(rawAudio, index, b, off, count);
+        position += count;
+        return count;
     }
 
     @Override
     public int read() throws IOException {
-        return inputStream.read();
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        notifyAll();
     }
 
     @Override
     public long length() {
-        return length;
+        synchronized (this) {
+            try {
+                awaitComplete();
+            } catch (IOException e) {
+                // the length of the synthesized audio
+            }
+            return HEADER_LENGTH + rawLength;
+        }
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        position = 0;
     }
 
-    private InputStream getWavHeaderInputStream(int length) throws IOException {
+    @Override
+    public InputStream getClonedStream() throws AudioException {
+        synchronized (this) {
+            try {
+                awaitComplete();
+                if (failure != null) {
+                    throw failure;
+                }
+                return new SequenceInputStream(new ByteArrayInputStream(getWavHeader(rawLength)),
+                        new ByteArrayInputStream(rawAudio, 0, rawLength));
+            } catch (IOException e) {
+                throw new AudioException(e);
+            }
+        }
+    }
+
+    private void awaitComplete() throws IOException {
+        while (!complete && failure == null) {
+            await();
+        }
+    }
+
+    /**
+     * Waits for more audio or the end of the synthesis.
+     *
+     * @throws IOException if the stream was closed or the synthesis made no progress for
+     *             {@link #PROGRESS_TIMEOUT_MILLIS}
+     */
+    private void await() throws IOException {
+        if (closed) {
+            throw new IOException("The audio stream was closed");
+        }
+        long remaining = PROGRESS_TIMEOUT_MILLIS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastProgress);
+        if (remaining <= 0) {
+            throw new IOException("The synthesis made no progress for " + PROGRESS_TIMEOUT_MILLIS + " ms");
+        }
+        try {
+            wait(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the synthesis");
+        }
+    }
+
+    private byte[] getWavHeader(long rawLength) {
         // WAVE header
         // see http://www-mmsp.ece.mcgill.ca/Documents/AudioFormats/WAVE/WAVE.html
-        byte[] header = new byte[44];
+        byte[] header = new byte[HEADER_LENGTH];
 
         byte format = 0x10; // PCM
         byte bits = 16;
         byte channel = 1;
         long srate = (this.audioFormat != null) ? this.audioFormat.getFrequency() : 48000l;
-        long rawLength = length - 36;
+        long length = rawLength + 36;
         long bitrate = srate * channel * bits;
 
         header[0] = 'R';
@@ -122,8 +303,8 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         header[22] = channel;
         header[23] = 0;
         header[24] = (byte) (srate & 0xff);
-        header[25] = (byte) ((srate >> 8) & 0xff); 
-        header[26] = (byte) ((srate >> 16) & 0xff); 
+        header[25] = (byte) ((srate >> 8) & 0xff);
+        header[26] = (byte) ((srate >> 16) & 0xff);
         header[27] = (byte) ((srate >> 24) & 0xff);
         header[28] = (byte) ((bitrate / 8) & 0xff);
         header[29] = (byte) (((bitrate / 8) >> 8) & 0xff);
@@ -141,21 +322,6 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         header[41] = (byte) ((rawLength >> 8) & 0xff);
         header[42] = (byte) ((rawLength >> 16) & 0xff);
         header[43] = (byte) ((rawLength >> 24) & 0xff);
-        return new ByteArrayInputStream(header);
-    }
-
-    @Override
-    public synchronized void reset() throws IOException {
-        IOUtils.closeQuietly(inputStream);
-        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
-    }
-
-    @Override
-    public InputStream getClonedStream() throws AudioException {
-        try {
-            return new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
-        } catch (IOException e) {
-            throw new AudioException(e);
-        }
+        return header;
     }
 }
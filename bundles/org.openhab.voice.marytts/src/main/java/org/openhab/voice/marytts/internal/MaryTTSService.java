@@ -15,15 +15,34 @@ package org.openhab.voice.marytts.internal;
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import javax.sound.sampled.AudioInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,14 +57,47 @@ import marytts.modules.synthesis.Voice;
  *
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
+ * @author Contributors to the openHAB project - Use the shared TTS cache
+ * @author Contributors to the openHAB project - Pool of MaryTTS interfaces and streaming of sentences
  */
-@Component
+@Component(configurationPid = MaryTTSService.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + MaryTTSService.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Mary Text-to-Speech",
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:marytts",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class MaryTTSService implements TTSService {
 
+    static final String SERVICE_PID = "org.openhab.voice.marytts";
+
+    private static final String CONFIG_POOL_SIZE = "poolSize";
+    private static final int DEFAULT_POOL_SIZE = 2;
+
+    /**
+     * Maximum time to wait for an idle MaryTTS interface
+     */
+    private static final long ACQUIRE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
+    private final ExecutorService executor = ThreadPoolManager.getPool("marytts");
+
+    /**
+     * Interface for the available voices and formats
+     */
     private MaryInterface marytts;
 
+    /**
+     * Interfaces for the syntheses, which run in parallel
+     */
+    private MaryInterfacePool pool;
+
+    /**
+     * Time to first byte by voice label
+     */
+    private final Map<String, TimingStatistics> timeToFirstByte = new HashMap<>();
+
+    private TTSCache ttsCache;
+
     /**
      * Set of supported voices
      */
@@ -56,7 +108,18 @@ public class MaryTTSService implements TTSService {
      */
     private Set<AudioFormat> audioFormats;
 
-    protected void activate() {
+    /**
+     * Count, total and maximum of the measured times
+     */
+    private static class TimingStatistics {
+        long count;
+        long totalMillis;
+        long maxMillis;
+    }
+
+    @Activate
+    protected void activate(Map<String, Object> config) {
+        pool = new MaryInterfacePool(getPoolSize(config));
         try {
             marytts = new LocalMaryInterface();
             voices = initVoices();
@@ -66,6 +129,30 @@ public class MaryTTSService implements TTSService {
         }
     }
 
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        pool.setSize(getPoolSize(config));
+    }
+
+    private int getPoolSize(Map<String, Object> config) {
+        Object poolSize = config != null ? config.get(CONFIG_POOL_SIZE) : null;
+        try {
+            return poolSize != null ? Math.max(1, (int) Double.parseDouble(poolSize.toString())) : DEFAULT_POOL_SIZE;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid MaryTTS pool size '{}', using {}", poolSize, DEFAULT_POOL_SIZE);
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<org.eclipse.smarthome.core.voice.Voice> getAvailableVoices() {
         return voices;
@@ -114,18 +201,99 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
+        AudioStream cachedAudio = ttsCache.get(getId(), voice.getUID(), maryTTSVoiceAudioFormat, text);
+        if (cachedAudio != null) {
+            return cachedAudio;
+        }
+
+        // the first sentence is returned while the rest is synthesized
+        long start = System.nanoTime();
+        MaryTTSAudioStream audioStream = new MaryTTSAudioStream(maryTTSVoiceAudioFormat);
+        try {
+            executor.execute(() -> render(audioStream, text, voice, maryTTSVoiceAudioFormat));
+            audioStream.awaitStart();
+        } catch (IOException | RejectedExecutionException e) {
+            IOUtils.closeQuietly(audioStream);
+            throw new TTSException("Error generating an AudioStream", e);
+        }
+        updateTimeToFirstByte(voice.getLabel(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return audioStream;
+    }
+
+    /**
+     * Synthesizes the text sentence by sentence into the audio stream and puts the complete audio into the cache.
+     */
+    private void render(MaryTTSAudioStream audioStream, String text, org.eclipse.smarthome.core.voice.Voice voice,
+            AudioFormat audioFormat) {
+        MaryInterface maryInterface = null;
+        try {
+            maryInterface = pool.acquire(ACQUIRE_TIMEOUT_MILLIS);
+            if (maryInterface == null) {
+                throw new IOException("All MaryTTS interfaces are busy");
+            }
             // Set voice (Each voice supports only a single AudioFormat)
-            marytts.setLocale(voice.getLocale());
-            marytts.setVoice(voice.getLabel());
+            maryInterface.setLocale(voice.getLocale());
+            maryInterface.setVoice(voice.getLabel());
+
+            for (String sentence : getSentences(text, voice.getLocale())) {
+                if (audioStream.isClosed()) {
+                    logger.debug("Synthesis of '{}' stopped, the audio stream was closed", text);
+                    return;
+                }
+                try (AudioInputStream audio = maryInterface.generateAudio(sentence)) {
+                    audioStream.append(IOUtils.toByteArray(audio));
+                }
+            }
+            audioStream.complete();
+            ttsCache.put(getId(), voice.getUID(), audioFormat, text, audioStream.getAudio());
+        } catch (SynthesisException | MaryConfigurationException e) {
+            audioStream.fail(new IOException(e.getMessage(), e));
+        } catch (IOException e) {
+            audioStream.fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            audioStream.fail(new InterruptedIOException("Interrupted while waiting for a MaryTTS interface"));
+        } catch (RuntimeException e) {
+            logger.warn("Synthesis of '{}' failed: {}", text, e.getMessage(), e);
+            audioStream.fail(new IOException(e.getMessage(), e));
+        } finally {
+            if (maryInterface != null) {
+                pool.release(maryInterface);
+            }
+            if (!audioStream.isDone()) {
+                // the stream was closed by the reader, or an error escaped
+                audioStream.fail(new IOException("The synthesis was stopped"));
+            }
+        }
+    }
 
-            try {
-                return new MaryTTSAudioStream(marytts.generateAudio(text), maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
+    /**
+     * Splits the text into sentences, which are synthesized one after the other.
+     */
+    private List<String> getSentences(String text, Locale locale) {
+        List<String> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(locale);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end).trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
             }
         }
+        return sentences;
+    }
+
+    private void updateTimeToFirstByte(String voiceLabel, long millis) {
+        synchronized (timeToFirstByte) {
+            TimingStatistics statistics = timeToFirstByte.computeIfAbsent(voiceLabel, v -> new TimingStatistics());
+            statistics.count++;
+            statistics.totalMillis += millis;
+            statistics.maxMillis = Math.max(statistics.maxMillis, millis);
+            logger.debug("Time to first byte of voice {}: {} ms (average {} ms, maximum {} ms of {} syntheses)",
+                    voiceLabel, millis, statistics.totalMillis / statistics.count, statistics.maxMillis,
+                    statistics.count);
+        }
     }
 
     /**
@@ -28,6 +28,7 @@ import org.eclipse.smarthome.core.voice.Voice;
  * Implementation of {@link AudioStream} for {@link PicoTTSService}
  *
  * @author Florian Schmidt - Initial Contribution
+ * @author Contributors to the openHAB project - Delete the temporary file on close
  */
 class PicoTTSAudioStream extends FixedLengthAudioStream {
     private final Voice voice;
@@ -112,6 +113,19 @@ class PicoTTSAudioStream extends FixedLengthAudioStream {
         return inputStream.read();
     }
 
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
     @Override
     public long length() {
         return length;
@@ -16,28 +16,30 @@ import static java.util.stream.Collectors.toSet;
 import static org.eclipse.smarthome.core.audio.AudioFormat.*;
 import static org.openhab.voice.pollytts.internal.PollyTTSService.*;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
-import org.openhab.voice.pollytts.internal.cloudapi.CachedPollyTTSCloudImpl;
+import org.openhab.voice.pollytts.internal.cloudapi.PollyTTSCloudImpl;
 import org.openhab.voice.pollytts.internal.cloudapi.PollyTTSConfig;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +47,7 @@ import org.slf4j.LoggerFactory;
  * This is a TTS service implementation for using Polly Text-to-Speech.
  *
  * @author Robert Hillman - Initial contribution
+ * @author Contributors to the openHAB project - Use the shared TTS cache
  */
 @Component(configurationPid = SERVICE_PID, property = { Constants.SERVICE_PID + "=" + SERVICE_PID,
         ConfigurableService.SERVICE_PROPERTY_LABEL + "=" + SERVICE_NAME + " Text-to-Speech",
@@ -72,17 +75,11 @@ public class PollyTTSService implements TTSService {
      */
     static final String SERVICE_PID = "org.openhab." + SERVICE_CATEGORY + "." + SERVICE_ID;
 
-    /**
-     * Cache folder under $userdata
-     */
-    private static final String CACHE_FOLDER_NAME = "cache";
-
     private final Logger logger = LoggerFactory.getLogger(PollyTTSService.class);
 
-    /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
-     */
-    private CachedPollyTTSCloudImpl pollyTTSImpl;
+    private PollyTTSCloudImpl pollyTTSImpl;
+
+    private TTSCache ttsCache;
 
     /**
      * Set of supported voices
@@ -107,14 +104,7 @@ public class PollyTTSService implements TTSService {
             pollyTTSConfig = new PollyTTSConfig(config);
             logger.debug("Using configuration {}", config);
 
-            // create cache folder
-            File cacheFolder = new File(new File(ConfigConstants.getUserDataFolder(), CACHE_FOLDER_NAME), SERVICE_PID);
-            if (!cacheFolder.exists()) {
-                cacheFolder.mkdirs();
-            }
-            logger.info("Using cache folder {}", cacheFolder.getAbsolutePath());
-
-            pollyTTSImpl = new CachedPollyTTSCloudImpl(pollyTTSConfig, cacheFolder);
+            pollyTTSImpl = new PollyTTSCloudImpl(pollyTTSConfig);
 
             audioFormats.clear();
             audioFormats.addAll(initAudioFormats());
@@ -130,6 +120,15 @@ public class PollyTTSService implements TTSService {
         }
     }
 
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return Collections.unmodifiableSet(voices);
@@ -165,21 +164,32 @@ public class PollyTTSService implements TTSService {
             throw new TTSException("The passed AudioFormat is unsupported");
         }
 
-        // now create the input stream for given text, locale, format. There is
-        // only a default voice
-        try {
-            File cacheAudioFile = pollyTTSImpl.getTextToSpeechAsFile(text, voice.getLabel(),
-                    getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from PollyTTS service");
+        purgeAgedAudio();
+
+        // the audio format may be overridden by the configuration
+        String apiAudioFormat = getApiAudioFormat(requestedFormat);
+        return ttsCache.get(getId(), voice.getUID() + ":" + apiAudioFormat, requestedFormat, text, () -> {
+            try (InputStream audio = pollyTTSImpl.getTextToSpeech(text, voice.getLabel(), apiAudioFormat)) {
+                logger.debug("Audio Stream for '{}' in format {}", text, requestedFormat);
+                return IOUtils.toByteArray(audio);
+            } catch (IOException ex) {
+                throw new TTSException("Could not read from PollyTTS service: " + ex.getMessage(), ex);
             }
-            logger.debug("Audio Stream for '{}' in format {}", text, requestedFormat);
-            AudioStream audioStream = new PollyTTSAudioStream(cacheAudioFile, requestedFormat);
-            return audioStream;
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
-        } catch (IOException ex) {
-            throw new TTSException("Could not read from PollyTTS service: " + ex.getMessage(), ex);
+        });
+    }
+
+    /**
+     * Removes the cached audio which was not used for the configured expiration time, at most once every 2 days.
+     */
+    private void purgeAgedAudio() {
+        // just exit if expiration set to 0/disabled
+        if (pollyTTSConfig.getExpireDate() == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - pollyTTSConfig.getLastDelete() > TimeUnit.DAYS.toMillis(2)) {
+            pollyTTSConfig.setLastDelete(now);
+            ttsCache.purgeUnused(getId(), TimeUnit.DAYS.toMillis(pollyTTSConfig.getExpireDate()));
         }
     }
 
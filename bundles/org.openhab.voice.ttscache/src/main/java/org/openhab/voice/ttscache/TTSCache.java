@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+
+/**
+ * The {@link TTSCache} keeps the synthesized audio of the text-to-speech services, so that a repeated announcement
+ * is not synthesized again.
+ * <p>
+ * The audio is identified by the service, the voice, the audio format and the text. Recently used audio is kept in
+ * memory, all audio is stored on disk up to a configured total size, the least recently used audio is removed first.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@NonNullByDefault
+public interface TTSCache {
+
+    /**
+     * Synthesizes the audio of a text if it is not in the cache.
+     */
+    @FunctionalInterface
+    interface AudioSynthesizer {
+
+        /**
+         * Synthesizes the audio.
+         *
+         * @return the complete audio data in the requested format
+         * @throws TTSException if the audio could not be synthesized
+         */
+        byte[] synthesize() throws TTSException;
+    }
+
+    /**
+     * Returns the cached audio of a text, or synthesizes and caches it.
+     *
+     * @param serviceId the id of the text-to-speech service
+     * @param voiceId identifies the voice and all settings of the service which change the audio
+     * @param format the format of the audio
+     * @param text the text
+     * @param synthesizer synthesizes the audio if it is not in the cache
+     * @return the audio stream
+     * @throws TTSException if the audio is not in the cache and could not be synthesized
+     */
+    AudioStream get(String serviceId, String voiceId, AudioFormat format, String text, AudioSynthesizer synthesizer)
+            throws TTSException;
+
+    /**
+     * Returns the cached audio of a text. This is used by services which stream the audio while it is synthesized and
+     * {@link #put} it when it is complete.
+     *
+     * @param serviceId the id of the text-to-speech service
+     * @param voiceId identifies the voice and all settings of the service which change the audio
+     * @param format the format of the audio
+     * @param text the text
+     * @return the audio stream or null if the audio is not in the cache
+     */
+    @Nullable
+    AudioStream get(String serviceId, String voiceId, AudioFormat format, String text);
+
+    /**
+     * Adds the complete audio of a text to the cache.
+     *
+     * @param serviceId the id of the text-to-speech service
+     * @param voiceId identifies the voice and all settings of the service which change the audio
+     * @param format the format of the audio
+     * @param text the text
+     * @param audio the complete audio data
+     */
+    void put(String serviceId, String voiceId, AudioFormat format, String text, byte[] audio);
+
+    /**
+     * Removes all audio of a service.
+     *
+     * @param serviceId the id of the text-to-speech service
+     */
+    void purge(String serviceId);
+
+    /**
+     * Removes the audio of a service, which was not used for the given time.
+     *
+     * @param serviceId the id of the text-to-speech service
+     * @param maxAgeMillis the time in milliseconds since the last use of the removed audio
+     */
+    void purgeUnused(String serviceId, long maxAgeMillis);
+
+    /**
+     * Returns the number of requests which were answered from memory.
+     */
+    long getMemoryHits();
+
+    /**
+     * Returns the number of requests which were answered from disk.
+     */
+    long getDiskHits();
+
+    /**
+     * Returns the number of requests which required a synthesis.
+     */
+    long getMisses();
+}
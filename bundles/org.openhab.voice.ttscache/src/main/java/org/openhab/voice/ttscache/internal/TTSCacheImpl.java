@@ -0,0 +1,557 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.ConfigurableService;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * The {@link TTSCacheImpl} keeps the audio in two tiers:
+ * <ul>
+ * <li>the recently used audio in memory, limited by the total size of the audio</li>
+ * <li>all audio in files of the cache folder, limited by the total size of the files</li>
+ * </ul>
+ * The file name is the SHA-256 hash of the service, voice, format and text. An index with the size, last use and text
+ * of the files is stored in the cache folder, so the folder is only listed once at startup to remove unknown files.
+ * New audio files are added to the index with a short delay, so that a series of new texts writes the index once.
+ * <p>
+ * Concurrent requests of the same text are synthesized once, the later requests wait for the first one.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+@Component(configurationPid = TTSCacheImpl.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + TTSCacheImpl.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Text-to-Speech Cache",
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:ttscache",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
+@NonNullByDefault
+public class TTSCacheImpl implements TTSCache {
+
+    static final String SERVICE_PID = "org.openhab.voice.ttscache";
+
+    /**
+     * Cache folder under $userdata
+     */
+    private static final String CACHE_FOLDER_NAME = "cache";
+
+    private static final String CONFIG_DISK_SIZE = "diskSize";
+    private static final String CONFIG_MEMORY_SIZE = "memorySize";
+    private static final long DEFAULT_DISK_SIZE_MB = 50;
+    private static final long DEFAULT_MEMORY_SIZE_MB = 5;
+    private static final long MB = 1024 * 1024;
+
+    static final String INDEX_FILE = "index.json";
+    private static final String AUDIO_FILE_EXTENSION = ".snd";
+    private static final int INDEX_SAVE_DELAY_SECONDS = 10;
+    private static final Type INDEX_TYPE = new TypeToken<LinkedHashMap<String, Entry>>() {
+    }.getType();
+
+    private final Logger logger = LoggerFactory.getLogger(TTSCacheImpl.class);
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("ttscache");
+
+    private @NonNullByDefault({}) File cacheFolder;
+    private long maxDiskSize;
+    private long maxMemorySize;
+
+    /** The audio files by key, in the order of their last use */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskSize;
+    /** The audio in memory by key, in the order of its last use */
+    private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    private boolean indexChanged;
+    private @Nullable ScheduledFuture<?> saveIndexJob;
+
+    /** The syntheses in progress by key */
+    private final Map<String, CompletableFuture<byte[]>> syntheses = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * An entry of the index
+     */
+    static class Entry {
+        String serviceId = "";
+        String text = "";
+        long size;
+        long lastUse;
+    }
+
+    /**
+     * Audio in memory, the service is needed to purge audio which is not stored on disk
+     */
+    private static class MemoryEntry {
+        final String serviceId;
+        final byte[] audio;
+
+        MemoryEntry(String serviceId, byte[] audio) {
+            this.serviceId = serviceId;
+            this.audio = audio;
+        }
+    }
+
+    @Activate
+    protected void activate(@Nullable Map<String, Object> config) {
+        File folder = new File(new File(ConfigConstants.getUserDataFolder(), CACHE_FOLDER_NAME), SERVICE_PID);
+        activate(folder, getSize(config, CONFIG_DISK_SIZE, DEFAULT_DISK_SIZE_MB),
+                getSize(config, CONFIG_MEMORY_SIZE, DEFAULT_MEMORY_SIZE_MB));
+        logger.debug("Using TTS cache folder {} with {} bytes on disk and {} bytes in memory",
+                cacheFolder.getAbsolutePath(), maxDiskSize, maxMemorySize);
+    }
+
+    @Modified
+    protected void modified(@Nullable Map<String, Object> config) {
+        synchronized (this) {
+            maxDiskSize = getSize(config, CONFIG_DISK_SIZE, DEFAULT_DISK_SIZE_MB);
+            maxMemorySize = getSize(config, CONFIG_MEMORY_SIZE, DEFAULT_MEMORY_SIZE_MB);
+            evict();
+        }
+        saveIndex();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        synchronized (this) {
+            ScheduledFuture<?> saveIndexJob = this.saveIndexJob;
+            if (saveIndexJob != null) {
+                saveIndexJob.cancel(false);
+                this.saveIndexJob = null;
+            }
+            // persist the last use of the entries
+            indexChanged = true;
+            memory.clear();
+            memorySize = 0;
+        }
+        saveIndex();
+    }
+
+    /**
+     * Loads the index of the cache folder and removes the files which are not in the index.
+     */
+    synchronized void activate(File cacheFolder, long maxDiskSize, long maxMemorySize) {
+        this.cacheFolder = cacheFolder;
+        this.maxDiskSize = maxDiskSize;
+        this.maxMemorySize = maxMemorySize;
+        if (!cacheFolder.exists()) {
+            cacheFolder.mkdirs();
+        }
+
+        entries.clear();
+        diskSize = 0;
+        memory.clear();
+        memorySize = 0;
+        File indexFile = new File(cacheFolder, INDEX_FILE);
+        if (indexFile.exists()) {
+            try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                Map<String, Entry> index = gson.fromJson(reader, INDEX_TYPE);
+                if (index != null) {
+                    // the index is stored in the order of the last use
+                    index.forEach((key, entry) -> {
+                        if (new File(cacheFolder, key + AUDIO_FILE_EXTENSION).length() == entry.size) {
+                            entries.put(key, entry);
+                            diskSize += entry.size;
+                        }
+                    });
+                }
+            } catch (IOException | JsonParseException e) {
+                logger.warn("Could not read the TTS cache index, the cache is cleared: {}", e.getMessage());
+            }
+        }
+
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!INDEX_FILE.equals(name) && !(name.endsWith(AUDIO_FILE_EXTENSION)
+                        && entries.containsKey(name.substring(0, name.length() - AUDIO_FILE_EXTENSION.length())))) {
+                    deleteFile(file);
+                }
+            }
+        }
+        evict();
+        saveIndex();
+    }
+
+    private static long getSize(@Nullable Map<String, Object> config, String parameter, long defaultMegaBytes) {
+        Object value = config != null ? config.get(parameter) : null;
+        double megaBytes = value != null ? Double.parseDouble(value.toString()) : defaultMegaBytes;
+        return (long) (Math.max(megaBytes, 0) * MB);
+    }
+
+    @Override
+    public AudioStream get(String serviceId, String voiceId, AudioFormat format, String text,
+            AudioSynthesizer synthesizer) throws TTSException {
+        String key = getKey(serviceId, voiceId, format, text);
+        byte[] audio = getAudio(key, serviceId, text);
+        if (audio != null) {
+            return new ByteArrayAudioStream(audio, format);
+        }
+
+        CompletableFuture<byte[]> synthesis = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = syntheses.putIfAbsent(key, synthesis);
+        if (running != null) {
+            // the same text is synthesized by another request
+            memoryHits.incrementAndGet();
+            logger.trace("TTS cache waits for the synthesis of '{}' of service {}", text, serviceId);
+            return new ByteArrayAudioStream(await(running), format);
+        }
+        try {
+            // the audio may have been added after the lookup above
+            audio = getAudio(key, serviceId, text);
+            if (audio == null) {
+                misses.incrementAndGet();
+                logger.debug("TTS cache miss for '{}' of service {}", text, serviceId);
+                audio = synthesizer.synthesize();
+                put(key, serviceId, text, audio);
+            }
+            synthesis.complete(audio);
+            return new ByteArrayAudioStream(audio, format);
+        } catch (TTSException | RuntimeException e) {
+            synthesis.completeExceptionally(e);
+            throw e;
+        } finally {
+            syntheses.remove(key);
+        }
+    }
+
+    @Override
+    public @Nullable AudioStream get(String serviceId, String voiceId, AudioFormat format, String text) {
+        byte[] audio = getAudio(getKey(serviceId, voiceId, format, text), serviceId, text);
+        if (audio == null) {
+            misses.incrementAndGet();
+            logger.debug("TTS cache miss for '{}' of service {}", text, serviceId);
+            return null;
+        }
+        return new ByteArrayAudioStream(audio, format);
+    }
+
+    @Override
+    public void put(String serviceId, String voiceId, AudioFormat format, String text, byte[] audio) {
+        put(getKey(serviceId, voiceId, format, text), serviceId, text, audio);
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> synthesis) throws TTSException {
+        try {
+            return synthesis.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTSException("Interrupted while waiting for the synthesis");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TTSException) {
+                throw (TTSException) cause;
+            }
+            throw new TTSException(cause);
+        }
+    }
+
+    /**
+     * Returns the audio from memory or disk and counts the hit.
+     *
+     * @return the audio or null if it is not in the cache
+     */
+    private byte @Nullable [] getAudio(String key, String serviceId, String text) {
+        Entry entry;
+        synchronized (this) {
+            MemoryEntry memoryEntry = memory.get(key);
+            entry = entries.get(key);
+            if (entry != null) {
+                entry.lastUse = System.currentTimeMillis();
+            }
+            if (memoryEntry != null) {
+                memoryHits.incrementAndGet();
+                logger.trace("TTS cache memory hit for '{}' of service {}", text, serviceId);
+                return memoryEntry.audio;
+            }
+        }
+
+        if (entry != null) {
+            try {
+                byte[] audio = Files.readAllBytes(getFile(key).toPath());
+                diskHits.incrementAndGet();
+                logger.trace("TTS cache disk hit for '{}' of service {}", text, serviceId);
+                synchronized (this) {
+                    putMemory(key, serviceId, audio);
+                }
+                return audio;
+            } catch (IOException e) {
+                logger.debug("Could not read cached audio for '{}' of service {}: {}", text, serviceId,
+                        e.getMessage());
+                synchronized (this) {
+                    remove(key);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void purge(String serviceId) {
+        purgeUnused(serviceId, 0);
+        logger.debug("TTS cache of service {} purged", serviceId);
+    }
+
+    @Override
+    public void purgeUnused(String serviceId, long maxAgeMillis) {
+        long oldestUse = System.currentTimeMillis() - maxAgeMillis;
+        synchronized (this) {
+            List<String> keys = new ArrayList<>();
+            entries.forEach((key, entry) -> {
+                if (entry.serviceId.equals(serviceId) && entry.lastUse <= oldestUse) {
+                    keys.add(key);
+                }
+            });
+            keys.forEach(this::remove);
+            if (maxAgeMillis == 0) {
+                // audio of the service which was not stored on disk
+                keys.clear();
+                memory.forEach((key, memoryEntry) -> {
+                    if (memoryEntry.serviceId.equals(serviceId)) {
+                        keys.add(key);
+                    }
+                });
+                keys.forEach(this::removeMemory);
+            }
+        }
+        saveIndex();
+    }
+
+    @Override
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    @Override
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private void put(String key, String serviceId, String text, byte[] audio) {
+        boolean stored = false;
+        if (audio.length <= maxDiskSize) {
+            File file = getFile(key);
+            File tempFile = new File(cacheFolder, key + ".tmp");
+            try {
+                Files.write(tempFile.toPath(), audio);
+                move(tempFile, file);
+                stored = true;
+            } catch (IOException e) {
+                logger.warn("Could not write {} to the TTS cache: {}", file, e.getMessage());
+                deleteFile(tempFile);
+            }
+        }
+
+        synchronized (this) {
+            putMemory(key, serviceId, audio);
+            if (stored) {
+                Entry entry = new Entry();
+                entry.serviceId = serviceId;
+                entry.text = text;
+                entry.size = audio.length;
+                entry.lastUse = System.currentTimeMillis();
+                Entry previous = entries.put(key, entry);
+                if (previous != null) {
+                    diskSize -= previous.size;
+                }
+                diskSize += entry.size;
+                indexChanged = true;
+                evict();
+                scheduleSaveIndex();
+            }
+        }
+    }
+
+    private void putMemory(String key, String serviceId, byte[] audio) {
+        // audio that fills a large part of the memory would displace everything else
+        if (audio.length <= maxMemorySize / 4) {
+            MemoryEntry previous = memory.put(key, new MemoryEntry(serviceId, audio));
+            if (previous != null) {
+                memorySize -= previous.audio.length;
+            }
+            memorySize += audio.length;
+            evict();
+        }
+    }
+
+    /**
+     * Removes the least recently used audio until the sizes are within the limits.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, MemoryEntry>> memoryIterator = memory.entrySet().iterator();
+        while (memorySize > maxMemorySize && memoryIterator.hasNext()) {
+            memorySize -= memoryIterator.next().getValue().audio.length;
+            memoryIterator.remove();
+        }
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (diskSize > maxDiskSize && iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            diskSize -= entry.getValue().size;
+            iterator.remove();
+            deleteFile(getFile(entry.getKey()));
+            indexChanged = true;
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            diskSize -= entry.size;
+            deleteFile(getFile(key));
+            indexChanged = true;
+        }
+        removeMemory(key);
+    }
+
+    private void removeMemory(String key) {
+        MemoryEntry memoryEntry = memory.remove(key);
+        if (memoryEntry != null) {
+            memorySize -= memoryEntry.audio.length;
+        }
+    }
+
+    /**
+     * Writes the index after a delay, unless it is already scheduled.
+     */
+    private void scheduleSaveIndex() {
+        if (saveIndexJob == null) {
+            saveIndexJob = scheduler.schedule(this::saveIndex, INDEX_SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Writes the index if it was changed.
+     */
+    private void saveIndex() {
+        String json;
+        synchronized (this) {
+            saveIndexJob = null;
+            if (!indexChanged) {
+                return;
+            }
+            indexChanged = false;
+            // the entries are iterated in the order of their last use
+            Map<String, Entry> index = new LinkedHashMap<>();
+            entries.forEach(index::put);
+            json = gson.toJson(index, INDEX_TYPE);
+        }
+        File indexFile = new File(cacheFolder, INDEX_FILE);
+        File tempFile = new File(cacheFolder, INDEX_FILE + ".tmp");
+        synchronized (gson) {
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(json);
+            } catch (IOException e) {
+                logger.warn("Could not write the TTS cache index: {}", e.getMessage());
+                return;
+            }
+            try {
+                move(tempFile, indexFile);
+            } catch (IOException e) {
+                logger.warn("Could not write the TTS cache index: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            logger.debug("Could not delete {} from the TTS cache", file);
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(cacheFolder, key + AUDIO_FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the SHA-256 hash of the service, voice, format and text as hex string.
+     */
+    static String getKey(String serviceId, String voiceId, AudioFormat format, String text) {
+        StringBuilder content = new StringBuilder();
+        content.append(serviceId).append('\0').append(voiceId).append('\0').append(format.getContainer())
+                .append('/').append(format.getCodec()).append('/').append(format.isBigEndian()).append('/')
+                .append(format.getBitDepth()).append('/').append(format.getBitRate()).append('/')
+                .append(format.getFrequency()).append('\0').append(text);
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link TTSCacheImpl}.
+ *
+ * @author Contributors to the openHAB project - Initial contribution
+ */
+public class TTSCacheImplTest {
+
+    private static final String SERVICE = "test";
+    private static final String VOICE = "test:voice";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger syntheses = new AtomicInteger();
+    private TTSCacheImpl cache;
+    private File cacheFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFolder = folder.newFolder();
+        cache = new TTSCacheImpl();
+        cache.activate(cacheFolder, 1000, 400);
+    }
+
+    private byte[] get(String text, int size) throws TTSException, IOException {
+        return get(SERVICE, text, size);
+    }
+
+    private byte[] get(String serviceId, String text, int size) throws TTSException, IOException {
+        AudioStream stream = cache.get(serviceId, VOICE, AudioFormat.MP3, text, () -> {
+            syntheses.incrementAndGet();
+            byte[] audio = new byte[size];
+            audio[0] = (byte) text.charAt(0);
+            return audio;
+        });
+        byte[] audio = new byte[size];
+        assertEquals(size, stream.read(audio));
+        return audio;
+    }
+
+    private static void await(CountDownLatch latch) throws TTSException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new TTSException("interrupted");
+        }
+    }
+
+    @Test
+    public void repeatedTextIsSynthesizedOnce() throws TTSException, IOException {
+        assertEquals('a', get("a", 10)[0]);
+        assertEquals('a', get("a", 10)[0]);
+
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    @Test
+    public void audioIsReadFromDiskAfterRestart() throws TTSException, IOException {
+        get("a", 10);
+        cache.deactivate();
+
+        cache = new TTSCacheImpl();
+        cache.activate(cacheFolder, 1000, 400);
+        assertEquals('a', get("a", 10)[0]);
+
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getDiskHits());
+    }
+
+    @Test
+    public void leastRecentlyUsedAudioIsRemoved() throws TTSException, IOException {
+        get("a", 400);
+        get("b", 400);
+        get("a", 400);
+        get("c", 400);
+
+        // b was used least recently
+        assertEquals(3, syntheses.get());
+        get("a", 400);
+        get("c", 400);
+        assertEquals(3, syntheses.get());
+        get("b", 400);
+        assertEquals(4, syntheses.get());
+        assertEquals(2, cacheFolder.list((dir, name) -> name.endsWith(".snd")).length);
+    }
+
+    @Test
+    public void concurrentRequestsAreSynthesizedOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AudioStream> first = executor.submit(() -> cache.get(SERVICE, VOICE, AudioFormat.MP3, "a", () -> {
+                syntheses.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new byte[] { 'a' };
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<AudioStream> second = executor.submit(() -> cache.get(SERVICE, VOICE, AudioFormat.MP3, "a", () -> {
+                syntheses.incrementAndGet();
+                return new byte[] { 'b' };
+            }));
+            // let the second request find the running synthesis
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals('a', first.get(5, TimeUnit.SECONDS).read());
+            assertEquals('a', second.get(5, TimeUnit.SECONDS).read());
+            assertEquals(1, syntheses.get());
+            assertEquals(1, cache.getMisses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedSynthesisIsReportedToAllRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AudioStream> first = executor.submit(() -> cache.get(SERVICE, VOICE, AudioFormat.MP3, "a", () -> {
+                started.countDown();
+                await(release);
+                throw new TTSException("failed");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<AudioStream> second = executor.submit(() -> cache.get(SERVICE, VOICE, AudioFormat.MP3, "a", () -> {
+                syntheses.incrementAndGet();
+                return new byte[] { 'b' };
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<AudioStream> request : Arrays.asList(first, second)) {
+                try {
+                    request.get(5, TimeUnit.SECONDS);
+                    fail("the synthesis failed");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof TTSException);
+                }
+            }
+            assertEquals(0, syntheses.get());
+
+            // a later request synthesizes again
+            assertEquals('b', get("b", 1)[0]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void purgeRemovesTheAudioOfTheService() throws TTSException, IOException {
+        get("a", 10);
+        cache.purge(SERVICE);
+        get("a", 10);
+
+        assertEquals(2, syntheses.get());
+    }
+
+    @Test
+    public void purgeKeepsTheAudioInMemoryOfOtherServices() throws TTSException, IOException {
+        // without disk space the audio is only kept in memory
+        cache.activate(cacheFolder, 0, 400);
+        get("a", 10);
+        get("other", "a", 10);
+        cache.purge(SERVICE);
+
+        get("other", "a", 10);
+        assertEquals(2, syntheses.get());
+        get("a", 10);
+        assertEquals(3, syntheses.get());
+    }
+
+    @Test
+    public void unknownFilesAreRemovedAtStartup() throws IOException {
+        File unknown = new File(cacheFolder, "unknown.snd");
+        assertTrue(unknown.createNewFile());
+
+        cache.activate(cacheFolder, 1000, 400);
+
+        assertFalse(unknown.exists());
+    }
+
+    @Test
+    public void keyDependsOnVoiceAndFormat() {
+        String key = TTSCacheImpl.getKey(SERVICE, VOICE, AudioFormat.MP3, "a");
+        assertEquals(64, key.length());
+        assertNotEquals(key, TTSCacheImpl.getKey(SERVICE, "other", AudioFormat.MP3, "a"));
+        assertNotEquals(key, TTSCacheImpl.getKey(SERVICE, VOICE, AudioFormat.WAV, "a"));
+    }
+}
@@ -14,24 +14,28 @@ package org.openhab.voice.voicerss.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImpl;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +44,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Jochen Hiller - Initial contribution and API
  * @author Laurent Garnier - add support for OGG and AAC audio formats
+ * @author Contributors to the openHAB project - Use the shared TTS cache
  */
 @Component(configurationPid = "org.openhab.voicerss", property = { Constants.SERVICE_PID + "=org.openhab.voicerss",
         ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:voicerss",
@@ -47,7 +52,7 @@ import org.slf4j.LoggerFactory;
         ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class VoiceRSSTTSService implements TTSService {
 
-    /** Cache folder name is below userdata/voicerss/cache. */
+    /** Folder name of a prefilled cache is below userdata/voicerss/cache. */
     private static final String CACHE_FOLDER_NAME = "voicerss" + File.separator + "cache";
 
     // API Key comes from ConfigAdmin
@@ -57,10 +62,12 @@ public class VoiceRSSTTSService implements TTSService {
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
+     * The cached implementation provides the audio of a prefilled cache folder.
      */
     private CachedVoiceRSSCloudImpl voiceRssImpl;
 
+    private TTSCache ttsCache;
+
     /**
      * Set of supported voices
      */
@@ -81,7 +88,7 @@ public class VoiceRSSTTSService implements TTSService {
             voices = initVoices();
             audioFormats = initAudioFormats();
 
-            logger.debug("Using VoiceRSS cache folder {}", getCacheFolderName());
+            logger.debug("Using prefilled VoiceRSS cache folder {}", getCacheFolderName());
         } catch (IllegalStateException e) {
             logger.error("Failed to activate VoiceRSS: {}", e.getMessage(), e);
         }
@@ -94,6 +101,15 @@ public class VoiceRSSTTSService implements TTSService {
         }
     }
 
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return Collections.unmodifiableSet(voices);
@@ -136,15 +152,21 @@ public class VoiceRSSTTSService implements TTSService {
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
+        String locale = voice.getLocale().toLanguageTag();
+        String apiAudioFormat = getApiAudioFormat(requestedFormat);
+        return ttsCache.get(getId(), voice.getUID(), requestedFormat, trimmedText,
+                () -> getTextToSpeech(trimmedText, locale, apiAudioFormat));
+    }
+
+    private byte[] getTextToSpeech(String text, String locale, String apiAudioFormat) throws TTSException {
         try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(apiKey, trimmedText,
-                    voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from VoiceRSS service");
+            File prefilledAudioFile = voiceRssImpl.getCachedTextToSpeechFile(text, locale, apiAudioFormat);
+            if (prefilledAudioFile != null) {
+                return Files.readAllBytes(prefilledAudioFile.toPath());
+            }
+            try (InputStream audio = voiceRssImpl.getTextToSpeech(apiKey, text, locale, apiAudioFormat)) {
+                return IOUtils.toByteArray(audio);
             }
-            return new VoiceRSSAudioStream(cacheAudioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
         } catch (IOException ex) {
             throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
         }
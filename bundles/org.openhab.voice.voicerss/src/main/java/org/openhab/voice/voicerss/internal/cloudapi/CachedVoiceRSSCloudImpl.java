@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
  * what content is in the audio file.
  *
  * @author Jochen Hiller - Initial contribution
+ * @author Contributors to the openHAB project - Lookup of prefilled audio files
  */
 public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
 
@@ -55,6 +56,18 @@ public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
         }
     }
 
+    /**
+     * Returns the audio file of a text if it is in the cache folder, e.g. if the cache was prefilled with the
+     * {@link org.openhab.voice.voicerss.tool.CreateTTSCache} tool.
+     *
+     * @return the audio file or null if the text is not in the cache folder
+     */
+    public File getCachedTextToSpeechFile(String text, String locale, String audioFormat) {
+        File audioFileInCache = new File(cacheFolder,
+                getUniqueFilenameForText(text, locale) + "." + audioFormat.toLowerCase());
+        return audioFileInCache.exists() ? audioFileInCache : null;
+    }
+
     public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
             throws IOException {
         String fileNameInCache = getUniqueFilenameForText(text, locale);